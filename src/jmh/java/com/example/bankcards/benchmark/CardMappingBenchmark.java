@@ -0,0 +1,84 @@
+package com.example.bankcards.benchmark;
+
+import com.example.bankcards.dto.CardDto;
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.CardStatus;
+import com.example.bankcards.entity.Role;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.service.CardService;
+import com.example.bankcards.util.CardUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-card and per-request mapping costs: entity to DTO (one AES decryption per card) and roles to authorities
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CardMappingBenchmark {
+
+    private MethodHandle mapToDto;
+    private CardService cardService;
+    private User user;
+    private Card card;
+
+    @Setup
+    public void setUp() throws ReflectiveOperationException {
+        CardUtil cardUtil = new CardUtil(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(cardUtil, "secretKey", "YourSecretKey123");
+        cardService = new CardService(null, null, cardUtil, null);
+        mapToDto = MethodHandles.privateLookupIn(CardService.class, MethodHandles.lookup())
+            .findVirtual(CardService.class, "mapToDto", MethodType.methodType(CardDto.class, Card.class));
+
+        user = new User();
+        user.setId(1L);
+        user.setUsername("benchmarkUser");
+        user.setRoles(Set.of(new Role(2L, "USER")));
+
+        card = new Card();
+        card.setId(1L);
+        card.setNumber(cardUtil.encrypt("1234567890123456"));
+        card.setOwner(user);
+        card.setExpirationDate(LocalDate.now().plusYears(3));
+        card.setStatus(CardStatus.ACTIVE);
+        card.setBalance(new BigDecimal("1000.00"));
+    }
+
+    @Benchmark
+    public CardDto mapToDto() {
+        try {
+            return (CardDto) mapToDto.invokeExact(cardService, card);
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Benchmark
+    public Collection<? extends GrantedAuthority> userAuthorities() {
+        return user.getAuthorities();
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.bankcards.benchmark;
+
+import com.example.bankcards.dto.CardDto;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON rendering of a {@code Page<CardDto>} as returned by {@code GET /api/cards}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CardPageSerializationBenchmark {
+
+    @Param({"10", "100"})
+    private int pageSize;
+
+    private Page<CardDto> page;
+    private ObjectMapper objectMapper;
+
+    @Setup
+    public void setUp() {
+        List<CardDto> content = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            CardDto dto = new CardDto();
+            dto.setId((long) i);
+            dto.setMaskedNumber("**** **** **** 3456");
+            dto.setOwnerId(1L);
+            dto.setExpirationDate(LocalDate.now().plusYears(3));
+            dto.setStatus("ACTIVE");
+            dto.setBalance(new BigDecimal("1000.00"));
+            content.add(dto);
+        }
+        page = new PageImpl<>(content, PageRequest.of(0, pageSize), 10_000);
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    }
+
+    @Benchmark
+    public byte[] serializeCardPage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(page);
+    }
+}
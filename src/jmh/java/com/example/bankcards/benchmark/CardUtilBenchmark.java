@@ -0,0 +1,51 @@
+package com.example.bankcards.benchmark;
+
+import com.example.bankcards.util.CardUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CardUtilBenchmark {
+
+    private CardUtil cardUtil;
+    private String encrypted;
+
+    @Setup
+    public void setUp() {
+        cardUtil = new CardUtil(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(cardUtil, "secretKey", "YourSecretKey123");
+        encrypted = cardUtil.encrypt("1234567890123456");
+    }
+
+    @Benchmark
+    public String encrypt() {
+        return cardUtil.encrypt("1234567890123456");
+    }
+
+    @Benchmark
+    public String decrypt() {
+        return cardUtil.decrypt(encrypted);
+    }
+
+    @Benchmark
+    public String mask() {
+        return cardUtil.mask(encrypted);
+    }
+}
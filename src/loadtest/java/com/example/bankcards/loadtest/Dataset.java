@@ -0,0 +1,17 @@
+package com.example.bankcards.loadtest;
+
+import java.util.List;
+
+/**
+ * Seeded users with their JWT tokens and card ids. The first account owns the hot cards
+ * that receive all transfer traffic.
+ */
+public record Dataset(String password, List<Account> accounts, List<Long> hotCardIds) {
+
+    public Account hotAccount() {
+        return accounts.get(0);
+    }
+
+    public record Account(String username, String token, List<Long> cardIds) {
+    }
+}
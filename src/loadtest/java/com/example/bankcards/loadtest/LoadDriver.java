@@ -0,0 +1,156 @@
+package com.example.bankcards.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-model load generator: requests are issued at a fixed rate regardless of how fast
+ * the server answers, and latency is measured from the intended send time, so a stalled
+ * server shows up in the percentiles instead of silently lowering the offered load.
+ */
+public class LoadDriver {
+
+    private static final long MAX_LATENCY_NANOS = TimeUnit.MINUTES.toNanos(1);
+    private static final Duration DRAIN_TIMEOUT = Duration.ofSeconds(30);
+
+    private final HttpClient client = HttpClient.newBuilder()
+        .connectTimeout(Duration.ofSeconds(5))
+        .build();
+    private final URI baseUri;
+    private final LoadTestSettings settings;
+    private final Dataset dataset;
+    private final Operation[] schedule;
+
+    private final Map<Operation, Histogram> latencies = new EnumMap<>(Operation.class);
+    private final Map<Operation, Map<String, LongAdder>> outcomes = new EnumMap<>(Operation.class);
+    private final AtomicLong inFlight = new AtomicLong();
+
+    public LoadDriver(URI baseUri, LoadTestSettings settings, Dataset dataset) {
+        this.baseUri = baseUri;
+        this.settings = settings;
+        this.dataset = dataset;
+        this.schedule = buildSchedule(settings.mix());
+        for (Operation operation : Operation.values()) {
+            latencies.put(operation, new ConcurrentHistogram(MAX_LATENCY_NANOS, 3));
+            outcomes.put(operation, new ConcurrentHashMap<>());
+        }
+    }
+
+    /**
+     * Runs warmup and measurement phases and waits for outstanding responses.
+     *
+     * @return wall-clock length of the measurement phase in nanoseconds
+     */
+    public long run() throws InterruptedException {
+        long interval = TimeUnit.SECONDS.toNanos(1) / settings.rate();
+        long start = System.nanoTime();
+        long measureFrom = start + settings.warmup().toNanos();
+        long end = measureFrom + settings.duration().toNanos();
+        for (long i = 0; ; i++) {
+            long intended = start + i * interval;
+            if (intended >= end) {
+                break;
+            }
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            Operation operation = schedule[ThreadLocalRandom.current().nextInt(schedule.length)];
+            send(operation, intended, intended >= measureFrom);
+        }
+        long deadline = System.nanoTime() + DRAIN_TIMEOUT.toNanos();
+        while (inFlight.get() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        return end - measureFrom;
+    }
+
+    /**
+     * Requests still without a response after the drain timeout; they are not in the histograms.
+     */
+    public long unfinished() {
+        return inFlight.get();
+    }
+
+    public Map<Operation, Histogram> latencies() {
+        return latencies;
+    }
+
+    public Map<Operation, Map<String, LongAdder>> outcomes() {
+        return outcomes;
+    }
+
+    private void send(Operation operation, long intended, boolean measured) {
+        inFlight.incrementAndGet();
+        client.sendAsync(request(operation), HttpResponse.BodyHandlers.discarding())
+            .whenComplete((response, error) -> {
+                long latency = System.nanoTime() - intended;
+                inFlight.decrementAndGet();
+                if (!measured) {
+                    return;
+                }
+                latencies.get(operation).recordValue(Math.min(latency, MAX_LATENCY_NANOS));
+                String outcome = error != null ? error.getClass().getSimpleName() : String.valueOf(response.statusCode());
+                outcomes.get(operation).computeIfAbsent(outcome, k -> new LongAdder()).increment();
+            });
+    }
+
+    private HttpRequest request(Operation operation) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Dataset.Account account = dataset.accounts().get(random.nextInt(dataset.accounts().size()));
+        return switch (operation) {
+            case LOGIN -> json(HttpRequest.newBuilder(baseUri.resolve("/api/auth/login")),
+                "{\"username\":\"" + account.username() + "\",\"password\":\"" + dataset.password() + "\"}")
+                .build();
+            case LIST -> HttpRequest.newBuilder(baseUri.resolve("/api/cards?page=0&size=10"))
+                .header("Authorization", "Bearer " + account.token())
+                .GET()
+                .build();
+            case GET -> HttpRequest.newBuilder(baseUri.resolve("/api/cards/" + account.cardIds().get(random.nextInt(account.cardIds().size()))))
+                .header("Authorization", "Bearer " + account.token())
+                .GET()
+                .build();
+            case TRANSFER -> {
+                Dataset.Account hot = dataset.hotAccount();
+                List<Long> hotCards = dataset.hotCardIds();
+                int from = random.nextInt(hotCards.size());
+                int to = (from + 1 + random.nextInt(hotCards.size() - 1)) % hotCards.size();
+                yield json(HttpRequest.newBuilder(baseUri.resolve("/api/transfers")),
+                    "{\"fromCardId\":" + hotCards.get(from) + ",\"toCardId\":" + hotCards.get(to) + ",\"amount\":1.00}")
+                    .header("Authorization", "Bearer " + hot.token())
+                    .build();
+            }
+        };
+    }
+
+    private static HttpRequest.Builder json(HttpRequest.Builder builder, String body) {
+        return builder.header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(body));
+    }
+
+    private static Operation[] buildSchedule(Map<Operation, Integer> mix) {
+        List<Operation> slots = new ArrayList<>();
+        mix.forEach((operation, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                slots.add(operation);
+            }
+        });
+        return slots.toArray(Operation[]::new);
+    }
+}
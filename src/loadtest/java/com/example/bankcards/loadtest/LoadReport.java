@@ -0,0 +1,108 @@
+package com.example.bankcards.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes per-operation throughput, latency percentiles and error rates as JSON (for diffing
+ * between builds) and as a plain-text table.
+ */
+public final class LoadReport {
+
+    private static final DateTimeFormatter FILE_SUFFIX = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private LoadReport() {
+    }
+
+    public static Path write(LoadTestSettings settings, LoadDriver driver, long measuredNanos) throws IOException {
+        double seconds = measuredNanos / (double) TimeUnit.SECONDS.toNanos(1);
+        Map<String, Object> operations = new LinkedHashMap<>();
+        long totalRequests = 0;
+        long totalErrors = 0;
+        for (Operation operation : Operation.values()) {
+            Histogram histogram = driver.latencies().get(operation);
+            Map<String, Long> statuses = new TreeMap<>();
+            driver.outcomes().get(operation).forEach((status, count) -> statuses.put(status, count.sum()));
+            long requests = histogram.getTotalCount();
+            long errors = statuses.entrySet().stream()
+                .filter(e -> !e.getKey().startsWith("2"))
+                .mapToLong(Map.Entry::getValue)
+                .sum();
+            totalRequests += requests;
+            totalErrors += errors;
+            if (requests == 0) {
+                continue;
+            }
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("requests", requests);
+            stats.put("throughputPerSecond", round(requests / seconds));
+            stats.put("errorRate", round(errors / (double) requests));
+            stats.put("p50Millis", millis(histogram.getValueAtPercentile(50)));
+            stats.put("p99Millis", millis(histogram.getValueAtPercentile(99)));
+            stats.put("p999Millis", millis(histogram.getValueAtPercentile(99.9)));
+            stats.put("maxMillis", millis(histogram.getMaxValue()));
+            stats.put("statuses", statuses);
+            operations.put(operation.name().toLowerCase(), stats);
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("label", settings.label());
+        report.put("timestamp", LocalDateTime.now().toString());
+        report.put("java", System.getProperty("java.version"));
+        report.put("profiles", settings.profiles());
+        report.put("targetRate", settings.rate());
+        report.put("durationSeconds", round(seconds));
+        report.put("users", settings.users());
+        report.put("cardsPerUser", settings.cardsPerUser());
+        report.put("hotCards", settings.hotCards());
+        report.put("mix", settings.mix());
+        report.put("requests", totalRequests);
+        report.put("throughputPerSecond", round(totalRequests / seconds));
+        report.put("errorRate", totalRequests == 0 ? 0 : round(totalErrors / (double) totalRequests));
+        report.put("unfinished", driver.unfinished());
+        report.put("operations", operations);
+
+        Files.createDirectories(settings.outputDir());
+        String name = "report-" + settings.label() + "-" + LocalDateTime.now().format(FILE_SUFFIX);
+        Path json = settings.outputDir().resolve(name + ".json");
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(json.toFile(), report);
+        Files.writeString(settings.outputDir().resolve(name + ".txt"), table(report, operations));
+        return json;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static String table(Map<String, Object> report, Map<String, Object> operations) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("label=%s profiles=%s rate=%s/s duration=%ss throughput=%s/s errors=%s unfinished=%s%n",
+            report.get("label"), report.get("profiles"), report.get("targetRate"), report.get("durationSeconds"),
+            report.get("throughputPerSecond"), report.get("errorRate"), report.get("unfinished")));
+        sb.append(String.format("%-10s %9s %9s %8s %9s %9s %9s %9s%n",
+            "operation", "requests", "req/s", "errors", "p50 ms", "p99 ms", "p999 ms", "max ms"));
+        operations.forEach((name, value) -> {
+            Map<String, Object> stats = (Map<String, Object>) value;
+            sb.append(String.format("%-10s %9s %9s %8s %9s %9s %9s %9s%n", name,
+                stats.get("requests"), stats.get("throughputPerSecond"), stats.get("errorRate"),
+                stats.get("p50Millis"), stats.get("p99Millis"), stats.get("p999Millis"), stats.get("maxMillis")));
+        });
+        return sb.toString();
+    }
+
+    private static double millis(long nanos) {
+        return round(nanos / 1_000_000.0);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 1000) / 1000.0;
+    }
+}
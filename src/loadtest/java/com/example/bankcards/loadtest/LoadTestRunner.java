@@ -0,0 +1,175 @@
+package com.example.bankcards.loadtest;
+
+import com.example.bankcards.BankCardsApplication;
+import com.example.bankcards.dto.CardCreationDto;
+import com.example.bankcards.dto.UserCreationDto;
+import com.example.bankcards.dto.UserDto;
+import com.example.bankcards.service.CardService;
+import com.example.bankcards.service.UserService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Boots the application against an embedded PostgreSQL (real Liquibase migrations), seeds
+ * users and cards, drives the mixed workload and writes a report to {@code target/loadtest}.
+ *
+ * <pre>
+ * mvn -Ploadtest test-compile exec:exec -Dloadtest.args="rate=300 duration=120 label=feature-x"
+ * mvn -Pjava21,loadtest test-compile exec:exec -Dloadtest.args="rate=200 duration=60 label=vt profiles=virtual-threads"
+ * </pre>
+ */
+public class LoadTestRunner {
+
+    private static final String PASSWORD = "loadtest-password";
+    private static final BigDecimal BALANCE = new BigDecimal("1000.00");
+    private static final BigDecimal HOT_BALANCE = new BigDecimal("100000000.00");
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    public static void main(String[] args) throws Exception {
+        LoadTestSettings settings = LoadTestSettings.parse(args);
+        try (EmbeddedPostgres postgres = EmbeddedPostgres.builder().start();
+             ConfigurableApplicationContext context = startApplication(postgres, settings.profiles())) {
+            LoadTestRunner runner = new LoadTestRunner();
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            URI baseUri = URI.create("http://localhost:" + port);
+
+            seed(context, settings);
+            Dataset dataset = runner.login(baseUri, settings);
+
+            LoadDriver driver = new LoadDriver(baseUri, settings, dataset);
+            long measured = driver.run();
+            Path report = LoadReport.write(settings, driver, measured);
+            System.out.println(Files.readString(Path.of(report.toString().replace(".json", ".txt"))));
+            System.out.println("Report written to " + report.toAbsolutePath());
+        }
+        System.exit(0);
+    }
+
+    private static ConfigurableApplicationContext startApplication(EmbeddedPostgres postgres, String profiles) {
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(BankCardsApplication.class);
+        if (!profiles.isBlank()) {
+            // Например profiles=virtual-threads для сравнения с платформенными потоками (нужен Java 21)
+            builder.profiles(profiles.split(","));
+        }
+        return builder.run(
+            "--spring.datasource.url=" + postgres.getJdbcUrl("postgres", "postgres") + "&reWriteBatchedInserts=true",
+            "--spring.datasource.username=postgres",
+            "--spring.datasource.password=",
+            "--server.port=0",
+            "--management.server.port=0",
+            "--cards.expiration.cron=-",
+            "--outbox.relay.enabled=true",
+            "--outbox.sink.type=file",
+            "--outbox.sink.file=target/loadtest/outbox-events.jsonl",
+            // Шторм по горячим картам - это сотни переводов одного пользователя в секунду: скрининг отвечал бы 429/400,
+            // а дневной лимит исчерпался бы за секунды, и прогон измерял бы отказы вместо переводов
+            "--transfers.screening.enabled=false",
+            "--transfers.limits.enabled=false",
+            "--logging.level.root=WARN"
+        );
+    }
+
+    /**
+     * Creates users and cards through the bulk service methods. The first user owns the hot cards.
+     */
+    private static void seed(ConfigurableApplicationContext context, LoadTestSettings settings) {
+        UserService userService = context.getBean("userService", UserService.class);
+        CardService cardService = context.getBean(CardService.class);
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+            "loadtest", null, AuthorityUtils.createAuthorityList("ROLE_ADMIN")));
+        try {
+            List<UserCreationDto> users = new ArrayList<>();
+            for (int i = 0; i < settings.users(); i++) {
+                UserCreationDto dto = new UserCreationDto();
+                dto.setUsername(username(i));
+                dto.setPassword(PASSWORD);
+                dto.setEmail(username(i) + "@loadtest.local");
+                dto.setRoles(Set.of("USER"));
+                users.add(dto);
+            }
+            userService.createUsers(users);
+
+            List<CardCreationDto> cards = new ArrayList<>();
+            long number = 0;
+            long afterId = 0;
+            List<UserDto> page;
+            while (!(page = userService.getUsers(afterId, UserService.MAX_PAGE_SIZE)).isEmpty()) {
+                for (UserDto user : page) {
+                    boolean hot = user.getUsername().equals(username(0));
+                    int count = hot ? Math.max(settings.hotCards(), settings.cardsPerUser()) : settings.cardsPerUser();
+                    for (int c = 0; c < count; c++) {
+                        CardCreationDto dto = new CardCreationDto();
+                        dto.setNumber(String.format("4%015d", ++number));
+                        dto.setOwnerId(user.getId());
+                        dto.setExpirationDate(LocalDate.now().plusYears(3));
+                        dto.setBalance(hot ? HOT_BALANCE : BALANCE);
+                        cards.add(dto);
+                    }
+                }
+                afterId = page.get(page.size() - 1).getId();
+            }
+            cardService.createCards(cards);
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    /**
+     * Logs every user in over HTTP and collects their card ids.
+     */
+    private Dataset login(URI baseUri, LoadTestSettings settings) throws IOException, InterruptedException {
+        List<Dataset.Account> accounts = new ArrayList<>();
+        for (int i = 0; i < settings.users(); i++) {
+            String username = username(i);
+            JsonNode login = call(HttpRequest.newBuilder(baseUri.resolve("/api/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(
+                    "{\"username\":\"" + username + "\",\"password\":\"" + PASSWORD + "\"}"))
+                .build());
+            String token = login.get("token").asText();
+            JsonNode cards = call(HttpRequest.newBuilder(baseUri.resolve("/api/cards?page=0&size=100"))
+                .header("Authorization", "Bearer " + token)
+                .GET()
+                .build());
+            List<Long> cardIds = new ArrayList<>();
+            cards.get("content").forEach(card -> cardIds.add(card.get("id").asLong()));
+            accounts.add(new Dataset.Account(username, token, cardIds));
+        }
+        List<Long> hotCardIds = accounts.get(0).cardIds().subList(0, settings.hotCards());
+        return new Dataset(PASSWORD, accounts, hotCardIds);
+    }
+
+    private JsonNode call(HttpRequest request) throws IOException, InterruptedException {
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException(request.uri() + " returned " + response.statusCode() + ": " + response.body());
+        }
+        return objectMapper.readTree(response.body());
+    }
+
+    private static String username(int index) {
+        return "lt-user-" + index;
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.bankcards.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Load test parameters parsed from {@code key=value} command line arguments.
+ *
+ * <pre>
+ * rate=200 warmup=10 duration=60 users=100 cardsPerUser=3 hotCards=2
+ * mix=login:5,list:35,get:40,transfer:20 label=local out=target/loadtest profiles=virtual-threads
+ * </pre>
+ */
+public record LoadTestSettings(int rate,
+                               Duration warmup,
+                               Duration duration,
+                               int users,
+                               int cardsPerUser,
+                               int hotCards,
+                               Map<Operation, Integer> mix,
+                               String label,
+                               Path outputDir,
+                               String profiles) {
+
+    public static LoadTestSettings parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq <= 0) {
+                throw new IllegalArgumentException("Expected key=value argument: " + arg);
+            }
+            values.put(arg.substring(0, eq), arg.substring(eq + 1));
+        }
+        LoadTestSettings settings = new LoadTestSettings(
+            Integer.parseInt(values.getOrDefault("rate", "200")),
+            Duration.ofSeconds(Long.parseLong(values.getOrDefault("warmup", "10"))),
+            Duration.ofSeconds(Long.parseLong(values.getOrDefault("duration", "60"))),
+            Integer.parseInt(values.getOrDefault("users", "100")),
+            Integer.parseInt(values.getOrDefault("cardsPerUser", "3")),
+            Integer.parseInt(values.getOrDefault("hotCards", "2")),
+            parseMix(values.getOrDefault("mix", "login:5,list:35,get:40,transfer:20")),
+            values.getOrDefault("label", "local"),
+            Path.of(values.getOrDefault("out", "target/loadtest")),
+            values.getOrDefault("profiles", "")
+        );
+        if (settings.rate <= 0 || settings.users <= 0 || settings.cardsPerUser <= 0 || settings.hotCards < 2) {
+            throw new IllegalArgumentException("rate, users and cardsPerUser must be positive, hotCards at least 2");
+        }
+        return settings;
+    }
+
+    private static Map<Operation, Integer> parseMix(String value) {
+        Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+        for (String part : value.split(",")) {
+            String[] weight = part.split(":");
+            mix.put(Operation.valueOf(weight[0].trim().toUpperCase()), Integer.parseInt(weight[1].trim()));
+        }
+        if (mix.values().stream().mapToInt(Integer::intValue).sum() <= 0) {
+            throw new IllegalArgumentException("Workload mix must have a positive total weight");
+        }
+        return mix;
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.bankcards.loadtest;
+
+/**
+ * Request types of the mixed workload.
+ */
+public enum Operation {
+    /** POST /api/auth/login for a random user (BCrypt + JWT). */
+    LOGIN,
+    /** GET /api/cards for a random user. */
+    LIST,
+    /** GET /api/cards/{id} for one of the user's own cards. */
+    GET,
+    /** POST /api/transfers between the hot cards of a single owner. */
+    TRANSFER
+}
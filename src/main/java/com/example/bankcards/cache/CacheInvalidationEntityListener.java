@@ -0,0 +1,34 @@
+package com.example.bankcards.cache;
+
+import com.example.bankcards.entity.Role;
+import com.example.bankcards.entity.User;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreRemove;
+import jakarta.persistence.PreUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+
+/**
+ * JPA listener of cached entities: every insert, update or delete through the entity manager invalidates
+ * the entity's cache key, whichever service or repository made the change. Bulk JDBC writes bypass it.
+ * Instantiated by Hibernate through Spring, so the invalidator is resolved lazily to stay out of the
+ * entity manager factory's initialization.
+ */
+public class CacheInvalidationEntityListener {
+
+    private final ObjectProvider<CacheInvalidator> invalidator;
+
+    public CacheInvalidationEntityListener(ObjectProvider<CacheInvalidator> invalidator) {
+        this.invalidator = invalidator;
+    }
+
+    @PrePersist
+    @PreUpdate
+    @PreRemove
+    public void changed(Object entity) {
+        if (entity instanceof User user) {
+            invalidator.getObject().invalidate(LocalCacheManager.USERS, user.getUsername());
+        } else if (entity instanceof Role role) {
+            invalidator.getObject().invalidate(LocalCacheManager.ROLES, role.getName());
+        }
+    }
+}
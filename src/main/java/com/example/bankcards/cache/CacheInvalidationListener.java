@@ -0,0 +1,176 @@
+package com.example.bankcards.cache;
+
+import com.example.bankcards.config.LocalCacheProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashSet;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Listens for cache invalidations of all nodes on a dedicated connection outside the pools and evicts
+ * the keys locally. Notifications of a burst are collected for {@code coalesce-window} and applied at once.
+ * Notifications sent while the connection is down are lost, so the caches are cleared and bypassed
+ * until the listener is connected again.
+ */
+@Component
+@ConditionalOnProperty(name = "caches.invalidation.enabled", havingValue = "true", matchIfMissing = true)
+public class CacheInvalidationListener implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(CacheInvalidationListener.class);
+
+    static final String APPLICATION_NAME = "bank-cache-listener";
+
+    private final DataSourceProperties dataSourceProperties;
+    private final LocalCacheManager cacheManager;
+    private final LocalCacheProperties.Invalidation settings;
+    private final AtomicBoolean connected = new AtomicBoolean();
+    private final Counter received;
+    private final Counter reconnects;
+
+    private volatile boolean running;
+    private Thread thread;
+
+    public CacheInvalidationListener(DataSourceProperties dataSourceProperties, LocalCacheManager cacheManager,
+                                     LocalCacheProperties properties, MeterRegistry meterRegistry) {
+        this.dataSourceProperties = dataSourceProperties;
+        this.cacheManager = cacheManager;
+        this.settings = properties.getInvalidation();
+        this.received = Counter.builder("bank.cache.invalidation.received").register(meterRegistry);
+        this.reconnects = Counter.builder("bank.cache.invalidation.reconnects").register(meterRegistry);
+        Gauge.builder("bank.cache.invalidation.connected", connected, c -> c.get() ? 1 : 0).register(meterRegistry);
+    }
+
+    @Override
+    public synchronized void start() {
+        // До подключения не знаем, что изменили другие узлы
+        cacheManager.setEnabled(false);
+        running = true;
+        thread = new Thread(this::listen, "cache-invalidation");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public synchronized void stop() {
+        running = false;
+        if (thread != null) {
+            thread.interrupt();
+            try {
+                thread.join(10_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            thread = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    public boolean isConnected() {
+        return connected.get();
+    }
+
+    private void listen() {
+        while (running) {
+            try (Connection connection = connect()) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + settings.getChannel());
+                }
+                // LISTEN уже действует: всё, что закоммичено позже, придёт уведомлением, остальное сбрасываем
+                cacheManager.setEnabled(true);
+                connected.set(true);
+                log.info("Listening for cache invalidations on channel {}", settings.getChannel());
+                receive(connection);
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Cache invalidation listener disconnected, caches bypassed until reconnect", e);
+            } finally {
+                connected.set(false);
+                cacheManager.setEnabled(false);
+            }
+            reconnects.increment();
+            try {
+                Thread.sleep(settings.getReconnectBackoff().toMillis());
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    private void receive(Connection connection) throws SQLException {
+        PGConnection pgConnection = connection.unwrap(PGConnection.class);
+        int pollMillis = (int) settings.getPollInterval().toMillis();
+        long keepAliveNanos = settings.getKeepAlive().toNanos();
+        long lastActivity = System.nanoTime();
+        while (running) {
+            PGNotification[] notifications = pgConnection.getNotifications(pollMillis);
+            if (notifications == null || notifications.length == 0) {
+                if (System.nanoTime() - lastActivity > keepAliveNanos) {
+                    // getNotifications не замечает оборванное соединение, пока по нему ничего не отправлено
+                    try (Statement statement = connection.createStatement()) {
+                        statement.execute("SELECT 1");
+                    }
+                    lastActivity = System.nanoTime();
+                }
+                continue;
+            }
+            Set<String> keys = new HashSet<>();
+            collect(notifications, keys);
+            long deadline = System.nanoTime() + settings.getCoalesceWindow().toNanos();
+            long remaining;
+            while ((remaining = (deadline - System.nanoTime()) / 1_000_000) > 0) {
+                collect(pgConnection.getNotifications((int) remaining), keys);
+            }
+            if (keys.size() > settings.getMaxKeys()) {
+                cacheManager.clearAll();
+            } else {
+                cacheManager.evict(keys);
+            }
+            lastActivity = System.nanoTime();
+        }
+    }
+
+    private void collect(PGNotification[] notifications, Set<String> keys) {
+        if (notifications == null) {
+            return;
+        }
+        for (PGNotification notification : notifications) {
+            received.increment();
+            for (String key : notification.getParameter().split("\n")) {
+                keys.add(key);
+            }
+        }
+    }
+
+    private Connection connect() throws SQLException {
+        Properties info = new Properties();
+        info.setProperty("user", dataSourceProperties.determineUsername());
+        info.setProperty("password", dataSourceProperties.determinePassword());
+        info.setProperty("ApplicationName", APPLICATION_NAME);
+        // Таймаут чтения не даёт keep-alive запросу зависнуть на соединении, оборванном без RST
+        info.setProperty("tcpKeepAlive", "true");
+        info.setProperty("socketTimeout", String.valueOf(Math.max(1, settings.getKeepAlive().multipliedBy(2).toSeconds())));
+        return DriverManager.getConnection(dataSourceProperties.determineUrl(), info);
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.bankcards.cache;
+
+import com.example.bankcards.config.LocalCacheProperties;
+import jakarta.persistence.EntityManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Collects the cache keys changed by the current transaction and sends them with {@code pg_notify} right
+ * before commit. PostgreSQL delivers the notifications only if the transaction commits, so other nodes
+ * never evict for a rolled back change and never miss a committed one while their listener is connected.
+ * The local caches are evicted after commit without waiting for the round trip.
+ */
+@Component
+public class CacheInvalidator {
+
+    // Лимит payload у NOTIFY - 8000 байт
+    private static final int MAX_PAYLOAD_BYTES = 7900;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManager entityManager;
+    private final LocalCacheManager cacheManager;
+    private final LocalCacheProperties.Invalidation settings;
+
+    public CacheInvalidator(JdbcTemplate jdbcTemplate, EntityManager entityManager, LocalCacheManager cacheManager,
+                            LocalCacheProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManager = entityManager;
+        this.cacheManager = cacheManager;
+        this.settings = properties.getInvalidation();
+    }
+
+    public void invalidate(String cache, String key) {
+        String invalidationKey = LocalCacheManager.key(cache, key);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            notifyNodes(List.of(invalidationKey));
+            cacheManager.evict(List.of(invalidationKey));
+            return;
+        }
+        PendingKeys pending = (PendingKeys) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new PendingKeys();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        if (pending.keys.add(invalidationKey) && pending.sent) {
+            // Изменение попало во flush уже после beforeCommit: отправляем сразу, пока транзакция не закоммичена
+            notifyNodes(List.of(invalidationKey));
+        }
+    }
+
+    private void notifyNodes(Collection<String> keys) {
+        if (!settings.isEnabled() || keys.isEmpty()) {
+            return;
+        }
+        for (String payload : payloads(coalesce(keys))) {
+            jdbcTemplate.query("SELECT pg_notify(?, ?)", rs -> null, settings.getChannel(), payload);
+        }
+    }
+
+    /**
+     * Replaces the keys of a cache with a single flush key when there are more than {@code maxKeys} of them,
+     * so bulk changes such as imports cost one notification instead of thousands.
+     */
+    private List<String> coalesce(Collection<String> keys) {
+        Map<String, List<String>> byCache = new LinkedHashMap<>();
+        for (String key : keys) {
+            byCache.computeIfAbsent(key.substring(0, key.indexOf(':')), k -> new ArrayList<>()).add(key);
+        }
+        List<String> result = new ArrayList<>();
+        byCache.forEach((cache, cacheKeys) -> {
+            if (cacheKeys.size() > settings.getMaxKeys()) {
+                result.add(LocalCacheManager.key(cache, LocalCacheManager.ALL));
+            } else {
+                result.addAll(cacheKeys);
+            }
+        });
+        return result;
+    }
+
+    private static List<String> payloads(List<String> keys) {
+        List<String> payloads = new ArrayList<>();
+        StringBuilder payload = new StringBuilder();
+        int bytes = 0;
+        for (String key : keys) {
+            int keyBytes = key.getBytes(StandardCharsets.UTF_8).length + 1;
+            if (bytes > 0 && bytes + keyBytes > MAX_PAYLOAD_BYTES) {
+                payloads.add(payload.toString());
+                payload.setLength(0);
+                bytes = 0;
+            }
+            if (bytes > 0) {
+                payload.append('\n');
+            }
+            payload.append(key);
+            bytes += keyBytes;
+        }
+        if (bytes > 0) {
+            payloads.add(payload.toString());
+        }
+        return payloads;
+    }
+
+    private class PendingKeys implements TransactionSynchronization {
+
+        private final Set<String> keys = new LinkedHashSet<>();
+        private boolean sent;
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            // @PreUpdate срабатывает при flush: сбрасываем изменения, чтобы их ключи попали в эту же отправку
+            entityManager.flush();
+            notifyNodes(keys);
+            sent = true;
+        }
+
+        @Override
+        public void afterCommit() {
+            cacheManager.evict(keys);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResource(CacheInvalidator.this);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.bankcards.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Bounded in-process cache with string keys. Entries expire after {@code ttl}; when the cache is full,
+ * expired entries are dropped and, if that is not enough, the whole cache is cleared.
+ * While disabled every lookup goes to the loader and nothing is stored.
+ */
+public class LocalCache<V> {
+
+    private final String name;
+    private final int maxSize;
+    private final long ttlNanos;
+    private final Map<String, Entry<V>> entries = new ConcurrentHashMap<>();
+    // Меняется при каждой инвалидации: значение, загруженное во время неё, может быть уже устаревшим
+    private final AtomicLong generation = new AtomicLong();
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter flushes;
+
+    private volatile boolean enabled = true;
+
+    public LocalCache(String name, int maxSize, Duration ttl, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl.toNanos();
+        this.hits = Counter.builder("bank.cache.gets").tag("cache", name).tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("bank.cache.gets").tag("cache", name).tag("result", "miss").register(meterRegistry);
+        this.flushes = Counter.builder("bank.cache.flushes").tag("cache", name).register(meterRegistry);
+        Gauge.builder("bank.cache.size", entries, Map::size).tag("cache", name).register(meterRegistry);
+    }
+
+    /**
+     * Returns the cached value or loads it. Exceptions and {@code null} results of the loader are not cached.
+     */
+    public V get(String key, Function<String, V> loader) {
+        if (!enabled) {
+            misses.increment();
+            return loader.apply(key);
+        }
+        Entry<V> entry = entries.get(key);
+        if (entry != null && System.nanoTime() - entry.expiresAt < 0) {
+            hits.increment();
+            return entry.value;
+        }
+        misses.increment();
+        long loadedAt = generation.get();
+        V value = loader.apply(key);
+        if (value != null && enabled) {
+            if (entries.size() >= maxSize) {
+                shrink();
+            }
+            Entry<V> loaded = new Entry<>(value, System.nanoTime() + ttlNanos);
+            entries.put(key, loaded);
+            if (generation.get() != loadedAt) {
+                // Инвалидация пришла во время загрузки: не оставляем то, что могли прочитать до коммита
+                entries.remove(key, loaded);
+            }
+        }
+        return value;
+    }
+
+    public void evict(String key) {
+        generation.incrementAndGet();
+        entries.remove(key);
+    }
+
+    public void clear() {
+        generation.incrementAndGet();
+        entries.clear();
+        flushes.increment();
+    }
+
+    /**
+     * Disabling also clears the cache: nothing stored before is trusted once the cache is enabled again.
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+        clear();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private void shrink() {
+        long now = System.nanoTime();
+        entries.values().removeIf(entry -> now - entry.expiresAt >= 0);
+        if (entries.size() >= maxSize) {
+            entries.clear();
+            flushes.increment();
+        }
+    }
+
+    private record Entry<V>(V value, long expiresAt) {
+    }
+}
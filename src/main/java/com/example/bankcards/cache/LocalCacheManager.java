@@ -0,0 +1,79 @@
+package com.example.bankcards.cache;
+
+import com.example.bankcards.config.LocalCacheProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Owns the in-process caches and applies invalidation keys to them. A key has the form
+ * {@code <cache>:<entry key>}; the entry key {@value #ALL} clears the whole cache.
+ */
+@Component
+@EnableConfigurationProperties(LocalCacheProperties.class)
+public class LocalCacheManager {
+
+    public static final String USERS = "users";
+    public static final String ROLES = "roles";
+    public static final String ALL = "*";
+
+    private final Map<String, LocalCache<?>> caches = new LinkedHashMap<>();
+
+    public LocalCacheManager(LocalCacheProperties properties, MeterRegistry meterRegistry) {
+        for (String name : new String[] {USERS, ROLES}) {
+            LocalCacheProperties.Region region = properties.regionFor(name);
+            caches.put(name, new LocalCache<>(name, region.getMaxSize(), region.getTtl(), meterRegistry));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public <V> LocalCache<V> getCache(String name) {
+        LocalCache<?> cache = caches.get(name);
+        if (cache == null) {
+            throw new IllegalArgumentException("Unknown cache " + name);
+        }
+        return (LocalCache<V>) cache;
+    }
+
+    public static String key(String cache, String key) {
+        return cache + ":" + key;
+    }
+
+    /**
+     * Evicts the given invalidation keys; keys of unknown caches are ignored (sent by a newer node).
+     */
+    public void evict(Collection<String> keys) {
+        for (String key : keys) {
+            int separator = key.indexOf(':');
+            if (separator < 0) {
+                continue;
+            }
+            LocalCache<?> cache = caches.get(key.substring(0, separator));
+            if (cache == null) {
+                continue;
+            }
+            String entryKey = key.substring(separator + 1);
+            if (ALL.equals(entryKey)) {
+                cache.clear();
+            } else {
+                cache.evict(entryKey);
+            }
+        }
+    }
+
+    public void clearAll() {
+        caches.values().forEach(LocalCache::clear);
+    }
+
+    public void setEnabled(boolean enabled) {
+        caches.values().forEach(cache -> cache.setEnabled(enabled));
+    }
+
+    public Collection<LocalCache<?>> getCaches() {
+        return caches.values();
+    }
+}
@@ -1,6 +1,8 @@
 package com.example.bankcards.config;
 
+import com.example.bankcards.security.TimedPasswordEncoder;
 import com.example.bankcards.service.UserService;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Lazy;
@@ -16,9 +18,11 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 public class AuthenticationConfig {
 
     private final UserService userService;
+    private final MeterRegistry meterRegistry;
 
-    public AuthenticationConfig(@Lazy UserService userService) {
+    public AuthenticationConfig(@Lazy UserService userService, MeterRegistry meterRegistry) {
         this.userService = userService;
+        this.meterRegistry = meterRegistry;
     }
 
     @Bean
@@ -41,6 +45,6 @@ public class AuthenticationConfig {
 
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        return new TimedPasswordEncoder(new BCryptPasswordEncoder(), meterRegistry);
     }
 }
\ No newline at end of file
@@ -0,0 +1,106 @@
+package com.example.bankcards.config;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * DataSource wrapper that limits the number of concurrently borrowed connections with a fair semaphore.
+ * Waiting callers park on the semaphore instead of inside the pool, which keeps virtual threads unpinned
+ * and turns pool exhaustion into a bounded, fast failure.
+ */
+public class BulkheadDataSource extends DelegatingDataSource {
+
+    private final Semaphore permits;
+    private final long acquireTimeoutMillis;
+
+    public BulkheadDataSource(DataSource targetDataSource, int maxConcurrent, long acquireTimeoutMillis) {
+        super(targetDataSource);
+        this.permits = new Semaphore(maxConcurrent, true);
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        acquire();
+        try {
+            return wrap(super.getConnection());
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        acquire();
+        try {
+            return wrap(super.getConnection(username, password));
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+    /**
+     * Returns the number of callers currently waiting for a permit
+     *
+     * @return queue length of the bulkhead
+     */
+    public int getQueueLength() {
+        return permits.getQueueLength();
+    }
+    /**
+     * Returns the number of free permits
+     *
+     * @return available permits
+     */
+    public int getAvailablePermits() {
+        return permits.availablePermits();
+    }
+
+    private void acquire() throws SQLException {
+        try {
+            if (!permits.tryAcquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new SQLTransientConnectionException(
+                    "DB bulkhead is full, no permit within " + acquireTimeoutMillis + " ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrupted while waiting for DB bulkhead permit", e);
+        }
+    }
+
+    private Connection wrap(Connection target) {
+        AtomicBoolean released = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+            (proxy, method, args) -> {
+                if (method.getName().equals("close")) {
+                    if (!released.compareAndSet(false, true)) {
+                        return null;
+                    }
+                    try {
+                        target.close();
+                    } finally {
+                        permits.release();
+                    }
+                    return null;
+                }
+                if (method.getName().equals("unwrap") && args[0] == Connection.class) {
+                    return target;
+                }
+                try {
+                    return method.invoke(target, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getTargetException();
+                }
+            });
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.bankcards.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.ZoneId;
+
+/**
+ * Outgoing limits of a card per calendar day and month in {@code zone}. Defaults apply to cards without
+ * their own limits. Usage is accumulated in memory and added to {@code card_limits_usage} every {@code flushInterval}.
+ */
+@Data
+@ConfigurationProperties(prefix = "transfers.limits")
+public class CardLimitProperties {
+    private boolean enabled = true;
+    private BigDecimal daily = new BigDecimal("100000");
+    private BigDecimal monthly = new BigDecimal("1000000");
+    private ZoneId zone = ZoneId.of("UTC");
+    private Duration flushInterval = Duration.ofSeconds(1);
+    /** Share of the limit below which the remaining headroom is checked against the table in the transaction. */
+    private double syncHeadroom = 0.2;
+    /** Counters without pending usage are dropped after this idle time and reloaded from the table on next use. */
+    private Duration idleEviction = Duration.ofMinutes(10);
+    private Duration retention = Duration.ofDays(100);
+}
@@ -0,0 +1,25 @@
+package com.example.bankcards.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of the synthetic dataset written by the {@code datagen} profile.
+ * All generated users share one password, hashed once: BCrypt per row would dominate the load time.
+ */
+@Data
+@ConfigurationProperties(prefix = "datagen")
+public class DataGeneratorProperties {
+    private int users = 10_000;
+    private int cardsPerUser = 3;
+    private int chunkSize = 5_000;
+    private int threads = Math.min(Runtime.getRuntime().availableProcessors(), 8);
+    private String usernamePrefix = "gen-";
+    private String password = "password";
+    private double adminRatio = 0.001;
+    private double blockedRatio = 0.05;
+    private int expirationMonthsBack = 24;
+    private int expirationMonthsAhead = 60;
+    private long seed = 42;
+    private boolean exitWhenDone = true;
+}
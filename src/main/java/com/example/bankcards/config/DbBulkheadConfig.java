@@ -0,0 +1,60 @@
+package com.example.bankcards.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+@Configuration
+@ConditionalOnProperty(name = "db.bulkhead.enabled", havingValue = "true")
+public class DbBulkheadConfig {
+
+    @Bean
+    public static DbBulkheadPostProcessor dbBulkheadPostProcessor(@Value("${db.bulkhead.max-concurrent}") int maxConcurrent,
+                                                                  @Value("${db.bulkhead.acquire-timeout:5000}") long acquireTimeoutMillis) {
+        return new DbBulkheadPostProcessor(maxConcurrent, acquireTimeoutMillis);
+    }
+
+    /**
+     * Wraps the data source in a {@link BulkheadDataSource}. Runs before the timing proxy
+     * of {@link RequestTimingConfig}, so the semaphore sits directly on the pool.
+     */
+    static class DbBulkheadPostProcessor implements BeanPostProcessor, Ordered {
+
+        private final int maxConcurrent;
+        private final long acquireTimeoutMillis;
+
+        DbBulkheadPostProcessor(int maxConcurrent, long acquireTimeoutMillis) {
+            this.maxConcurrent = maxConcurrent;
+            this.acquireTimeoutMillis = acquireTimeoutMillis;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (bean instanceof DataSource dataSource && !alreadyLimited(dataSource)) {
+                return new BulkheadDataSource(dataSource, maxConcurrent, acquireTimeoutMillis);
+            }
+            return bean;
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.HIGHEST_PRECEDENCE;
+        }
+
+        // PartitionedDataSource ограничивает каждый пул сам (см. DbPoolConfig); смотрим и сквозь обёртки
+        private static boolean alreadyLimited(DataSource dataSource) {
+            try {
+                return dataSource.isWrapperFor(BulkheadDataSource.class)
+                    || dataSource.isWrapperFor(PartitionedDataSource.class);
+            } catch (SQLException e) {
+                return false;
+            }
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.bankcards.config;
+
+/**
+ * Connection pool partitions. Each one is a separate Hikari pool, so a burst in one workload
+ * cannot take the connections another one needs.
+ */
+public enum DbPartition {
+    /** Admin writes, bulk import, scheduled jobs, migrations. */
+    DEFAULT,
+    /** Balance-changing transactions. */
+    TRANSFER,
+    /** Read-only transactions (selected automatically). */
+    READ,
+    /** Login, registration and per-request user lookup. */
+    AUTH;
+
+    /**
+     * @return Hikari pool name, also the {@code pool} tag of its {@code hikaricp.*} metrics
+     */
+    public String poolName() {
+        return "bank-" + name().toLowerCase();
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.bankcards.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Runs the annotated method on connections from the given pool partition. Without the annotation,
+ * read-only transactions use {@link DbPartition#READ} and everything else {@link DbPartition#DEFAULT}.
+ * A transaction keeps the connection it started with, so nested calls do not switch pools.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface DbPool {
+    DbPartition value();
+}
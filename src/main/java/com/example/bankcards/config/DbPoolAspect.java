@@ -0,0 +1,34 @@
+package com.example.bankcards.config;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+
+/**
+ * Exposes the partition of the innermost {@link DbPool} method to {@link PartitionedDataSource}.
+ * Order relative to the transaction interceptor does not matter: the connection is taken on the first statement.
+ */
+@Aspect
+public class DbPoolAspect {
+
+    private static final ThreadLocal<DbPartition> CURRENT = new ThreadLocal<>();
+
+    public static DbPartition current() {
+        return CURRENT.get();
+    }
+
+    @Around("@annotation(dbPool)")
+    public Object route(ProceedingJoinPoint joinPoint, DbPool dbPool) throws Throwable {
+        DbPartition previous = CURRENT.get();
+        CURRENT.set(dbPool.value());
+        try {
+            return joinPoint.proceed();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.bankcards.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+@Configuration
+@ConditionalOnProperty(name = "db.pools.enabled", havingValue = "true")
+@EnableConfigurationProperties(DbPoolProperties.class)
+public class DbPoolConfig {
+
+    @Bean
+    public PartitionedDataSource dataSource(DataSourceProperties dataSourceProperties, DbPoolProperties poolProperties,
+                                            Environment environment, MeterRegistry meterRegistry,
+                                            @Value("${db.bulkhead.enabled:false}") boolean bulkheadEnabled,
+                                            @Value("${db.bulkhead.acquire-timeout:5000}") long acquireTimeoutMillis) {
+        Map<DbPartition, HikariDataSource> pools = new EnumMap<>(DbPartition.class);
+        for (DbPartition partition : DbPartition.values()) {
+            HikariDataSource pool = dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+            Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(pool));
+            DbPoolProperties.Pool settings = poolProperties.getPartitions().get(partition);
+            if (partition != DbPartition.DEFAULT && settings == null) {
+                settings = new DbPoolProperties.Pool();
+            }
+            if (settings != null) {
+                pool.setMaximumPoolSize(settings.getMaximumPoolSize());
+                pool.setMinimumIdle(settings.getMinimumIdle());
+                pool.setConnectionTimeout(settings.getConnectionTimeout().toMillis());
+            }
+            pool.setPoolName(partition.poolName());
+            // Пулы не являются бинами, поэтому метрики hikaricp.* регистрируем сами (тег pool)
+            pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            pools.put(partition, pool);
+        }
+        if (!bulkheadEnabled) {
+            return new PartitionedDataSource(pools);
+        }
+        // Общий семафор на все пулы позволил бы одному классу запросов занять все разрешения,
+        // поэтому у каждого пула свой bulkhead по его размеру. validate() подставляет размер Hikari по умолчанию
+        return new PartitionedDataSource(pools, pool -> {
+            pool.validate();
+            return new BulkheadDataSource(pool, pool.getMaximumPoolSize(), acquireTimeoutMillis);
+        });
+    }
+
+    @Bean
+    public DbPoolAspect dbPoolAspect() {
+        return new DbPoolAspect();
+    }
+}
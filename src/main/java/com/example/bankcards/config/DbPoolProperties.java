@@ -0,0 +1,26 @@
+package com.example.bankcards.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Sizes of the dedicated pool partitions. {@link DbPartition#DEFAULT} keeps using
+ * {@code spring.datasource.hikari}; other partitions inherit those settings and override the values below.
+ */
+@Data
+@ConfigurationProperties(prefix = "db.pools")
+public class DbPoolProperties {
+    private boolean enabled = false;
+    private Map<DbPartition, Pool> partitions = new EnumMap<>(DbPartition.class);
+
+    @Data
+    public static class Pool {
+        private int maximumPoolSize = 5;
+        private int minimumIdle = 1;
+        private Duration connectionTimeout = Duration.ofSeconds(5);
+    }
+}
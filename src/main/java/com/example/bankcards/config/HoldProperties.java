@@ -0,0 +1,31 @@
+package com.example.bankcards.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Authorization holds. Active holds are expired by an in-memory timing wheel on every node; the sweep on the leader
+ * expires what no wheel has, e.g. holds placed by a node that has stopped.
+ */
+@Data
+@ConfigurationProperties(prefix = "holds")
+public class HoldProperties {
+    private Duration defaultTtl = Duration.ofDays(7);
+    private Duration maxTtl = Duration.ofDays(30);
+    private Wheel wheel = new Wheel();
+    private Duration sweepInterval = Duration.ofMinutes(1);
+    private int sweepBatchSize = 500;
+    /** Page size of the keyset scan over active holds that fills the wheel on startup. */
+    private int rebuildBatchSize = 10000;
+
+    @Data
+    public static class Wheel {
+        /** Expiry precision: a hold expires at most one tick after its deadline. */
+        private Duration tick = Duration.ofMillis(100);
+        private int size = 64;
+        /** With 100ms ticks and 64 slots four levels cover about 19 days; later deadlines are re-placed. */
+        private int levels = 4;
+    }
+}
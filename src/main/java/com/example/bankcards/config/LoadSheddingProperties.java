@@ -0,0 +1,38 @@
+package com.example.bankcards.config;
+
+import com.example.bankcards.overload.EndpointClass;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Adaptive concurrency limits per {@link EndpointClass}. A class with {@code shed-when-pending > 0} is
+ * rejected outright while at least that many threads wait for a database connection, so low-priority
+ * traffic gives way first.
+ */
+@Data
+@ConfigurationProperties(prefix = "load-shedding")
+public class LoadSheddingProperties {
+    private boolean enabled = false;
+    private double tolerance = 1.5;
+    private double smoothing = 0.2;
+    private double backoffRatio = 0.9;
+    private Duration pendingSampleInterval = Duration.ofMillis(100);
+    private Map<EndpointClass, Limit> classes = new EnumMap<>(EndpointClass.class);
+
+    public Limit limitFor(EndpointClass endpointClass) {
+        return classes.computeIfAbsent(endpointClass, k -> new Limit());
+    }
+
+    @Data
+    public static class Limit {
+        private int initialLimit = 20;
+        private int minLimit = 2;
+        private int maxLimit = 200;
+        private int shedWhenPending = 0;
+        private Duration retryAfter = Duration.ofSeconds(1);
+    }
+}
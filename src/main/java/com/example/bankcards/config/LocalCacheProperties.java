@@ -0,0 +1,42 @@
+package com.example.bankcards.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * In-process caches and the LISTEN/NOTIFY bus that keeps them consistent across nodes.
+ * {@code ttl} only bounds staleness when a notification is lost; normally entries are evicted on commit.
+ */
+@Data
+@ConfigurationProperties(prefix = "caches")
+public class LocalCacheProperties {
+    private Map<String, Region> regions = new HashMap<>();
+    private Invalidation invalidation = new Invalidation();
+
+    public Region regionFor(String name) {
+        return regions.computeIfAbsent(name, k -> new Region());
+    }
+
+    @Data
+    public static class Region {
+        private int maxSize = 10_000;
+        private Duration ttl = Duration.ofMinutes(5);
+    }
+
+    @Data
+    public static class Invalidation {
+        private boolean enabled = true;
+        private String channel = "bank_cache_invalidation";
+        /** Notifications arriving within this window after the first one are evicted together. */
+        private Duration coalesceWindow = Duration.ofMillis(20);
+        /** More keys of one cache per transaction, or of all caches per coalesced burst, clear the cache instead. */
+        private int maxKeys = 256;
+        private Duration pollInterval = Duration.ofMillis(500);
+        private Duration keepAlive = Duration.ofSeconds(5);
+        private Duration reconnectBackoff = Duration.ofSeconds(2);
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.bankcards.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Outbox partitioning, relay and sink settings. Events of one card always land in the same partition,
+ * and a partition is drained by at most one relay thread at a time, so {@code partitions} bounds relay parallelism.
+ */
+@Data
+@ConfigurationProperties(prefix = "outbox")
+public class OutboxProperties {
+    private int partitions = 16;
+    private Relay relay = new Relay();
+    private Sink sink = new Sink();
+
+    @Data
+    public static class Relay {
+        private boolean enabled = true;
+        private int workers = 2;
+        private int batchSize = 500;
+        private Duration pollInterval = Duration.ofMillis(200);
+        private Duration errorBackoff = Duration.ofSeconds(5);
+    }
+
+    @Data
+    public static class Sink {
+        /** {@code file} appends JSON lines to {@code file}, {@code memory} keeps the last {@code capacity} events. */
+        private String type = "file";
+        private String file = "logs/outbox-events.jsonl";
+        private int capacity = 100_000;
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.bankcards.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Routes connections to one Hikari pool per {@link DbPartition}. The physical connection is taken
+ * lazily on the first statement, when the {@link DbPool} partition and the read-only flag of the
+ * current transaction are both known. An optional decorator wraps every pool individually, e.g. in a
+ * {@link BulkheadDataSource} sized to that pool.
+ */
+public class PartitionedDataSource extends LazyConnectionDataSourceProxy implements Closeable {
+
+    private final Map<DbPartition, HikariDataSource> pools;
+    private final Map<DbPartition, DataSource> targets = new EnumMap<>(DbPartition.class);
+
+    public PartitionedDataSource(Map<DbPartition, HikariDataSource> pools) {
+        this(pools, pool -> pool);
+    }
+
+    public PartitionedDataSource(Map<DbPartition, HikariDataSource> pools,
+                                 Function<HikariDataSource, DataSource> decorator) {
+        this.pools = pools;
+        pools.forEach((partition, pool) -> targets.put(partition, decorator.apply(pool)));
+        Router router = new Router();
+        router.setTargetDataSources(new HashMap<>(targets));
+        router.setDefaultTargetDataSource(targets.get(DbPartition.DEFAULT));
+        router.setLenientFallback(true);
+        router.afterPropertiesSet();
+        setTargetDataSource(router);
+        afterPropertiesSet();
+    }
+
+    /**
+     * Returns the data source connections of the partition are taken from
+     *
+     * @param partition pool partition
+     * @return the decorated pool of the partition
+     */
+    DataSource target(DbPartition partition) {
+        return targets.get(partition);
+    }
+
+    @Override
+    public void close() {
+        pools.values().forEach(HikariDataSource::close);
+    }
+
+    private static class Router extends AbstractRoutingDataSource {
+        @Override
+        protected Object determineCurrentLookupKey() {
+            DbPartition partition = DbPoolAspect.current();
+            if (partition != null) {
+                return partition;
+            }
+            return TransactionSynchronizationManager.isCurrentTransactionReadOnly() ? DbPartition.READ : DbPartition.DEFAULT;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.bankcards.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Maximum number of SQL statements per request. Endpoints are keyed as {@code "METHOD /pattern"},
+ * e.g. {@code "GET /api/cards/{id}"}; all others use {@code defaultBudget}.
+ */
+@Data
+@ConfigurationProperties(prefix = "db.query-budget")
+public class QueryBudgetProperties {
+    private boolean enabled = true;
+    private int defaultBudget = 10;
+    private Map<String, Integer> endpoints = new HashMap<>();
+
+    public int budgetFor(String endpoint) {
+        return endpoints.getOrDefault(endpoint, defaultBudget);
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.bankcards.config;
+
+import com.example.bankcards.monitoring.RequestTimings;
+import com.example.bankcards.monitoring.SlowQueryListener;
+import com.example.bankcards.monitoring.TimedJacksonHttpMessageConverter;
+import com.example.bankcards.monitoring.TimingCategory;
+import com.example.bankcards.monitoring.TimingSpans;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+import io.opentelemetry.exporter.logging.LoggingSpanExporter;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+
+@Configuration
+@EnableConfigurationProperties(QueryBudgetProperties.class)
+public class RequestTimingConfig {
+
+    private static final String START_NANOS = "requestTiming.startNanos";
+    private static final String SPAN = "requestTiming.span";
+
+    @Bean
+    public static RequestTimingDataSourcePostProcessor requestTimingDataSourcePostProcessor(
+        @Value("${db.query-log.slow-threshold:200ms}") Duration slowThreshold,
+        @Value("${db.query-log.sample-rate:1.0}") double sampleRate,
+        ObjectProvider<MeterRegistry> meterRegistry,
+        ObjectProvider<Tracer> tracer) {
+        return new RequestTimingDataSourcePostProcessor(slowThreshold, sampleRate, meterRegistry, tracer);
+    }
+
+    @Bean
+    public TimedJacksonHttpMessageConverter timedJacksonHttpMessageConverter(ObjectMapper objectMapper,
+                                                                             ObjectProvider<Tracer> tracer) {
+        return new TimedJacksonHttpMessageConverter(objectMapper, tracer);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "tracing.log-exporter.enabled", havingValue = "true")
+    public LoggingSpanExporter loggingSpanExporter() {
+        return LoggingSpanExporter.create();
+    }
+
+    private static QueryExecutionListener dbTimingListener(ObjectProvider<Tracer> tracer) {
+        return new QueryExecutionListener() {
+            @Override
+            public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+                if (RequestTimings.current() != null) {
+                    String operation = execInfo.getStatementType().name().toLowerCase(Locale.ROOT);
+                    Span span = TimingSpans.start(tracer, TimingCategory.DB, operation);
+                    if (span != null) {
+                        execInfo.addCustomValue(SPAN, span);
+                    }
+                    execInfo.addCustomValue(START_NANOS, System.nanoTime());
+                }
+            }
+
+            @Override
+            public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+                Long start = execInfo.getCustomValue(START_NANOS, Long.class);
+                if (start != null) {
+                    RequestTimings.record(TimingCategory.DB, System.nanoTime() - start);
+                }
+                Span span = execInfo.getCustomValue(SPAN, Span.class);
+                if (span != null) {
+                    span.tag("db.batch", String.valueOf(execInfo.isBatch()));
+                    TimingSpans.end(span, execInfo.getThrowable());
+                }
+            }
+        };
+    }
+
+    /**
+     * Wraps the data source in a timing {@link ProxyDataSource}. Runs last, after the
+     * bulkhead of {@link DbBulkheadConfig}, so the proxy is always the outermost layer.
+     */
+    static class RequestTimingDataSourcePostProcessor implements BeanPostProcessor, Ordered {
+
+        private final Duration slowThreshold;
+        private final double sampleRate;
+        private final ObjectProvider<MeterRegistry> meterRegistry;
+        private final ObjectProvider<Tracer> tracer;
+
+        RequestTimingDataSourcePostProcessor(Duration slowThreshold, double sampleRate,
+                                             ObjectProvider<MeterRegistry> meterRegistry, ObjectProvider<Tracer> tracer) {
+            this.slowThreshold = slowThreshold;
+            this.sampleRate = sampleRate;
+            this.meterRegistry = meterRegistry;
+            this.tracer = tracer;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (bean instanceof DataSource dataSource && !(bean instanceof ProxyDataSource)) {
+                return ProxyDataSourceBuilder.create(dataSource)
+                    .name(beanName)
+                    .listener(dbTimingListener(tracer))
+                    .listener(new SlowQueryListener(slowThreshold, sampleRate, meterRegistry))
+                    .build();
+            }
+            return bean;
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.LOWEST_PRECEDENCE;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.bankcards.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Leases of {@code @ClusterJob} methods. The leader renews its leases every {@code renewInterval};
+ * if it stops doing so, another node takes a job over on its next tick after {@code leaseTtl}.
+ */
+@Data
+@ConfigurationProperties(prefix = "scheduler")
+public class SchedulerProperties {
+    /** Lease owner name; defaults to {@code pid@host} with a random suffix. */
+    private String nodeId;
+    private Duration leaseTtl = Duration.ofSeconds(30);
+    private Duration renewInterval = Duration.ofSeconds(10);
+    private Duration historyRetention = Duration.ofDays(30);
+}
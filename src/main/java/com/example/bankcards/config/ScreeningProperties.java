@@ -0,0 +1,50 @@
+package com.example.bankcards.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+
+/**
+ * Velocity rules of the pre-commit transfer screening. Rules look at in-memory sliding windows of the node,
+ * each window is a ring buffer of at most {@code windowCapacity} events and at most {@code maxKeys} windows
+ * are kept per rule.
+ */
+@Data
+@ConfigurationProperties(prefix = "transfers.screening")
+public class ScreeningProperties {
+    private boolean enabled = true;
+    private int maxKeys = 100_000;
+    private int windowCapacity = 64;
+    private Velocity velocity = new Velocity();
+    private Drain drain = new Drain();
+    private PingPong pingPong = new PingPong();
+
+    /** Transfer attempts of a user per window, including delayed and rejected ones. */
+    @Data
+    public static class Velocity {
+        private boolean enabled = true;
+        private Duration window = Duration.ofMinutes(1);
+        private int delayAbove = 5;
+        private int rejectAbove = 10;
+    }
+
+    /** Outgoing amount of a card per window as a share of the balance the card had before the window. */
+    @Data
+    public static class Drain {
+        private boolean enabled = true;
+        private Duration window = Duration.ofMinutes(10);
+        private int percent = 80;
+        /** Drains below this amount are not screened. */
+        private BigDecimal minAmount = new BigDecimal("1000");
+    }
+
+    /** Changes of direction between the same two cards per window. */
+    @Data
+    public static class PingPong {
+        private boolean enabled = true;
+        private Duration window = Duration.ofMinutes(10);
+        private int maxReversals = 3;
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.bankcards.config;
 
 import com.example.bankcards.security.JwtAuthenticationFilter;
+import jakarta.servlet.DispatcherType;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -23,6 +24,12 @@ public class SecurityConfig {
     @Value("${domain.front}")
     private String frontDomain;
 
+    @Value("${server.port:8080}")
+    private int serverPort;
+
+    @Value("${management.server.port:-1}")
+    private int managementPort;
+
     private final JwtAuthenticationFilter jwtAuthFilter;
     private final AuthenticationProvider authenticationProvider;
 
@@ -37,10 +44,15 @@ public class SecurityConfig {
             .cors(cors -> cors.configurationSource(corsConfigurationSource()))
             .csrf(csrf -> csrf.disable())
             .authorizeHttpRequests(auth -> auth
+                // Повторный ASYNC-диспатч завершения SSE: запрос уже авторизован, а JWT-фильтр на нём не выполняется
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                 .requestMatchers("/api/auth/**", "/swagger-ui.html", "/swagger-ui/**", "/v3/api-docs/**", "/api-docs/**").permitAll()
+                // Метрики отдаются только на порту management.server.port, который не публикуется наружу
+                .requestMatchers(request -> isManagementPort(request.getLocalPort())).permitAll()
+                .requestMatchers("/actuator/health").permitAll()
                 .requestMatchers("/api/admin/**").hasRole("ADMIN")
                 .requestMatchers("/api/users/**").hasRole("ADMIN")
-                .requestMatchers("/api/transfers/**").hasRole("USER")
+                .requestMatchers("/api/transfers/**", "/api/holds/**").hasRole("USER")
                 .requestMatchers("/api/cards/**").authenticated()
                 .anyRequest().authenticated()
             )
@@ -50,13 +62,18 @@ public class SecurityConfig {
         return http.build();
     }
 
+    // Совпадающий с публичным порт не выделяет actuator в отдельный контекст и ничего не открывает
+    private boolean isManagementPort(int localPort) {
+        return managementPort > 0 && managementPort != serverPort && localPort == managementPort;
+    }
+
     @Bean
     public CorsConfigurationSource corsConfigurationSource() {
         CorsConfiguration configuration = new CorsConfiguration();
         configuration.setAllowedOrigins(List.of(frontDomain));
         configuration.setAllowedMethods(List.of("GET", "POST", "PUT", "DELETE", "OPTIONS", "PATCH"));
         configuration.setAllowedHeaders(List.of("Authorization", "Content-Type", "Accept"));
-        configuration.setExposedHeaders(List.of("Authorization"));
+        configuration.setExposedHeaders(List.of("Authorization", "Server-Timing"));
         configuration.setAllowCredentials(true);
         configuration.setMaxAge(3600L);
 
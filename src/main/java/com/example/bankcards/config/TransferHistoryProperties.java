@@ -0,0 +1,23 @@
+package com.example.bankcards.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Transfer history in the month-partitioned {@code transfers} table.
+ */
+@Data
+@ConfigurationProperties(prefix = "transfers.history")
+public class TransferHistoryProperties {
+    /** Range of a query without {@code from}: only the partitions of this range are scanned. */
+    private Duration defaultRange = Duration.ofDays(30);
+    private int defaultPageSize = 20;
+    private int maxPageSize = 100;
+    /** Monthly partitions created ahead of the current month, so inserts never lack a partition. */
+    private int partitionsAhead = 3;
+    /** Partitions ending before this many months ago are dropped; 0 keeps the history forever. */
+    private int retentionMonths = 0;
+    private Duration partitionCheckInterval = Duration.ofHours(6);
+}
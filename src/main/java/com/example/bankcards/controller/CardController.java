@@ -1,25 +1,42 @@
 package com.example.bankcards.controller;
 
+import com.example.bankcards.dto.BulkImportResultDto;
 import com.example.bankcards.dto.CardCreationDto;
 import com.example.bankcards.dto.CardDto;
 import com.example.bankcards.dto.CardUpdateDto;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.service.BulkImportService;
 import com.example.bankcards.service.CardService;
+import com.example.bankcards.stream.CardStreamHub;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.data.domain.Page;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
 @Tag(name = "Cards", description = "API for managing bank cards")
 @RestController
 @RequestMapping("/api/cards")
 public class CardController {
 
     private final CardService cardService;
+    private final BulkImportService bulkImportService;
+    private final CardStreamHub cardStreamHub;
 
-    public CardController(CardService cardService) {
+    public CardController(CardService cardService, BulkImportService bulkImportService, CardStreamHub cardStreamHub) {
         this.cardService = cardService;
+        this.bulkImportService = bulkImportService;
+        this.cardStreamHub = cardStreamHub;
     }
     @Operation(
         summary = "Get paginated cards",
@@ -34,12 +51,25 @@ public class CardController {
                                                   @RequestParam(required = false) String status) {
         return ResponseEntity.ok(cardService.getCards(page, size, status));
     }
+    @Operation(
+        summary = "Stream card changes",
+        description = "Server-Sent Events stream of the current user's cards. Every committed transfer, block, "
+            + "activation or update sends a 'card' event with the new card state. Subscribe first, then load "
+            + "GET /api/cards; after a disconnect reconnect and reload, as events are not replayed"
+    )
+    @ApiResponse(responseCode = "200", description = "Event stream opened")
+    @ApiResponse(responseCode = "403", description = "Access denied")
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasAnyRole('ADMIN', 'USER')")
+    public SseEmitter streamCards(@AuthenticationPrincipal User user) {
+        return cardStreamHub.subscribe(user.getId());
+    }
     @Operation(
         summary = "Create new card",
         description = "Creates a new bank card. Accessible only to ADMIN users"
     )
     @ApiResponse(responseCode = "201", description = "Card successfully created")
-    @ApiResponse(responseCode = "400", description = "Invalid card data")
+    @ApiResponse(responseCode = "400", description = "Invalid card data; the body holds the committed row count and the row to resume from")
     @ApiResponse(responseCode = "403", description = "Access denied")
     @ApiResponse(responseCode = "404", description = "User not found")
     @PostMapping
@@ -61,7 +91,7 @@ public class CardController {
     }
     @Operation(
         summary = "Update card",
-        description = "Updates card information. Accessible only to ADMIN users"
+        description = "Updates card information, including its daily and monthly outgoing limits. Accessible only to ADMIN users"
     )
     @ApiResponse(responseCode = "200", description = "Card successfully updated")
     @ApiResponse(responseCode = "400", description = "Invalid update data")
@@ -111,4 +141,29 @@ public class CardController {
         cardService.activateCard(id);
         return ResponseEntity.ok().build();
     }
+    @Operation(
+        summary = "Bulk create cards",
+        description = "Creates cards from a JSON array in batched transactions. Accessible only to ADMIN users"
+    )
+    @ApiResponse(responseCode = "200", description = "Import result with row count and throughput")
+    @ApiResponse(responseCode = "400", description = "Invalid card data; the body holds the committed row count and the row to resume from")
+    @ApiResponse(responseCode = "403", description = "Access denied")
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<BulkImportResultDto> bulkCreateCards(@RequestBody List<CardCreationDto> creationDtos) {
+        return ResponseEntity.ok(bulkImportService.importCards(creationDtos));
+    }
+    @Operation(
+        summary = "Bulk create cards from CSV",
+        description = "Creates cards from a streamed CSV body with a header row. Accessible only to ADMIN users"
+    )
+    @ApiResponse(responseCode = "200", description = "Import result with row count and throughput")
+    @ApiResponse(responseCode = "400", description = "Malformed CSV row or failed chunk; the body holds the committed row count and the line to resume from")
+    @ApiResponse(responseCode = "403", description = "Access denied")
+    @PostMapping(value = "/bulk", consumes = "text/csv")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<BulkImportResultDto> bulkCreateCardsCsv(InputStream body) {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        return ResponseEntity.ok(bulkImportService.importCardsCsv(reader));
+    }
 }
\ No newline at end of file
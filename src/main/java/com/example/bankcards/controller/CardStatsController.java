@@ -0,0 +1,47 @@
+package com.example.bankcards.controller;
+
+import com.example.bankcards.dto.CardOwnerStatsDto;
+import com.example.bankcards.dto.CardStatsDto;
+import com.example.bankcards.service.CardStatsService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+@Tag(name = "Card statistics", description = "API for card dashboard statistics (admin only)")
+@RestController
+@RequestMapping("/api/admin/cards/stats")
+public class CardStatsController {
+
+    private final CardStatsService cardStatsService;
+
+    public CardStatsController(CardStatsService cardStatsService) {
+        this.cardStatsService = cardStatsService;
+    }
+    @Operation(
+        summary = "Get card statistics",
+        description = "Returns card counts and balances per status and cards expiring this month. Accessible only to ADMIN users"
+    )
+    @ApiResponse(responseCode = "200", description = "Successfully retrieved statistics")
+    @ApiResponse(responseCode = "403", description = "Access denied")
+    @GetMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<CardStatsDto> getSummary() {
+        return ResponseEntity.ok(cardStatsService.getSummary());
+    }
+    @Operation(
+        summary = "Get card statistics for owner",
+        description = "Returns card count and total balance of a single user. Accessible only to ADMIN users"
+    )
+    @ApiResponse(responseCode = "200", description = "Successfully retrieved statistics")
+    @ApiResponse(responseCode = "403", description = "Access denied")
+    @GetMapping("/owners/{ownerId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<CardOwnerStatsDto> getOwnerStats(@PathVariable Long ownerId) {
+        return ResponseEntity.ok(cardStatsService.getOwnerStats(ownerId));
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.bankcards.controller;
+
+import com.example.bankcards.dto.HoldCaptureDto;
+import com.example.bankcards.dto.HoldCreationDto;
+import com.example.bankcards.dto.HoldDto;
+import com.example.bankcards.service.HoldService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+@Tag(name = "Holds", description = "API for authorization holds on cards")
+@RestController
+@RequestMapping("/api/holds")
+public class HoldController {
+
+    private final HoldService holdService;
+
+    public HoldController(HoldService holdService) {
+        this.holdService = holdService;
+    }
+    @Operation(
+        summary = "Place hold",
+        description = "Reserves funds on user's own active card: the available balance decreases, the ledger balance stays until capture"
+    )
+    @ApiResponse(responseCode = "201", description = "Hold successfully placed")
+    @ApiResponse(responseCode = "400", description = "Invalid hold data, inactive card or insufficient available funds")
+    @ApiResponse(responseCode = "403", description = "Access denied")
+    @ApiResponse(responseCode = "404", description = "Card not found")
+    @PostMapping
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<HoldDto> place(@RequestBody HoldCreationDto creationDto) {
+        return ResponseEntity.created(null).body(holdService.placeHold(creationDto));
+    }
+    @Operation(
+        summary = "Capture hold",
+        description = "Debits the captured amount, by default the whole hold, from the ledger balance and releases the rest"
+    )
+    @ApiResponse(responseCode = "200", description = "Hold captured")
+    @ApiResponse(responseCode = "400", description = "Invalid amount, hold already closed or card limit exceeded")
+    @ApiResponse(responseCode = "403", description = "Access denied")
+    @ApiResponse(responseCode = "404", description = "Hold not found")
+    @PostMapping("/{id}/capture")
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<HoldDto> capture(@PathVariable Long id, @RequestBody(required = false) HoldCaptureDto captureDto) {
+        return ResponseEntity.ok(holdService.captureHold(id, captureDto));
+    }
+    @Operation(
+        summary = "Void hold",
+        description = "Releases the whole hold without debiting the card"
+    )
+    @ApiResponse(responseCode = "200", description = "Hold voided")
+    @ApiResponse(responseCode = "400", description = "Hold already closed")
+    @ApiResponse(responseCode = "403", description = "Access denied")
+    @ApiResponse(responseCode = "404", description = "Hold not found")
+    @PostMapping("/{id}/void")
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<HoldDto> voidHold(@PathVariable Long id) {
+        return ResponseEntity.ok(holdService.voidHold(id));
+    }
+    @Operation(
+        summary = "Get hold",
+        description = "Retrieves a hold on user's own card"
+    )
+    @ApiResponse(responseCode = "200", description = "Successfully retrieved hold")
+    @ApiResponse(responseCode = "403", description = "Access denied")
+    @ApiResponse(responseCode = "404", description = "Hold not found")
+    @GetMapping("/{id}")
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<HoldDto> get(@PathVariable Long id) {
+        return ResponseEntity.ok(holdService.getHold(id));
+    }
+}
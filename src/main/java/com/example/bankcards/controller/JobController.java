@@ -0,0 +1,51 @@
+package com.example.bankcards.controller;
+
+import com.example.bankcards.dto.JobLeaseDto;
+import com.example.bankcards.dto.JobRunDto;
+import com.example.bankcards.scheduling.JobRunHistory;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@Tag(name = "Jobs", description = "API for background job monitoring (admin only)")
+@RestController
+@RequestMapping("/api/jobs")
+public class JobController {
+
+    private final JobRunHistory jobRunHistory;
+
+    public JobController(JobRunHistory jobRunHistory) {
+        this.jobRunHistory = jobRunHistory;
+    }
+    @Operation(
+        summary = "Get job runs",
+        description = "Retrieves the latest runs of cluster jobs with status, duration and row count, newest first. Accessible only to ADMIN users"
+    )
+    @ApiResponse(responseCode = "200", description = "Successfully retrieved job runs")
+    @ApiResponse(responseCode = "403", description = "Access denied")
+    @GetMapping("/runs")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<JobRunDto>> getRuns(@RequestParam(required = false) String job,
+                                                   @RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(jobRunHistory.recent(job, limit));
+    }
+    @Operation(
+        summary = "Get job leases",
+        description = "Shows which node currently leads each cluster job and until when its lease is valid. Accessible only to ADMIN users"
+    )
+    @ApiResponse(responseCode = "200", description = "Successfully retrieved job leases")
+    @ApiResponse(responseCode = "403", description = "Access denied")
+    @GetMapping("/leases")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<JobLeaseDto>> getLeases() {
+        return ResponseEntity.ok(jobRunHistory.leases());
+    }
+}
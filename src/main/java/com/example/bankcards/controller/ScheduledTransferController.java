@@ -0,0 +1,66 @@
+package com.example.bankcards.controller;
+
+import com.example.bankcards.dto.ScheduledTransferCreationDto;
+import com.example.bankcards.dto.ScheduledTransferDto;
+import com.example.bankcards.service.ScheduledTransferService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+@Tag(name = "Scheduled transfers", description = "API for standing orders between own cards")
+@RestController
+@RequestMapping("/api/transfers/scheduled")
+public class ScheduledTransferController {
+
+    private final ScheduledTransferService scheduledTransferService;
+
+    public ScheduledTransferController(ScheduledTransferService scheduledTransferService) {
+        this.scheduledTransferService = scheduledTransferService;
+    }
+    @Operation(
+        summary = "Create standing order",
+        description = "Schedules a one-time or recurring transfer of a fixed amount or a percentage of the source balance between user's own cards"
+    )
+    @ApiResponse(responseCode = "201", description = "Standing order successfully created")
+    @ApiResponse(responseCode = "400", description = "Invalid order data")
+    @ApiResponse(responseCode = "403", description = "Access denied")
+    @ApiResponse(responseCode = "404", description = "Card not found")
+    @PostMapping
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<ScheduledTransferDto> create(@RequestBody ScheduledTransferCreationDto creationDto) {
+        return ResponseEntity.created(null).body(scheduledTransferService.createScheduledTransfer(creationDto));
+    }
+    @Operation(
+        summary = "Get standing orders",
+        description = "Retrieves standing orders of the current user with their next run time and last failure reason"
+    )
+    @ApiResponse(responseCode = "200", description = "Successfully retrieved standing orders")
+    @ApiResponse(responseCode = "403", description = "Access denied")
+    @GetMapping
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<List<ScheduledTransferDto>> getAll() {
+        return ResponseEntity.ok(scheduledTransferService.getScheduledTransfers());
+    }
+    @Operation(
+        summary = "Cancel standing order",
+        description = "Cancels a standing order of the current user; an execution in progress completes first"
+    )
+    @ApiResponse(responseCode = "200", description = "Standing order cancelled")
+    @ApiResponse(responseCode = "403", description = "Access denied")
+    @ApiResponse(responseCode = "404", description = "Standing order not found")
+    @DeleteMapping("/{id}")
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<ScheduledTransferDto> cancel(@PathVariable Long id) {
+        return ResponseEntity.ok(scheduledTransferService.cancelScheduledTransfer(id));
+    }
+}
@@ -1,38 +1,84 @@
 package com.example.bankcards.controller;
 
+import com.example.bankcards.dto.SplitTransferDto;
+import com.example.bankcards.dto.SplitTransferResultDto;
 import com.example.bankcards.dto.TransferDto;
+import com.example.bankcards.dto.TransferHistoryPageDto;
+import com.example.bankcards.service.TransferHistoryService;
 import com.example.bankcards.service.TransferService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+
+import java.time.OffsetDateTime;
 @Tag(name = "Transfers", description = "API for fund transfers between cards")
 @RestController
 @RequestMapping("/api/transfers")
 public class TransferController {
 
     private final TransferService transferService;
+    private final TransferHistoryService transferHistoryService;
 
-    public TransferController(TransferService transferService) {
+    public TransferController(TransferService transferService, TransferHistoryService transferHistoryService) {
         this.transferService = transferService;
+        this.transferHistoryService = transferHistoryService;
     }
     @Operation(
         summary = "Transfer funds",
         description = "Transfers funds between user's own cards. Both cards must be active and belong to the same user"
     )
     @ApiResponse(responseCode = "200", description = "Transfer successfully completed")
-    @ApiResponse(responseCode = "400", description = "Invalid transfer data or insufficient funds")
+    @ApiResponse(responseCode = "400", description = "Invalid transfer data, insufficient funds, card limit exceeded or rejected by fraud screening")
     @ApiResponse(responseCode = "403", description = "Access denied")
     @ApiResponse(responseCode = "404", description = "Card not found")
+    @ApiResponse(responseCode = "429", description = "Transfer delayed by fraud screening, retry after the Retry-After header")
     @PostMapping
     @PreAuthorize("hasRole('USER')")
     public ResponseEntity<Void> transfer(@RequestBody TransferDto transferDto) {
         transferService.transfer(transferDto);
         return ResponseEntity.ok().build();
     }
-}
\ No newline at end of file
+    @Operation(
+        summary = "Split transfer",
+        description = "Transfers an amount to user's own card from several own cards: the listed ones in the given order, "
+            + "or active cards chosen by the LARGEST_FIRST or SMALLEST_FIRST strategy. All cards are debited in one transaction"
+    )
+    @ApiResponse(responseCode = "200", description = "Transfer successfully completed, debited cards returned")
+    @ApiResponse(responseCode = "400", description = "Invalid transfer data, insufficient funds, card limit exceeded or rejected by fraud screening")
+    @ApiResponse(responseCode = "403", description = "Access denied")
+    @ApiResponse(responseCode = "404", description = "Card not found")
+    @ApiResponse(responseCode = "429", description = "Transfer delayed by fraud screening, retry after the Retry-After header")
+    @PostMapping("/split")
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<SplitTransferResultDto> splitTransfer(@RequestBody SplitTransferDto splitDto) {
+        return ResponseEntity.ok(transferService.splitTransfer(splitDto));
+    }
+    @Operation(
+        summary = "Get transfer history",
+        description = "Retrieves transfers of the current user or of one of the user's cards, newest first. "
+            + "Without from only the last 30 days are returned; pass nextCursor of a page to get the next one"
+    )
+    @ApiResponse(responseCode = "200", description = "Successfully retrieved transfers")
+    @ApiResponse(responseCode = "400", description = "Invalid range, cursor or page size")
+    @ApiResponse(responseCode = "403", description = "Access denied")
+    @ApiResponse(responseCode = "404", description = "Card not found")
+    @GetMapping("/history")
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<TransferHistoryPageDto> getHistory(
+        @RequestParam(required = false) Long cardId,
+        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime from,
+        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime to,
+        @RequestParam(required = false) String cursor,
+        @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(transferHistoryService.getMyTransfers(cardId, from, to, cursor, limit));
+    }
+}
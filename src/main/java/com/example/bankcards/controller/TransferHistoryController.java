@@ -0,0 +1,47 @@
+package com.example.bankcards.controller;
+
+import com.example.bankcards.dto.TransferHistoryPageDto;
+import com.example.bankcards.service.TransferHistoryService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.OffsetDateTime;
+
+@Tag(name = "Transfer history", description = "API for transfer history lookups by support (admin only)")
+@RestController
+@RequestMapping("/api/admin/transfers")
+public class TransferHistoryController {
+
+    private final TransferHistoryService transferHistoryService;
+
+    public TransferHistoryController(TransferHistoryService transferHistoryService) {
+        this.transferHistoryService = transferHistoryService;
+    }
+    @Operation(
+        summary = "Get transfer history",
+        description = "Retrieves transfers of a card or of a user in a date range, newest first. Without from only the last 30 days "
+            + "are returned; pass nextCursor of a page to get the next one. Accessible only to ADMIN users"
+    )
+    @ApiResponse(responseCode = "200", description = "Successfully retrieved transfers")
+    @ApiResponse(responseCode = "400", description = "Invalid filter, range, cursor or page size")
+    @ApiResponse(responseCode = "403", description = "Access denied")
+    @GetMapping("/history")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<TransferHistoryPageDto> getHistory(
+        @RequestParam(required = false) Long cardId,
+        @RequestParam(required = false) Long ownerId,
+        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime from,
+        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime to,
+        @RequestParam(required = false) String cursor,
+        @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(transferHistoryService.getTransfers(cardId, ownerId, from, to, cursor, limit));
+    }
+}
@@ -1,15 +1,25 @@
 package com.example.bankcards.controller;
 
+import com.example.bankcards.dto.BulkImportResultDto;
 import com.example.bankcards.dto.UserCreationDto;
 import com.example.bankcards.dto.UserDto;
+import com.example.bankcards.service.BulkImportService;
 import com.example.bankcards.service.UserService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 @Tag(name = "Users", description = "API for user management (admin only)")
 @RestController
@@ -17,27 +27,58 @@ import java.util.List;
 public class UserController {
 
     private final UserService userService;
+    private final BulkImportService bulkImportService;
+    private final ObjectMapper objectMapper;
 
-    public UserController(UserService userService) {
+    public UserController(UserService userService, BulkImportService bulkImportService, ObjectMapper objectMapper) {
         this.userService = userService;
+        this.bulkImportService = bulkImportService;
+        this.objectMapper = objectMapper.copy().configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
     }
     @Operation(
-        summary = "Get all users",
-        description = "Retrieves all users in the system. Accessible only to ADMIN users"
+        summary = "Get users",
+        description = "Retrieves a page of users ordered by ID. Pass the last ID of the previous page as afterId. Accessible only to ADMIN users"
     )
     @ApiResponse(responseCode = "200", description = "Successfully retrieved users")
     @ApiResponse(responseCode = "403", description = "Access denied")
     @GetMapping
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<List<UserDto>> getAllUsers() {
-        return ResponseEntity.ok(userService.getAllUsers());
+    public ResponseEntity<List<UserDto>> getUsers(@RequestParam(defaultValue = "0") long afterId,
+                                                  @RequestParam(defaultValue = "50") int size) {
+        return ResponseEntity.ok(userService.getUsers(afterId, size));
+    }
+    @Operation(
+        summary = "Stream all users",
+        description = "Streams all users as newline-delimited JSON, reading them in keyset batches. Accessible only to ADMIN users"
+    )
+    @ApiResponse(responseCode = "200", description = "Users stream")
+    @ApiResponse(responseCode = "403", description = "Access denied")
+    @GetMapping(value = "/stream", produces = "application/x-ndjson")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> streamUsers() {
+        StreamingResponseBody body = out -> {
+            long afterId = 0;
+            List<UserDto> batch;
+            do {
+                batch = userService.getUsers(afterId, UserService.MAX_PAGE_SIZE);
+                for (UserDto user : batch) {
+                    objectMapper.writeValue(out, user);
+                    out.write('\n');
+                }
+                out.flush();
+                if (!batch.isEmpty()) {
+                    afterId = batch.get(batch.size() - 1).getId();
+                }
+            } while (batch.size() == UserService.MAX_PAGE_SIZE);
+        };
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType("application/x-ndjson")).body(body);
     }
     @Operation(
         summary = "Create new user",
         description = "Creates a new user with specified roles. Accessible only to ADMIN users"
     )
     @ApiResponse(responseCode = "201", description = "User successfully created")
-    @ApiResponse(responseCode = "400", description = "Invalid user data")
+    @ApiResponse(responseCode = "400", description = "Invalid user data; the body holds the committed row count and the row to resume from")
     @ApiResponse(responseCode = "403", description = "Access denied")
     @ApiResponse(responseCode = "404", description = "Role not found")
     @PostMapping
@@ -45,4 +86,29 @@ public class UserController {
     public ResponseEntity<UserDto> createUser(@RequestBody UserCreationDto creationDto) {
         return ResponseEntity.created(null).body(userService.createUser(creationDto));
     }
+    @Operation(
+        summary = "Bulk create users",
+        description = "Creates users from a JSON array in batched transactions. Accessible only to ADMIN users"
+    )
+    @ApiResponse(responseCode = "200", description = "Import result with row count and throughput")
+    @ApiResponse(responseCode = "400", description = "Invalid user data; the body holds the committed row count and the row to resume from")
+    @ApiResponse(responseCode = "403", description = "Access denied")
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<BulkImportResultDto> bulkCreateUsers(@RequestBody List<UserCreationDto> creationDtos) {
+        return ResponseEntity.ok(bulkImportService.importUsers(creationDtos));
+    }
+    @Operation(
+        summary = "Bulk create users from CSV",
+        description = "Creates users from a streamed CSV body with a header row. Accessible only to ADMIN users"
+    )
+    @ApiResponse(responseCode = "200", description = "Import result with row count and throughput")
+    @ApiResponse(responseCode = "400", description = "Malformed CSV row or failed chunk; the body holds the committed row count and the line to resume from")
+    @ApiResponse(responseCode = "403", description = "Access denied")
+    @PostMapping(value = "/bulk", consumes = "text/csv")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<BulkImportResultDto> bulkCreateUsersCsv(InputStream body) {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        return ResponseEntity.ok(bulkImportService.importUsersCsv(reader));
+    }
 }
\ No newline at end of file
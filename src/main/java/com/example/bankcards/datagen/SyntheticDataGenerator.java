@@ -0,0 +1,240 @@
+package com.example.bankcards.datagen;
+
+import com.example.bankcards.config.DataGeneratorProperties;
+import com.example.bankcards.entity.CardStatus;
+import com.example.bankcards.util.CardUtil;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Fills the database with synthetic users and cards ({@code --spring.profiles.active=datagen}).
+ * Users are split into chunks that are written in parallel, each chunk in its own transaction
+ * with PostgreSQL {@code COPY}. Ids are taken from the pooled sequences, so the application can
+ * keep running against the same database.
+ */
+@Component
+@Profile("datagen")
+@EnableConfigurationProperties(DataGeneratorProperties.class)
+public class SyntheticDataGenerator implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(SyntheticDataGenerator.class);
+
+    /** Increment of users_seq and cards_seq (see V4__pooled_sequences.yaml). */
+    private static final int SEQUENCE_INCREMENT = 50;
+
+    private final DataSource dataSource;
+    private final CardUtil cardUtil;
+    private final PasswordEncoder passwordEncoder;
+    private final DataGeneratorProperties properties;
+    private final ConfigurableApplicationContext context;
+
+    public SyntheticDataGenerator(DataSource dataSource, CardUtil cardUtil, PasswordEncoder passwordEncoder,
+                                  DataGeneratorProperties properties, ConfigurableApplicationContext context) {
+        this.dataSource = dataSource;
+        this.cardUtil = cardUtil;
+        this.passwordEncoder = passwordEncoder;
+        this.properties = properties;
+        this.context = context;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        long started = System.nanoTime();
+        generate();
+        double seconds = (System.nanoTime() - started) / 1e9;
+        long cards = (long) properties.getUsers() * properties.getCardsPerUser();
+        log.info("Generated {} users and {} cards in {} s ({} cards/s)", properties.getUsers(), cards,
+            Math.round(seconds), Math.round(cards / seconds));
+        if (properties.isExitWhenDone()) {
+            System.exit(SpringApplication.exit(context));
+        }
+    }
+    /**
+     * Generates the configured number of users and cards and refreshes planner statistics.
+     */
+    public void generate() throws SQLException, InterruptedException {
+        Map<String, Long> roleIds = loadRoleIds();
+        String passwordHash = passwordEncoder.encode(properties.getPassword());
+        LocalDate today = LocalDate.now();
+
+        ExecutorService executor = Executors.newFixedThreadPool(properties.getThreads());
+        try {
+            List<Future<?>> chunks = new ArrayList<>();
+            for (int first = 0, chunk = 0; first < properties.getUsers(); first += properties.getChunkSize(), chunk++) {
+                int from = first;
+                int count = Math.min(properties.getChunkSize(), properties.getUsers() - first);
+                SplittableRandom random = new SplittableRandom(properties.getSeed() + chunk);
+                chunks.add(executor.submit(() -> {
+                    writeChunk(from, count, random, passwordHash, roleIds, today);
+                    return null;
+                }));
+            }
+            for (Future<?> chunk : chunks) {
+                chunk.get();
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Data generation failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("ANALYZE users, user_roles, cards");
+        }
+    }
+
+    private void writeChunk(int firstUser, int userCount, SplittableRandom random, String passwordHash,
+                            Map<String, Long> roleIds, LocalDate today) throws SQLException, IOException {
+        int cardCount = userCount * properties.getCardsPerUser();
+        StringBuilder users = new StringBuilder(userCount * 120);
+        StringBuilder userRoles = new StringBuilder(userCount * 16);
+        StringBuilder cards = new StringBuilder(cardCount * 80);
+
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            long[] userIds = allocateIds(connection, "users_seq", userCount);
+            long[] cardIds = allocateIds(connection, "cards_seq", cardCount);
+            int card = 0;
+            for (int i = 0; i < userCount; i++) {
+                long userId = userIds[i];
+                String username = properties.getUsernamePrefix() + (firstUser + i);
+                row(users, userId, username, passwordHash, username + "@example.com");
+                row(userRoles, userId, roleIds.get("USER"));
+                if (random.nextDouble() < properties.getAdminRatio()) {
+                    row(userRoles, userId, roleIds.get("ADMIN"));
+                }
+                for (int c = 0; c < properties.getCardsPerUser(); c++, card++) {
+                    LocalDate expiration = expirationDate(random, today);
+                    row(cards, cardIds[card], cardUtil.encrypt(cardNumber(random)), userId, expiration,
+                        status(random, expiration, today), BigDecimal.valueOf(random.nextLong(10_000_000), 2));
+                }
+            }
+            CopyManager copy = connection.unwrap(PGConnection.class).getCopyAPI();
+            copy.copyIn("COPY users (id, username, password, email) FROM STDIN", new StringReader(users.toString()));
+            copy.copyIn("COPY user_roles (user_id, role_id) FROM STDIN", new StringReader(userRoles.toString()));
+            // Карты последними: statement-триггер статистики блокирует общие строки card_status_stats до коммита
+            copy.copyIn("COPY cards (id, number, owner_id, expiration_date, status, balance) FROM STDIN",
+                new StringReader(cards.toString()));
+            connection.commit();
+        }
+        log.debug("Written users {}..{}", firstUser, firstUser + userCount - 1);
+    }
+
+    /**
+     * Reserves ids from a pooled sequence. Every nextval() hands out a whole block of
+     * {@value #SEQUENCE_INCREMENT} ids ending at the returned value, exactly as Hibernate's pooled optimizer does.
+     */
+    private long[] allocateIds(Connection connection, String sequence, int count) throws SQLException {
+        long[] ids = new long[count];
+        int blocks = (count + SEQUENCE_INCREMENT - 1) / SEQUENCE_INCREMENT;
+        try (PreparedStatement statement = connection.prepareStatement("SELECT nextval(?::regclass) FROM generate_series(1, ?)")) {
+            statement.setString(1, sequence);
+            statement.setInt(2, blocks);
+            try (ResultSet rs = statement.executeQuery()) {
+                int i = 0;
+                while (rs.next()) {
+                    long hi = rs.getLong(1);
+                    for (long id = hi - SEQUENCE_INCREMENT + 1; id <= hi && i < count; id++) {
+                        ids[i++] = id;
+                    }
+                }
+            }
+        }
+        return ids;
+    }
+
+    private Map<String, Long> loadRoleIds() throws SQLException {
+        Map<String, Long> roleIds = new HashMap<>();
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT id, name FROM roles")) {
+            while (rs.next()) {
+                roleIds.put(rs.getString("name"), rs.getLong("id"));
+            }
+        }
+        return roleIds;
+    }
+
+    LocalDate expirationDate(SplittableRandom random, LocalDate today) {
+        int months = random.nextInt(-properties.getExpirationMonthsBack(), properties.getExpirationMonthsAhead() + 1);
+        LocalDate month = today.plusMonths(months);
+        return month.withDayOfMonth(month.lengthOfMonth());
+    }
+
+    CardStatus status(SplittableRandom random, LocalDate expiration, LocalDate today) {
+        if (expiration.isBefore(today)) {
+            return CardStatus.EXPIRED;
+        }
+        return random.nextDouble() < properties.getBlockedRatio() ? CardStatus.BLOCKED : CardStatus.ACTIVE;
+    }
+
+    /**
+     * Random 16-digit Visa-like number with a valid Luhn check digit.
+     */
+    static String cardNumber(SplittableRandom random) {
+        int[] digits = new int[16];
+        digits[0] = 4;
+        for (int i = 1; i < 15; i++) {
+            digits[i] = random.nextInt(10);
+        }
+        int sum = 0;
+        for (int i = 14; i >= 0; i--) {
+            int d = digits[i];
+            if ((14 - i) % 2 == 0) {
+                d *= 2;
+                if (d > 9) {
+                    d -= 9;
+                }
+            }
+            sum += d;
+        }
+        digits[15] = (10 - sum % 10) % 10;
+        StringBuilder number = new StringBuilder(16);
+        for (int d : digits) {
+            number.append(d);
+        }
+        return number.toString();
+    }
+
+    /**
+     * Appends one line in COPY text format. Generated values contain no tabs, newlines or backslashes.
+     */
+    private static void row(StringBuilder out, Object... values) {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                out.append('\t');
+            }
+            out.append(values[i]);
+        }
+        out.append('\n');
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.bankcards.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkImportErrorDto {
+    private String error;
+    private long committed;
+    private long resumeFrom;
+}
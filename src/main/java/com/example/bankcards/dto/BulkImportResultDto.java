@@ -0,0 +1,14 @@
+package com.example.bankcards.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkImportResultDto {
+    private long imported;
+    private long elapsedMillis;
+    private double rowsPerSecond;
+}
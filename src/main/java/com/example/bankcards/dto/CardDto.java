@@ -13,4 +13,7 @@ public class CardDto {
     private LocalDate expirationDate;
     private String status;
     private BigDecimal balance;
+    private BigDecimal availableBalance;
+    private BigDecimal dailyLimit;
+    private BigDecimal monthlyLimit;
 }
\ No newline at end of file
@@ -0,0 +1,12 @@
+package com.example.bankcards.dto;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+@Data
+public class CardOwnerStatsDto {
+    private Long ownerId;
+    private long cardCount;
+    private BigDecimal totalBalance;
+}
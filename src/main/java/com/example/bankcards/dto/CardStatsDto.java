@@ -0,0 +1,13 @@
+package com.example.bankcards.dto;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+@Data
+public class CardStatsDto {
+    private Map<String, Long> countByStatus;
+    private Map<String, BigDecimal> balanceByStatus;
+    private long expiringThisMonth;
+}
@@ -3,6 +3,7 @@ package com.example.bankcards.dto;
 import jakarta.validation.constraints.NotNull;
 import lombok.Data;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
 
 @Data
@@ -10,4 +11,6 @@ public class CardUpdateDto {
     @NotNull
     private LocalDate expirationDate;
     private String status;
+    private BigDecimal dailyLimit;
+    private BigDecimal monthlyLimit;
 }
\ No newline at end of file
@@ -0,0 +1,12 @@
+package com.example.bankcards.dto;
+
+import jakarta.validation.constraints.Positive;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+@Data
+public class HoldCaptureDto {
+    @Positive
+    private BigDecimal amount;
+}
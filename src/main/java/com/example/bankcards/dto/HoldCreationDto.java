@@ -0,0 +1,21 @@
+package com.example.bankcards.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+
+@Data
+public class HoldCreationDto {
+    @NotNull
+    private Long cardId;
+    @NotNull
+    @Positive
+    private BigDecimal amount;
+    @Size(max = 100)
+    private String reference;
+    private OffsetDateTime expiresAt;
+}
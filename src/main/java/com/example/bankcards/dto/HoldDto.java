@@ -0,0 +1,19 @@
+package com.example.bankcards.dto;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+
+@Data
+public class HoldDto {
+    private Long id;
+    private Long cardId;
+    private BigDecimal amount;
+    private BigDecimal capturedAmount;
+    private String reference;
+    private String status;
+    private OffsetDateTime createdAt;
+    private OffsetDateTime expiresAt;
+    private OffsetDateTime closedAt;
+}
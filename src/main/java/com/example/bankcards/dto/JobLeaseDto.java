@@ -0,0 +1,13 @@
+package com.example.bankcards.dto;
+
+import lombok.Data;
+
+import java.time.OffsetDateTime;
+
+@Data
+public class JobLeaseDto {
+    private String jobName;
+    private String owner;
+    private OffsetDateTime acquiredAt;
+    private OffsetDateTime leaseUntil;
+}
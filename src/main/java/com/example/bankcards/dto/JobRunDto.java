@@ -0,0 +1,18 @@
+package com.example.bankcards.dto;
+
+import lombok.Data;
+
+import java.time.OffsetDateTime;
+
+@Data
+public class JobRunDto {
+    private Long id;
+    private String jobName;
+    private String nodeId;
+    private String status;
+    private OffsetDateTime startedAt;
+    private OffsetDateTime finishedAt;
+    private Long durationMs;
+    private Long rowCount;
+    private String error;
+}
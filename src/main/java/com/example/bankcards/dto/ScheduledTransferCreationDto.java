@@ -0,0 +1,23 @@
+package com.example.bankcards.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+
+@Data
+public class ScheduledTransferCreationDto {
+    @NotNull
+    private Long fromCardId;
+    @NotNull
+    private Long toCardId;
+    @Positive
+    private BigDecimal amount;
+    @Positive
+    private BigDecimal percent;
+    @NotNull
+    private String frequency;
+    private OffsetDateTime startAt;
+}
@@ -0,0 +1,23 @@
+package com.example.bankcards.dto;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+
+@Data
+public class ScheduledTransferDto {
+    private Long id;
+    private Long fromCardId;
+    private Long toCardId;
+    private BigDecimal amount;
+    private BigDecimal percent;
+    private String frequency;
+    private String status;
+    private OffsetDateTime startAt;
+    private OffsetDateTime nextRunAt;
+    private int occurrences;
+    private int attempts;
+    private OffsetDateTime lastAttemptAt;
+    private String lastError;
+}
@@ -0,0 +1,21 @@
+package com.example.bankcards.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+public class SplitTransferDto {
+    @NotNull
+    private Long toCardId;
+    @NotNull
+    @Positive
+    private BigDecimal amount;
+    /** Source cards; if empty, sources are chosen among all active cards of the user. */
+    private List<Long> fromCardIds;
+    /** LISTED (default for explicit sources), LARGEST_FIRST (default otherwise) or SMALLEST_FIRST. */
+    private String strategy;
+}
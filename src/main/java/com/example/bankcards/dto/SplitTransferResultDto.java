@@ -0,0 +1,25 @@
+package com.example.bankcards.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SplitTransferResultDto {
+    private Long toCardId;
+    private BigDecimal amount;
+    private List<Leg> legs;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Leg {
+        private Long fromCardId;
+        private BigDecimal amount;
+    }
+}
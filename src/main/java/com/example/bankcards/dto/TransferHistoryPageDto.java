@@ -0,0 +1,16 @@
+package com.example.bankcards.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransferHistoryPageDto {
+    private List<TransferHistoryDto> items;
+    /** Pass as {@code cursor} to get the next page; {@code null} on the last page. */
+    private String nextCursor;
+}
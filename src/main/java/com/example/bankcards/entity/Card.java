@@ -10,8 +10,7 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
-import jakarta.persistence.PrePersist;
-import jakarta.persistence.PreUpdate;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.EqualsAndHashCode;
@@ -19,6 +18,7 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.ToString;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -31,9 +31,11 @@ import java.time.LocalDate;
 @AllArgsConstructor
 @EqualsAndHashCode(onlyExplicitlyIncluded = true)
 @ToString(exclude = "owner")
+@DynamicUpdate
 public class Card {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "cards_seq")
+    @SequenceGenerator(name = "cards_seq", sequenceName = "cards_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -50,14 +52,36 @@ public class Card {
     @Column(nullable = false)
     private CardStatus status = CardStatus.ACTIVE;
 
+    /** Ledger balance: settled funds, including the ones reserved by holds. */
     @Column(nullable = false)
     private BigDecimal balance = BigDecimal.ZERO;
 
-    @PrePersist
-    @PreUpdate
-    private void checkExpiration() {
-        if (expirationDate.isBefore(LocalDate.now())) {
-            status = CardStatus.EXPIRED;
-        }
+    /** Sum of active holds. */
+    @Column(nullable = false)
+    private BigDecimal held = BigDecimal.ZERO;
+
+    // null - действует лимит по умолчанию из transfers.limits
+    @Column(name = "daily_limit")
+    private BigDecimal dailyLimit;
+
+    @Column(name = "monthly_limit")
+    private BigDecimal monthlyLimit;
+
+    /**
+     * Checks whether the card is past its expiration date, regardless of the stored status
+     *
+     * @return true if expiration date is before today
+     */
+    public boolean isExpired() {
+        return expirationDate != null && expirationDate.isBefore(LocalDate.now());
+    }
+
+    /**
+     * Funds that can be spent now: the ledger balance minus active holds
+     *
+     * @return available balance
+     */
+    public BigDecimal getAvailableBalance() {
+        return balance.subtract(held);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,30 @@
+package com.example.bankcards.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDate;
+
+/**
+ * Card count per expiration month (first day of month), maintained by a database trigger on {@code cards}
+ */
+@Entity
+@Immutable
+@Table(name = "card_expiry_stats")
+@Getter
+@NoArgsConstructor
+@ToString
+public class CardExpiryStats {
+    @Id
+    @Column(name = "expiry_month")
+    private LocalDate expiryMonth;
+
+    @Column(name = "card_count", nullable = false)
+    private long cardCount;
+}
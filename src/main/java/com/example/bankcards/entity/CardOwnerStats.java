@@ -0,0 +1,33 @@
+package com.example.bankcards.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.Immutable;
+
+import java.math.BigDecimal;
+
+/**
+ * Card count and total balance per owner, maintained by a database trigger on {@code cards}
+ */
+@Entity
+@Immutable
+@Table(name = "card_owner_stats")
+@Getter
+@NoArgsConstructor
+@ToString
+public class CardOwnerStats {
+    @Id
+    @Column(name = "owner_id")
+    private Long ownerId;
+
+    @Column(name = "card_count", nullable = false)
+    private long cardCount;
+
+    @Column(name = "total_balance", nullable = false)
+    private BigDecimal totalBalance;
+}
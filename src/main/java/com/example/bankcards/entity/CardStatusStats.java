@@ -0,0 +1,35 @@
+package com.example.bankcards.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.Immutable;
+
+import java.math.BigDecimal;
+
+/**
+ * Card count and total balance per status, maintained by a database trigger on {@code cards}
+ */
+@Entity
+@Immutable
+@Table(name = "card_status_stats")
+@Getter
+@NoArgsConstructor
+@ToString
+public class CardStatusStats {
+    @Id
+    @Enumerated(EnumType.STRING)
+    private CardStatus status;
+
+    @Column(name = "card_count", nullable = false)
+    private long cardCount;
+
+    @Column(name = "total_balance", nullable = false)
+    private BigDecimal totalBalance;
+}
@@ -0,0 +1,65 @@
+package com.example.bankcards.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import org.hibernate.annotations.DynamicUpdate;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+
+/**
+ * Funds reserved on a card until they are captured, voided or the hold expires.
+ * While {@code HELD}, the amount is included in {@link Card#getHeld()}.
+ */
+@Entity
+@Table(name = "holds")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+@ToString
+@DynamicUpdate
+public class Hold {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "holds_seq")
+    @SequenceGenerator(name = "holds_seq", sequenceName = "holds_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "card_id", nullable = false)
+    private Long cardId;
+
+    @Column(nullable = false)
+    private BigDecimal amount;
+
+    @Column(name = "captured_amount")
+    private BigDecimal capturedAmount;
+
+    private String reference;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private HoldStatus status = HoldStatus.HELD;
+
+    @Column(name = "created_at", nullable = false)
+    private OffsetDateTime createdAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private OffsetDateTime expiresAt;
+
+    @Column(name = "closed_at")
+    private OffsetDateTime closedAt;
+}
@@ -0,0 +1,5 @@
+package com.example.bankcards.entity;
+
+public enum HoldStatus {
+    HELD, CAPTURED, VOIDED, EXPIRED
+}
@@ -1,7 +1,9 @@
 package com.example.bankcards.entity;
 
+import com.example.bankcards.cache.CacheInvalidationEntityListener;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
@@ -15,6 +17,7 @@ import lombok.ToString;
 
 @Entity
 @Table(name = "roles")
+@EntityListeners(CacheInvalidationEntityListener.class)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -0,0 +1,113 @@
+package com.example.bankcards.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import org.hibernate.annotations.DynamicUpdate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.OffsetDateTime;
+
+/**
+ * Standing order between two cards of one owner. Cards and owner are kept as ids:
+ * the executor only needs them to call the transfer, which locks and checks the cards itself.
+ */
+@Entity
+@Table(name = "scheduled_transfers")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+@ToString
+@DynamicUpdate
+public class ScheduledTransfer {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "scheduled_transfers_seq")
+    @SequenceGenerator(name = "scheduled_transfers_seq", sequenceName = "scheduled_transfers_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "owner_id", nullable = false)
+    private Long ownerId;
+
+    @Column(name = "from_card_id", nullable = false)
+    private Long fromCardId;
+
+    @Column(name = "to_card_id", nullable = false)
+    private Long toCardId;
+
+    /** Fixed amount; exclusive with {@link #percent}. */
+    private BigDecimal amount;
+
+    /** Percentage of the source balance at execution time; exclusive with {@link #amount}. */
+    private BigDecimal percent;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private TransferFrequency frequency;
+
+    @Column(name = "start_at", nullable = false)
+    private OffsetDateTime startAt;
+
+    @Column(name = "next_run_at", nullable = false)
+    private OffsetDateTime nextRunAt;
+
+    /** Number of occurrences executed or given up; the next one is {@code frequency.occurrence(startAt, occurrences)}. */
+    @Column(nullable = false)
+    private int occurrences;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private ScheduledTransferStatus status = ScheduledTransferStatus.ACTIVE;
+
+    /** Failed attempts of the current occurrence. */
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(name = "last_attempt_at")
+    private OffsetDateTime lastAttemptAt;
+
+    @Column(name = "last_error")
+    private String lastError;
+
+    /**
+     * Amount to move from the given source balance.
+     */
+    public BigDecimal amountFor(BigDecimal balance) {
+        if (amount != null) {
+            return amount;
+        }
+        return balance.multiply(percent).divide(BigDecimal.valueOf(100), 2, RoundingMode.DOWN);
+    }
+
+    /**
+     * Moves to the first occurrence after {@code now}, completing a one-time order.
+     * Occurrences missed while nothing was executing are skipped, not executed one after another.
+     */
+    public void advance(OffsetDateTime now) {
+        attempts = 0;
+        OffsetDateTime next;
+        do {
+            occurrences++;
+            next = frequency.occurrence(startAt, occurrences);
+        } while (next != null && !next.isAfter(now));
+        if (next == null) {
+            status = ScheduledTransferStatus.COMPLETED;
+        } else {
+            nextRunAt = next;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.bankcards.entity;
+
+import java.time.OffsetDateTime;
+
+public enum TransferFrequency {
+    ONCE, DAILY, WEEKLY, MONTHLY;
+
+    /**
+     * Computes the time of the given occurrence from the first one, so that e.g. a monthly order
+     * started on the 31st runs on the last day of short months and on the 31st again afterwards.
+     *
+     * @param startAt time of the first occurrence
+     * @param occurrence zero-based occurrence number
+     * @return time of the occurrence, or {@code null} if a one-time order has no such occurrence
+     */
+    public OffsetDateTime occurrence(OffsetDateTime startAt, int occurrence) {
+        return switch (this) {
+            case ONCE -> occurrence == 0 ? startAt : null;
+            case DAILY -> startAt.plusDays(occurrence);
+            case WEEKLY -> startAt.plusWeeks(occurrence);
+            case MONTHLY -> startAt.plusMonths(occurrence);
+        };
+    }
+}
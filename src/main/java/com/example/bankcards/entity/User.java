@@ -1,7 +1,9 @@
 package com.example.bankcards.entity;
 
+import com.example.bankcards.cache.CacheInvalidationEntityListener;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
@@ -9,6 +11,7 @@ import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.JoinTable;
 import jakarta.persistence.ManyToMany;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.EqualsAndHashCode;
@@ -27,6 +30,7 @@ import java.util.stream.Collectors;
 
 @Entity
 @Table(name = "users")
+@EntityListeners(CacheInvalidationEntityListener.class)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -35,7 +39,8 @@ import java.util.stream.Collectors;
 @ToString(exclude = "password")
 public class User implements UserDetails {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = 50)
     private Long id;
 
     @Column(unique = true, nullable = false)
@@ -0,0 +1,24 @@
+package com.example.bankcards.exception;
+
+/**
+ * Bulk import stopped partway. Chunks before the failure are already committed; the client resumes
+ * from {@code resumeFrom} (a CSV line number, or a zero-based row index for JSON input) without duplicating rows.
+ */
+public class BulkImportException extends IllegalArgumentException {
+    private final long committed;
+    private final long resumeFrom;
+
+    public BulkImportException(String message, long committed, long resumeFrom, Throwable cause) {
+        super(message, cause);
+        this.committed = committed;
+        this.resumeFrom = resumeFrom;
+    }
+
+    public long getCommitted() {
+        return committed;
+    }
+
+    public long getResumeFrom() {
+        return resumeFrom;
+    }
+}
@@ -1,5 +1,7 @@
 package com.example.bankcards.exception;
 
+import com.example.bankcards.dto.BulkImportErrorDto;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -14,12 +16,40 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ex.getMessage());
     }
 
+    // Превышен лимит списаний по карте
+    @ExceptionHandler(LimitExceededException.class)
+    public ResponseEntity<String> handleLimitExceeded(LimitExceededException ex) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ex.getMessage());
+    }
+
+    // Перевод отклонён проверкой на мошенничество
+    @ExceptionHandler(TransferRejectedException.class)
+    public ResponseEntity<String> handleTransferRejected(TransferRejectedException ex) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ex.getMessage());
+    }
+
+    // Перевод отложен проверкой на мошенничество, клиент может повторить после Retry-After
+    @ExceptionHandler(TransferDelayedException.class)
+    public ResponseEntity<String> handleTransferDelayed(TransferDelayedException ex) {
+        long seconds = Math.max(1, (ex.getRetryAfter().toMillis() + 999) / 1000);
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+            .header(HttpHeaders.RETRY_AFTER, String.valueOf(seconds))
+            .body(ex.getMessage());
+    }
+
     // Ошибка не найденного ресурса
     @ExceptionHandler(ResourceNotFoundException.class)
     public ResponseEntity<String> handleNotFound(ResourceNotFoundException ex) {
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ex.getMessage());
     }
 
+    // Импорт остановлен на середине: клиенту нужно число уже закоммиченных строк и место для продолжения
+    @ExceptionHandler(BulkImportException.class)
+    public ResponseEntity<BulkImportErrorDto> handleBulkImport(BulkImportException ex) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+            .body(new BulkImportErrorDto(ex.getMessage(), ex.getCommitted(), ex.getResumeFrom()));
+    }
+
     // Ошибка некорректных аргументов
     @ExceptionHandler(IllegalArgumentException.class)
     public ResponseEntity<String> handleIllegalArgument(IllegalArgumentException ex) {
@@ -0,0 +1,16 @@
+package com.example.bankcards.exception;
+
+import java.time.Duration;
+
+public class TransferDelayedException extends RuntimeException {
+    private final Duration retryAfter;
+
+    public TransferDelayedException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
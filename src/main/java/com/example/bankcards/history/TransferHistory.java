@@ -0,0 +1,100 @@
+package com.example.bankcards.history;
+
+import com.example.bankcards.dto.TransferHistoryDto;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Keyset-paginated reads of {@code transfers}, newest first. A page continues strictly after the
+ * {@code (created_at, id)} of the previous page's last row, so deep pages cost the same as the first one,
+ * and both time bounds are plain {@code created_at} conditions that prune the partitions outside the range.
+ */
+@Component
+public class TransferHistory {
+
+    private static final String COLUMNS = "id, from_card_id, to_card_id, amount, created_at";
+    private static final String PAGE = "AND created_at >= ? AND created_at <= ? AND (created_at, id) < (?, ?) "
+        + "ORDER BY created_at DESC, id DESC LIMIT ?";
+    private static final String BY_OWNER = "SELECT " + COLUMNS + " FROM transfers WHERE owner_id = ? " + PAGE;
+    // Карта бывает с обеих сторон перевода: каждая ветка идёт по своему индексу, сливаются две короткие страницы
+    private static final String BY_CARD = "(SELECT " + COLUMNS + " FROM transfers WHERE from_card_id = ? " + PAGE + ") "
+        + "UNION ALL (SELECT " + COLUMNS + " FROM transfers WHERE to_card_id = ? " + PAGE + ") "
+        + "ORDER BY created_at DESC, id DESC LIMIT ?";
+
+    private static final RowMapper<TransferHistoryDto> MAPPER = (rs, rowNum) -> {
+        TransferHistoryDto dto = new TransferHistoryDto();
+        dto.setId(rs.getLong("id"));
+        dto.setFromCardId(rs.getLong("from_card_id"));
+        dto.setToCardId(rs.getLong("to_card_id"));
+        dto.setAmount(rs.getBigDecimal("amount"));
+        dto.setCreatedAt(rs.getObject("created_at", OffsetDateTime.class));
+        return dto;
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public TransferHistory(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * @param from inclusive lower bound of {@code created_at}
+     * @param before position to continue after: the previous page's cursor, or {@link Cursor#first} of the upper bound
+     * @param limit maximum number of rows
+     */
+    public List<TransferHistoryDto> findByOwner(Long ownerId, OffsetDateTime from, Cursor before, int limit) {
+        return jdbcTemplate.query(BY_OWNER, MAPPER, ownerId, from, before.createdAt(), before.createdAt(), before.id(), limit);
+    }
+
+    /**
+     * Transfers from or to the card, with the same paging as {@link #findByOwner}.
+     */
+    public List<TransferHistoryDto> findByCard(Long cardId, OffsetDateTime from, Cursor before, int limit) {
+        return jdbcTemplate.query(BY_CARD, MAPPER,
+            cardId, from, before.createdAt(), before.createdAt(), before.id(), limit,
+            cardId, from, before.createdAt(), before.createdAt(), before.id(), limit,
+            limit);
+    }
+
+    /**
+     * Position in the history: rows strictly older than {@code (createdAt, id)} come next.
+     */
+    public record Cursor(OffsetDateTime createdAt, long id) {
+
+        /**
+         * Starts before everything created at or after {@code to}; IDs are positive.
+         */
+        public static Cursor first(OffsetDateTime to) {
+            return new Cursor(to, 0);
+        }
+
+        public static Cursor after(TransferHistoryDto last) {
+            return new Cursor(last.getCreatedAt(), last.getId());
+        }
+
+        public static Cursor decode(String value) {
+            try {
+                String decoded = new String(Base64.getUrlDecoder().decode(value), StandardCharsets.UTF_8);
+                int separator = decoded.lastIndexOf('|');
+                return new Cursor(Instant.parse(decoded.substring(0, separator)).atOffset(ZoneOffset.UTC),
+                    Long.parseLong(decoded.substring(separator + 1)));
+            } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+                throw new IllegalArgumentException("Invalid cursor: " + value);
+            }
+        }
+
+        public String encode() {
+            return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((createdAt.toInstant() + "|" + id).getBytes(StandardCharsets.UTF_8));
+        }
+    }
+}
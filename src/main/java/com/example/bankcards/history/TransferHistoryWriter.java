@@ -0,0 +1,58 @@
+package com.example.bankcards.history;
+
+import com.example.bankcards.outbox.TransferCompletedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collects the transfers of the current transaction and inserts them into {@code transfers} with one JDBC batch
+ * right before commit, so the history has a row if and only if the transfer is committed.
+ */
+@Component
+public class TransferHistoryWriter {
+
+    private static final String INSERT = "INSERT INTO transfers (owner_id, from_card_id, to_card_id, amount) "
+        + "VALUES (?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public TransferHistoryWriter(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @EventListener
+    public void onTransferCompleted(TransferCompletedEvent event) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Transfer history can only be written inside a transaction");
+        }
+        PendingTransfers pending = (PendingTransfers) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new PendingTransfers();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        pending.rows.add(new Object[] {event.ownerId(), event.fromCardId(), event.toCardId(), event.amount()});
+    }
+
+    private class PendingTransfers implements TransactionSynchronization {
+
+        private final List<Object[]> rows = new ArrayList<>();
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            // created_at = now(), время начала транзакции: части одного разбиения получают одно время и разные id
+            jdbcTemplate.batchUpdate(INSERT, rows);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResource(TransferHistoryWriter.this);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.bankcards.history;
+
+import com.example.bankcards.config.TransferHistoryProperties;
+import com.example.bankcards.scheduling.ClusterJob;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * Keeps monthly partitions of {@code transfers} ahead of time and drops the ones past retention.
+ * Partitions are bounded in UTC and named {@code transfers_pYYYYMM}.
+ */
+@Component
+@EnableConfigurationProperties(TransferHistoryProperties.class)
+public class TransferPartitions {
+
+    private static final Logger log = LoggerFactory.getLogger(TransferPartitions.class);
+
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransferHistoryProperties properties;
+
+    public TransferPartitions(JdbcTemplate jdbcTemplate, TransferHistoryProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties;
+    }
+    /**
+     * Creates missing partitions up to {@code partitions-ahead} months and drops expired ones.
+     *
+     * @return number of created and dropped partitions
+     */
+    @Scheduled(fixedDelayString = "${transfers.history.partition-check-interval:PT6H}")
+    @ClusterJob("transfer-partitions")
+    public int maintain() {
+        LocalDate month = LocalDate.now(ZoneOffset.UTC).withDayOfMonth(1);
+        int changed = 0;
+        for (int i = 0; i <= properties.getPartitionsAhead(); i++) {
+            if (Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT create_transfers_partition(?)", Boolean.class,
+                month.plusMonths(i)))) {
+                changed++;
+            }
+        }
+        if (properties.getRetentionMonths() > 0) {
+            String oldest = "transfers_p" + month.minusMonths(properties.getRetentionMonths()).format(SUFFIX);
+            for (String partition : partitions()) {
+                // Имена сравниваются как даты: transfers_pYYYYMM
+                if (partition.matches("transfers_p\\d{6}") && partition.compareTo(oldest) < 0) {
+                    jdbcTemplate.execute("DROP TABLE " + partition);
+                    log.info("Dropped transfer history partition {}", partition);
+                    changed++;
+                }
+            }
+        }
+        return changed;
+    }
+
+    public List<String> partitions() {
+        return jdbcTemplate.queryForList("SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid "
+            + "WHERE i.inhparent = 'transfers'::regclass ORDER BY c.relname", String.class);
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.bankcards.holds;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Hierarchical timing wheel of IDs with deadlines. Level {@code i} has {@code wheelSize} slots of
+ * {@code tick * wheelSize^i} each; an entry sits on the lowest level whose range covers its deadline and moves
+ * down when the clock reaches its slot, so advancing by one tick touches one slot per level instead of all entries.
+ * Deadlines beyond the top level wait in its farthest slot and are re-placed when it comes up.
+ * <p>
+ * Deadlines are rounded up to the tick: an entry never fires early and at most one tick late.
+ * All methods are synchronized and O(1) per entry; the wheel is shared by request threads and the ticking thread.
+ */
+public class HierarchicalTimingWheel {
+
+    private final long tickMillis;
+    private final int wheelSize;
+    private final long[] spans;
+    private final List<List<Set<Entry>>> levels;
+    private final Map<Long, Entry> entries = new HashMap<>();
+    private long currentTick;
+
+    public HierarchicalTimingWheel(long tickMillis, int wheelSize, int levelCount, long startMillis) {
+        this.tickMillis = tickMillis;
+        this.wheelSize = wheelSize;
+        this.spans = new long[levelCount + 1];
+        this.levels = new ArrayList<>(levelCount);
+        long span = 1;
+        for (int level = 0; level <= levelCount; level++) {
+            spans[level] = span;
+            span = Math.multiplyExact(span, wheelSize);
+        }
+        for (int level = 0; level < levelCount; level++) {
+            List<Set<Entry>> slots = new ArrayList<>(wheelSize);
+            for (int slot = 0; slot < wheelSize; slot++) {
+                slots.add(new LinkedHashSet<>());
+            }
+            levels.add(slots);
+        }
+        this.currentTick = startMillis / tickMillis;
+    }
+    /**
+     * Schedules an ID, replacing its previous deadline.
+     *
+     * @return {@code true} if the deadline has already passed; the ID is then not scheduled and is due now
+     */
+    public synchronized boolean schedule(long id, long deadlineMillis) {
+        cancel(id);
+        // Округление вверх: запись не срабатывает раньше срока
+        long deadlineTick = (deadlineMillis + tickMillis - 1) / tickMillis;
+        if (deadlineTick <= currentTick) {
+            return true;
+        }
+        Entry entry = new Entry(id, deadlineTick);
+        entries.put(id, entry);
+        place(entry);
+        return false;
+    }
+
+    public synchronized boolean cancel(long id) {
+        Entry entry = entries.remove(id);
+        if (entry == null) {
+            return false;
+        }
+        entry.slot.remove(entry);
+        return true;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+    /**
+     * Moves the clock to {@code nowMillis} tick by tick.
+     *
+     * @return IDs whose deadline has been reached, tick by tick
+     */
+    public synchronized List<Long> advance(long nowMillis) {
+        long nowTick = nowMillis / tickMillis;
+        List<Long> due = new ArrayList<>();
+        while (currentTick < nowTick) {
+            currentTick++;
+            // Сначала спускаем слоты верхних уровней, чей интервал начинается с этого тика
+            for (int level = levels.size() - 1; level > 0; level--) {
+                if (currentTick % spans[level] == 0) {
+                    Set<Entry> slot = levels.get(level).get((int) ((currentTick / spans[level]) % wheelSize));
+                    List<Entry> cascaded = new ArrayList<>(slot);
+                    slot.clear();
+                    for (Entry entry : cascaded) {
+                        if (entry.deadlineTick <= currentTick) {
+                            expire(entry, due);
+                        } else {
+                            place(entry);
+                        }
+                    }
+                }
+            }
+            Set<Entry> slot = levels.get(0).get((int) (currentTick % wheelSize));
+            for (Entry entry : new ArrayList<>(slot)) {
+                expire(entry, due);
+            }
+            slot.clear();
+        }
+        return due;
+    }
+
+    private void place(Entry entry) {
+        long delta = entry.deadlineTick - currentTick;
+        int top = levels.size() - 1;
+        int level = 0;
+        while (level < top && delta >= spans[level + 1]) {
+            level++;
+        }
+        // Дальше горизонта - в самый дальний слот верхнего уровня, оттуда запись будет размещена заново
+        long placeTick = delta >= spans[top + 1] ? currentTick + spans[top + 1] - 1 : entry.deadlineTick;
+        Set<Entry> slot = levels.get(level).get((int) ((placeTick / spans[level]) % wheelSize));
+        slot.add(entry);
+        entry.slot = slot;
+    }
+
+    private void expire(Entry entry, List<Long> due) {
+        entries.remove(entry.id);
+        due.add(entry.id);
+    }
+
+    private static final class Entry {
+        final long id;
+        final long deadlineTick;
+        Set<Entry> slot;
+
+        Entry(long id, long deadlineTick) {
+            this.id = id;
+            this.deadlineTick = deadlineTick;
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package com.example.bankcards.holds;
+
+import com.example.bankcards.config.HoldProperties;
+import com.example.bankcards.entity.HoldStatus;
+import com.example.bankcards.outbox.HoldChangedEvent;
+import com.example.bankcards.scheduling.ClusterJob;
+import com.example.bankcards.service.HoldService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Expires holds at their deadline. Every node keeps all active holds in a {@link HierarchicalTimingWheel}:
+ * it is filled from {@code holds} on startup by a keyset scan over the partial index of active holds and then
+ * follows the holds committed on this node, so a tick touches only the holds due in it instead of querying the table.
+ * Several nodes may expire the same hold; {@link HoldService#expireHold} closes it once.
+ * <p>
+ * Holds placed on another node after this one has started are not in its wheel; they, and holds whose expiry
+ * failed, are expired by the sweep on the leader, with at most {@code holds.sweep-interval} delay.
+ */
+@Component
+public class HoldExpiryScheduler implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(HoldExpiryScheduler.class);
+
+    private static final String FIRST_PAGE = "SELECT id, expires_at FROM holds WHERE status = 'HELD' "
+        + "ORDER BY expires_at, id LIMIT ?";
+    // Условие и порядок совпадают с частичным индексом idx_holds_active
+    private static final String NEXT_PAGE = "SELECT id, expires_at FROM holds WHERE status = 'HELD' "
+        + "AND (expires_at, id) > (?, ?) ORDER BY expires_at, id LIMIT ?";
+    private static final String OVERDUE = "SELECT id FROM holds WHERE status = 'HELD' AND expires_at <= ? "
+        + "ORDER BY expires_at, id LIMIT ?";
+
+    private final HoldService holdService;
+    private final JdbcTemplate jdbcTemplate;
+    private final HoldProperties properties;
+    private final HierarchicalTimingWheel wheel;
+    private final long tickMillis;
+    private final Counter expiredByWheel;
+    private final Counter expiredBySweep;
+
+    private volatile boolean running;
+    private Thread thread;
+
+    public HoldExpiryScheduler(HoldService holdService, JdbcTemplate jdbcTemplate, HoldProperties properties,
+                               MeterRegistry meterRegistry) {
+        this.holdService = holdService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties;
+        this.tickMillis = properties.getWheel().getTick().toMillis();
+        this.wheel = new HierarchicalTimingWheel(tickMillis, properties.getWheel().getSize(),
+            properties.getWheel().getLevels(), System.currentTimeMillis());
+        this.expiredByWheel = Counter.builder("bank.holds.expired").tag("source", "wheel").register(meterRegistry);
+        this.expiredBySweep = Counter.builder("bank.holds.expired").tag("source", "sweep").register(meterRegistry);
+        Gauge.builder("bank.holds.wheel.size", wheel, HierarchicalTimingWheel::size).register(meterRegistry);
+    }
+
+    @Override
+    public synchronized void start() {
+        running = true;
+        thread = new Thread(this::run, "hold-expiry");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public synchronized void stop() {
+        running = false;
+        if (thread != null) {
+            thread.interrupt();
+            try {
+                thread.join(10_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            thread = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Called only after the placing or closing transaction has committed.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onHoldChanged(HoldChangedEvent event) {
+        if (event.status() == HoldStatus.HELD) {
+            // Срок уже прошёл (долгий коммит): сработает на ближайшем тике
+            if (wheel.schedule(event.holdId(), event.expiresAt().toInstant().toEpochMilli())) {
+                wheel.schedule(event.holdId(), System.currentTimeMillis() + tickMillis);
+            }
+        } else {
+            wheel.cancel(event.holdId());
+        }
+    }
+
+    /**
+     * Expires overdue holds that no wheel has expired, batch by batch.
+     *
+     * @return number of expired holds
+     */
+    @Scheduled(fixedDelayString = "${holds.sweep-interval:PT1M}")
+    @ClusterJob("hold-expiry-sweep")
+    public int sweep() {
+        OffsetDateTime now = OffsetDateTime.now();
+        int total = 0;
+        List<Long> batch;
+        do {
+            batch = jdbcTemplate.queryForList(OVERDUE, Long.class, now, properties.getSweepBatchSize());
+            int expired = 0;
+            for (Long id : batch) {
+                if (expire(id)) {
+                    expired++;
+                }
+            }
+            total += expired;
+            if (expired == 0) {
+                // Ни один холд не закрылся (например, БД недоступна): не крутимся на той же пачке
+                break;
+            }
+        } while (batch.size() == properties.getSweepBatchSize());
+        if (total > 0) {
+            expiredBySweep.increment(total);
+            log.info("Overdue holds expired by sweep: {}", total);
+        }
+        return total;
+    }
+
+    /**
+     * @return number of active holds in the wheel of this node
+     */
+    public int getScheduledCount() {
+        return wheel.size();
+    }
+
+    /**
+     * Fills the wheel with all active holds. Holds committed meanwhile are scheduled by {@link #onHoldChanged};
+     * a hold closed meanwhile may be scheduled again and is then skipped on expiry.
+     *
+     * @return number of loaded holds
+     */
+    public int rebuild() {
+        int loaded = 0;
+        List<Long> due = new ArrayList<>();
+        OffsetDateTime lastExpiresAt = null;
+        Long lastId = null;
+        int pageSize = properties.getRebuildBatchSize();
+        RowMapper<ActiveHold> mapper = (rs, i) -> new ActiveHold(rs.getLong(1), rs.getObject(2, OffsetDateTime.class));
+        List<ActiveHold> page;
+        do {
+            page = lastId == null
+                ? jdbcTemplate.query(FIRST_PAGE, mapper, pageSize)
+                : jdbcTemplate.query(NEXT_PAGE, mapper, lastExpiresAt, lastId, pageSize);
+            for (ActiveHold hold : page) {
+                lastId = hold.id();
+                lastExpiresAt = hold.expiresAt();
+                if (wheel.schedule(lastId, lastExpiresAt.toInstant().toEpochMilli())) {
+                    due.add(lastId);
+                }
+            }
+            loaded += page.size();
+        } while (page.size() == pageSize);
+        due.forEach(this::expireFromWheel);
+        return loaded;
+    }
+
+    private void run() {
+        try {
+            log.info("Hold expiry wheel rebuilt with {} active holds", rebuild());
+        } catch (RuntimeException e) {
+            log.warn("Failed to rebuild hold expiry wheel, overdue holds are left to the sweep", e);
+        }
+        while (running) {
+            try {
+                Thread.sleep(tickMillis);
+            } catch (InterruptedException e) {
+                return;
+            }
+            wheel.advance(System.currentTimeMillis()).forEach(this::expireFromWheel);
+        }
+    }
+
+    private void expireFromWheel(Long id) {
+        if (expire(id)) {
+            expiredByWheel.increment();
+        }
+    }
+
+    private boolean expire(Long id) {
+        try {
+            return holdService.expireHold(id, OffsetDateTime.now());
+        } catch (RuntimeException e) {
+            log.warn("Failed to expire hold {}, left to the sweep", id, e);
+            return false;
+        }
+    }
+
+    private record ActiveHold(Long id, OffsetDateTime expiresAt) {
+    }
+}
@@ -0,0 +1,383 @@
+package com.example.bankcards.limits;
+
+import com.example.bankcards.config.CardLimitProperties;
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.exception.LimitExceededException;
+import com.example.bankcards.scheduling.ClusterJob;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.PreparedStatement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Daily and monthly outgoing limits of cards. Spent amounts are counted in memory per card and period, so a transfer
+ * checks and adds to its counters without a database round trip; the accumulated deltas are added to
+ * {@code card_limits_usage} by one upsert every {@code transfers.limits.flush-interval}, and every flush re-reads
+ * the totals of all cached counters, so usage of other nodes is seen at most one flush interval late.
+ * The first transfer of a card after a restart loads its counters from the table.
+ * <p>
+ * Within {@code transfers.limits.sync-headroom} of a limit the in-memory check is not trusted: the amount is added
+ * to the table by a conditional upsert in the transfer's transaction, which sees all flushed usage of all nodes.
+ * <p>
+ * Check and add are not atomic by themselves: the caller must hold the row lock of the card, which serializes
+ * transfers from one card across threads and nodes.
+ */
+@Component
+@EnableConfigurationProperties(CardLimitProperties.class)
+public class CardLimits {
+
+    private static final Logger log = LoggerFactory.getLogger(CardLimits.class);
+
+    static final String DAY = "DAY";
+    static final String MONTH = "MONTH";
+
+    private static final int FLUSH_CHUNK = 1000;
+    private static final String LOAD = "SELECT period, (amount * 100)::bigint AS cents FROM card_limits_usage "
+        + "WHERE card_id = ? AND ((period = 'DAY' AND period_start = ?) OR (period = 'MONTH' AND period_start = ?))";
+    // Карты, удалённые после перевода, отбрасываются соединением, иначе внешний ключ валил бы всю пачку
+    private static final String FLUSH = """
+        INSERT INTO card_limits_usage (card_id, period, period_start, amount)
+        SELECT u.card_id, u.period, u.period_start, u.cents / 100.0
+        FROM unnest(?::bigint[], ?::varchar[], ?::date[], ?::bigint[]) AS u(card_id, period, period_start, cents)
+        JOIN cards c ON c.id = u.card_id
+        ON CONFLICT (card_id, period, period_start)
+        DO UPDATE SET amount = card_limits_usage.amount + excluded.amount, updated_at = now()
+        RETURNING card_id, period, period_start, (amount * 100)::bigint AS cents
+        """;
+    private static final String REFRESH = """
+        SELECT u.card_id, u.period, u.period_start, (u.amount * 100)::bigint AS cents
+        FROM unnest(?::bigint[], ?::varchar[], ?::date[]) AS k(card_id, period, period_start)
+        JOIN card_limits_usage u USING (card_id, period, period_start)
+        """;
+    // Новая строка не проверяется: без строки в таблице расход равен локальному, а его уже проверили в памяти
+    private static final String RESERVE = """
+        INSERT INTO card_limits_usage (card_id, period, period_start, amount)
+        VALUES (?, ?, ?, ? / 100.0)
+        ON CONFLICT (card_id, period, period_start)
+        DO UPDATE SET amount = card_limits_usage.amount + excluded.amount, updated_at = now()
+        WHERE (card_limits_usage.amount * 100)::bigint + ? <= ?
+        RETURNING card_id
+        """;
+    private static final Comparator<Key> KEY_ORDER = Comparator.comparingLong(Key::cardId)
+        .thenComparing(Key::period)
+        .thenComparing(Key::start);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CardLimitProperties properties;
+    private final Map<Key, Usage> counters = new ConcurrentHashMap<>();
+    private final Counter dailyRejected;
+    private final Counter monthlyRejected;
+
+    public CardLimits(JdbcTemplate jdbcTemplate, CardLimitProperties properties, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties;
+        this.dailyRejected = Counter.builder("bank.card_limits.rejected").tag("period", "daily").register(meterRegistry);
+        this.monthlyRejected = Counter.builder("bank.card_limits.rejected").tag("period", "monthly").register(meterRegistry);
+        Gauge.builder("bank.card_limits.counters", counters, Map::size).register(meterRegistry);
+    }
+    /**
+     * Checks that {@code amount} fits into the remaining daily and monthly limits of the card and counts it.
+     * Inside a transaction the amount is given back if the transaction rolls back.
+     *
+     * @param card source card, locked by the current transaction
+     * @param amount outgoing amount
+     * @throws LimitExceededException if the daily or monthly limit would be exceeded
+     */
+    public void reserve(Card card, BigDecimal amount) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        long cents = toCents(amount, RoundingMode.UP);
+        LocalDate today = LocalDate.now(properties.getZone());
+        Key dayKey = new Key(card.getId(), DAY, today);
+        Key monthKey = new Key(card.getId(), MONTH, today.withDayOfMonth(1));
+        Usage day = counters.computeIfPresent(dayKey, (key, usage) -> usage.touch());
+        Usage month = counters.computeIfPresent(monthKey, (key, usage) -> usage.touch());
+        if (day == null || month == null) {
+            Map<String, Long> stored = load(card.getId(), dayKey.start(), monthKey.start());
+            day = counters.compute(dayKey, (key, usage) -> usage != null ? usage.touch() : new Usage(stored.getOrDefault(DAY, 0L)));
+            month = counters.compute(monthKey, (key, usage) -> usage != null ? usage.touch() : new Usage(stored.getOrDefault(MONTH, 0L)));
+        }
+
+        BigDecimal dailyLimit = card.getDailyLimit() != null ? card.getDailyLimit() : properties.getDaily();
+        long dailyCents = toCents(dailyLimit, RoundingMode.DOWN);
+        if (day.spent() + cents > dailyCents) {
+            dailyRejected.increment();
+            throw new LimitExceededException("Daily limit exceeded for card with id: " + card.getId());
+        }
+        BigDecimal monthlyLimit = card.getMonthlyLimit() != null ? card.getMonthlyLimit() : properties.getMonthly();
+        long monthlyCents = toCents(monthlyLimit, RoundingMode.DOWN);
+        if (month.spent() + cents > monthlyCents) {
+            monthlyRejected.increment();
+            throw new LimitExceededException("Monthly limit exceeded for card with id: " + card.getId());
+        }
+
+        // Близко к лимиту расход других узлов мог ещё не дойти до памяти: проверяем по таблице
+        boolean syncDay = nearLimit(day, cents, dailyCents);
+        boolean syncMonth = nearLimit(month, cents, monthlyCents);
+        if (syncDay && !reserveInTable(dayKey, day, cents, dailyCents)) {
+            dailyRejected.increment();
+            throw new LimitExceededException("Daily limit exceeded for card with id: " + card.getId());
+        }
+        if (syncMonth && !reserveInTable(monthKey, month, cents, monthlyCents)) {
+            // Запись дневного расхода откатится вместе с транзакцией
+            monthlyRejected.increment();
+            throw new LimitExceededException("Monthly limit exceeded for card with id: " + card.getId());
+        }
+        List<Usage> pending = new ArrayList<>(2);
+        List<Usage> synced = new ArrayList<>(2);
+        (syncDay ? synced : pending).add(day);
+        (syncMonth ? synced : pending).add(month);
+        pending.forEach(usage -> usage.pending.add(cents));
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            synced.forEach(usage -> usage.synced.add(cents));
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                // Записанное в таблицу учитывается в памяти до следующего перечитывания
+                synced.forEach(usage -> usage.synced.add(cents));
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                // При неизвестном исходе сумма остаётся учтённой: лучше отказать лишний раз, чем пропустить сверх лимита
+                if (status == STATUS_ROLLED_BACK) {
+                    pending.forEach(usage -> usage.pending.add(-cents));
+                }
+            }
+        });
+    }
+    /**
+     * Adds usage accumulated since the previous flush to {@code card_limits_usage}, re-reads the totals of all other
+     * cached counters and drops idle counters. Every node flushes its own counters, so this is not a cluster job.
+     * A failed flush is retried on the next run.
+     *
+     * @return number of written counters
+     */
+    @Scheduled(fixedDelayString = "${transfers.limits.flush-interval:1s}")
+    public synchronized int flush() {
+        long idleBefore = System.nanoTime() - properties.getIdleEviction().toNanos();
+        List<Key> dirty = new ArrayList<>();
+        List<Key> clean = new ArrayList<>();
+        for (Map.Entry<Key, Usage> entry : counters.entrySet()) {
+            Usage usage = entry.getValue();
+            long drained = usage.pending.sum();
+            if (drained != 0) {
+                // Сначала base и unflushed, потом pending: читатель на мгновение видит сумму дважды, но никогда - ни разу
+                usage.base += drained;
+                usage.unflushed += drained;
+                usage.pending.add(-drained);
+            }
+            if (usage.unflushed != 0) {
+                dirty.add(entry.getKey());
+            } else if (usage.lastUsed < idleBefore) {
+                // Перевод, успевший взять счётчик до удаления, уже обновил lastUsed внутри computeIfPresent
+                Usage kept = counters.computeIfPresent(entry.getKey(), (key, current) ->
+                    current.lastUsed < idleBefore && current.pending.sum() == 0 && current.unflushed == 0 ? null : current);
+                if (kept != null) {
+                    clean.add(entry.getKey());
+                }
+            } else {
+                clean.add(entry.getKey());
+            }
+        }
+        dirty.sort(KEY_ORDER);
+        int written = 0;
+        for (int from = 0; from < dirty.size(); from += FLUSH_CHUNK) {
+            written += write(dirty.subList(from, Math.min(from + FLUSH_CHUNK, dirty.size())));
+        }
+        for (int from = 0; from < clean.size(); from += FLUSH_CHUNK) {
+            refresh(clean.subList(from, Math.min(from + FLUSH_CHUNK, clean.size())));
+        }
+        return written;
+    }
+    /**
+     * Deletes usage of periods that ended more than {@code transfers.limits.retention} ago.
+     *
+     * @return number of deleted rows
+     */
+    @Scheduled(cron = "${transfers.limits.cleanup-cron:0 50 0 * * *}")
+    @ClusterJob("card-limits-cleanup")
+    public int purgeUsage() {
+        LocalDate before = LocalDate.now(properties.getZone()).minusDays(properties.getRetention().toDays());
+        return jdbcTemplate.update("DELETE FROM card_limits_usage WHERE period_start < ?", before);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private int write(List<Key> keys) {
+        Map<Key, Usage> batch = new HashMap<>(keys.size() * 2);
+        Long[] cardIds = new Long[keys.size()];
+        String[] periods = new String[keys.size()];
+        String[] starts = new String[keys.size()];
+        Long[] deltas = new Long[keys.size()];
+        for (int i = 0; i < keys.size(); i++) {
+            Key key = keys.get(i);
+            Usage usage = counters.get(key);
+            batch.put(key, usage);
+            cardIds[i] = key.cardId();
+            periods[i] = key.period();
+            starts[i] = key.start().toString();
+            deltas[i] = usage.unflushed;
+            usage.syncedBefore = usage.synced.sum();
+        }
+        Map<Key, Long> totals = new HashMap<>(keys.size() * 2);
+        try {
+            jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement(FLUSH);
+                statement.setArray(1, connection.createArrayOf("bigint", cardIds));
+                statement.setArray(2, connection.createArrayOf("varchar", periods));
+                statement.setArray(3, connection.createArrayOf("varchar", starts));
+                statement.setArray(4, connection.createArrayOf("bigint", deltas));
+                return statement;
+            }, rs -> {
+                totals.put(new Key(rs.getLong("card_id"), rs.getString("period"),
+                    rs.getObject("period_start", LocalDate.class)), rs.getLong("cents"));
+            });
+        } catch (DataAccessException e) {
+            log.warn("Failed to flush card limit usage of {} counters, will retry", keys.size(), e);
+            return 0;
+        }
+        batch.forEach((key, usage) -> {
+            Long total = totals.get(key);
+            if (total == null) {
+                // Карта удалена вместе со своим расходом
+                counters.remove(key, usage);
+                return;
+            }
+            // Итог таблицы включает записанную дельту и расход других узлов; новое с момента выборки осталось в pending
+            usage.rebase(total);
+            usage.unflushed = 0;
+        });
+        return totals.size();
+    }
+
+    private void refresh(List<Key> keys) {
+        Map<Key, Usage> batch = new HashMap<>(keys.size() * 2);
+        Long[] cardIds = new Long[keys.size()];
+        String[] periods = new String[keys.size()];
+        String[] starts = new String[keys.size()];
+        for (int i = 0; i < keys.size(); i++) {
+            Key key = keys.get(i);
+            Usage usage = counters.get(key);
+            if (usage == null) {
+                continue;
+            }
+            batch.put(key, usage);
+            cardIds[i] = key.cardId();
+            periods[i] = key.period();
+            starts[i] = key.start().toString();
+            usage.syncedBefore = usage.synced.sum();
+        }
+        Map<Key, Long> totals = new HashMap<>(keys.size() * 2);
+        try {
+            jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement(REFRESH);
+                statement.setArray(1, connection.createArrayOf("bigint", cardIds));
+                statement.setArray(2, connection.createArrayOf("varchar", periods));
+                statement.setArray(3, connection.createArrayOf("varchar", starts));
+                return statement;
+            }, rs -> {
+                totals.put(new Key(rs.getLong("card_id"), rs.getString("period"),
+                    rs.getObject("period_start", LocalDate.class)), rs.getLong("cents"));
+            });
+        } catch (DataAccessException e) {
+            log.warn("Failed to refresh card limit usage of {} counters, will retry", keys.size(), e);
+            return;
+        }
+        // Нет строки - никто из узлов ещё не записал расход за период, либо строку удалили вместе с картой
+        batch.forEach((key, usage) -> usage.rebase(totals.getOrDefault(key, 0L)));
+    }
+
+    private boolean nearLimit(Usage usage, long cents, long limitCents) {
+        return limitCents - usage.spent() - cents < limitCents * properties.getSyncHeadroom();
+    }
+
+    private boolean reserveInTable(Key key, Usage usage, long cents, long limitCents) {
+        // Сначала pending, потом unflushed: см. порядок записи в flush()
+        long unwritten = usage.pending.sum() + usage.unflushed;
+        List<Long> updated = jdbcTemplate.queryForList(RESERVE, Long.class, key.cardId(), key.period(), key.start(),
+            cents, unwritten + cents, limitCents);
+        return !updated.isEmpty();
+    }
+
+    private Map<String, Long> load(Long cardId, LocalDate day, LocalDate month) {
+        Map<String, Long> stored = new HashMap<>(4);
+        jdbcTemplate.query(LOAD, rs -> {
+            stored.put(rs.getString("period"), rs.getLong("cents"));
+        }, cardId, day, month);
+        return stored;
+    }
+
+    private static long toCents(BigDecimal amount, RoundingMode rounding) {
+        return amount.setScale(2, rounding).movePointRight(2).longValueExact();
+    }
+
+    record Key(long cardId, String period, LocalDate start) {
+    }
+
+    /**
+     * Spent amount of one card in one period, in cents. Transfer threads only add to {@code pending} and
+     * {@code synced}; {@code base} and {@code unflushed} are written by the flushing thread alone.
+     */
+    private static final class Usage {
+        final LongAdder pending = new LongAdder();
+        // Закоммиченные суммы, записанные в таблицу самим переводом, но ещё не попавшие в base
+        final LongAdder synced = new LongAdder();
+        // Итог таблицы плюс снятое с pending, включая ещё не записанное unflushed
+        volatile long base;
+        volatile long unflushed;
+        long syncedBefore;
+        volatile long lastUsed = System.nanoTime();
+
+        Usage(long base) {
+            this.base = base;
+        }
+
+        Usage touch() {
+            lastUsed = System.nanoTime();
+            return this;
+        }
+
+        /**
+         * Replaces {@code base} with the table total read after {@code syncedBefore} was taken. A synced amount
+         * committed in between is counted twice until the next flush, which only errs toward rejecting.
+         */
+        void rebase(long total) {
+            base = total;
+            synced.add(-syncedBefore);
+        }
+
+        long spent() {
+            // pending читается раньше base, см. порядок записи в flush()
+            return pending.sum() + base + synced.sum();
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.bankcards.monitoring;
+
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * Attributes time spent in card crypto and JWT handling to the current request
+ * and, for sampled traces, opens a child span per call
+ */
+@Aspect
+@Component
+public class RequestTimingAspect {
+
+    private final ObjectProvider<Tracer> tracer;
+
+    public RequestTimingAspect(ObjectProvider<Tracer> tracer) {
+        this.tracer = tracer;
+    }
+
+    @Around("execution(public * com.example.bankcards.util.CardUtil.*(..))")
+    public Object timeCrypto(ProceedingJoinPoint joinPoint) throws Throwable {
+        return timed(joinPoint, TimingCategory.CRYPTO);
+    }
+
+    @Around("execution(public * com.example.bankcards.security.JwtService.*(..))")
+    public Object timeJwt(ProceedingJoinPoint joinPoint) throws Throwable {
+        return timed(joinPoint, TimingCategory.JWT);
+    }
+
+    private Object timed(ProceedingJoinPoint joinPoint, TimingCategory category) throws Throwable {
+        if (RequestTimings.current() == null) {
+            return joinPoint.proceed();
+        }
+        Span span = TimingSpans.start(tracer, category, joinPoint.getSignature().getName());
+        Throwable error = null;
+        long start = System.nanoTime();
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            error = e;
+            throw e;
+        } finally {
+            RequestTimings.record(category, System.nanoTime() - start);
+            TimingSpans.end(span, error);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.bankcards.monitoring;
+
+import com.example.bankcards.config.QueryBudgetProperties;
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+
+/**
+ * Binds {@link RequestTimings} to the request, emits the {@code Server-Timing} header and
+ * copies the per-category breakdown to the current tracing span.
+ * Runs inside the HTTP server observation and before the security filter chain, so JWT work is included.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class RequestTimingFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "Server-Timing";
+
+    private static final Logger log = LoggerFactory.getLogger(RequestTimingFilter.class);
+
+    private final ObjectProvider<Tracer> tracer;
+    private final QueryBudgetProperties queryBudget;
+
+    public RequestTimingFilter(ObjectProvider<Tracer> tracer, QueryBudgetProperties queryBudget) {
+        this.tracer = tracer;
+        this.queryBudget = queryBudget;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+        throws ServletException, IOException {
+        RequestTimings timings = RequestTimings.start();
+        try {
+            filterChain.doFilter(request, new TimingResponseWrapper(response, timings));
+        } finally {
+            RequestTimings.clear();
+            if (!response.isCommitted() && !response.containsHeader(HEADER)) {
+                response.setHeader(HEADER, timings.toServerTimingHeader());
+            }
+            tagSpan(timings);
+            checkQueryBudget(request, timings);
+        }
+    }
+
+    private void checkQueryBudget(HttpServletRequest request, RequestTimings timings) {
+        if (!queryBudget.isEnabled()) {
+            return;
+        }
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String endpoint = request.getMethod() + " " + (pattern != null ? pattern : request.getRequestURI());
+        int queries = timings.getCount(TimingCategory.DB);
+        int budget = queryBudget.budgetFor(endpoint);
+        if (queries > budget) {
+            log.warn("Query budget exceeded for {}: {} statements, budget {}", endpoint, queries, budget);
+        }
+    }
+
+    /**
+     * Adds the header right before the body is obtained, i.e. before the response can be committed.
+     * JSON bodies get a more complete header from {@link TimedJacksonHttpMessageConverter}.
+     */
+    private static class TimingResponseWrapper extends HttpServletResponseWrapper {
+
+        private final RequestTimings timings;
+
+        TimingResponseWrapper(HttpServletResponse response, RequestTimings timings) {
+            super(response);
+            this.timings = timings;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            addHeader();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            addHeader();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            addHeader();
+            super.flushBuffer();
+        }
+
+        private void addHeader() {
+            if (!isCommitted() && !containsHeader(HEADER)) {
+                setHeader(HEADER, timings.toServerTimingHeader());
+            }
+        }
+    }
+
+    private void tagSpan(RequestTimings timings) {
+        Tracer currentTracer = tracer.getIfAvailable();
+        Span span = currentTracer != null ? currentTracer.currentSpan() : null;
+        if (span == null) {
+            return;
+        }
+        for (TimingCategory category : TimingCategory.values()) {
+            if (timings.getCount(category) > 0) {
+                span.tag("timing." + category.getMetricName() + ".ms", timings.getNanos(category) / 1_000_000d);
+                span.tag("timing." + category.getMetricName() + ".count", timings.getCount(category));
+            }
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.bankcards.monitoring;
+
+import java.util.Locale;
+
+/**
+ * Per-request accumulator of time spent in each {@link TimingCategory}.
+ * Bound to the request thread by {@link RequestTimingFilter}; recording outside a request is a no-op.
+ */
+public final class RequestTimings {
+
+    private static final ThreadLocal<RequestTimings> CURRENT = new ThreadLocal<>();
+
+    private final long startNanos = System.nanoTime();
+    private final long[] nanos = new long[TimingCategory.values().length];
+    private final int[] counts = new int[TimingCategory.values().length];
+
+    static RequestTimings start() {
+        RequestTimings timings = new RequestTimings();
+        CURRENT.set(timings);
+        return timings;
+    }
+
+    static void clear() {
+        CURRENT.remove();
+    }
+    /**
+     * Returns timings of the request bound to the current thread
+     *
+     * @return current timings or null outside of a request
+     */
+    public static RequestTimings current() {
+        return CURRENT.get();
+    }
+    /**
+     * Adds elapsed time to a category of the current request, if any
+     *
+     * @param category timing category
+     * @param elapsedNanos elapsed time in nanoseconds
+     */
+    public static void record(TimingCategory category, long elapsedNanos) {
+        RequestTimings timings = CURRENT.get();
+        if (timings != null) {
+            timings.add(category, elapsedNanos);
+        }
+    }
+
+    public void add(TimingCategory category, long elapsedNanos) {
+        nanos[category.ordinal()] += elapsedNanos;
+        counts[category.ordinal()]++;
+    }
+
+    public long getNanos(TimingCategory category) {
+        return nanos[category.ordinal()];
+    }
+
+    public int getCount(TimingCategory category) {
+        return counts[category.ordinal()];
+    }
+
+    public long getElapsedNanos() {
+        return System.nanoTime() - startNanos;
+    }
+    /**
+     * Formats timings as a {@code Server-Timing} header value, e.g.
+     * {@code db;dur=1.20;desc="3", crypto;dur=0.40;desc="10", total;dur=5.00}
+     *
+     * @return header value
+     */
+    public String toServerTimingHeader() {
+        StringBuilder sb = new StringBuilder(128);
+        for (TimingCategory category : TimingCategory.values()) {
+            if (counts[category.ordinal()] > 0) {
+                sb.append(category.getMetricName())
+                    .append(";dur=").append(millis(nanos[category.ordinal()]))
+                    .append(";desc=\"").append(counts[category.ordinal()]).append("\", ");
+            }
+        }
+        return sb.append("total;dur=").append(millis(getElapsedNanos())).toString();
+    }
+
+    private static String millis(long nanos) {
+        return String.format(Locale.ROOT, "%.2f", nanos / 1_000_000d);
+    }
+}
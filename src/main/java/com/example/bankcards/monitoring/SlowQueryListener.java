@@ -0,0 +1,52 @@
+package com.example.bankcards.monitoring;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+/**
+ * Counts statements slower than the threshold ({@code bank.db.slow.queries}) and logs a sample of them.
+ * Sampling keeps the log cheap when the whole database slows down and every statement becomes slow.
+ */
+public class SlowQueryListener implements QueryExecutionListener {
+
+    private static final Logger log = LoggerFactory.getLogger(SlowQueryListener.class);
+
+    private final long thresholdMillis;
+    private final double sampleRate;
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    public SlowQueryListener(Duration threshold, double sampleRate, ObjectProvider<MeterRegistry> meterRegistry) {
+        this.thresholdMillis = threshold.toMillis();
+        this.sampleRate = sampleRate;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        if (execInfo.getElapsedTime() < thresholdMillis) {
+            return;
+        }
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (registry != null) {
+            registry.counter("bank.db.slow.queries").increment();
+        }
+        if (sampleRate >= 1.0 || ThreadLocalRandom.current().nextDouble() < sampleRate) {
+            log.warn("Slow query ({} ms, batch size {}): {}", execInfo.getElapsedTime(), execInfo.getBatchSize(),
+                queryInfoList.stream().map(QueryInfo::getQuery).collect(Collectors.joining("; ")));
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.bankcards.monitoring;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+
+/**
+ * Jackson converter that measures serialization time. Inside a timed request the body is rendered into
+ * a buffer first, so the complete {@code Server-Timing} header can be sent before the body.
+ * Sampled traces get a child span around the rendering.
+ */
+public class TimedJacksonHttpMessageConverter extends MappingJackson2HttpMessageConverter {
+
+    private final ObjectProvider<Tracer> tracer;
+
+    public TimedJacksonHttpMessageConverter(ObjectMapper objectMapper, ObjectProvider<Tracer> tracer) {
+        super(objectMapper);
+        this.tracer = tracer;
+    }
+
+    @Override
+    protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage)
+        throws IOException, HttpMessageNotWritableException {
+        RequestTimings timings = RequestTimings.current();
+        if (timings == null) {
+            super.writeInternal(object, type, outputMessage);
+            return;
+        }
+        Span span = TimingSpans.start(tracer, TimingCategory.SERIALIZATION, "write");
+        Throwable error = null;
+        long start = System.nanoTime();
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(1024);
+        try {
+            super.writeInternal(object, type, new HttpOutputMessage() {
+                @Override
+                public OutputStream getBody() {
+                    return buffer;
+                }
+
+                @Override
+                public HttpHeaders getHeaders() {
+                    return outputMessage.getHeaders();
+                }
+            });
+        } catch (IOException | RuntimeException e) {
+            error = e;
+            throw e;
+        } finally {
+            TimingSpans.end(span, error);
+        }
+        timings.add(TimingCategory.SERIALIZATION, System.nanoTime() - start);
+        outputMessage.getHeaders().set(RequestTimingFilter.HEADER, timings.toServerTimingHeader());
+        buffer.writeTo(outputMessage.getBody());
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.bankcards.monitoring;
+
+public enum TimingCategory {
+    DB("db"), CRYPTO("crypto"), JWT("jwt"), SERIALIZATION("ser");
+
+    private final String metricName;
+
+    TimingCategory(String metricName) {
+        this.metricName = metricName;
+    }
+
+    public String getMetricName() {
+        return metricName;
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.bankcards.monitoring;
+
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+import org.springframework.beans.factory.ObjectProvider;
+
+/**
+ * Opens child spans for {@link TimingCategory} work, so a sampled trace shows where the request time went
+ * instead of only the totals tagged by {@link RequestTimingFilter}.
+ */
+public final class TimingSpans {
+
+    public static final String CATEGORY_TAG = "timing.category";
+
+    private TimingSpans() {
+    }
+    /**
+     * Starts a child span of the current span if the current trace is sampled
+     *
+     * @param tracer tracer provider, may be empty when tracing is disabled
+     * @param category timing category, used as the span name prefix and tag
+     * @param operation operation name, e.g. a method name
+     * @return started span or null if there is no sampled trace
+     */
+    public static Span start(ObjectProvider<Tracer> tracer, TimingCategory category, String operation) {
+        Tracer currentTracer = tracer.getIfAvailable();
+        Span parent = currentTracer != null ? currentTracer.currentSpan() : null;
+        // Несэмплированные запросы не платят за дочерние спаны
+        if (parent == null || !Boolean.TRUE.equals(parent.context().sampled())) {
+            return null;
+        }
+        return currentTracer.nextSpan(parent)
+            .name(category.getMetricName() + " " + operation)
+            .tag(CATEGORY_TAG, category.getMetricName())
+            .start();
+    }
+    /**
+     * Ends a span returned by {@link #start}, marking it as failed if an error is given
+     *
+     * @param span span or null
+     * @param error failure or null
+     */
+    public static void end(Span span, Throwable error) {
+        if (span == null) {
+            return;
+        }
+        if (error != null) {
+            span.error(error);
+        }
+        span.end();
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.bankcards.monitoring.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * AES encryption or decryption of a card number in {@code CardUtil}.
+ */
+@Name("com.example.bankcards.CardCrypto")
+@Label("Card Crypto")
+@Category({"Bank Cards", "Crypto"})
+@StackTrace(false)
+public class CardCryptoEvent extends Event {
+
+    @Label("Operation")
+    public String operation;
+}
@@ -0,0 +1,23 @@
+package com.example.bankcards.monitoring.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Signature check and parsing of a JWT. One authenticated request currently verifies its token several times.
+ */
+@Name("com.example.bankcards.JwtVerification")
+@Label("JWT Verification")
+@Category({"Bank Cards", "Security"})
+@StackTrace(false)
+public class JwtVerificationEvent extends Event {
+
+    @Label("Valid")
+    public boolean valid;
+
+    @Label("Failure")
+    public String failure;
+}
@@ -0,0 +1,62 @@
+package com.example.bankcards.monitoring.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+import java.math.BigDecimal;
+
+/**
+ * One call of {@code TransferService.transfer}, including the time spent waiting for card row locks.
+ * The duration covers the method body; the commit runs afterwards in the transactional proxy.
+ */
+@Name("com.example.bankcards.Transfer")
+@Label("Transfer")
+@Category({"Bank Cards", "Transfers"})
+@StackTrace(false)
+public class TransferEvent extends Event {
+
+    private static final BigDecimal[] BUCKET_BOUNDS = {
+        BigDecimal.valueOf(10), BigDecimal.valueOf(100), BigDecimal.valueOf(1_000), BigDecimal.valueOf(10_000)
+    };
+    private static final String[] BUCKETS = {"<10", "10-100", "100-1k", "1k-10k", ">=10k"};
+
+    @Label("From Card Id")
+    public long fromCardId;
+
+    @Label("To Card Id")
+    public long toCardId;
+
+    @Label("Amount Bucket")
+    @Description("Transfer amount range; exact amounts are not recorded")
+    public String amountBucket;
+
+    @Label("Outcome")
+    public String outcome;
+
+    @Label("Lock Wait")
+    @Description("Time spent in SELECT ... FOR UPDATE on both cards")
+    @Timespan(Timespan.NANOSECONDS)
+    public long lockWait;
+
+    @Label("Screening")
+    @Description("Time spent in fraud screening rules")
+    @Timespan(Timespan.NANOSECONDS)
+    public long screening;
+
+    public static String amountBucket(BigDecimal amount) {
+        if (amount == null) {
+            return "unknown";
+        }
+        for (int i = 0; i < BUCKET_BOUNDS.length; i++) {
+            if (amount.compareTo(BUCKET_BOUNDS[i]) < 0) {
+                return BUCKETS[i];
+            }
+        }
+        return BUCKETS[BUCKETS.length - 1];
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.bankcards.monitoring.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Loading of the authenticated user in {@code JwtAuthenticationFilter}.
+ */
+@Name("com.example.bankcards.UserLookup")
+@Label("User Lookup")
+@Category({"Bank Cards", "Security"})
+@StackTrace(false)
+public class UserLookupEvent extends Event {
+
+    @Label("Found")
+    public boolean found;
+}
@@ -0,0 +1,7 @@
+package com.example.bankcards.outbox;
+
+/**
+ * Published by {@link com.example.bankcards.service.CardService} inside the transaction that deletes a card.
+ */
+public record CardDeletedEvent(Long cardId, Long ownerId) {
+}
@@ -0,0 +1,49 @@
+package com.example.bankcards.outbox;
+
+import com.example.bankcards.config.OutboxProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Stand-in for a message broker: appends every event as one JSON line to a local file.
+ */
+@Component
+@ConditionalOnProperty(name = "outbox.sink.type", havingValue = "file", matchIfMissing = true)
+public class FileOutboxSink implements OutboxSink {
+
+    private final ObjectMapper objectMapper;
+    private final BufferedWriter writer;
+
+    public FileOutboxSink(ObjectMapper objectMapper, OutboxProperties properties) throws IOException {
+        this.objectMapper = objectMapper;
+        Path file = Path.of(properties.getSink().getFile());
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        this.writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    @Override
+    public synchronized void publish(List<OutboxMessage> messages) throws IOException {
+        for (OutboxMessage message : messages) {
+            writer.write(objectMapper.writeValueAsString(message));
+            writer.newLine();
+        }
+        writer.flush();
+    }
+
+    @PreDestroy
+    public synchronized void close() throws IOException {
+        writer.close();
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.bankcards.outbox;
+
+import com.example.bankcards.entity.Hold;
+import com.example.bankcards.entity.HoldStatus;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+
+/**
+ * Published by {@link com.example.bankcards.service.HoldService} inside the transaction that places or closes a hold.
+ */
+public record HoldChangedEvent(Long holdId, Long cardId, HoldStatus status, BigDecimal amount,
+                               BigDecimal capturedAmount, OffsetDateTime expiresAt) {
+
+    public static HoldChangedEvent of(Hold hold) {
+        return new HoldChangedEvent(hold.getId(), hold.getCardId(), hold.getStatus(), hold.getAmount(),
+            hold.getCapturedAmount(), hold.getExpiresAt());
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.bankcards.outbox;
+
+import com.example.bankcards.config.OutboxProperties;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * In-process broker stand-in keeping the last {@code outbox.sink.capacity} events, for tests and local runs.
+ */
+@Component
+@ConditionalOnProperty(name = "outbox.sink.type", havingValue = "memory")
+public class InMemoryOutboxSink implements OutboxSink {
+
+    private final int capacity;
+    private final Deque<OutboxMessage> messages = new ArrayDeque<>();
+
+    public InMemoryOutboxSink(OutboxProperties properties) {
+        this.capacity = properties.getSink().getCapacity();
+    }
+
+    @Override
+    public synchronized void publish(List<OutboxMessage> batch) {
+        for (OutboxMessage message : batch) {
+            if (messages.size() == capacity) {
+                messages.removeFirst();
+            }
+            messages.addLast(message);
+        }
+    }
+
+    public synchronized List<OutboxMessage> getMessages() {
+        return new ArrayList<>(messages);
+    }
+
+    public synchronized void clear() {
+        messages.clear();
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.bankcards.outbox;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Outbox row handed to an {@link OutboxSink}. {@code payload} is the JSON document as stored.
+ */
+public record OutboxMessage(long id, String aggregateType, long aggregateId, String eventType,
+                            @JsonRawValue String payload, OffsetDateTime createdAt) {
+}
@@ -0,0 +1,168 @@
+package com.example.bankcards.outbox;
+
+import com.example.bankcards.config.OutboxProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drains {@code outbox_events} into the {@link OutboxSink}. Each worker locks one non-empty partition with
+ * {@code FOR UPDATE SKIP LOCKED}, so workers on all nodes spread over partitions without waiting on each other,
+ * sends the oldest batch of that partition and deletes it in the same transaction.
+ * A failure rolls everything back and the batch is sent again: delivery is at-least-once, ordered per partition.
+ */
+@Component
+@ConditionalOnProperty(name = "outbox.relay.enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxRelay implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+
+    // Партиции без событий не блокируются; relayed_at даёт очередь по кругу между партициями
+    private static final String LOCK_PARTITION = "SELECT partition FROM outbox_partitions p "
+        + "WHERE EXISTS (SELECT 1 FROM outbox_events e WHERE e.partition = p.partition) "
+        + "ORDER BY p.relayed_at NULLS FIRST LIMIT 1 FOR UPDATE SKIP LOCKED";
+    private static final String SELECT_BATCH = "SELECT id, aggregate_type, aggregate_id, event_type, payload, created_at "
+        + "FROM outbox_events WHERE partition = ? ORDER BY id LIMIT ?";
+    private static final RowMapper<OutboxMessage> MESSAGE_MAPPER = (rs, rowNum) -> new OutboxMessage(
+        rs.getLong("id"), rs.getString("aggregate_type"), rs.getLong("aggregate_id"), rs.getString("event_type"),
+        rs.getString("payload"), rs.getObject("created_at", OffsetDateTime.class));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final OutboxSink sink;
+    private final OutboxProperties properties;
+    private final Counter relayed;
+    private final Counter failures;
+    private final Timer publishTimer;
+    private final List<Thread> workers = new ArrayList<>();
+
+    private volatile boolean running;
+
+    public OutboxRelay(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager, OutboxSink sink,
+                       OutboxProperties properties, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.sink = sink;
+        this.properties = properties;
+        this.relayed = Counter.builder("bank.outbox.relayed").register(meterRegistry);
+        this.failures = Counter.builder("bank.outbox.failures").register(meterRegistry);
+        this.publishTimer = Timer.builder("bank.outbox.publish").register(meterRegistry);
+    }
+
+    @Override
+    public synchronized void start() {
+        ensurePartitions();
+        running = true;
+        for (int i = 0; i < properties.getRelay().getWorkers(); i++) {
+            Thread worker = new Thread(this::work, "outbox-relay-" + (i + 1));
+            worker.setDaemon(true);
+            worker.start();
+            workers.add(worker);
+        }
+    }
+
+    @Override
+    public synchronized void stop() {
+        running = false;
+        for (Thread worker : workers) {
+            worker.interrupt();
+        }
+        for (Thread worker : workers) {
+            try {
+                worker.join(10_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        workers.clear();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void work() {
+        OutboxProperties.Relay settings = properties.getRelay();
+        while (running) {
+            try {
+                if (relayBatch() == 0) {
+                    Thread.sleep(settings.getPollInterval().toMillis());
+                }
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                if (!running) {
+                    return;
+                }
+                failures.increment();
+                log.warn("Outbox relay failed, retrying in {}", settings.getErrorBackoff(), e);
+                try {
+                    Thread.sleep(settings.getErrorBackoff().toMillis());
+                } catch (InterruptedException ie) {
+                    return;
+                }
+            }
+        }
+    }
+
+    void ensurePartitions() {
+        jdbcTemplate.update("INSERT INTO outbox_partitions (partition) SELECT g FROM generate_series(0, ?) g ON CONFLICT DO NOTHING",
+            properties.getPartitions() - 1);
+    }
+
+    /**
+     * Relays one batch of one partition.
+     *
+     * @return number of relayed events, 0 if no unlocked partition has events
+     */
+    public int relayBatch() {
+        Integer count = transactionTemplate.execute(status -> {
+            List<Integer> partition = jdbcTemplate.queryForList(LOCK_PARTITION, Integer.class);
+            if (partition.isEmpty()) {
+                return 0;
+            }
+            List<OutboxMessage> batch = jdbcTemplate.query(SELECT_BATCH, MESSAGE_MAPPER, partition.get(0),
+                properties.getRelay().getBatchSize());
+            if (batch.isEmpty()) {
+                return 0;
+            }
+            long started = System.nanoTime();
+            try {
+                sink.publish(batch);
+            } catch (Exception e) {
+                throw new IllegalStateException("Outbox sink rejected a batch of " + batch.size() + " events", e);
+            }
+            publishTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            // Удаляем по списку id, а не по id <= max: событие с меньшим id могло закоммититься позже
+            Long[] ids = batch.stream().map(OutboxMessage::id).toArray(Long[]::new);
+            jdbcTemplate.update(connection -> {
+                Array array = connection.createArrayOf("bigint", ids);
+                PreparedStatement statement = connection.prepareStatement("DELETE FROM outbox_events WHERE id = ANY(?)");
+                statement.setArray(1, array);
+                return statement;
+            });
+            jdbcTemplate.update("UPDATE outbox_partitions SET relayed_at = now() WHERE partition = ?", partition.get(0));
+            return batch.size();
+        });
+        relayed.increment(count);
+        return count;
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.bankcards.outbox;
+
+import java.util.List;
+
+/**
+ * Destination of relayed outbox events. A batch is removed from the outbox only after {@link #publish}
+ * returns, so delivery is at-least-once and the sink has to tolerate duplicates (deduplicate by {@code id}).
+ */
+public interface OutboxSink {
+
+    /**
+     * Delivers a batch of events of one partition, ordered by id.
+     *
+     * @throws Exception if the batch was not accepted; it will be retried
+     */
+    void publish(List<OutboxMessage> messages) throws Exception;
+}
@@ -0,0 +1,125 @@
+package com.example.bankcards.outbox;
+
+import com.example.bankcards.config.OutboxProperties;
+import com.example.bankcards.stream.CardChangedEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Collects domain events of the current transaction and inserts them into {@code outbox_events}
+ * with one JDBC batch right before commit, so an event exists if and only if its change is committed.
+ */
+@Component
+@EnableConfigurationProperties(OutboxProperties.class)
+public class OutboxWriter {
+
+    private static final String INSERT = "INSERT INTO outbox_events (partition, aggregate_type, aggregate_id, event_type, payload) "
+        + "VALUES (?, ?, ?, ?, ?::jsonb)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final int partitions;
+
+    public OutboxWriter(JdbcTemplate jdbcTemplate, EntityManager entityManager, ObjectMapper objectMapper,
+                        OutboxProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+        this.partitions = properties.getPartitions();
+    }
+
+    @EventListener
+    public void onCardChanged(CardChangedEvent event) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("cardId", event.cardId());
+        payload.put("ownerId", event.ownerId());
+        payload.put("status", event.status().name());
+        payload.put("balance", event.balance());
+        payload.put("availableBalance", event.availableBalance());
+        payload.put("expirationDate", event.expirationDate());
+        append("CARD", event.cardId(), "CARD_CHANGED", payload);
+    }
+
+    @EventListener
+    public void onCardDeleted(CardDeletedEvent event) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("cardId", event.cardId());
+        payload.put("ownerId", event.ownerId());
+        append("CARD", event.cardId(), "CARD_DELETED", payload);
+    }
+
+    @EventListener
+    public void onTransferCompleted(TransferCompletedEvent event) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("fromCardId", event.fromCardId());
+        payload.put("toCardId", event.toCardId());
+        payload.put("ownerId", event.ownerId());
+        payload.put("amount", event.amount());
+        // Ключ упорядочивания - карта списания
+        append("TRANSFER", event.fromCardId(), "TRANSFER_COMPLETED", payload);
+    }
+
+    @EventListener
+    public void onHoldChanged(HoldChangedEvent event) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("holdId", event.holdId());
+        payload.put("cardId", event.cardId());
+        payload.put("status", event.status().name());
+        payload.put("amount", event.amount());
+        payload.put("capturedAmount", event.capturedAmount());
+        payload.put("expiresAt", event.expiresAt());
+        // Ключ упорядочивания - карта, как у CARD_CHANGED той же транзакции
+        append("HOLD", event.cardId(), "HOLD_" + event.status().name(), payload);
+    }
+
+    private void append(String aggregateType, Long aggregateId, String eventType, Map<String, Object> payload) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Outbox events can only be written inside a transaction");
+        }
+        PendingEvents pending = (PendingEvents) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new PendingEvents();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        try {
+            pending.rows.add(new Object[] {
+                (int) Math.floorMod(aggregateId, (long) partitions), aggregateType, aggregateId, eventType,
+                objectMapper.writeValueAsString(payload)
+            });
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize outbox payload", e);
+        }
+    }
+
+    private class PendingEvents implements TransactionSynchronization {
+
+        private final List<Object[]> rows = new ArrayList<>();
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            // Сначала UPDATE карт: id события выдаётся под блокировкой строки карты,
+            // поэтому для одной карты порядок id совпадает с порядком коммитов
+            entityManager.flush();
+            jdbcTemplate.batchUpdate(INSERT, rows);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResource(OutboxWriter.this);
+        }
+    }
+}
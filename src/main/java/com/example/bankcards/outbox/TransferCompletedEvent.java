@@ -0,0 +1,9 @@
+package com.example.bankcards.outbox;
+
+import java.math.BigDecimal;
+
+/**
+ * Published by {@link com.example.bankcards.service.TransferService} inside the transfer transaction.
+ */
+public record TransferCompletedEvent(Long fromCardId, Long toCardId, Long ownerId, BigDecimal amount) {
+}
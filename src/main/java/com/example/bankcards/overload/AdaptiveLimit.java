@@ -0,0 +1,79 @@
+package com.example.bankcards.overload;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Concurrency limit that follows latency, in the spirit of Netflix's Gradient2 limiter: while the
+ * latest response time stays within {@code tolerance} of the long-term average the limit grows by
+ * about {@code sqrt(limit)}, and it shrinks in proportion once responses get slower. A congestion
+ * signal (connection pool waiters) cuts the limit multiplicatively, AIMD style.
+ */
+public class AdaptiveLimit {
+
+    private static final int LONG_RTT_WINDOW = 100;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final double smoothing;
+    private final double backoffRatio;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private volatile double limit;
+    private double longRttNanos;
+
+    public AdaptiveLimit(int initialLimit, int minLimit, int maxLimit, double tolerance, double smoothing, double backoffRatio) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.smoothing = smoothing;
+        this.backoffRatio = backoffRatio;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+    }
+
+    /**
+     * Takes a slot if fewer than {@link #getLimit()} requests are in flight.
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= getLimit()) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Returns the slot and feeds the observed response time into the limit.
+     */
+    public void release(long rttNanos, boolean congested) {
+        int inFlightBefore = inFlight.getAndDecrement();
+        update(Math.max(rttNanos, 1), congested, inFlightBefore);
+    }
+
+    private synchronized void update(long rttNanos, boolean congested, int inFlightBefore) {
+        if (congested) {
+            limit = Math.max(minLimit, limit * backoffRatio);
+            return;
+        }
+        longRttNanos = longRttNanos == 0 ? rttNanos : longRttNanos + (rttNanos - longRttNanos) / LONG_RTT_WINDOW;
+        double gradient = Math.max(0.5, Math.min(1.0, tolerance * longRttNanos / rttNanos));
+        // Без нагрузки лимит не растёт: иначе после простоя он окажется сколь угодно большим
+        if (gradient >= 1.0 && inFlightBefore * 2 < limit) {
+            return;
+        }
+        double newLimit = limit * gradient + Math.sqrt(limit);
+        limit = Math.max(minLimit, Math.min(maxLimit, limit * (1 - smoothing) + newLimit * smoothing));
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.bankcards.overload;
+
+import com.example.bankcards.config.DbPartition;
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Groups of endpoints that get their own concurrency limit, listed from the most to the least important.
+ * Each class is tied to the connection pool its requests wait on.
+ */
+public enum EndpointClass {
+    TRANSFER(DbPartition.TRANSFER),
+    AUTH(DbPartition.AUTH),
+    OTHER(DbPartition.DEFAULT),
+    LISTING(DbPartition.READ),
+    // Документация в БД не ходит и уступает любому пулу с очередью
+    DOCS(null);
+
+    private final DbPartition partition;
+
+    EndpointClass(DbPartition partition) {
+        this.partition = partition;
+    }
+
+    /**
+     * @return pool partition of the class, {@code null} if the class yields to all pools
+     */
+    public DbPartition partition() {
+        return partition;
+    }
+
+    public static EndpointClass of(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if ("GET".equals(request.getMethod()) && path.startsWith("/api/transfers/history")) {
+            return LISTING;
+        }
+        // Холды двигают деньги так же, как переводы
+        if (path.startsWith("/api/transfers") || path.startsWith("/api/holds")) {
+            return TRANSFER;
+        }
+        if (path.startsWith("/api/auth")) {
+            return AUTH;
+        }
+        if (path.startsWith("/swagger-ui") || path.startsWith("/v3/api-docs") || path.startsWith("/api-docs")) {
+            return DOCS;
+        }
+        if ("GET".equals(request.getMethod())
+            && (path.startsWith("/api/cards") || path.startsWith("/api/users") || path.startsWith("/api/admin"))) {
+            return LISTING;
+        }
+        return OTHER;
+    }
+}
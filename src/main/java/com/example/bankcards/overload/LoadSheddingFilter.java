@@ -0,0 +1,141 @@
+package com.example.bankcards.overload;
+
+import com.example.bankcards.config.DbPartition;
+import com.example.bankcards.config.LoadSheddingProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Rejects requests with {@code 503 Service Unavailable} and {@code Retry-After} instead of letting them
+ * queue for threads and connections until they time out. Runs after {@link com.example.bankcards.monitoring.RequestTimingFilter}
+ * and before the security filter chain, so shed requests cost neither a JWT check nor a user lookup.
+ * <p>
+ * Congestion of a class is the number of threads waiting for a connection of its own pool ({@code pool} tag
+ * of {@code hikaricp.connections.pending}), so a queue on the read pool does not shrink the transfer limit.
+ * With a single pool, or for a class without a pool, waiters of all pools count.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 20)
+@ConditionalOnProperty(name = "load-shedding.enabled", havingValue = "true")
+@EnableConfigurationProperties(LoadSheddingProperties.class)
+public class LoadSheddingFilter extends OncePerRequestFilter {
+
+    private static final String PENDING_GAUGE = "hikaricp.connections.pending";
+
+    private final MeterRegistry meterRegistry;
+    private final long pendingSampleNanos;
+    private final Map<EndpointClass, LoadSheddingProperties.Limit> settings = new EnumMap<>(EndpointClass.class);
+    private final Map<EndpointClass, AdaptiveLimit> limits = new EnumMap<>(EndpointClass.class);
+    private final Map<EndpointClass, Counter> limitRejections = new EnumMap<>(EndpointClass.class);
+    private final Map<EndpointClass, Counter> poolRejections = new EnumMap<>(EndpointClass.class);
+
+    private volatile long pendingSampledAt;
+    private volatile PendingSample pending = new PendingSample(Map.of(), 0);
+
+    public LoadSheddingFilter(LoadSheddingProperties properties, MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.pendingSampleNanos = properties.getPendingSampleInterval().toNanos();
+        this.pendingSampledAt = System.nanoTime() - pendingSampleNanos;
+        for (EndpointClass endpointClass : EndpointClass.values()) {
+            LoadSheddingProperties.Limit limit = properties.limitFor(endpointClass);
+            AdaptiveLimit adaptiveLimit = new AdaptiveLimit(limit.getInitialLimit(), limit.getMinLimit(), limit.getMaxLimit(),
+                properties.getTolerance(), properties.getSmoothing(), properties.getBackoffRatio());
+            settings.put(endpointClass, limit);
+            limits.put(endpointClass, adaptiveLimit);
+            String tag = endpointClass.name().toLowerCase();
+            Gauge.builder("bank.load_shedding.limit", adaptiveLimit, AdaptiveLimit::getLimit)
+                .tag("class", tag).register(meterRegistry);
+            Gauge.builder("bank.load_shedding.in_flight", adaptiveLimit, AdaptiveLimit::getInFlight)
+                .tag("class", tag).register(meterRegistry);
+            limitRejections.put(endpointClass, Counter.builder("bank.load_shedding.rejected")
+                .tag("class", tag).tag("reason", "limit").register(meterRegistry));
+            poolRejections.put(endpointClass, Counter.builder("bank.load_shedding.rejected")
+                .tag("class", tag).tag("reason", "pool").register(meterRegistry));
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getRequestURI().startsWith(request.getContextPath() + "/actuator");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+        throws ServletException, IOException {
+        EndpointClass endpointClass = EndpointClass.of(request);
+        LoadSheddingProperties.Limit limit = settings.get(endpointClass);
+        // Приоритет: менее важные классы отбрасываются, как только в их пуле появляется очередь
+        if (limit.getShedWhenPending() > 0 && pendingConnections(endpointClass) >= limit.getShedWhenPending()) {
+            poolRejections.get(endpointClass).increment();
+            reject(response, limit);
+            return;
+        }
+        AdaptiveLimit adaptiveLimit = limits.get(endpointClass);
+        if (!adaptiveLimit.tryAcquire()) {
+            limitRejections.get(endpointClass).increment();
+            reject(response, limit);
+            return;
+        }
+        long started = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            adaptiveLimit.release(System.nanoTime() - started, pendingConnections(endpointClass) > 0);
+        }
+    }
+
+    /**
+     * Threads waiting for a connection of the class's pool, re-read from the registry at most once per sample interval.
+     */
+    int pendingConnections(EndpointClass endpointClass) {
+        long now = System.nanoTime();
+        PendingSample sample = pending;
+        if (now - pendingSampledAt >= pendingSampleNanos) {
+            pendingSampledAt = now;
+            Map<String, Integer> byPool = new HashMap<>();
+            double total = 0;
+            for (Gauge gauge : meterRegistry.find(PENDING_GAUGE).gauges()) {
+                String pool = gauge.getId().getTag("pool");
+                if (pool != null) {
+                    byPool.merge(pool, (int) gauge.value(), Integer::sum);
+                }
+                total += gauge.value();
+            }
+            sample = new PendingSample(byPool, (int) total);
+            pending = sample;
+        }
+        // Без разделения пулов (db.pools.enabled=false) пул один и его тег не совпадает с именем раздела
+        DbPartition partition = endpointClass.partition();
+        return partition == null ? sample.total() : sample.byPool().getOrDefault(partition.poolName(), sample.total());
+    }
+
+    private static void reject(HttpServletResponse response, LoadSheddingProperties.Limit limit) throws IOException {
+        long seconds = Math.max(1, (limit.getRetryAfter().toMillis() + 999) / 1000);
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(seconds));
+        response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+        response.getWriter().write("Server is overloaded, retry later");
+    }
+
+    private record PendingSample(Map<String, Integer> byPool, int total) {
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.bankcards.repository;
+
+import com.example.bankcards.entity.CardExpiryStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+
+@Transactional(readOnly = true)
+@Repository
+public interface CardExpiryStatsRepository extends JpaRepository<CardExpiryStats, LocalDate> {
+}
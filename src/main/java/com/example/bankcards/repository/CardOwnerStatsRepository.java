@@ -0,0 +1,11 @@
+package com.example.bankcards.repository;
+
+import com.example.bankcards.entity.CardOwnerStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Transactional(readOnly = true)
+@Repository
+public interface CardOwnerStatsRepository extends JpaRepository<CardOwnerStats, Long> {
+}
@@ -2,16 +2,73 @@ package com.example.bankcards.repository;
 
 import com.example.bankcards.entity.Card;
 import com.example.bankcards.entity.CardStatus;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import jakarta.persistence.LockModeType;
+import java.util.Collection;
+import java.util.List;
+
 @Transactional(readOnly = true)
 @Repository
 public interface CardRepository extends JpaRepository<Card, Long> {
     Page<Card> findByOwnerId(Long ownerId, Pageable pageable);
     Page<Card> findByStatus(CardStatus status, Pageable pageable);
     Page<Card> findByOwnerIdAndStatus(Long ownerId, CardStatus status, Pageable pageable);
-}
\ No newline at end of file
+
+    /**
+     * Loads cards with {@code SELECT ... FOR UPDATE}. Rows are locked in ascending id order,
+     * so transactions locking the same cards in opposite directions cannot deadlock.
+     *
+     * @param ids card IDs to lock
+     * @return locked cards ordered by ID
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM Card c WHERE c.id IN :ids ORDER BY c.id")
+    List<Card> findAndLockByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Active cards of the owner with available funds, richest first: candidates of an automatic split transfer.
+     * Read without locks; the caller locks the chosen cards and checks their balances again.
+     */
+    @Query("SELECT c.id FROM Card c WHERE c.owner.id = :ownerId AND c.id <> :excludedId "
+        + "AND c.status = com.example.bankcards.entity.CardStatus.ACTIVE AND c.balance - c.held > 0 "
+        + "ORDER BY c.balance - c.held DESC, c.id")
+    List<Long> findSplitSourcesLargestFirst(@Param("ownerId") Long ownerId, @Param("excludedId") Long excludedId,
+                                            Limit limit);
+
+    @Query("SELECT c.id FROM Card c WHERE c.owner.id = :ownerId AND c.id <> :excludedId "
+        + "AND c.status = com.example.bankcards.entity.CardStatus.ACTIVE AND c.balance - c.held > 0 "
+        + "ORDER BY c.balance - c.held ASC, c.id")
+    List<Long> findSplitSourcesSmallestFirst(@Param("ownerId") Long ownerId, @Param("excludedId") Long excludedId,
+                                             Limit limit);
+
+    /**
+     * Marks up to {@code batchSize} overdue cards as EXPIRED in a single statement.
+     * Rows locked by another node are skipped, so concurrent runs never wait on each other.
+     * Must run inside the caller's transaction, which publishes the change events of the returned cards.
+     *
+     * @param batchSize maximum number of rows to update
+     * @return IDs of the updated cards
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    @Query(value = """
+        UPDATE cards SET status = 'EXPIRED'
+        WHERE id IN (
+            SELECT id FROM cards
+            WHERE expiration_date < CURRENT_DATE AND status <> 'EXPIRED'
+            LIMIT :batchSize
+            FOR UPDATE SKIP LOCKED
+        )
+        RETURNING id
+        """, nativeQuery = true)
+    List<Long> expireOverdueCards(@Param("batchSize") int batchSize);
+}
@@ -0,0 +1,12 @@
+package com.example.bankcards.repository;
+
+import com.example.bankcards.entity.CardStatus;
+import com.example.bankcards.entity.CardStatusStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Transactional(readOnly = true)
+@Repository
+public interface CardStatusStatsRepository extends JpaRepository<CardStatusStats, CardStatus> {
+}
@@ -0,0 +1,21 @@
+package com.example.bankcards.repository;
+
+import com.example.bankcards.entity.Hold;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+@Transactional(readOnly = true)
+@Repository
+public interface HoldRepository extends JpaRepository<Hold, Long> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select h from Hold h where h.id = :id")
+    Optional<Hold> findAndLockById(@Param("id") Long id);
+}
@@ -0,0 +1,41 @@
+package com.example.bankcards.repository;
+
+import com.example.bankcards.entity.ScheduledTransfer;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Transactional(readOnly = true)
+@Repository
+public interface ScheduledTransferRepository extends JpaRepository<ScheduledTransfer, Long> {
+
+    /**
+     * Due instruction of a batch: only what the executor needs to partition the batch by source card.
+     */
+    interface DueTransfer {
+        Long getId();
+
+        Long getFromCardId();
+    }
+
+    // Условие и порядок совпадают с частичным индексом idx_scheduled_transfers_due
+    @Query("select s.id as id, s.fromCardId as fromCardId from ScheduledTransfer s "
+        + "where s.status = com.example.bankcards.entity.ScheduledTransferStatus.ACTIVE and s.nextRunAt <= :now "
+        + "order by s.nextRunAt, s.id")
+    List<DueTransfer> findDue(@Param("now") OffsetDateTime now, Limit limit);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from ScheduledTransfer s where s.id = :id")
+    Optional<ScheduledTransfer> findAndLockById(@Param("id") Long id);
+
+    List<ScheduledTransfer> findByOwnerIdOrderByIdAsc(Long ownerId);
+}
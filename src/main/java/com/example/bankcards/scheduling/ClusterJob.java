@@ -0,0 +1,20 @@
+package com.example.bankcards.scheduling;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a {@code @Scheduled} method that must run on one node of the cluster at a time.
+ * Nodes that do not hold the job's lease skip the tick; the method then returns {@code null} or zero.
+ * A numeric return value is recorded as the run's row count.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface ClusterJob {
+    /** Job name, unique across the application. */
+    String value();
+}
@@ -0,0 +1,83 @@
+package com.example.bankcards.scheduling;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs {@link ClusterJob} methods only on the leader of the job and records every run in {@link JobRunHistory}.
+ * Skipped ticks are not recorded, only counted, so history does not grow with the number of nodes.
+ */
+@Aspect
+@Component
+public class ClusterJobAspect {
+
+    private static final Logger log = LoggerFactory.getLogger(ClusterJobAspect.class);
+
+    private final JobLeases leases;
+    private final JobRunHistory history;
+    private final MeterRegistry meterRegistry;
+
+    public ClusterJobAspect(JobLeases leases, JobRunHistory history, MeterRegistry meterRegistry) {
+        this.leases = leases;
+        this.history = history;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Around("@annotation(clusterJob)")
+    public Object run(ProceedingJoinPoint joinPoint, ClusterJob clusterJob) throws Throwable {
+        String job = clusterJob.value();
+        if (!leases.tryAcquire(job)) {
+            Counter.builder("bank.scheduler.job.skipped").tag("job", job).register(meterRegistry).increment();
+            return emptyResult(((MethodSignature) joinPoint.getSignature()).getReturnType());
+        }
+        long runId = history.start(job, leases.getNodeId());
+        long started = System.nanoTime();
+        String status = "FAILED";
+        Long rows = null;
+        String error = null;
+        try {
+            Object result = joinPoint.proceed();
+            if (result instanceof Number number) {
+                rows = number.longValue();
+            }
+            status = "SUCCEEDED";
+            return result;
+        } catch (Throwable e) {
+            error = e.getClass().getSimpleName() + ": " + e.getMessage();
+            throw e;
+        } finally {
+            long elapsed = System.nanoTime() - started;
+            if (!leases.isHeld(job)) {
+                log.warn("Job {} finished after node {} lost its lease; another node may have run it too",
+                    job, leases.getNodeId());
+            }
+            history.finish(runId, status, TimeUnit.NANOSECONDS.toMillis(elapsed), rows,
+                error == null ? null : error.substring(0, Math.min(error.length(), 1000)));
+            Timer.builder("bank.scheduler.job").tag("job", job).tag("status", status)
+                .register(meterRegistry).record(elapsed, TimeUnit.NANOSECONDS);
+            if (rows != null) {
+                Counter.builder("bank.scheduler.job.rows").tag("job", job).register(meterRegistry).increment(rows);
+            }
+        }
+    }
+
+    private static Object emptyResult(Class<?> returnType) {
+        if (returnType == int.class) {
+            return 0;
+        }
+        if (returnType == long.class) {
+            return 0L;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.bankcards.scheduling;
+
+import com.example.bankcards.config.SchedulerProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-job leader election on {@code scheduler_leases} rows. Lease times come from the database clock,
+ * so clock skew between nodes does not matter. A node keeps a lease between runs until it stops renewing it,
+ * which prevents a node whose cron fires a little later from running the same occurrence again.
+ * Renewal runs on its own thread so that a long job on the scheduler thread does not lose its lease.
+ */
+@Component
+@EnableConfigurationProperties(SchedulerProperties.class)
+public class JobLeases {
+
+    private static final Logger log = LoggerFactory.getLogger(JobLeases.class);
+
+    // Занимаем свободную или просроченную аренду; своя просто продлевается
+    private static final String ACQUIRE = "INSERT INTO scheduler_leases (job_name, owner, acquired_at, lease_until) "
+        + "VALUES (?, ?, now(), now() + make_interval(secs => ?)) "
+        + "ON CONFLICT (job_name) DO UPDATE SET owner = EXCLUDED.owner, lease_until = EXCLUDED.lease_until, "
+        + "acquired_at = CASE WHEN scheduler_leases.owner = EXCLUDED.owner THEN scheduler_leases.acquired_at ELSE now() END "
+        + "WHERE scheduler_leases.owner = EXCLUDED.owner OR scheduler_leases.lease_until < now() "
+        + "RETURNING job_name";
+    private static final String RENEW = "UPDATE scheduler_leases SET lease_until = now() + make_interval(secs => ?) "
+        + "WHERE owner = ? RETURNING job_name";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String nodeId;
+    private final double leaseSeconds;
+    private final Set<String> held = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService renewer;
+
+    public JobLeases(JdbcTemplate jdbcTemplate, SchedulerProperties properties, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.nodeId = properties.getNodeId() != null ? properties.getNodeId()
+            : ManagementFactory.getRuntimeMXBean().getName() + "-" + UUID.randomUUID().toString().substring(0, 8);
+        this.leaseSeconds = properties.getLeaseTtl().toMillis() / 1000.0;
+        this.renewer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "job-lease-renewer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long renewMillis = properties.getRenewInterval().toMillis();
+        renewer.scheduleWithFixedDelay(this::renewAll, renewMillis, renewMillis, TimeUnit.MILLISECONDS);
+        Gauge.builder("bank.scheduler.leases.held", held, Set::size).register(meterRegistry);
+    }
+
+    /**
+     * Takes or extends the lease of the job.
+     *
+     * @return whether this node is the job's leader until the lease expires
+     */
+    public boolean tryAcquire(String job) {
+        boolean acquired = !jdbcTemplate.queryForList(ACQUIRE, String.class, job, nodeId, leaseSeconds).isEmpty();
+        if (acquired) {
+            if (held.add(job)) {
+                log.info("Node {} became leader of job {}", nodeId, job);
+            }
+        } else {
+            held.remove(job);
+        }
+        return acquired;
+    }
+
+    /**
+     * Local view of the lease, refreshed on every renewal. Long jobs may check it between chunks
+     * and stop early once another node has taken over.
+     */
+    public boolean isHeld(String job) {
+        return held.contains(job);
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    void renewAll() {
+        // Аренды, взятые во время продления, не проверяем: их только что продлил tryAcquire
+        List<String> before = List.copyOf(held);
+        if (before.isEmpty()) {
+            return;
+        }
+        try {
+            Set<String> renewed = new HashSet<>(jdbcTemplate.queryForList(RENEW, String.class, leaseSeconds, nodeId));
+            for (String job : before) {
+                if (!renewed.contains(job)) {
+                    held.remove(job);
+                    log.warn("Node {} lost the lease of job {}", nodeId, job);
+                }
+            }
+        } catch (DataAccessException e) {
+            // Не удалось продлить: аренда истечёт сама, и работу подхватит другой узел
+            log.warn("Failed to renew job leases of node {}", nodeId, e);
+        }
+    }
+
+    /**
+     * Releases all leases on shutdown so that other nodes take the jobs over without waiting for expiry.
+     */
+    @PreDestroy
+    public void releaseAll() {
+        renewer.shutdownNow();
+        held.clear();
+        try {
+            jdbcTemplate.update("DELETE FROM scheduler_leases WHERE owner = ?", nodeId);
+        } catch (DataAccessException e) {
+            log.warn("Failed to release job leases of node {}", nodeId, e);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.bankcards.scheduling;
+
+import com.example.bankcards.config.SchedulerProperties;
+import com.example.bankcards.dto.JobLeaseDto;
+import com.example.bankcards.dto.JobRunDto;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+/**
+ * Run history of cluster jobs in {@code scheduler_job_runs}. A run is inserted as {@code RUNNING} before the job
+ * starts, so a run that stays in this status belongs to a node that died while running it.
+ */
+@Component
+public class JobRunHistory {
+
+    public static final int MAX_LIMIT = 1000;
+
+    private static final RowMapper<JobRunDto> RUN_MAPPER = (rs, rowNum) -> {
+        JobRunDto dto = new JobRunDto();
+        dto.setId(rs.getLong("id"));
+        dto.setJobName(rs.getString("job_name"));
+        dto.setNodeId(rs.getString("node_id"));
+        dto.setStatus(rs.getString("status"));
+        dto.setStartedAt(rs.getObject("started_at", OffsetDateTime.class));
+        dto.setFinishedAt(rs.getObject("finished_at", OffsetDateTime.class));
+        dto.setDurationMs(rs.getObject("duration_ms", Long.class));
+        dto.setRowCount(rs.getObject("row_count", Long.class));
+        dto.setError(rs.getString("error"));
+        return dto;
+    };
+    private static final RowMapper<JobLeaseDto> LEASE_MAPPER = (rs, rowNum) -> {
+        JobLeaseDto dto = new JobLeaseDto();
+        dto.setJobName(rs.getString("job_name"));
+        dto.setOwner(rs.getString("owner"));
+        dto.setAcquiredAt(rs.getObject("acquired_at", OffsetDateTime.class));
+        dto.setLeaseUntil(rs.getObject("lease_until", OffsetDateTime.class));
+        return dto;
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SchedulerProperties properties;
+
+    public JobRunHistory(JdbcTemplate jdbcTemplate, SchedulerProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties;
+    }
+
+    public long start(String job, String nodeId) {
+        return jdbcTemplate.queryForObject("INSERT INTO scheduler_job_runs (job_name, node_id, status, started_at) "
+            + "VALUES (?, ?, 'RUNNING', now()) RETURNING id", Long.class, job, nodeId);
+    }
+
+    public void finish(long runId, String status, long durationMs, Long rowCount, String error) {
+        jdbcTemplate.update("UPDATE scheduler_job_runs SET status = ?, finished_at = now(), duration_ms = ?, "
+            + "row_count = ?, error = ? WHERE id = ?", status, durationMs, rowCount, error, runId);
+    }
+
+    /**
+     * Returns the latest runs, newest first.
+     *
+     * @param job job name, or {@code null} for all jobs
+     * @param limit number of runs, capped at {@value #MAX_LIMIT}
+     */
+    public List<JobRunDto> recent(String job, int limit) {
+        int capped = Math.max(1, Math.min(limit, MAX_LIMIT));
+        if (job == null) {
+            return jdbcTemplate.query("SELECT * FROM scheduler_job_runs ORDER BY started_at DESC, id DESC LIMIT ?",
+                RUN_MAPPER, capped);
+        }
+        return jdbcTemplate.query("SELECT * FROM scheduler_job_runs WHERE job_name = ? "
+            + "ORDER BY started_at DESC, id DESC LIMIT ?", RUN_MAPPER, job, capped);
+    }
+
+    public List<JobLeaseDto> leases() {
+        return jdbcTemplate.query("SELECT * FROM scheduler_leases ORDER BY job_name", LEASE_MAPPER);
+    }
+
+    /**
+     * Deletes runs older than {@code scheduler.history-retention}.
+     *
+     * @return number of deleted runs
+     */
+    @Scheduled(cron = "${scheduler.history-cleanup-cron:0 30 0 * * *}")
+    @ClusterJob("job-history-cleanup")
+    public int purgeHistory() {
+        return jdbcTemplate.update("DELETE FROM scheduler_job_runs WHERE started_at < now() - make_interval(secs => ?)",
+            (double) properties.getHistoryRetention().toSeconds());
+    }
+}
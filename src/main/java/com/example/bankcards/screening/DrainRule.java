@@ -0,0 +1,71 @@
+package com.example.bankcards.screening;
+
+import com.example.bankcards.config.ScreeningProperties;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Rejects a transfer that, together with the card's other outgoing transfers in the window, takes more than
+ * {@code percent} of the balance the card had before them. Incoming transfers are not tracked,
+ * so the starting balance is estimated as the current balance plus the outgoing sum.
+ * A split transfer is evaluated as if its sources were one card: their windows and balances are added up.
+ */
+@Component
+@Order(2)
+public class DrainRule implements ScreeningRule {
+
+    private final ScreeningProperties.Drain properties;
+    private final SlidingWindows<Long> outgoing;
+
+    public DrainRule(ScreeningProperties properties) {
+        this.properties = properties.getDrain();
+        this.outgoing = new SlidingWindows<>(properties.getWindowCapacity(), this.properties.getWindow().toMillis(),
+            properties.getMaxKeys());
+    }
+
+    @Override
+    public String name() {
+        return "drain";
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    @Override
+    public ScreeningDecision evaluate(TransferAttempt attempt) {
+        long[] spent = {0};
+        long balance = 0;
+        for (TransferAttempt.Source source : attempt.sources()) {
+            outgoing.forEach(source.cardId(), attempt.at(), (at, cents) -> spent[0] += cents);
+            balance += cents(source.balance());
+        }
+        long drained = spent[0] + cents(attempt.amount());
+        if (drained < cents(properties.getMinAmount())) {
+            return ScreeningDecision.ALLOW;
+        }
+        long before = spent[0] + balance;
+        if (drained * 100 > before * properties.getPercent()) {
+            return ScreeningDecision.reject("Transfer would drain more than " + properties.getPercent()
+                + "% of the card balance within " + properties.getWindow().toMinutes() + " minutes");
+        }
+        return ScreeningDecision.ALLOW;
+    }
+
+    @Override
+    public void committed(TransferAttempt attempt) {
+        for (TransferAttempt.Source source : attempt.sources()) {
+            if (source.isDebited()) {
+                outgoing.add(source.cardId(), attempt.at(), cents(source.amount()));
+            }
+        }
+    }
+
+    private static long cents(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.HALF_UP).movePointRight(2).longValue();
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.bankcards.screening;
+
+import com.example.bankcards.config.ScreeningProperties;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Delays transfers that keep moving money back and forth between the same two cards. Transfers of a pair are
+ * kept in one window under the unordered pair of card IDs, the direction is stored as the source card ID.
+ * Every source of a split transfer is checked as its own pair with the target card.
+ */
+@Component
+@Order(3)
+public class PingPongRule implements ScreeningRule {
+
+    private final ScreeningProperties.PingPong properties;
+    private final SlidingWindows<CardPair> transfers;
+
+    public PingPongRule(ScreeningProperties properties) {
+        this.properties = properties.getPingPong();
+        this.transfers = new SlidingWindows<>(properties.getWindowCapacity(), this.properties.getWindow().toMillis(),
+            properties.getMaxKeys());
+    }
+
+    @Override
+    public String name() {
+        return "ping_pong";
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    @Override
+    public ScreeningDecision evaluate(TransferAttempt attempt) {
+        ScreeningDecision decision = ScreeningDecision.ALLOW;
+        for (TransferAttempt.Source source : attempt.sources()) {
+            if (source.isDebited()) {
+                ScreeningDecision pairDecision = evaluate(source.cardId(), attempt.toCardId(), attempt.at());
+                // Из нескольких задержек выбирается самая долгая
+                if (pairDecision.isMoreSevereThan(decision)
+                    || pairDecision.retryAfter().compareTo(decision.retryAfter()) > 0) {
+                    decision = pairDecision;
+                }
+            }
+        }
+        return decision;
+    }
+
+    @Override
+    public void committed(TransferAttempt attempt) {
+        for (TransferAttempt.Source source : attempt.sources()) {
+            if (source.isDebited()) {
+                transfers.add(CardPair.of(source.cardId(), attempt.toCardId()), attempt.at(), source.cardId());
+            }
+        }
+    }
+
+    private ScreeningDecision evaluate(long fromCardId, long toCardId, long now) {
+        long[] state = {0, Long.MIN_VALUE, 0}; // разворотов, направление предыдущего перевода, время первого
+        transfers.forEach(CardPair.of(fromCardId, toCardId), now, (at, previousFromCardId) -> {
+            if (state[1] == Long.MIN_VALUE) {
+                state[2] = at;
+            } else if (state[1] != previousFromCardId) {
+                state[0]++;
+            }
+            state[1] = previousFromCardId;
+        });
+        if (state[1] != Long.MIN_VALUE && state[1] != fromCardId) {
+            state[0]++;
+        }
+        if (state[0] > properties.getMaxReversals()) {
+            return ScreeningDecision.delay("Repeated transfers back and forth between the same cards",
+                Duration.ofMillis(state[2] + transfers.windowMillis() - now));
+        }
+        return ScreeningDecision.ALLOW;
+    }
+
+    record CardPair(long low, long high) {
+        static CardPair of(long fromCardId, long toCardId) {
+            return new CardPair(Math.min(fromCardId, toCardId), Math.max(fromCardId, toCardId));
+        }
+    }
+}
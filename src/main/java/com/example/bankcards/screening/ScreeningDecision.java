@@ -0,0 +1,27 @@
+package com.example.bankcards.screening;
+
+import java.time.Duration;
+
+/**
+ * Outcome of a rule. Actions are ordered by severity, the most severe decision of all rules wins.
+ */
+public record ScreeningDecision(Action action, String reason, Duration retryAfter) {
+
+    public static final ScreeningDecision ALLOW = new ScreeningDecision(Action.ALLOW, null, Duration.ZERO);
+
+    public enum Action {
+        ALLOW, DELAY, REJECT
+    }
+
+    public static ScreeningDecision delay(String reason, Duration retryAfter) {
+        return new ScreeningDecision(Action.DELAY, reason, retryAfter);
+    }
+
+    public static ScreeningDecision reject(String reason) {
+        return new ScreeningDecision(Action.REJECT, reason, Duration.ZERO);
+    }
+
+    public boolean isMoreSevereThan(ScreeningDecision other) {
+        return action.compareTo(other.action) > 0;
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.bankcards.screening;
+
+/**
+ * A rule of the transfer screening. Rules are Spring beans picked up by {@link TransferScreening};
+ * they must answer in microseconds, so state is kept in memory, never queried from the database.
+ */
+public interface ScreeningRule {
+
+    /**
+     * @return rule name used in metrics tags
+     */
+    String name();
+
+    boolean isEnabled();
+
+    ScreeningDecision evaluate(TransferAttempt attempt);
+
+    /**
+     * Called for every screened attempt with the final decision of all rules, right after screening.
+     */
+    default void record(TransferAttempt attempt, ScreeningDecision decision) {
+    }
+
+    /**
+     * Called for an allowed attempt after its transaction has committed, so a rule can count only the transfers
+     * that actually go through: a transfer rolled back later, e.g. over its limit, is not counted.
+     */
+    default void committed(TransferAttempt attempt) {
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.bankcards.screening;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Latest events per key in fixed-size ring buffers. Memory is bounded twice: a window keeps at most
+ * {@code capacity} events, older ones are overwritten, and once there are more than {@code maxKeys} windows
+ * the ones without events inside the time window are dropped. If all windows are active, arbitrary ones are
+ * dropped as well: under memory pressure the rules forget history rather than grow.
+ *
+ * @param <K> key type, e.g. user ID or a pair of cards
+ */
+public final class SlidingWindows<K> {
+
+    private final Map<K, Window> windows = new ConcurrentHashMap<>();
+    private final AtomicBoolean sweeping = new AtomicBoolean();
+    private final int capacity;
+    private final long windowMillis;
+    private final int maxKeys;
+
+    public SlidingWindows(int capacity, long windowMillis, int maxKeys) {
+        this.capacity = capacity;
+        this.windowMillis = windowMillis;
+        this.maxKeys = maxKeys;
+    }
+
+    public long windowMillis() {
+        return windowMillis;
+    }
+
+    /**
+     * Visits events of the key newer than {@code now - window}, oldest first.
+     */
+    public void forEach(K key, long now, EventVisitor visitor) {
+        Window window = windows.get(key);
+        if (window != null) {
+            window.forEach(now - windowMillis, visitor);
+        }
+    }
+
+    public void add(K key, long at, long value) {
+        windows.computeIfAbsent(key, k -> new Window(capacity)).add(at, value);
+        if (windows.size() > maxKeys) {
+            sweep(at);
+        }
+    }
+
+    public int size() {
+        return windows.size();
+    }
+
+    private void sweep(long now) {
+        // Один поток чистит, остальные не ждут
+        if (!sweeping.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long since = now - windowMillis;
+            windows.values().removeIf(window -> window.last() < since);
+            Iterator<K> keys = windows.keySet().iterator();
+            int target = maxKeys - maxKeys / 10;
+            while (windows.size() > target && keys.hasNext()) {
+                keys.next();
+                keys.remove();
+            }
+        } finally {
+            sweeping.set(false);
+        }
+    }
+
+    @FunctionalInterface
+    public interface EventVisitor {
+        void visit(long at, long value);
+    }
+
+    private static final class Window {
+        private final long[] times;
+        private final long[] values;
+        private int next;
+        private int size;
+
+        Window(int capacity) {
+            this.times = new long[capacity];
+            this.values = new long[capacity];
+        }
+
+        synchronized void add(long at, long value) {
+            times[next] = at;
+            values[next] = value;
+            next = (next + 1) % times.length;
+            size = Math.min(size + 1, times.length);
+        }
+
+        synchronized long last() {
+            return size == 0 ? Long.MIN_VALUE : times[(next - 1 + times.length) % times.length];
+        }
+
+        synchronized void forEach(long since, EventVisitor visitor) {
+            int start = (next - size + times.length) % times.length;
+            for (int i = 0; i < size; i++) {
+                int index = (start + i) % times.length;
+                if (times[index] > since) {
+                    visitor.visit(times[index], values[index]);
+                }
+            }
+        }
+    }
+}
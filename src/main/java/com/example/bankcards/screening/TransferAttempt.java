@@ -0,0 +1,30 @@
+package com.example.bankcards.screening;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Transfer as seen by screening rules: checked under the card locks, before balances change.
+ * A split transfer is one attempt with several sources.
+ *
+ * @param sources source cards; a split also lists its candidate cards that give nothing
+ * @param amount total amount
+ * @param at attempt time in epoch milliseconds
+ */
+public record TransferAttempt(Long userId, List<Source> sources, Long toCardId, BigDecimal amount, long at) {
+
+    public TransferAttempt(Long userId, Long fromCardId, Long toCardId, BigDecimal amount, BigDecimal balance, long at) {
+        this(userId, List.of(new Source(fromCardId, amount, balance)), toCardId, amount, at);
+    }
+
+    /**
+     * @param amount amount debited from the card, zero if the card gives nothing
+     * @param balance balance of the card before the transfer
+     */
+    public record Source(Long cardId, BigDecimal amount, BigDecimal balance) {
+
+        public boolean isDebited() {
+            return amount.signum() > 0;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.bankcards.screening;
+
+import com.example.bankcards.config.ScreeningProperties;
+import com.example.bankcards.exception.TransferDelayedException;
+import com.example.bankcards.exception.TransferRejectedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pre-commit screening of transfers: runs all enabled {@link ScreeningRule} beans in their {@code @Order}
+ * and applies the most severe decision. Each rule is timed separately ({@code bank.screening.rule}),
+ * so a slow rule shows up before it adds noticeably to the transfer time.
+ */
+@Component
+@EnableConfigurationProperties(ScreeningProperties.class)
+public class TransferScreening {
+
+    private final List<ScreeningRule> rules;
+    private final List<Timer> timers;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+
+    public TransferScreening(List<ScreeningRule> rules, ScreeningProperties properties, MeterRegistry meterRegistry) {
+        this.rules = rules.stream().filter(ScreeningRule::isEnabled).toList();
+        this.timers = this.rules.stream()
+            .map(rule -> Timer.builder("bank.screening.rule")
+                .tag("rule", rule.name())
+                .publishPercentileHistogram()
+                .register(meterRegistry))
+            .toList();
+        this.meterRegistry = meterRegistry;
+        this.enabled = properties.isEnabled();
+    }
+    /**
+     * Screens a transfer. Must be called under the card locks, before balances change. An allowed transfer
+     * is counted by the rules after the current transaction commits, or at once outside a transaction.
+     *
+     * @param attempt transfer to screen
+     * @throws TransferRejectedException if a rule rejects the transfer
+     * @throws TransferDelayedException if a rule asks to retry the transfer later
+     */
+    public void screen(TransferAttempt attempt) {
+        if (!enabled || rules.isEmpty()) {
+            return;
+        }
+        ScreeningDecision decision = ScreeningDecision.ALLOW;
+        String decidedBy = null;
+        // Вычисляются все правила, а не до первого отказа: правило скорости считает и отклонённые попытки
+        for (int i = 0; i < rules.size(); i++) {
+            long start = System.nanoTime();
+            ScreeningDecision ruleDecision = rules.get(i).evaluate(attempt);
+            timers.get(i).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            if (ruleDecision.isMoreSevereThan(decision)) {
+                decision = ruleDecision;
+                decidedBy = rules.get(i).name();
+            }
+        }
+        for (ScreeningRule rule : rules) {
+            rule.record(attempt, decision);
+        }
+
+        switch (decision.action()) {
+            case REJECT -> {
+                count(decidedBy, "reject");
+                throw new TransferRejectedException(decision.reason());
+            }
+            case DELAY -> {
+                count(decidedBy, "delay");
+                throw new TransferDelayedException(decision.reason(), decision.retryAfter());
+            }
+            default -> committed(attempt);
+        }
+    }
+
+    private void committed(TransferAttempt attempt) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            rules.forEach(rule -> rule.committed(attempt));
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                rules.forEach(rule -> rule.committed(attempt));
+            }
+        });
+    }
+
+    private void count(String rule, String decision) {
+        Counter.builder("bank.screening.decisions")
+            .tag("rule", rule)
+            .tag("decision", decision)
+            .register(meterRegistry)
+            .increment();
+    }
+}
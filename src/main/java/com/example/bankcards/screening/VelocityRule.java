@@ -0,0 +1,62 @@
+package com.example.bankcards.screening;
+
+import com.example.bankcards.config.ScreeningProperties;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Limits the number of transfer attempts of a user per window. Every screened attempt counts, including delayed
+ * and rejected ones, so hammering the endpoint keeps the user throttled instead of resetting the window.
+ */
+@Component
+@Order(1)
+public class VelocityRule implements ScreeningRule {
+
+    private final ScreeningProperties.Velocity properties;
+    private final SlidingWindows<Long> attempts;
+
+    public VelocityRule(ScreeningProperties properties) {
+        this.properties = properties.getVelocity();
+        // Окна хватает ровно на то, чтобы заметить превышение порога отказа
+        this.attempts = new SlidingWindows<>(this.properties.getRejectAbove() + 1,
+            this.properties.getWindow().toMillis(), properties.getMaxKeys());
+    }
+
+    @Override
+    public String name() {
+        return "velocity";
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    @Override
+    public ScreeningDecision evaluate(TransferAttempt attempt) {
+        int[] count = {1};
+        long[] oldest = {attempt.at()};
+        attempts.forEach(attempt.userId(), attempt.at(), (at, value) -> {
+            if (count[0]++ == 1) {
+                oldest[0] = at;
+            }
+        });
+        if (count[0] > properties.getRejectAbove()) {
+            return ScreeningDecision.reject("Too many transfers, more than " + properties.getRejectAbove()
+                + " per " + properties.getWindow().toSeconds() + " seconds");
+        }
+        if (count[0] > properties.getDelayAbove()) {
+            // Повтор имеет смысл, когда самая старая попытка выйдет из окна
+            return ScreeningDecision.delay("Too many transfers, retry later",
+                Duration.ofMillis(oldest[0] + attempts.windowMillis() - attempt.at()));
+        }
+        return ScreeningDecision.ALLOW;
+    }
+
+    @Override
+    public void record(TransferAttempt attempt, ScreeningDecision decision) {
+        attempts.add(attempt.userId(), attempt.at(), 1);
+    }
+}
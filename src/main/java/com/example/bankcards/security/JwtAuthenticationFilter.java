@@ -1,5 +1,6 @@
 package com.example.bankcards.security;
 
+import com.example.bankcards.monitoring.jfr.UserLookupEvent;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -36,7 +37,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         final String jwt = authHeader.substring(7);
         final String username = jwtService.extractUsername(jwt);
         if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
+            UserDetails userDetails = loadUser(username);
             if (jwtService.isTokenValid(jwt, userDetails)) {
                 UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                     userDetails, null, userDetails.getAuthorities());
@@ -46,4 +47,16 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
         filterChain.doFilter(request, response);
     }
-}
\ No newline at end of file
+
+    private UserDetails loadUser(String username) {
+        UserLookupEvent event = new UserLookupEvent();
+        event.begin();
+        try {
+            UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+            event.found = true;
+            return userDetails;
+        } finally {
+            event.commit();
+        }
+    }
+}
@@ -1,9 +1,12 @@
 package com.example.bankcards.security;
 
+import com.example.bankcards.monitoring.jfr.JwtVerificationEvent;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
@@ -14,6 +17,10 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.function.Function;
 
+/**
+ * Issues and verifies JWTs. Operations are timed as {@code bank.jwt} inside the methods rather than with
+ * {@code @Timed}, because the public overloads call each other and self-invocation bypasses the proxy.
+ */
 @Service
 public class JwtService {
 
@@ -22,6 +29,16 @@ public class JwtService {
 
     @Value("${jwt.expiration}")
     private long jwtExpiration;
+
+    private final Timer extractUsernameTimer;
+    private final Timer generateTokenTimer;
+    private final Timer isTokenValidTimer;
+
+    public JwtService(MeterRegistry meterRegistry) {
+        this.extractUsernameTimer = timer(meterRegistry, "extractUsername");
+        this.generateTokenTimer = timer(meterRegistry, "generateToken");
+        this.isTokenValidTimer = timer(meterRegistry, "isTokenValid");
+    }
     /**
      * Extracts username from JWT token
      *
@@ -29,7 +46,7 @@ public class JwtService {
      * @return username from token subject
      */
     public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
+        return extractUsernameTimer.record(() -> extractClaim(token, Claims::getSubject));
     }
     /**
      * Extracts specific claim from JWT token
@@ -60,13 +77,13 @@ public class JwtService {
      * @return JWT token string
      */
     public String generateToken(Map<String, Object> extraClaims, UserDetails userDetails) {
-        return Jwts.builder()
+        return generateTokenTimer.record(() -> Jwts.builder()
             .claims(extraClaims)
             .subject(userDetails.getUsername())
             .issuedAt(new Date(System.currentTimeMillis()))
             .expiration(new Date(System.currentTimeMillis() + jwtExpiration))
             .signWith(getSignInKey(), Jwts.SIG.HS256)
-            .compact();
+            .compact());
     }
     /**
      * Validates JWT token against user details
@@ -76,8 +93,11 @@ public class JwtService {
      * @return true if token is valid, false otherwise
      */
     public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername())) && !isTokenExpired(token);
+        Boolean valid = isTokenValidTimer.record(() -> {
+            final String username = extractUsername(token);
+            return (username.equals(userDetails.getUsername())) && !isTokenExpired(token);
+        });
+        return Boolean.TRUE.equals(valid);
     }
 
     private boolean isTokenExpired(String token) {
@@ -89,11 +109,26 @@ public class JwtService {
     }
 
     private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-            .verifyWith(getSignInKey())
-            .build()
-            .parseSignedClaims(token)
-            .getPayload();
+        JwtVerificationEvent event = new JwtVerificationEvent();
+        event.begin();
+        try {
+            Claims claims = Jwts.parser()
+                .verifyWith(getSignInKey())
+                .build()
+                .parseSignedClaims(token)
+                .getPayload();
+            event.valid = true;
+            return claims;
+        } catch (RuntimeException e) {
+            event.failure = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            event.commit();
+        }
+    }
+
+    private static Timer timer(MeterRegistry meterRegistry, String operation) {
+        return Timer.builder("bank.jwt").tag("operation", operation).publishPercentileHistogram().register(meterRegistry);
     }
 
     private SecretKey getSignInKey() {
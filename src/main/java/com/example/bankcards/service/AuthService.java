@@ -1,5 +1,9 @@
 package com.example.bankcards.service;
 
+import com.example.bankcards.cache.LocalCache;
+import com.example.bankcards.cache.LocalCacheManager;
+import com.example.bankcards.config.DbPartition;
+import com.example.bankcards.config.DbPool;
 import com.example.bankcards.dto.UserLoginDto;
 import com.example.bankcards.dto.UserRegistrationDto;
 import com.example.bankcards.entity.Role;
@@ -26,13 +30,16 @@ public class AuthService {
     private final PasswordEncoder passwordEncoder;
     private final JwtService jwtService;
     private final AuthenticationManager authenticationManager;
+    private final LocalCache<Role> roleCache;
 
-    public AuthService(UserRepository userRepository, RoleRepository roleRepository, PasswordEncoder passwordEncoder, JwtService jwtService, AuthenticationManager authenticationManager) {
+    public AuthService(UserRepository userRepository, RoleRepository roleRepository, PasswordEncoder passwordEncoder, JwtService jwtService, AuthenticationManager authenticationManager,
+                       LocalCacheManager cacheManager) {
         this.userRepository = userRepository;
         this.roleRepository = roleRepository;
         this.passwordEncoder = passwordEncoder;
         this.jwtService = jwtService;
         this.authenticationManager = authenticationManager;
+        this.roleCache = cacheManager.getCache(LocalCacheManager.ROLES);
     }
     /**
      * Registers a new user with USER role
@@ -42,12 +49,13 @@ public class AuthService {
      * @throws RuntimeException if role not found
      */
     @Transactional
+    @DbPool(DbPartition.AUTH)
     public Map<String, String> register(UserRegistrationDto registrationDto) {
         User user = new User();
         user.setUsername(registrationDto.getUsername());
         user.setPassword(passwordEncoder.encode(registrationDto.getPassword()));
         user.setEmail(registrationDto.getEmail());
-        Role userRole = roleRepository.findByName("USER").orElseThrow();
+        Role userRole = roleCache.get("USER", key -> roleRepository.findByName(key).orElseThrow());
         user.setRoles(Set.of(userRole));
 
         User savedUser = userRepository.save(user);
@@ -65,6 +73,7 @@ public class AuthService {
      * @throws AuthenticationException if authentication fails
      */
     @Transactional
+    @DbPool(DbPartition.AUTH)
     public Map<String, String> login(UserLoginDto loginDto) {
         authenticationManager.authenticate(
             new UsernamePasswordAuthenticationToken(loginDto.getUsername(), loginDto.getPassword())
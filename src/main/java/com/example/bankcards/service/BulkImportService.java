@@ -0,0 +1,161 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.dto.BulkImportResultDto;
+import com.example.bankcards.dto.CardCreationDto;
+import com.example.bankcards.dto.UserCreationDto;
+import com.example.bankcards.exception.BulkImportException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+@Service
+public class BulkImportService {
+
+    private final UserService userService;
+    private final CardService cardService;
+
+    @Value("${cards.bulk.chunk-size:1000}")
+    private int chunkSize;
+
+    public BulkImportService(UserService userService, CardService cardService) {
+        this.userService = userService;
+        this.cardService = cardService;
+    }
+    /**
+     * Imports users in chunks, each chunk committed in its own transaction
+     *
+     * @param creationDtos DTOs containing user creation details
+     * @return import result with row count and throughput
+     * @throws BulkImportException if a chunk fails; earlier chunks stay committed
+     */
+    public BulkImportResultDto importUsers(List<UserCreationDto> creationDtos) {
+        return importInChunks(creationDtos, userService::createUsers);
+    }
+    /**
+     * Imports users from CSV with header {@code username,password,email,roles}; roles are separated by ';'
+     *
+     * @param reader CSV source, read line by line
+     * @return import result with row count and throughput
+     * @throws BulkImportException if a row is malformed or a chunk fails; earlier chunks stay committed
+     */
+    public BulkImportResultDto importUsersCsv(BufferedReader reader) {
+        return importCsvInChunks(reader, 4, columns -> {
+            UserCreationDto dto = new UserCreationDto();
+            dto.setUsername(columns[0]);
+            dto.setPassword(columns[1]);
+            dto.setEmail(columns[2]);
+            dto.setRoles(new HashSet<>(Arrays.asList(columns[3].split(";"))));
+            return dto;
+        }, userService::createUsers);
+    }
+    /**
+     * Imports cards in chunks, each chunk committed in its own transaction (admin only)
+     *
+     * @param creationDtos DTOs containing card creation details
+     * @return import result with row count and throughput
+     * @throws BulkImportException if a chunk fails; earlier chunks stay committed
+     */
+    public BulkImportResultDto importCards(List<CardCreationDto> creationDtos) {
+        return importInChunks(creationDtos, cardService::createCards);
+    }
+    /**
+     * Imports cards from CSV with header {@code number,ownerId,expirationDate,balance} (admin only)
+     *
+     * @param reader CSV source, read line by line
+     * @return import result with row count and throughput
+     * @throws BulkImportException if a row is malformed or a chunk fails; earlier chunks stay committed
+     */
+    public BulkImportResultDto importCardsCsv(BufferedReader reader) {
+        return importCsvInChunks(reader, 4, columns -> {
+            CardCreationDto dto = new CardCreationDto();
+            dto.setNumber(columns[0]);
+            dto.setOwnerId(Long.valueOf(columns[1]));
+            dto.setExpirationDate(LocalDate.parse(columns[2]));
+            dto.setBalance(new BigDecimal(columns[3]));
+            return dto;
+        }, cardService::createCards);
+    }
+
+    private <T> BulkImportResultDto importInChunks(List<T> rows, ToIntFunction<List<T>> importer) {
+        long start = System.nanoTime();
+        long imported = 0;
+        for (int from = 0; from < rows.size(); from += chunkSize) {
+            int to = Math.min(from + chunkSize, rows.size());
+            try {
+                imported += importer.applyAsInt(rows.subList(from, to));
+            } catch (RuntimeException e) {
+                throw new BulkImportException("Import failed at rows " + from + "-" + (to - 1) + ": " + e.getMessage(),
+                    imported, from, e);
+            }
+        }
+        return result(imported, start);
+    }
+
+    private <T> BulkImportResultDto importCsvInChunks(BufferedReader reader, int columnCount,
+                                                      Function<String[], T> parser, ToIntFunction<List<T>> importer) {
+        long start = System.nanoTime();
+        long imported = 0;
+        List<T> chunk = new ArrayList<>(chunkSize);
+        // Первая строка текущего незаписанного чанка: с неё клиент продолжает импорт после ошибки
+        int chunkStartLine = 0;
+        try {
+            reader.readLine(); // заголовок
+            String line;
+            int lineNumber = 1;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                if (chunk.isEmpty()) {
+                    chunkStartLine = lineNumber;
+                }
+                String[] columns = line.split(",", -1);
+                if (columns.length != columnCount) {
+                    throw new BulkImportException("Invalid CSV row at line " + lineNumber, imported, chunkStartLine, null);
+                }
+                try {
+                    chunk.add(parser.apply(Arrays.stream(columns).map(String::trim).toArray(String[]::new)));
+                } catch (RuntimeException e) {
+                    throw new BulkImportException("Invalid CSV row at line " + lineNumber, imported, chunkStartLine, e);
+                }
+                if (chunk.size() == chunkSize) {
+                    imported += importCsvChunk(chunk, importer, imported, chunkStartLine, lineNumber);
+                    chunk = new ArrayList<>(chunkSize);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                imported += importCsvChunk(chunk, importer, imported, chunkStartLine, lineNumber);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return result(imported, start);
+    }
+
+    private static <T> int importCsvChunk(List<T> chunk, ToIntFunction<List<T>> importer, long imported,
+                                          int firstLine, int lastLine) {
+        try {
+            return importer.applyAsInt(chunk);
+        } catch (RuntimeException e) {
+            throw new BulkImportException("Import failed at lines " + firstLine + "-" + lastLine + ": " + e.getMessage(),
+                imported, firstLine, e);
+        }
+    }
+
+    private BulkImportResultDto result(long imported, long startNanos) {
+        long elapsedNanos = Math.max(1, System.nanoTime() - startNanos);
+        return new BulkImportResultDto(imported, elapsedNanos / 1_000_000, imported * 1_000_000_000d / elapsedNanos);
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.scheduling.ClusterJob;
+import com.example.bankcards.stream.CardChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+@Service
+public class CardExpirationService {
+
+    private static final Logger log = LoggerFactory.getLogger(CardExpirationService.class);
+
+    private final CardRepository cardRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${cards.expiration.batch-size:1000}")
+    private int batchSize;
+
+    public CardExpirationService(CardRepository cardRepository, ApplicationEventPublisher eventPublisher,
+                                 PlatformTransactionManager transactionManager) {
+        this.cardRepository = cardRepository;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+    /**
+     * Expires all overdue cards in chunks, each chunk committed in its own transaction
+     * to keep row locks short. A chunk publishes a change event per expired card in the same transaction,
+     * so its outbox rows commit together with the status change. Runs on the job's leader node only;
+     * rows are still taken with SKIP LOCKED, so a run overlapping with a failover is harmless.
+     *
+     * @return total number of cards switched to EXPIRED status
+     */
+    @Scheduled(cron = "${cards.expiration.cron:0 5 0 * * *}")
+    @ClusterJob("card-expiration")
+    public int expireCards() {
+        int total = 0;
+        int updated;
+        do {
+            updated = transactionTemplate.execute(status -> expireChunk());
+            total += updated;
+        } while (updated == batchSize);
+        log.info("Card expiration job finished, expired {} cards", total);
+        return total;
+    }
+
+    private int expireChunk() {
+        List<Long> expiredIds = cardRepository.expireOverdueCards(batchSize);
+        if (!expiredIds.isEmpty()) {
+            // Строки уже заблокированы UPDATE, снимок читается после смены статуса
+            cardRepository.findAllById(expiredIds).forEach(card -> eventPublisher.publishEvent(CardChangedEvent.of(card)));
+        }
+        return expiredIds.size();
+    }
+}
@@ -7,9 +7,13 @@ import com.example.bankcards.entity.Card;
 import com.example.bankcards.entity.CardStatus;
 import com.example.bankcards.entity.User;
 import com.example.bankcards.exception.ResourceNotFoundException;
+import com.example.bankcards.outbox.CardDeletedEvent;
 import com.example.bankcards.repository.CardRepository;
 import com.example.bankcards.repository.UserRepository;
+import com.example.bankcards.stream.CardChangedEvent;
 import com.example.bankcards.util.CardUtil;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -19,17 +23,26 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
 @Service
 public class CardService {
 
     private final CardRepository cardRepository;
     private final UserRepository userRepository;
     private final CardUtil cardUtil;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public CardService(CardRepository cardRepository, UserRepository userRepository, CardUtil cardUtil) {
+    public CardService(CardRepository cardRepository, UserRepository userRepository, CardUtil cardUtil,
+                       ApplicationEventPublisher eventPublisher) {
         this.cardRepository = cardRepository;
         this.userRepository = userRepository;
         this.cardUtil = cardUtil;
+        this.eventPublisher = eventPublisher;
     }
     /**
      * Retrieves a paginated list of cards based on user role and optional status filter
@@ -42,6 +55,7 @@ public class CardService {
      */
     @Transactional(readOnly = true)
     @PreAuthorize("hasAnyRole('ADMIN', 'USER')")
+    @Timed(value = "bank.card.read", extraTags = {"operation", "getCards"}, histogram = true)
     public Page<CardDto> getCards(int page, int size, String status) {
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
         String username = auth.getName();
@@ -75,6 +89,7 @@ public class CardService {
      */
     @Transactional
     @PreAuthorize("hasRole('ADMIN')")
+    @Timed(value = "bank.card.write", extraTags = {"operation", "createCard"}, histogram = true)
     public CardDto createCard(CardCreationDto creationDto) {
         Card card = new Card();
         card.setNumber(cardUtil.encrypt(creationDto.getNumber()));
@@ -84,8 +99,43 @@ public class CardService {
         card.setExpirationDate(creationDto.getExpirationDate());
         card.setBalance(creationDto.getBalance());
         cardRepository.save(card);
+        eventPublisher.publishEvent(CardChangedEvent.of(card));
         return mapToDto(card);
     }
+    /**
+     * Creates cards in bulk within one transaction (admin only). Card numbers are encrypted
+     * in parallel, owners are checked with a single query and rows are written with JDBC batch inserts.
+     *
+     * @param creationDtos DTOs containing card creation details
+     * @return number of created cards
+     * @throws ResourceNotFoundException if any owner not found
+     */
+    @Transactional
+    @PreAuthorize("hasRole('ADMIN')")
+    @Timed(value = "bank.card.write", extraTags = {"operation", "createCards"}, histogram = true)
+    public int createCards(List<CardCreationDto> creationDtos) {
+        Set<Long> ownerIds = creationDtos.stream().map(CardCreationDto::getOwnerId).collect(Collectors.toSet());
+        if (!userRepository.findExistingIds(ownerIds).containsAll(ownerIds)) {
+            throw new ResourceNotFoundException("User not found");
+        }
+        List<String> numbers = creationDtos.parallelStream()
+            .map(dto -> cardUtil.encrypt(dto.getNumber()))
+            .toList();
+        List<Card> cards = new ArrayList<>(creationDtos.size());
+        for (int i = 0; i < creationDtos.size(); i++) {
+            CardCreationDto dto = creationDtos.get(i);
+            Card card = new Card();
+            card.setNumber(numbers.get(i));
+            card.setOwner(userRepository.getReferenceById(dto.getOwnerId()));
+            card.setExpirationDate(dto.getExpirationDate());
+            card.setBalance(dto.getBalance());
+            cards.add(card);
+        }
+        cardRepository.saveAll(cards);
+        // id уже выданы последовательностью, поэтому события можно собрать до flush
+        cards.forEach(card -> eventPublisher.publishEvent(CardChangedEvent.of(card)));
+        return cards.size();
+    }
     /**
      * Retrieves a specific card by ID with ownership verification
      *
@@ -95,6 +145,7 @@ public class CardService {
      */
     @Transactional(readOnly = true)
     @PreAuthorize("hasAnyRole('ADMIN', 'USER')")
+    @Timed(value = "bank.card.read", extraTags = {"operation", "getCardById"}, histogram = true)
     public CardDto getCardById(Long id) {
         Card card = cardRepository.findById(id)
             .orElseThrow(() -> new ResourceNotFoundException("Card not found"));
@@ -108,17 +159,25 @@ public class CardService {
      * @param updateDto DTO containing update details
      * @return updated card DTO
      * @throws ResourceNotFoundException if card not found
+     * @throws IllegalArgumentException if a limit is negative
      */
     @Transactional
     @PreAuthorize("hasRole('ADMIN')")
+    @Timed(value = "bank.card.write", extraTags = {"operation", "updateCard"}, histogram = true)
     public CardDto updateCard(Long id, CardUpdateDto updateDto) {
-        Card card = cardRepository.findById(id)
-            .orElseThrow(() -> new ResourceNotFoundException("Card not found"));
+        Card card = lockCard(id);
         card.setExpirationDate(updateDto.getExpirationDate());
         if (updateDto.getStatus() != null) {
             card.setStatus(CardStatus.valueOf(updateDto.getStatus().toUpperCase()));
         }
+        if (updateDto.getDailyLimit() != null) {
+            card.setDailyLimit(nonNegative(updateDto.getDailyLimit(), "Daily limit"));
+        }
+        if (updateDto.getMonthlyLimit() != null) {
+            card.setMonthlyLimit(nonNegative(updateDto.getMonthlyLimit(), "Monthly limit"));
+        }
         cardRepository.save(card);
+        eventPublisher.publishEvent(CardChangedEvent.of(card));
         return mapToDto(card);
     }
     /**
@@ -129,10 +188,12 @@ public class CardService {
      */
     @Transactional
     @PreAuthorize("hasRole('ADMIN')")
+    @Timed(value = "bank.card.write", extraTags = {"operation", "deleteCard"}, histogram = true)
     public void deleteCard(Long id) {
         Card card = cardRepository.findById(id)
             .orElseThrow(() -> new ResourceNotFoundException("Card not found"));
         cardRepository.delete(card);
+        eventPublisher.publishEvent(new CardDeletedEvent(card.getId(), card.getOwner().getId()));
     }
     /**
      * Blocks a card (user can only block own cards)
@@ -142,12 +203,13 @@ public class CardService {
      */
     @Transactional
     @PreAuthorize("hasRole('USER')")
+    @Timed(value = "bank.card.write", extraTags = {"operation", "blockCard"}, histogram = true)
     public void blockCard(Long id) {
-        Card card = cardRepository.findById(id)
-            .orElseThrow(() -> new ResourceNotFoundException("Card not found"));
+        Card card = lockCard(id);
         checkOwnership(card);
         card.setStatus(CardStatus.BLOCKED);
         cardRepository.save(card);
+        eventPublisher.publishEvent(CardChangedEvent.of(card));
     }
     /**
      * Activates a card (admin only)
@@ -157,11 +219,19 @@ public class CardService {
      */
     @Transactional
     @PreAuthorize("hasRole('ADMIN')")
+    @Timed(value = "bank.card.write", extraTags = {"operation", "activateCard"}, histogram = true)
     public void activateCard(Long id) {
-        Card card = cardRepository.findById(id)
-            .orElseThrow(() -> new ResourceNotFoundException("Card not found"));
+        Card card = lockCard(id);
         card.setStatus(CardStatus.ACTIVE);
         cardRepository.save(card);
+        eventPublisher.publishEvent(CardChangedEvent.of(card));
+    }
+
+    // Блокировка в том же порядке, что у переводов: снимок для события не отстаёт от параллельного перевода
+    private Card lockCard(Long id) {
+        return cardRepository.findAndLockByIdIn(List.of(id)).stream()
+            .findFirst()
+            .orElseThrow(() -> new ResourceNotFoundException("Card not found"));
     }
 
     private void checkOwnership(Card card) {
@@ -184,6 +254,16 @@ public class CardService {
         dto.setExpirationDate(card.getExpirationDate());
         dto.setStatus(card.getStatus().name());
         dto.setBalance(card.getBalance());
+        dto.setAvailableBalance(card.getAvailableBalance());
+        dto.setDailyLimit(card.getDailyLimit());
+        dto.setMonthlyLimit(card.getMonthlyLimit());
         return dto;
     }
+
+    private BigDecimal nonNegative(BigDecimal limit, String name) {
+        if (limit.signum() < 0) {
+            throw new IllegalArgumentException(name + " must not be negative");
+        }
+        return limit;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,81 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.dto.CardOwnerStatsDto;
+import com.example.bankcards.dto.CardStatsDto;
+import com.example.bankcards.entity.CardExpiryStats;
+import com.example.bankcards.entity.CardStatus;
+import com.example.bankcards.entity.CardStatusStats;
+import com.example.bankcards.repository.CardExpiryStatsRepository;
+import com.example.bankcards.repository.CardOwnerStatsRepository;
+import com.example.bankcards.repository.CardStatusStatsRepository;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Service
+public class CardStatsService {
+
+    private final CardStatusStatsRepository cardStatusStatsRepository;
+    private final CardOwnerStatsRepository cardOwnerStatsRepository;
+    private final CardExpiryStatsRepository cardExpiryStatsRepository;
+
+    public CardStatsService(CardStatusStatsRepository cardStatusStatsRepository,
+                            CardOwnerStatsRepository cardOwnerStatsRepository,
+                            CardExpiryStatsRepository cardExpiryStatsRepository) {
+        this.cardStatusStatsRepository = cardStatusStatsRepository;
+        this.cardOwnerStatsRepository = cardOwnerStatsRepository;
+        this.cardExpiryStatsRepository = cardExpiryStatsRepository;
+    }
+    /**
+     * Returns card counts and balances per status and number of cards expiring this month.
+     * Reads only pre-aggregated rows, so the cost does not depend on the number of cards.
+     *
+     * @return card statistics DTO
+     */
+    @Transactional(readOnly = true)
+    @PreAuthorize("hasRole('ADMIN')")
+    public CardStatsDto getSummary() {
+        Map<CardStatus, CardStatusStats> byStatus = new EnumMap<>(CardStatus.class);
+        cardStatusStatsRepository.findAll().forEach(stats -> byStatus.put(stats.getStatus(), stats));
+
+        Map<String, Long> countByStatus = new LinkedHashMap<>();
+        Map<String, BigDecimal> balanceByStatus = new LinkedHashMap<>();
+        for (CardStatus status : CardStatus.values()) {
+            CardStatusStats stats = byStatus.get(status);
+            countByStatus.put(status.name(), stats != null ? stats.getCardCount() : 0L);
+            balanceByStatus.put(status.name(), stats != null ? stats.getTotalBalance() : BigDecimal.ZERO);
+        }
+
+        CardStatsDto dto = new CardStatsDto();
+        dto.setCountByStatus(countByStatus);
+        dto.setBalanceByStatus(balanceByStatus);
+        dto.setExpiringThisMonth(cardExpiryStatsRepository.findById(LocalDate.now().withDayOfMonth(1))
+            .map(CardExpiryStats::getCardCount)
+            .orElse(0L));
+        return dto;
+    }
+    /**
+     * Returns card count and total balance for a single owner
+     *
+     * @param ownerId the owner (user) ID
+     * @return owner statistics DTO, zeros if the owner has no cards
+     */
+    @Transactional(readOnly = true)
+    @PreAuthorize("hasRole('ADMIN')")
+    public CardOwnerStatsDto getOwnerStats(Long ownerId) {
+        CardOwnerStatsDto dto = new CardOwnerStatsDto();
+        dto.setOwnerId(ownerId);
+        dto.setTotalBalance(BigDecimal.ZERO);
+        cardOwnerStatsRepository.findById(ownerId).ifPresent(stats -> {
+            dto.setCardCount(stats.getCardCount());
+            dto.setTotalBalance(stats.getTotalBalance());
+        });
+        return dto;
+    }
+}
@@ -0,0 +1,262 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.config.DbPartition;
+import com.example.bankcards.config.DbPool;
+import com.example.bankcards.config.HoldProperties;
+import com.example.bankcards.dto.HoldCaptureDto;
+import com.example.bankcards.dto.HoldCreationDto;
+import com.example.bankcards.dto.HoldDto;
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.CardStatus;
+import com.example.bankcards.entity.Hold;
+import com.example.bankcards.entity.HoldStatus;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.exception.InsufficientFundsException;
+import com.example.bankcards.exception.LimitExceededException;
+import com.example.bankcards.exception.ResourceNotFoundException;
+import com.example.bankcards.limits.CardLimits;
+import com.example.bankcards.outbox.HoldChangedEvent;
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.HoldRepository;
+import com.example.bankcards.repository.UserRepository;
+import com.example.bankcards.stream.CardChangedEvent;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+/**
+ * Authorize/capture holds. Placing a hold moves the amount from the available balance into {@code cards.held};
+ * the ledger balance changes only on capture. Operations on an existing hold lock the hold first and then the card,
+ * so capture, void and expiry of the same hold are serialized and each closes it at most once.
+ */
+@Service
+@EnableConfigurationProperties(HoldProperties.class)
+public class HoldService {
+
+    private final HoldRepository holdRepository;
+    private final CardRepository cardRepository;
+    private final UserRepository userRepository;
+    private final CardLimits cardLimits;
+    private final ApplicationEventPublisher eventPublisher;
+    private final HoldProperties properties;
+
+    public HoldService(HoldRepository holdRepository, CardRepository cardRepository, UserRepository userRepository,
+                       CardLimits cardLimits, ApplicationEventPublisher eventPublisher, HoldProperties properties) {
+        this.holdRepository = holdRepository;
+        this.cardRepository = cardRepository;
+        this.userRepository = userRepository;
+        this.cardLimits = cardLimits;
+        this.eventPublisher = eventPublisher;
+        this.properties = properties;
+    }
+    /**
+     * Places a hold on a card of the current user
+     *
+     * @param creationDto DTO containing hold details
+     * @return placed hold DTO
+     * @throws ResourceNotFoundException if the card not found or belongs to another user
+     * @throws IllegalArgumentException if the card is not set or the amount or expiration time is invalid
+     * @throws IllegalStateException if the card is not in ACTIVE status
+     * @throws InsufficientFundsException if the available balance is less than the amount
+     */
+    @Transactional
+    @PreAuthorize("hasRole('USER')")
+    @DbPool(DbPartition.TRANSFER)
+    public HoldDto placeHold(HoldCreationDto creationDto) {
+        if (creationDto.getCardId() == null) {
+            throw new IllegalArgumentException("Card ID must be set");
+        }
+        if (creationDto.getAmount() == null || creationDto.getAmount().signum() <= 0) {
+            throw new IllegalArgumentException("Hold amount must be positive");
+        }
+        // Срок храним с точностью до миллисекунды, как и колесо: холд не истекает раньше записанного срока
+        OffsetDateTime now = OffsetDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        OffsetDateTime expiresAt = creationDto.getExpiresAt() != null
+            ? creationDto.getExpiresAt().truncatedTo(ChronoUnit.MILLIS)
+            : now.plus(properties.getDefaultTtl());
+        if (!expiresAt.isAfter(now) || expiresAt.isAfter(now.plus(properties.getMaxTtl()))) {
+            throw new IllegalArgumentException("Hold must expire within " + properties.getMaxTtl());
+        }
+        Long userId = currentUser().getId();
+        Card card = lockCard(creationDto.getCardId());
+        if (!card.getOwner().getId().equals(userId)) {
+            throw new ResourceNotFoundException("Card not found with id: " + creationDto.getCardId());
+        }
+        if (card.getStatus() != CardStatus.ACTIVE || card.isExpired()) {
+            throw new IllegalStateException("Card must be in ACTIVE status");
+        }
+        if (card.getAvailableBalance().compareTo(creationDto.getAmount()) < 0) {
+            throw new InsufficientFundsException("Insufficient funds on card with id: " + card.getId());
+        }
+
+        card.setHeld(card.getHeld().add(creationDto.getAmount()));
+        Hold hold = new Hold();
+        hold.setCardId(card.getId());
+        hold.setAmount(creationDto.getAmount());
+        hold.setReference(creationDto.getReference());
+        hold.setCreatedAt(now);
+        hold.setExpiresAt(expiresAt);
+        holdRepository.save(hold);
+        publish(hold, card);
+        return mapToDto(hold);
+    }
+    /**
+     * Captures a hold of the current user: the captured amount is debited from the ledger balance
+     * and the whole hold is released. A partial capture releases the rest.
+     *
+     * @param id hold ID
+     * @param captureDto amount to capture; the full hold amount if not set
+     * @return captured hold DTO
+     * @throws ResourceNotFoundException if the hold not found or belongs to another user
+     * @throws IllegalArgumentException if the amount exceeds the hold amount
+     * @throws IllegalStateException if the hold is no longer held
+     * @throws LimitExceededException if the daily or monthly limit of the card would be exceeded
+     */
+    @Transactional
+    @PreAuthorize("hasRole('USER')")
+    @DbPool(DbPartition.TRANSFER)
+    public HoldDto captureHold(Long id, HoldCaptureDto captureDto) {
+        Hold hold = lockHold(id);
+        Card card = lockOwnCard(hold);
+        checkHeld(hold);
+        BigDecimal amount = captureDto != null && captureDto.getAmount() != null ? captureDto.getAmount() : hold.getAmount();
+        if (amount.signum() <= 0 || amount.compareTo(hold.getAmount()) > 0) {
+            throw new IllegalArgumentException("Capture amount must be positive and not exceed the hold amount");
+        }
+        // Лимит расходуется при списании: непойманный холд лимит не занимает
+        cardLimits.reserve(card, amount);
+        card.setBalance(card.getBalance().subtract(amount));
+        card.setHeld(card.getHeld().subtract(hold.getAmount()));
+        hold.setCapturedAmount(amount);
+        close(hold, card, HoldStatus.CAPTURED, OffsetDateTime.now());
+        return mapToDto(hold);
+    }
+    /**
+     * Voids a hold of the current user, releasing the whole amount
+     *
+     * @param id hold ID
+     * @return voided hold DTO
+     * @throws ResourceNotFoundException if the hold not found or belongs to another user
+     * @throws IllegalStateException if the hold is no longer held
+     */
+    @Transactional
+    @PreAuthorize("hasRole('USER')")
+    @DbPool(DbPartition.TRANSFER)
+    public HoldDto voidHold(Long id) {
+        Hold hold = lockHold(id);
+        Card card = lockOwnCard(hold);
+        checkHeld(hold);
+        card.setHeld(card.getHeld().subtract(hold.getAmount()));
+        close(hold, card, HoldStatus.VOIDED, OffsetDateTime.now());
+        return mapToDto(hold);
+    }
+    /**
+     * Retrieves a hold of the current user
+     *
+     * @param id hold ID
+     * @return hold DTO
+     * @throws ResourceNotFoundException if the hold not found or belongs to another user
+     */
+    @Transactional(readOnly = true)
+    @PreAuthorize("hasRole('USER')")
+    public HoldDto getHold(Long id) {
+        Hold hold = holdRepository.findById(id)
+            .orElseThrow(() -> new ResourceNotFoundException("Hold not found with id: " + id));
+        Card card = cardRepository.findById(hold.getCardId())
+            .orElseThrow(() -> new ResourceNotFoundException("Hold not found with id: " + id));
+        checkOwnership(card, hold);
+        return mapToDto(hold);
+    }
+    /**
+     * Expires a hold whose deadline has passed. Called by every node's timing wheel and by the sweep,
+     * possibly for the same hold: a hold that is already closed or not yet due is left as is.
+     *
+     * @param id hold ID
+     * @param now expiration time
+     * @return whether the hold has been expired by this call
+     */
+    @Transactional
+    @DbPool(DbPartition.TRANSFER)
+    public boolean expireHold(Long id, OffsetDateTime now) {
+        Hold hold = holdRepository.findAndLockById(id).orElse(null);
+        if (hold == null || hold.getStatus() != HoldStatus.HELD || hold.getExpiresAt().isAfter(now)) {
+            return false;
+        }
+        Card card = lockCard(hold.getCardId());
+        card.setHeld(card.getHeld().subtract(hold.getAmount()));
+        close(hold, card, HoldStatus.EXPIRED, now);
+        return true;
+    }
+
+    private void close(Hold hold, Card card, HoldStatus status, OffsetDateTime now) {
+        hold.setStatus(status);
+        hold.setClosedAt(now);
+        publish(hold, card);
+    }
+
+    private void publish(Hold hold, Card card) {
+        // Outbox пишется в этой же транзакции, колесо сроков узнаёт о холде после коммита
+        eventPublisher.publishEvent(CardChangedEvent.of(card));
+        eventPublisher.publishEvent(HoldChangedEvent.of(hold));
+    }
+
+    private Hold lockHold(Long id) {
+        return holdRepository.findAndLockById(id)
+            .orElseThrow(() -> new ResourceNotFoundException("Hold not found with id: " + id));
+    }
+
+    private void checkHeld(Hold hold) {
+        if (hold.getStatus() != HoldStatus.HELD) {
+            throw new IllegalStateException("Hold is already " + hold.getStatus());
+        }
+    }
+
+    // Карта читается только с блокировкой: прочитанная раньше без неё осталась бы в контексте со старым балансом
+    private Card lockOwnCard(Hold hold) {
+        Card card = lockCard(hold.getCardId());
+        checkOwnership(card, hold);
+        return card;
+    }
+
+    private Card lockCard(Long cardId) {
+        List<Card> cards = cardRepository.findAndLockByIdIn(List.of(cardId));
+        if (cards.isEmpty()) {
+            throw new ResourceNotFoundException("Card not found with id: " + cardId);
+        }
+        return cards.get(0);
+    }
+
+    private void checkOwnership(Card card, Hold hold) {
+        if (!card.getOwner().getId().equals(currentUser().getId())) {
+            throw new ResourceNotFoundException("Hold not found with id: " + hold.getId());
+        }
+    }
+
+    private User currentUser() {
+        String username = SecurityContextHolder.getContext().getAuthentication().getName();
+        return userRepository.findByUsername(username)
+            .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+    }
+
+    private HoldDto mapToDto(Hold hold) {
+        HoldDto dto = new HoldDto();
+        dto.setId(hold.getId());
+        dto.setCardId(hold.getCardId());
+        dto.setAmount(hold.getAmount());
+        dto.setCapturedAmount(hold.getCapturedAmount());
+        dto.setReference(hold.getReference());
+        dto.setStatus(hold.getStatus().name());
+        dto.setCreatedAt(hold.getCreatedAt());
+        dto.setExpiresAt(hold.getExpiresAt());
+        dto.setClosedAt(hold.getClosedAt());
+        return dto;
+    }
+}
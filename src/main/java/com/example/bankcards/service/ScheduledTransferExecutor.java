@@ -0,0 +1,132 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.repository.ScheduledTransferRepository;
+import com.example.bankcards.repository.ScheduledTransferRepository.DueTransfer;
+import com.example.bankcards.scheduling.ClusterJob;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executes due standing orders on the leader node. Due orders are read in batches from the partial index,
+ * split into lanes by source card and the lanes run in parallel; a lane executes its orders one by one,
+ * so transfers from one card never compete for the card's row lock.
+ */
+@Component
+public class ScheduledTransferExecutor {
+
+    private static final Logger log = LoggerFactory.getLogger(ScheduledTransferExecutor.class);
+
+    private final ScheduledTransferRepository scheduledTransferRepository;
+    private final ScheduledTransferService scheduledTransferService;
+    private final int batchSize;
+    private final int workers;
+    private final ExecutorService executor;
+    private final Counter succeeded;
+    private final Counter failed;
+
+    public ScheduledTransferExecutor(ScheduledTransferRepository scheduledTransferRepository,
+                                     ScheduledTransferService scheduledTransferService, MeterRegistry meterRegistry,
+                                     @Value("${transfers.scheduled.batch-size:1000}") int batchSize,
+                                     @Value("${transfers.scheduled.workers:4}") int workers) {
+        this.scheduledTransferRepository = scheduledTransferRepository;
+        this.scheduledTransferService = scheduledTransferService;
+        this.batchSize = batchSize;
+        this.workers = workers;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "scheduled-transfer-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.succeeded = Counter.builder("bank.scheduled_transfers").tag("outcome", "success").register(meterRegistry);
+        this.failed = Counter.builder("bank.scheduled_transfers").tag("outcome", "failure").register(meterRegistry);
+    }
+    /**
+     * Executes all orders due by now, batch by batch.
+     *
+     * @return number of processed orders, successful or not
+     */
+    @Scheduled(fixedDelayString = "${transfers.scheduled.poll-interval:PT10S}")
+    @ClusterJob("scheduled-transfers")
+    public int executeDue() {
+        OffsetDateTime now = OffsetDateTime.now();
+        int total = 0;
+        List<DueTransfer> batch;
+        do {
+            batch = scheduledTransferRepository.findDue(now, Limit.of(batchSize));
+            int processed = executeBatch(batch, now);
+            total += processed;
+            if (processed == 0) {
+                // Ни одна инструкция не сдвинулась (например, БД недоступна): не крутимся на той же пачке
+                break;
+            }
+        } while (batch.size() == batchSize);
+        if (total > 0) {
+            log.info("Scheduled transfers executed: {}", total);
+        }
+        return total;
+    }
+
+    private int executeBatch(List<DueTransfer> batch, OffsetDateTime now) {
+        List<List<Long>> lanes = new ArrayList<>(workers);
+        for (int i = 0; i < workers; i++) {
+            lanes.add(new ArrayList<>());
+        }
+        for (DueTransfer due : batch) {
+            lanes.get((int) Math.floorMod(due.getFromCardId(), (long) workers)).add(due.getId());
+        }
+        AtomicInteger processed = new AtomicInteger();
+        CompletableFuture.allOf(lanes.stream()
+            .filter(lane -> !lane.isEmpty())
+            .map(lane -> CompletableFuture.runAsync(() -> lane.forEach(id -> {
+                if (execute(id, now)) {
+                    processed.incrementAndGet();
+                }
+            }), executor))
+            .toArray(CompletableFuture[]::new)).join();
+        return processed.get();
+    }
+
+    /**
+     * @return whether the order has changed state: executed, or its failure recorded
+     */
+    private boolean execute(Long id, OffsetDateTime now) {
+        try {
+            boolean executed = scheduledTransferService.executeScheduledTransfer(id, now);
+            if (executed) {
+                succeeded.increment();
+            }
+            return executed;
+        } catch (RuntimeException e) {
+            failed.increment();
+            String reason = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            try {
+                scheduledTransferService.recordScheduledTransferFailure(id, now, reason);
+                return true;
+            } catch (RuntimeException recordError) {
+                log.warn("Failed to record failure of scheduled transfer {}", id, recordError);
+                return false;
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
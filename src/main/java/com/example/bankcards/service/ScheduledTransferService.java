@@ -0,0 +1,213 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.config.DbPartition;
+import com.example.bankcards.config.DbPool;
+import com.example.bankcards.dto.ScheduledTransferCreationDto;
+import com.example.bankcards.dto.ScheduledTransferDto;
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.ScheduledTransfer;
+import com.example.bankcards.entity.ScheduledTransferStatus;
+import com.example.bankcards.entity.TransferFrequency;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.exception.ResourceNotFoundException;
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.ScheduledTransferRepository;
+import com.example.bankcards.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Service
+public class ScheduledTransferService {
+
+    private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
+
+    private final ScheduledTransferRepository scheduledTransferRepository;
+    private final CardRepository cardRepository;
+    private final UserRepository userRepository;
+    private final TransferService transferService;
+    private final int maxAttempts;
+    private final Duration retryBackoff;
+
+    public ScheduledTransferService(ScheduledTransferRepository scheduledTransferRepository, CardRepository cardRepository,
+                                    UserRepository userRepository, TransferService transferService,
+                                    @Value("${transfers.scheduled.max-attempts:3}") int maxAttempts,
+                                    @Value("${transfers.scheduled.retry-backoff:PT5M}") Duration retryBackoff) {
+        this.scheduledTransferRepository = scheduledTransferRepository;
+        this.cardRepository = cardRepository;
+        this.userRepository = userRepository;
+        this.transferService = transferService;
+        this.maxAttempts = maxAttempts;
+        this.retryBackoff = retryBackoff;
+    }
+    /**
+     * Creates a standing order between two cards of the current user
+     *
+     * @param creationDto DTO containing order details
+     * @return created order DTO
+     * @throws ResourceNotFoundException if cards not found
+     * @throws IllegalArgumentException if cards are the same or don't belong to current user or the amount, percent or frequency is invalid
+     */
+    @Transactional
+    @PreAuthorize("hasRole('USER')")
+    public ScheduledTransferDto createScheduledTransfer(ScheduledTransferCreationDto creationDto) {
+        if ((creationDto.getAmount() == null) == (creationDto.getPercent() == null)) {
+            throw new IllegalArgumentException("Exactly one of amount and percent must be set");
+        }
+        if (creationDto.getAmount() != null && creationDto.getAmount().signum() <= 0) {
+            throw new IllegalArgumentException("Amount must be positive");
+        }
+        if (creationDto.getPercent() != null && creationDto.getPercent().signum() <= 0) {
+            throw new IllegalArgumentException("Percent must be positive");
+        }
+        if (creationDto.getPercent() != null && creationDto.getPercent().compareTo(HUNDRED) > 0) {
+            throw new IllegalArgumentException("Percent must not exceed 100");
+        }
+        if (creationDto.getFromCardId().equals(creationDto.getToCardId())) {
+            throw new IllegalArgumentException("Source and target cards must differ");
+        }
+        if (creationDto.getFrequency() == null) {
+            throw new IllegalArgumentException("Frequency must be set");
+        }
+        TransferFrequency frequency;
+        try {
+            frequency = TransferFrequency.valueOf(creationDto.getFrequency().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown frequency: " + creationDto.getFrequency());
+        }
+        User user = currentUser();
+        Card fromCard = cardRepository.findById(creationDto.getFromCardId())
+            .orElseThrow(() -> new ResourceNotFoundException("Card not found with id: " + creationDto.getFromCardId()));
+        Card toCard = cardRepository.findById(creationDto.getToCardId())
+            .orElseThrow(() -> new ResourceNotFoundException("Card not found with id: " + creationDto.getToCardId()));
+        if (!fromCard.getOwner().getId().equals(user.getId()) || !toCard.getOwner().getId().equals(user.getId())) {
+            throw new IllegalArgumentException("Transfers are allowed only between own cards");
+        }
+
+        ScheduledTransfer scheduledTransfer = new ScheduledTransfer();
+        scheduledTransfer.setOwnerId(user.getId());
+        scheduledTransfer.setFromCardId(fromCard.getId());
+        scheduledTransfer.setToCardId(toCard.getId());
+        scheduledTransfer.setAmount(creationDto.getAmount());
+        scheduledTransfer.setPercent(creationDto.getPercent());
+        scheduledTransfer.setFrequency(frequency);
+        OffsetDateTime startAt = creationDto.getStartAt() != null ? creationDto.getStartAt() : OffsetDateTime.now();
+        scheduledTransfer.setStartAt(startAt);
+        scheduledTransfer.setNextRunAt(startAt);
+        scheduledTransferRepository.save(scheduledTransfer);
+        return mapToDto(scheduledTransfer);
+    }
+    /**
+     * Retrieves standing orders of the current user
+     *
+     * @return list of order DTOs ordered by ID
+     */
+    @Transactional(readOnly = true)
+    @PreAuthorize("hasRole('USER')")
+    public List<ScheduledTransferDto> getScheduledTransfers() {
+        return scheduledTransferRepository.findByOwnerIdOrderByIdAsc(currentUser().getId()).stream()
+            .map(this::mapToDto)
+            .collect(Collectors.toList());
+    }
+    /**
+     * Cancels a standing order of the current user
+     *
+     * @param id order ID
+     * @return cancelled order DTO
+     * @throws ResourceNotFoundException if the order not found or belongs to another user
+     */
+    @Transactional
+    @PreAuthorize("hasRole('USER')")
+    public ScheduledTransferDto cancelScheduledTransfer(Long id) {
+        ScheduledTransfer scheduledTransfer = scheduledTransferRepository.findAndLockById(id)
+            .filter(s -> s.getOwnerId().equals(currentUser().getId()))
+            .orElseThrow(() -> new ResourceNotFoundException("Scheduled transfer not found with id: " + id));
+        if (scheduledTransfer.getStatus() == ScheduledTransferStatus.ACTIVE) {
+            scheduledTransfer.setStatus(ScheduledTransferStatus.CANCELLED);
+        }
+        return mapToDto(scheduledTransfer);
+    }
+    /**
+     * Executes the current occurrence of a due order in one transaction with the transfer itself,
+     * so an occurrence is either transferred and advanced or neither.
+     * The order row is locked first: a concurrent cancel waits, and an order that is no longer due is skipped.
+     *
+     * @param id order ID
+     * @param now execution time; occurrences up to it are considered due
+     * @return whether the transfer was executed
+     */
+    @Transactional
+    @DbPool(DbPartition.TRANSFER)
+    public boolean executeScheduledTransfer(Long id, OffsetDateTime now) {
+        ScheduledTransfer scheduledTransfer = scheduledTransferRepository.findAndLockById(id).orElse(null);
+        if (scheduledTransfer == null || scheduledTransfer.getStatus() != ScheduledTransferStatus.ACTIVE
+            || scheduledTransfer.getNextRunAt().isAfter(now)) {
+            return false;
+        }
+        transferService.transferOnBehalf(scheduledTransfer.getOwnerId(), scheduledTransfer.getFromCardId(),
+            scheduledTransfer.getToCardId(), fromCard -> scheduledTransfer.amountFor(fromCard.getAvailableBalance()));
+        scheduledTransfer.setLastAttemptAt(now);
+        scheduledTransfer.setLastError(null);
+        scheduledTransfer.advance(now);
+        return true;
+    }
+    /**
+     * Records a failed attempt after the execution transaction has been rolled back.
+     * The occurrence is retried with a linear backoff; after {@code max-attempts} it is skipped,
+     * and a one-time order is marked FAILED.
+     *
+     * @param id order ID
+     * @param now time of the failed attempt
+     * @param error failure reason
+     */
+    @Transactional
+    @DbPool(DbPartition.TRANSFER)
+    public void recordScheduledTransferFailure(Long id, OffsetDateTime now, String error) {
+        scheduledTransferRepository.findAndLockById(id)
+            .filter(s -> s.getStatus() == ScheduledTransferStatus.ACTIVE)
+            .ifPresent(scheduledTransfer -> {
+                scheduledTransfer.setAttempts(scheduledTransfer.getAttempts() + 1);
+                scheduledTransfer.setLastAttemptAt(now);
+                scheduledTransfer.setLastError(error.length() > 500 ? error.substring(0, 500) : error);
+                if (scheduledTransfer.getAttempts() < maxAttempts) {
+                    scheduledTransfer.setNextRunAt(now.plus(retryBackoff.multipliedBy(scheduledTransfer.getAttempts())));
+                } else if (scheduledTransfer.getFrequency() == TransferFrequency.ONCE) {
+                    scheduledTransfer.setStatus(ScheduledTransferStatus.FAILED);
+                } else {
+                    scheduledTransfer.advance(now);
+                }
+            });
+    }
+
+    private User currentUser() {
+        String username = SecurityContextHolder.getContext().getAuthentication().getName();
+        return userRepository.findByUsername(username)
+            .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+    }
+
+    private ScheduledTransferDto mapToDto(ScheduledTransfer scheduledTransfer) {
+        ScheduledTransferDto dto = new ScheduledTransferDto();
+        dto.setId(scheduledTransfer.getId());
+        dto.setFromCardId(scheduledTransfer.getFromCardId());
+        dto.setToCardId(scheduledTransfer.getToCardId());
+        dto.setAmount(scheduledTransfer.getAmount());
+        dto.setPercent(scheduledTransfer.getPercent());
+        dto.setFrequency(scheduledTransfer.getFrequency().name());
+        dto.setStatus(scheduledTransfer.getStatus().name());
+        dto.setStartAt(scheduledTransfer.getStartAt());
+        dto.setNextRunAt(scheduledTransfer.getNextRunAt());
+        dto.setOccurrences(scheduledTransfer.getOccurrences());
+        dto.setAttempts(scheduledTransfer.getAttempts());
+        dto.setLastAttemptAt(scheduledTransfer.getLastAttemptAt());
+        dto.setLastError(scheduledTransfer.getLastError());
+        return dto;
+    }
+}
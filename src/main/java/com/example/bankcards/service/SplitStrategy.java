@@ -0,0 +1,14 @@
+package com.example.bankcards.service;
+
+/**
+ * Order in which a split transfer drains its source cards. Each card gives its whole available balance
+ * until the rest of the amount fits, so the order decides how many cards are debited.
+ */
+public enum SplitStrategy {
+    /** Sources in the order given by the user. */
+    LISTED,
+    /** Fewest cards debited. */
+    LARGEST_FIRST,
+    /** Small leftovers consolidated first. */
+    SMALLEST_FIRST
+}
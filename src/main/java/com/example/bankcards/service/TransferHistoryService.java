@@ -0,0 +1,112 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.config.TransferHistoryProperties;
+import com.example.bankcards.dto.TransferHistoryDto;
+import com.example.bankcards.dto.TransferHistoryPageDto;
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.exception.ResourceNotFoundException;
+import com.example.bankcards.history.TransferHistory;
+import com.example.bankcards.history.TransferHistory.Cursor;
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.UserRepository;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+@Service
+public class TransferHistoryService {
+
+    private final TransferHistory transferHistory;
+    private final CardRepository cardRepository;
+    private final UserRepository userRepository;
+    private final TransferHistoryProperties properties;
+
+    public TransferHistoryService(TransferHistory transferHistory, CardRepository cardRepository,
+                                  UserRepository userRepository, TransferHistoryProperties properties) {
+        this.transferHistory = transferHistory;
+        this.cardRepository = cardRepository;
+        this.userRepository = userRepository;
+        this.properties = properties;
+    }
+    /**
+     * Retrieves transfers of the current user, or of one of the user's cards, newest first
+     *
+     * @param cardId card ID, or {@code null} for all transfers of the user
+     * @param from inclusive lower bound; {@code default-range} before {@code to} if not set
+     * @param to exclusive upper bound; now if not set
+     * @param cursor {@code nextCursor} of the previous page, or {@code null} for the first page
+     * @param limit page size
+     * @return page of transfers with the cursor of the next page
+     * @throws ResourceNotFoundException if the card not found or belongs to another user
+     * @throws IllegalArgumentException if the range, cursor or page size is invalid
+     */
+    @Transactional(readOnly = true)
+    @PreAuthorize("hasRole('USER')")
+    public TransferHistoryPageDto getMyTransfers(Long cardId, OffsetDateTime from, OffsetDateTime to, String cursor,
+                                                 Integer limit) {
+        User user = currentUser();
+        if (cardId == null) {
+            return page(user.getId(), null, from, to, cursor, limit);
+        }
+        Card card = cardRepository.findById(cardId)
+            .filter(c -> c.getOwner().getId().equals(user.getId()))
+            .orElseThrow(() -> new ResourceNotFoundException("Card not found with id: " + cardId));
+        return page(null, card.getId(), from, to, cursor, limit);
+    }
+    /**
+     * Retrieves transfers of any card or user for support, newest first
+     *
+     * @param cardId card ID; exactly one of card and owner must be set
+     * @param ownerId owner ID
+     * @param from inclusive lower bound; {@code default-range} before {@code to} if not set
+     * @param to exclusive upper bound; now if not set
+     * @param cursor {@code nextCursor} of the previous page, or {@code null} for the first page
+     * @param limit page size
+     * @return page of transfers with the cursor of the next page
+     * @throws IllegalArgumentException if the filter, range, cursor or page size is invalid
+     */
+    @Transactional(readOnly = true)
+    @PreAuthorize("hasRole('ADMIN')")
+    public TransferHistoryPageDto getTransfers(Long cardId, Long ownerId, OffsetDateTime from, OffsetDateTime to,
+                                               String cursor, Integer limit) {
+        if ((cardId == null) == (ownerId == null)) {
+            throw new IllegalArgumentException("Exactly one of cardId and ownerId must be set");
+        }
+        return page(ownerId, cardId, from, to, cursor, limit);
+    }
+
+    private TransferHistoryPageDto page(Long ownerId, Long cardId, OffsetDateTime from, OffsetDateTime to,
+                                        String cursor, Integer limit) {
+        int pageSize = limit != null ? limit : properties.getDefaultPageSize();
+        if (pageSize < 1 || pageSize > properties.getMaxPageSize()) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + properties.getMaxPageSize());
+        }
+        OffsetDateTime upper = to != null ? to : OffsetDateTime.now();
+        OffsetDateTime lower = from != null ? from : upper.minus(properties.getDefaultRange());
+        if (!lower.isBefore(upper)) {
+            throw new IllegalArgumentException("from must be before to");
+        }
+        Cursor before = cursor != null ? Cursor.decode(cursor) : Cursor.first(upper);
+
+        // Лишняя строка показывает, есть ли следующая страница, без COUNT
+        List<TransferHistoryDto> rows = cardId != null
+            ? transferHistory.findByCard(cardId, lower, before, pageSize + 1)
+            : transferHistory.findByOwner(ownerId, lower, before, pageSize + 1);
+        if (rows.size() <= pageSize) {
+            return new TransferHistoryPageDto(rows, null);
+        }
+        List<TransferHistoryDto> items = rows.subList(0, pageSize);
+        return new TransferHistoryPageDto(List.copyOf(items), Cursor.after(items.get(pageSize - 1)).encode());
+    }
+
+    private User currentUser() {
+        String username = SecurityContextHolder.getContext().getAuthentication().getName();
+        return userRepository.findByUsername(username)
+            .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+    }
+}
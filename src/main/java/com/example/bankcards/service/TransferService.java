@@ -1,13 +1,30 @@
 package com.example.bankcards.service;
 
+import com.example.bankcards.config.DbPartition;
+import com.example.bankcards.config.DbPool;
+import com.example.bankcards.dto.SplitTransferDto;
+import com.example.bankcards.dto.SplitTransferResultDto;
 import com.example.bankcards.dto.TransferDto;
 import com.example.bankcards.entity.Card;
 import com.example.bankcards.entity.CardStatus;
 import com.example.bankcards.entity.User;
 import com.example.bankcards.exception.InsufficientFundsException;
+import com.example.bankcards.exception.LimitExceededException;
 import com.example.bankcards.exception.ResourceNotFoundException;
+import com.example.bankcards.exception.TransferDelayedException;
+import com.example.bankcards.exception.TransferRejectedException;
+import com.example.bankcards.limits.CardLimits;
+import com.example.bankcards.monitoring.jfr.TransferEvent;
+import com.example.bankcards.outbox.TransferCompletedEvent;
 import com.example.bankcards.repository.CardRepository;
 import com.example.bankcards.repository.UserRepository;
+import com.example.bankcards.screening.TransferAttempt;
+import com.example.bankcards.screening.TransferScreening;
+import com.example.bankcards.stream.CardChangedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -15,61 +32,369 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 @Service
 public class TransferService {
 
+    static final int MAX_SPLIT_SOURCES = 10;
+
     private final CardRepository cardRepository;
     private final UserRepository userRepository;
+    private final MeterRegistry meterRegistry;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CardLimits cardLimits;
+    private final TransferScreening transferScreening;
 
-    public TransferService(CardRepository cardRepository, UserRepository userRepository) {
+    public TransferService(CardRepository cardRepository, UserRepository userRepository, MeterRegistry meterRegistry,
+                           ApplicationEventPublisher eventPublisher, CardLimits cardLimits,
+                           TransferScreening transferScreening) {
         this.cardRepository = cardRepository;
         this.userRepository = userRepository;
+        this.meterRegistry = meterRegistry;
+        this.eventPublisher = eventPublisher;
+        this.cardLimits = cardLimits;
+        this.transferScreening = transferScreening;
     }
     /**
      * Transfers funds between two cards owned by the same user
      *
      * @param transferDto DTO containing transfer details
      * @throws ResourceNotFoundException if cards not found
-     * @throws IllegalArgumentException if cards don't belong to current user
+     * @throws IllegalArgumentException if cards are the same or don't belong to current user
      * @throws IllegalStateException if cards are not in ACTIVE status
      * @throws InsufficientFundsException if insufficient funds on source card
+     * @throws LimitExceededException if the daily or monthly limit of the source card would be exceeded
+     * @throws TransferRejectedException if screening rejects the transfer
+     * @throws TransferDelayedException if screening asks to retry the transfer later
      */
     @Transactional
     @PreAuthorize("hasRole('USER')")
+    @DbPool(DbPartition.TRANSFER)
     public void transfer(TransferDto transferDto) {
-        Card fromCard = cardRepository.findById(transferDto.getFromCardId())
-            .orElseThrow(() -> new ResourceNotFoundException("Card not found with id: " + transferDto.getFromCardId()));
-        Card toCard = cardRepository.findById(transferDto.getToCardId())
-            .orElseThrow(() -> new ResourceNotFoundException("Card not found with id: " + transferDto.getToCardId()));
+        execute(transferDto.getFromCardId(), transferDto.getToCardId(), fromCard -> transferDto.getAmount(),
+            this::currentUserId, true);
+    }
+    /**
+     * Transfers funds between two cards of the given owner without an authenticated user,
+     * e.g. for standing orders. The amount is computed from the locked source card,
+     * so a percentage of the balance sees the latest committed balance.
+     * Screening is skipped: the owner has authorized such transfers in advance.
+     *
+     * @param ownerId ID of the user both cards must belong to
+     * @param fromCardId source card ID
+     * @param toCardId target card ID
+     * @param amountOf computes the amount from the locked source card
+     * @return transferred amount
+     * @throws ResourceNotFoundException if cards not found
+     * @throws IllegalArgumentException if cards are the same or don't belong to the owner
+     * @throws IllegalStateException if cards are not in ACTIVE status
+     * @throws InsufficientFundsException if insufficient funds on source card or nothing to transfer
+     * @throws LimitExceededException if the daily or monthly limit of the source card would be exceeded
+     */
+    @Transactional
+    @DbPool(DbPartition.TRANSFER)
+    public BigDecimal transferOnBehalf(Long ownerId, Long fromCardId, Long toCardId, Function<Card, BigDecimal> amountOf) {
+        return execute(fromCardId, toCardId, amountOf, () -> ownerId, false);
+    }
 
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        String username = auth.getName();
-        User user = userRepository.findByUsername(username)
-            .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+    /**
+     * Transfers an amount to a card of the current user from several of the user's cards in one transaction.
+     * Sources are either listed explicitly or chosen among all active cards of the user with available funds
+     * (at most {@value #MAX_SPLIT_SOURCES}); every source but the last gives its whole available balance.
+     * The split is screened as one transfer from all considered cards together; each debited card
+     * is counted against its own limits.
+     *
+     * @param splitDto DTO containing the target card, the amount and the sources or the strategy
+     * @return debited sources with their amounts
+     * @throws ResourceNotFoundException if cards not found
+     * @throws IllegalArgumentException if cards don't belong to current user or the request is invalid
+     * @throws IllegalStateException if listed cards are not in ACTIVE status
+     * @throws InsufficientFundsException if the sources together have less than the amount available
+     * @throws LimitExceededException if the daily or monthly limit of a source card would be exceeded
+     * @throws TransferRejectedException if screening rejects a part of the transfer
+     * @throws TransferDelayedException if screening asks to retry the transfer later
+     */
+    @Transactional
+    @PreAuthorize("hasRole('USER')")
+    @DbPool(DbPartition.TRANSFER)
+    public SplitTransferResultDto splitTransfer(SplitTransferDto splitDto) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "success";
+        try {
+            return doSplitTransfer(splitDto);
+        } catch (RuntimeException e) {
+            outcome = outcomeOf(e);
+            throw e;
+        } finally {
+            sample.stop(Timer.builder("bank.transfer.split")
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+        }
+    }
+
+    private BigDecimal execute(Long fromCardId, Long toCardId, Function<Card, BigDecimal> amountOf, Supplier<Long> ownerId,
+                               boolean screen) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        TransferEvent event = new TransferEvent();
+        event.begin();
+        String outcome = "success";
+        BigDecimal amount = null;
+        try {
+            amount = doTransfer(fromCardId, toCardId, amountOf, ownerId, screen, event);
+            return amount;
+        } catch (RuntimeException e) {
+            outcome = outcomeOf(e);
+            throw e;
+        } finally {
+            sample.stop(Timer.builder("bank.transfer")
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+            event.end();
+            if (event.shouldCommit()) {
+                event.fromCardId = fromCardId == null ? 0 : fromCardId;
+                event.toCardId = toCardId == null ? 0 : toCardId;
+                event.amountBucket = TransferEvent.amountBucket(amount);
+                event.outcome = outcome;
+                event.commit();
+            }
+        }
+    }
+
+    private BigDecimal doTransfer(Long fromCardId, Long toCardId, Function<Card, BigDecimal> amountOf,
+                                  Supplier<Long> ownerId, boolean screen, TransferEvent event) {
+        // Перевод на ту же карту отклоняется до блокировки: иначе он выглядел бы успешным, ничего не меняя
+        if (fromCardId.equals(toCardId)) {
+            throw new IllegalArgumentException("Source and target cards must differ");
+        }
+        // Обе карты блокируются одним запросом до проверок: баланс и статус не изменятся до коммита
+        long lockStart = System.nanoTime();
+        Map<Long, Card> cards = cardRepository.findAndLockByIdIn(List.of(fromCardId, toCardId))
+            .stream()
+            .collect(Collectors.toMap(Card::getId, Function.identity()));
+        event.lockWait = System.nanoTime() - lockStart;
+        Card fromCard = Optional.ofNullable(cards.get(fromCardId))
+            .orElseThrow(() -> new ResourceNotFoundException("Card not found with id: " + fromCardId));
+        Card toCard = Optional.ofNullable(cards.get(toCardId))
+            .orElseThrow(() -> new ResourceNotFoundException("Card not found with id: " + toCardId));
+
+        Long userId = ownerId.get();
 
         // Проверка, что обе карты принадлежат текущему пользователю
-        if (!fromCard.getOwner().getId().equals(user.getId()) || !toCard.getOwner().getId().equals(user.getId())) {
+        if (!fromCard.getOwner().getId().equals(userId) || !toCard.getOwner().getId().equals(userId)) {
             throw new IllegalArgumentException("Transfers are allowed only between own cards");
         }
 
         // Проверка статуса карт
-        if (fromCard.getStatus() != CardStatus.ACTIVE || toCard.getStatus() != CardStatus.ACTIVE) {
+        // Статус EXPIRED проставляется пакетно CardExpirationService, поэтому дату проверяем отдельно
+        if (fromCard.getStatus() != CardStatus.ACTIVE || toCard.getStatus() != CardStatus.ACTIVE
+            || fromCard.isExpired() || toCard.isExpired()) {
             throw new IllegalStateException("Both cards must be in ACTIVE status");
         }
 
-        // Проверка достаточности средств
-        BigDecimal amount = transferDto.getAmount();
-        if (fromCard.getBalance().compareTo(amount) < 0) {
+        // Проверка достаточности средств: удержанные холдами суммы недоступны
+        BigDecimal amount = amountOf.apply(fromCard);
+        if (amount.signum() <= 0) {
+            throw new InsufficientFundsException("Nothing to transfer from card with id: " + fromCard.getId());
+        }
+        if (fromCard.getAvailableBalance().compareTo(amount) < 0) {
             throw new InsufficientFundsException("Insufficient funds on card with id: " + fromCard.getId());
         }
 
+        // Скрининг до резервирования лимита: отложенная или отклонённая попытка лимит не расходует
+        if (screen) {
+            long screeningStart = System.nanoTime();
+            transferScreening.screen(new TransferAttempt(userId, fromCard.getId(), toCard.getId(), amount,
+                fromCard.getAvailableBalance(), System.currentTimeMillis()));
+            event.screening = System.nanoTime() - screeningStart;
+        }
+
+        // Лимиты считаются в памяти под блокировкой карты списания, при откате транзакции сумма возвращается
+        cardLimits.reserve(fromCard, amount);
+
         // Обновление балансов
         fromCard.setBalance(fromCard.getBalance().subtract(amount));
         toCard.setBalance(toCard.getBalance().add(amount));
 
         // Сохранение обеих карт в одной транзакции
         cardRepository.saveAll(Arrays.asList(fromCard, toCard));
+
+        // Outbox пишется в этой же транзакции, подписчики SSE получат новые балансы только после коммита
+        eventPublisher.publishEvent(CardChangedEvent.of(fromCard));
+        eventPublisher.publishEvent(CardChangedEvent.of(toCard));
+        eventPublisher.publishEvent(new TransferCompletedEvent(fromCard.getId(), toCard.getId(), userId, amount));
+        return amount;
+    }
+
+    private SplitTransferResultDto doSplitTransfer(SplitTransferDto splitDto) {
+        BigDecimal amount = splitDto.getAmount();
+        Long toCardId = splitDto.getToCardId();
+        if (toCardId == null || amount == null || amount.signum() <= 0) {
+            throw new IllegalArgumentException("Target card and a positive amount must be set");
+        }
+        List<Long> listed = splitDto.getFromCardIds() == null ? List.of()
+            : splitDto.getFromCardIds().stream().distinct().toList();
+        SplitStrategy strategy = splitStrategy(splitDto.getStrategy(), !listed.isEmpty());
+        if (listed.size() > MAX_SPLIT_SOURCES) {
+            throw new IllegalArgumentException("At most " + MAX_SPLIT_SOURCES + " source cards are allowed");
+        }
+        if (listed.contains(toCardId)) {
+            throw new IllegalArgumentException("Target card cannot be a source card");
+        }
+
+        Long userId = currentUserId();
+        List<Long> sourceIds = listed;
+        if (listed.isEmpty()) {
+            // Кандидаты читаются без блокировок, балансы перепроверяются после блокировки
+            sourceIds = strategy == SplitStrategy.SMALLEST_FIRST
+                ? cardRepository.findSplitSourcesSmallestFirst(userId, toCardId, Limit.of(MAX_SPLIT_SOURCES))
+                : cardRepository.findSplitSourcesLargestFirst(userId, toCardId, Limit.of(MAX_SPLIT_SOURCES));
+        }
+        if (sourceIds.isEmpty()) {
+            throw new InsufficientFundsException("No cards with available funds to transfer from");
+        }
+
+        // Все карты блокируются одним запросом в порядке id, поэтому разбиения с общими картами не взаимоблокируются
+        List<Long> lockedIds = new ArrayList<>(sourceIds);
+        lockedIds.add(toCardId);
+        Map<Long, Card> cards = cardRepository.findAndLockByIdIn(lockedIds)
+            .stream()
+            .collect(Collectors.toMap(Card::getId, Function.identity()));
+        Card toCard = Optional.ofNullable(cards.get(toCardId))
+            .orElseThrow(() -> new ResourceNotFoundException("Card not found with id: " + toCardId));
+        List<Card> sources = new ArrayList<>();
+        for (Long sourceId : sourceIds) {
+            sources.add(Optional.ofNullable(cards.get(sourceId))
+                .orElseThrow(() -> new ResourceNotFoundException("Card not found with id: " + sourceId)));
+        }
+        if (cards.values().stream().anyMatch(card -> !card.getOwner().getId().equals(userId))) {
+            throw new IllegalArgumentException("Transfers are allowed only between own cards");
+        }
+        if (!isActive(toCard)) {
+            throw new IllegalStateException("Target card must be in ACTIVE status");
+        }
+        if (listed.isEmpty()) {
+            // Карта могла быть заблокирована или истечь после выбора кандидатов
+            sources.removeIf(card -> !isActive(card));
+        } else if (!sources.stream().allMatch(this::isActive)) {
+            throw new IllegalStateException("All source cards must be in ACTIVE status");
+        }
+        if (strategy == SplitStrategy.LARGEST_FIRST) {
+            sources.sort(Comparator.comparing(Card::getAvailableBalance).reversed().thenComparing(Card::getId));
+        } else if (strategy == SplitStrategy.SMALLEST_FIRST) {
+            sources.sort(Comparator.comparing(Card::getAvailableBalance).thenComparing(Card::getId));
+        }
+
+        // Каждая карта отдаёт всё доступное, пока остаток не поместится
+        List<SplitTransferResultDto.Leg> legs = new ArrayList<>();
+        Map<Long, Card> debited = new LinkedHashMap<>();
+        BigDecimal remaining = amount;
+        for (Card source : sources) {
+            if (remaining.signum() == 0) {
+                break;
+            }
+            BigDecimal part = source.getAvailableBalance().min(remaining);
+            if (part.signum() > 0) {
+                legs.add(new SplitTransferResultDto.Leg(source.getId(), part));
+                debited.put(source.getId(), source);
+                remaining = remaining.subtract(part);
+            }
+        }
+        if (remaining.signum() > 0) {
+            throw new InsufficientFundsException("Insufficient funds on source cards for amount: " + amount);
+        }
+
+        // Как и в одиночном переводе, скрининг до резервирования лимитов. Разбиение - одна попытка: иначе правило
+        // скорости считало бы каждую часть, а правило опустошения отклоняло бы каждую карту, отдающую всё
+        Map<Long, BigDecimal> parts = legs.stream()
+            .collect(Collectors.toMap(SplitTransferResultDto.Leg::getFromCardId, SplitTransferResultDto.Leg::getAmount));
+        List<TransferAttempt.Source> screened = sources.stream()
+            .map(card -> new TransferAttempt.Source(card.getId(), parts.getOrDefault(card.getId(), BigDecimal.ZERO),
+                card.getAvailableBalance()))
+            .toList();
+        transferScreening.screen(new TransferAttempt(userId, screened, toCard.getId(), amount, System.currentTimeMillis()));
+        for (SplitTransferResultDto.Leg leg : legs) {
+            cardLimits.reserve(debited.get(leg.getFromCardId()), leg.getAmount());
+        }
+        for (SplitTransferResultDto.Leg leg : legs) {
+            Card source = debited.get(leg.getFromCardId());
+            source.setBalance(source.getBalance().subtract(leg.getAmount()));
+        }
+        toCard.setBalance(toCard.getBalance().add(amount));
+
+        List<Card> changed = new ArrayList<>(debited.values());
+        changed.add(toCard);
+        cardRepository.saveAll(changed);
+
+        // Каждая часть публикуется обычным переводом: потребителям outbox разбиение не нужно понимать
+        changed.forEach(card -> eventPublisher.publishEvent(CardChangedEvent.of(card)));
+        legs.forEach(leg -> eventPublisher.publishEvent(
+            new TransferCompletedEvent(leg.getFromCardId(), toCard.getId(), userId, leg.getAmount())));
+        return new SplitTransferResultDto(toCard.getId(), amount, legs);
+    }
+
+    private SplitStrategy splitStrategy(String name, boolean listed) {
+        if (name == null) {
+            return listed ? SplitStrategy.LISTED : SplitStrategy.LARGEST_FIRST;
+        }
+        SplitStrategy strategy;
+        try {
+            strategy = SplitStrategy.valueOf(name.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown split strategy: " + name);
+        }
+        if (strategy == SplitStrategy.LISTED && !listed) {
+            throw new IllegalArgumentException("Strategy LISTED requires source cards");
+        }
+        return strategy;
+    }
+
+    // Статус EXPIRED проставляется пакетно CardExpirationService, поэтому дату проверяем отдельно
+    private boolean isActive(Card card) {
+        return card.getStatus() == CardStatus.ACTIVE && !card.isExpired();
+    }
+
+    private Long currentUserId() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        String username = auth.getName();
+        User user = userRepository.findByUsername(username)
+            .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        return user.getId();
+    }
+
+    private String outcomeOf(RuntimeException e) {
+        if (e instanceof InsufficientFundsException) {
+            return "insufficient_funds";
+        }
+        if (e instanceof TransferRejectedException) {
+            return "rejected";
+        }
+        if (e instanceof TransferDelayedException) {
+            return "delayed";
+        }
+        if (e instanceof LimitExceededException) {
+            return "limit_exceeded";
+        }
+        if (e instanceof IllegalStateException) {
+            return "inactive";
+        }
+        if (e instanceof IllegalArgumentException) {
+            return "not_owned";
+        }
+        if (e instanceof ResourceNotFoundException) {
+            return "not_found";
+        }
+        return "error";
     }
 }
\ No newline at end of file
@@ -1,54 +1,80 @@
 package com.example.bankcards.service;
 
+import com.example.bankcards.cache.LocalCache;
+import com.example.bankcards.cache.LocalCacheManager;
+import com.example.bankcards.config.DbPartition;
+import com.example.bankcards.config.DbPool;
 import com.example.bankcards.dto.UserCreationDto;
 import com.example.bankcards.dto.UserDto;
 import com.example.bankcards.entity.Role;
 import com.example.bankcards.entity.User;
 import com.example.bankcards.repository.RoleRepository;
 import com.example.bankcards.repository.UserRepository;
+import org.springframework.data.domain.Limit;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 public class UserService implements UserDetailsService {
 
+    public static final int MAX_PAGE_SIZE = 1000;
+
     private final UserRepository userRepository;
     private final RoleRepository roleRepository;
     private final PasswordEncoder passwordEncoder;
+    private final LocalCache<User> userCache;
+    private final LocalCache<Role> roleCache;
 
-    public UserService(UserRepository userRepository, RoleRepository roleRepository, PasswordEncoder passwordEncoder) {
+    public UserService(UserRepository userRepository, RoleRepository roleRepository, PasswordEncoder passwordEncoder,
+                       LocalCacheManager cacheManager) {
         this.userRepository = userRepository;
         this.roleRepository = roleRepository;
         this.passwordEncoder = passwordEncoder;
+        this.userCache = cacheManager.getCache(LocalCacheManager.USERS);
+        this.roleCache = cacheManager.getCache(LocalCacheManager.ROLES);
     }
     /**
-     * Loads user by username for Spring Security authentication
+     * Loads user by username for Spring Security authentication.
+     * Served from the local cache; not transactional, so a cache hit does not take a connection.
      *
      * @param username the username to search for
-     * @return User entity
+     * @return User entity with roles, shared between requests and must not be modified
      * @throws UsernameNotFoundException if user not found
      */
-    @Transactional(readOnly = true)
+    @DbPool(DbPartition.AUTH)
     @Override
     public User loadUserByUsername(String username) throws UsernameNotFoundException {
-        return userRepository.findByUsername(username)
-            .orElseThrow(() -> new UsernameNotFoundException("User not found"));
+        return userCache.get(username, key -> userRepository.findByUsername(key)
+            .orElseThrow(() -> new UsernameNotFoundException("User not found")));
     }
     /**
-     * Retrieves all users in the system (admin only)
+     * Retrieves a page of users ordered by ID using keyset pagination (admin only).
+     * Users and their roles are loaded with two queries regardless of page size.
      *
+     * @param afterId ID of the last user of the previous page (0 for the first page)
+     * @param size the number of items per page, capped at {@value #MAX_PAGE_SIZE}
      * @return list of user DTOs
      */
     @Transactional(readOnly = true)
-    public List<UserDto> getAllUsers() {
-        return userRepository.findAll().stream().map(this::mapToDto).collect(Collectors.toList());
+    public List<UserDto> getUsers(long afterId, int size) {
+        List<Long> ids = userRepository.findIdsAfter(afterId, Limit.of(Math.max(1, Math.min(size, MAX_PAGE_SIZE))));
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return userRepository.findWithRolesByIdInOrderByIdAsc(ids).stream()
+            .map(this::mapToDto)
+            .collect(Collectors.toList());
     }
     /**
      * Creates a new user with specified roles
@@ -63,15 +89,46 @@ public class UserService implements UserDetailsService {
         user.setPassword(passwordEncoder.encode(creationDto.getPassword()));
         user.setEmail(creationDto.getEmail());
         Set<Role> roles = creationDto.getRoles().stream()
-            .map(roleRepository::findByName)
-            .filter(java.util.Optional::isPresent)
-            .map(java.util.Optional::get)
+            .map(name -> roleCache.get(name, key -> roleRepository.findByName(key).orElse(null)))
+            .filter(Objects::nonNull)
             .collect(Collectors.toSet());
         user.setRoles(roles);
         userRepository.save(user);
         return mapToDto(user);
     }
 
+    /**
+     * Creates users in bulk within one transaction. Passwords are hashed in parallel,
+     * roles are resolved once per call and rows are written with JDBC batch inserts.
+     *
+     * @param creationDtos DTOs containing user creation details
+     * @return number of created users
+     */
+    @Transactional
+    public int createUsers(List<UserCreationDto> creationDtos) {
+        Map<String, Role> rolesByName = roleRepository.findAll().stream()
+            .collect(Collectors.toMap(Role::getName, Function.identity()));
+        List<String> passwords = creationDtos.parallelStream()
+            .map(dto -> passwordEncoder.encode(dto.getPassword()))
+            .toList();
+        List<User> users = new ArrayList<>(creationDtos.size());
+        for (int i = 0; i < creationDtos.size(); i++) {
+            UserCreationDto dto = creationDtos.get(i);
+            User user = new User();
+            user.setUsername(dto.getUsername());
+            user.setPassword(passwords.get(i));
+            user.setEmail(dto.getEmail());
+            Set<Role> roles = dto.getRoles() == null ? Set.of() : dto.getRoles().stream()
+                .map(rolesByName::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+            user.setRoles(roles);
+            users.add(user);
+        }
+        userRepository.saveAll(users);
+        return users.size();
+    }
+
     private UserDto mapToDto(User user) {
         UserDto dto = new UserDto();
         dto.setId(user.getId());
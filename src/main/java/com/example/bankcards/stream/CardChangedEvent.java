@@ -0,0 +1,21 @@
+package com.example.bankcards.stream;
+
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.CardStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Snapshot of a card taken inside the changing transaction. The number stays encrypted:
+ * it is masked only after commit and only if the owner has an open stream.
+ */
+public record CardChangedEvent(Long cardId, Long ownerId, String encryptedNumber, LocalDate expirationDate,
+                               CardStatus status, BigDecimal balance, BigDecimal availableBalance,
+                               BigDecimal dailyLimit, BigDecimal monthlyLimit) {
+
+    public static CardChangedEvent of(Card card) {
+        return new CardChangedEvent(card.getId(), card.getOwner().getId(), card.getNumber(), card.getExpirationDate(),
+            card.getStatus(), card.getBalance(), card.getAvailableBalance(), card.getDailyLimit(), card.getMonthlyLimit());
+    }
+}
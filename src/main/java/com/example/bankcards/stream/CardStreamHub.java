@@ -0,0 +1,209 @@
+package com.example.bankcards.stream;
+
+import com.example.bankcards.dto.CardDto;
+import com.example.bankcards.util.CardUtil;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-process fan-out of committed card changes to the SSE streams of the card owner.
+ * Each subscriber has a bounded buffer drained by a small sender pool, so a slow client never blocks
+ * the committing thread; a client whose buffer overflows is disconnected and has to reconnect and re-read its cards.
+ */
+@Component
+public class CardStreamHub {
+
+    private static final Logger log = LoggerFactory.getLogger(CardStreamHub.class);
+
+    private final CardUtil cardUtil;
+    private final int bufferSize;
+    private final long timeoutMillis;
+    private final ExecutorService sender;
+    private final Map<Long, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final Counter dropped;
+
+    public CardStreamHub(CardUtil cardUtil, MeterRegistry meterRegistry,
+                         @Value("${cards.stream.buffer-size:64}") int bufferSize,
+                         @Value("${cards.stream.timeout:30m}") Duration timeout,
+                         @Value("${cards.stream.sender-threads:2}") int senderThreads) {
+        this.cardUtil = cardUtil;
+        this.bufferSize = bufferSize;
+        this.timeoutMillis = timeout.toMillis();
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.sender = Executors.newFixedThreadPool(senderThreads, runnable -> {
+            Thread thread = new Thread(runnable, "card-stream-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        Gauge.builder("bank.card_stream.subscribers", subscriberCount, AtomicInteger::get).register(meterRegistry);
+        this.dropped = Counter.builder("bank.card_stream.dropped")
+            .description("Subscribers disconnected because their buffer overflowed")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Opens a stream of {@code card} events for the cards of the given owner.
+     */
+    public SseEmitter subscribe(Long ownerId) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(ownerId, emitter, new ArrayBlockingQueue<>(bufferSize));
+        subscribers.compute(ownerId, (k, targets) -> {
+            Set<Subscriber> result = targets != null ? targets : ConcurrentHashMap.newKeySet();
+            result.add(subscriber);
+            return result;
+        });
+        subscriberCount.incrementAndGet();
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> close(subscriber));
+        emitter.onError(e -> remove(subscriber));
+        return emitter;
+    }
+
+    /**
+     * Called only after the changing transaction has committed; rolled back changes are never sent.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onCardChanged(CardChangedEvent event) {
+        Set<Subscriber> targets = subscribers.get(event.ownerId());
+        if (targets == null || targets.isEmpty()) {
+            return;
+        }
+        // Событие собирается один раз: build() у SseEventBuilder изменяет builder и не потокобезопасен
+        Set<ResponseBodyEmitter.DataWithMediaType> message = SseEmitter.event()
+            .name("card")
+            .data(toDto(event))
+            .build();
+        targets.forEach(subscriber -> enqueue(subscriber, message));
+    }
+
+    @Scheduled(fixedDelayString = "${cards.stream.heartbeat:PT15S}")
+    public void heartbeat() {
+        Set<ResponseBodyEmitter.DataWithMediaType> message = SseEmitter.event().comment("keep-alive").build();
+        subscribers.values().forEach(targets -> targets.forEach(subscriber -> enqueue(subscriber, message)));
+    }
+
+    public int getSubscriberCount() {
+        return subscriberCount.get();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscribers.values().forEach(targets -> targets.forEach(this::close));
+        sender.shutdown();
+    }
+
+    private void enqueue(Subscriber subscriber, Set<ResponseBodyEmitter.DataWithMediaType> message) {
+        if (!subscriber.queue.offer(message)) {
+            // Медленный клиент: отключаем, EventSource переподключится и перечитает карты
+            dropped.increment();
+            log.debug("Dropping slow card stream subscriber of user {}", subscriber.ownerId);
+            close(subscriber);
+            return;
+        }
+        schedule(subscriber);
+    }
+
+    private void close(Subscriber subscriber) {
+        subscriber.closed.set(true);
+        remove(subscriber);
+        schedule(subscriber);
+    }
+
+    private void schedule(Subscriber subscriber) {
+        if (subscriber.draining.compareAndSet(false, true)) {
+            try {
+                sender.execute(() -> drain(subscriber));
+            } catch (RuntimeException e) {
+                subscriber.draining.set(false);
+            }
+        }
+    }
+
+    /**
+     * Sends buffered events on a sender thread. Completing the emitter also happens here:
+     * {@link SseEmitter} serializes send and complete, so doing it on the publishing thread could block it behind a slow write.
+     */
+    private void drain(Subscriber subscriber) {
+        try {
+            Set<ResponseBodyEmitter.DataWithMediaType> message;
+            while (!subscriber.closed.get() && (message = subscriber.queue.poll()) != null) {
+                subscriber.emitter.send(message);
+            }
+        } catch (IOException | IllegalStateException e) {
+            subscriber.closed.set(true);
+            remove(subscriber);
+        } finally {
+            subscriber.draining.set(false);
+        }
+        if (subscriber.closed.get()) {
+            if (subscriber.completed.compareAndSet(false, true)) {
+                subscriber.emitter.complete();
+            }
+        } else if (!subscriber.queue.isEmpty()) {
+            // Событие могло прийти между последним poll() и сбросом флага
+            schedule(subscriber);
+        }
+    }
+
+    private void remove(Subscriber subscriber) {
+        subscribers.computeIfPresent(subscriber.ownerId, (k, targets) -> {
+            if (targets.remove(subscriber)) {
+                subscriberCount.decrementAndGet();
+            }
+            return targets.isEmpty() ? null : targets;
+        });
+    }
+
+    private CardDto toDto(CardChangedEvent event) {
+        CardDto dto = new CardDto();
+        dto.setId(event.cardId());
+        dto.setMaskedNumber(cardUtil.mask(event.encryptedNumber()));
+        dto.setOwnerId(event.ownerId());
+        dto.setExpirationDate(event.expirationDate());
+        dto.setStatus(event.status().name());
+        dto.setBalance(event.balance());
+        dto.setAvailableBalance(event.availableBalance());
+        dto.setDailyLimit(event.dailyLimit());
+        dto.setMonthlyLimit(event.monthlyLimit());
+        return dto;
+    }
+
+    private static class Subscriber {
+        final Long ownerId;
+        final SseEmitter emitter;
+        final BlockingQueue<Set<ResponseBodyEmitter.DataWithMediaType>> queue;
+        final AtomicBoolean draining = new AtomicBoolean();
+        final AtomicBoolean closed = new AtomicBoolean();
+        final AtomicBoolean completed = new AtomicBoolean();
+
+        Subscriber(Long ownerId, SseEmitter emitter, BlockingQueue<Set<ResponseBodyEmitter.DataWithMediaType>> queue) {
+            this.ownerId = ownerId;
+            this.emitter = emitter;
+            this.queue = queue;
+        }
+    }
+}
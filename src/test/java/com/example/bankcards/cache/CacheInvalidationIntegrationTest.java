@@ -0,0 +1,138 @@
+package com.example.bankcards.cache;
+
+import com.example.bankcards.entity.Role;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.repository.RoleRepository;
+import com.example.bankcards.repository.UserRepository;
+import com.example.bankcards.service.UserService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Set;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+public class CacheInvalidationIntegrationTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private LocalCacheManager cacheManager;
+
+    @Autowired
+    private CacheInvalidationListener listener;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private LocalCache<User> users;
+    private User user;
+
+    @BeforeEach
+    public void setUp() throws InterruptedException {
+        await(listener::isConnected);
+        users = cacheManager.getCache(LocalCacheManager.USERS);
+        userRepository.deleteAll();
+
+        Role role = roleRepository.findByName("USER").orElseThrow();
+        user = new User();
+        user.setUsername("cachedUser");
+        user.setPassword("encodedPassword");
+        user.setEmail("cached@example.com");
+        user.setRoles(Set.of(role));
+        userRepository.save(user);
+        settle();
+        userService.loadUserByUsername("cachedUser");
+        assertTrue(isCached());
+    }
+
+    @AfterEach
+    public void tearDown() {
+        userRepository.deleteAll();
+    }
+
+    @Test
+    public void notificationFromAnotherNode_EvictsKey() throws InterruptedException {
+        // Так выглядит коммит изменения пользователя на другом узле
+        jdbcTemplate.query("SELECT pg_notify('bank_cache_invalidation', 'roles:ADMIN\nusers:cachedUser')", rs -> null);
+
+        await(() -> !isCached());
+    }
+
+    @Test
+    public void committedDelete_EvictsLocallyOnCommit() {
+        userRepository.delete(user);
+
+        assertFalse(isCached());
+    }
+
+    @Test
+    public void rolledBackDelete_KeepsEntry() throws InterruptedException {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+
+        assertThrows(IllegalStateException.class, () -> transactionTemplate.executeWithoutResult(status -> {
+            userRepository.delete(userRepository.findByUsername("cachedUser").orElseThrow());
+            userRepository.flush();
+            throw new IllegalStateException("rollback");
+        }));
+
+        // Уведомление откаченной транзакции не отправляется; даём время дойти, если бы оно было
+        Thread.sleep(300);
+        assertTrue(isCached());
+    }
+
+    @Test
+    public void lostConnection_FlushesAndBypassesUntilReconnected() throws InterruptedException {
+        jdbcTemplate.query("SELECT pg_terminate_backend(pid) FROM pg_stat_activity WHERE application_name = ?",
+            rs -> null, CacheInvalidationListener.APPLICATION_NAME);
+
+        await(() -> !users.isEnabled());
+        assertFalse(isCached());
+
+        await(listener::isConnected);
+        userService.loadUserByUsername("cachedUser");
+        assertTrue(isCached());
+    }
+
+    private boolean isCached() {
+        // Загрузчик возвращает null, который не кэшируется: результат не null только при попадании
+        return users.get("cachedUser", key -> null) != null;
+    }
+
+    /**
+     * Waits until the notifications of earlier commits, including our own deletes, have been applied:
+     * notifications arrive in commit order, so once a marker sent afterwards is evicted, so are they.
+     */
+    private void settle() throws InterruptedException {
+        LocalCache<Role> roles = cacheManager.getCache(LocalCacheManager.ROLES);
+        roles.get("settle", key -> new Role());
+        jdbcTemplate.query("SELECT pg_notify('bank_cache_invalidation', 'roles:settle')", rs -> null);
+        await(() -> roles.get("settle", key -> null) == null);
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Condition not met within 10s");
+            Thread.sleep(20);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.bankcards.cache;
+
+import com.example.bankcards.config.LocalCacheProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LocalCacheTest {
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    public void get_LoadsOnceUntilEvicted() {
+        LocalCache<String> cache = cache(10, Duration.ofMinutes(1));
+
+        assertEquals("alice-1", cache.get("alice", this::load));
+        assertEquals("alice-1", cache.get("alice", this::load));
+        cache.evict("alice");
+
+        assertEquals("alice-2", cache.get("alice", this::load));
+    }
+
+    @Test
+    public void get_EvictionDuringLoad_DoesNotKeepLoadedValue() {
+        LocalCache<String> cache = cache(10, Duration.ofMinutes(1));
+
+        cache.get("alice", key -> {
+            cache.evict(key);
+            return load(key);
+        });
+
+        assertEquals(0, cache.size());
+        assertEquals("alice-2", cache.get("alice", this::load));
+    }
+
+    @Test
+    public void get_Disabled_AlwaysLoads() {
+        LocalCache<String> cache = cache(10, Duration.ofMinutes(1));
+        cache.get("alice", this::load);
+
+        cache.setEnabled(false);
+
+        assertEquals("alice-2", cache.get("alice", this::load));
+        assertEquals("alice-3", cache.get("alice", this::load));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void get_ExpiredEntry_IsReloaded() {
+        LocalCache<String> cache = cache(10, Duration.ZERO);
+
+        cache.get("alice", this::load);
+
+        assertEquals("alice-2", cache.get("alice", this::load));
+    }
+
+    @Test
+    public void get_Full_StaysWithinMaxSize() {
+        LocalCache<String> cache = cache(3, Duration.ofMinutes(1));
+
+        for (int i = 0; i < 10; i++) {
+            cache.get("user" + i, this::load);
+        }
+
+        assertTrue(cache.size() <= 3);
+    }
+
+    @Test
+    public void manager_Evict_AppliesKeysAndFlushMarker() {
+        LocalCacheManager manager = new LocalCacheManager(new LocalCacheProperties(), new SimpleMeterRegistry());
+        LocalCache<String> users = manager.getCache(LocalCacheManager.USERS);
+        users.get("alice", this::load);
+        users.get("bob", this::load);
+
+        manager.evict(List.of("users:alice", "cards:1", "garbage"));
+        assertEquals(1, users.size());
+
+        manager.evict(List.of("users:*"));
+        assertEquals(0, users.size());
+    }
+
+    private LocalCache<String> cache(int maxSize, Duration ttl) {
+        return new LocalCache<>("test", maxSize, ttl, new SimpleMeterRegistry());
+    }
+
+    private String load(String key) {
+        return key + "-" + loads.incrementAndGet();
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.bankcards.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs real connectors: the management port is a separate child context that MockMvc does not reach.
+ * Metrics export is off in tests by default, so it is switched back on for the prometheus endpoint.
+ */
+@AutoConfigureObservability(tracing = false)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class ActuatorSecurityIntegrationTest {
+
+    // Конкретный порт нужен SecurityConfig, поэтому выбираем свободный заранее вместо 0
+    private static final int MANAGEMENT_PORT = freePort();
+
+    @LocalServerPort
+    private int serverPort;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @DynamicPropertySource
+    static void managementPort(DynamicPropertyRegistry registry) {
+        registry.add("management.server.port", () -> MANAGEMENT_PORT);
+    }
+
+    @Test
+    public void prometheus_OnPublicPort_RequiresAuthentication() throws Exception {
+        HttpResponse<String> response = get(serverPort, "/actuator/prometheus");
+
+        assertEquals(403, response.statusCode());
+    }
+
+    @Test
+    public void prometheus_OnManagementPort_IsScrapedWithoutCredentials() throws Exception {
+        HttpResponse<String> response = get(MANAGEMENT_PORT, "/actuator/prometheus");
+
+        assertEquals(200, response.statusCode());
+        assertTrue(response.body().contains("jvm_memory_used_bytes"));
+    }
+
+    private HttpResponse<String> get(int port, String path) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).GET().build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static int freePort() {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
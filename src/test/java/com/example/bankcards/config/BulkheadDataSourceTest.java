@@ -0,0 +1,50 @@
+package com.example.bankcards.config;
+
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLTransientConnectionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class BulkheadDataSourceTest {
+
+    @Test
+    public void getConnection_ReleasesPermitOnClose() throws Exception {
+        DataSource target = mock(DataSource.class);
+        Connection connection = mock(Connection.class);
+        when(target.getConnection()).thenReturn(connection);
+        BulkheadDataSource dataSource = new BulkheadDataSource(target, 1, 10);
+
+        Connection borrowed = dataSource.getConnection();
+        assertEquals(0, dataSource.getAvailablePermits());
+        borrowed.close();
+        borrowed.close();
+
+        assertEquals(1, dataSource.getAvailablePermits());
+        verify(connection, times(1)).close();
+    }
+
+    @Test
+    public void getConnection_NoPermit_FailsFast() throws Exception {
+        DataSource target = mock(DataSource.class);
+        when(target.getConnection()).thenReturn(mock(Connection.class));
+        BulkheadDataSource dataSource = new BulkheadDataSource(target, 1, 10);
+
+        dataSource.getConnection();
+
+        assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+    }
+
+    @Test
+    public void getConnection_TargetFails_ReturnsPermit() throws Exception {
+        DataSource target = mock(DataSource.class);
+        when(target.getConnection()).thenThrow(new SQLTransientConnectionException("pool exhausted"));
+        BulkheadDataSource dataSource = new BulkheadDataSource(target, 1, 10);
+
+        assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+        assertEquals(1, dataSource.getAvailablePermits());
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.bankcards.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.context.PropertyPlaceholderAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class DbBulkheadConfigTest {
+
+    // Профиль virtual-threads вместе с отдельными пулами; соединения не открываются
+    private final ApplicationContextRunner runner = new ApplicationContextRunner()
+        .withConfiguration(AutoConfigurations.of(PropertyPlaceholderAutoConfiguration.class))
+        .withUserConfiguration(Infrastructure.class, DbPoolConfig.class, DbBulkheadConfig.class)
+        .withPropertyValues(
+            "spring.datasource.url=jdbc:postgresql://localhost:1/bank",
+            "db.bulkhead.enabled=true",
+            "db.bulkhead.max-concurrent=20",
+            "db.bulkhead.acquire-timeout=100",
+            "db.pools.partitions.transfer.maximum-pool-size=8",
+            "db.pools.partitions.read.maximum-pool-size=6",
+            "db.pools.partitions.auth.maximum-pool-size=4");
+
+    @Test
+    public void bulkheadWithPools_EachPartitionHasOwnBulkheadSizedToPool() {
+        runner.withPropertyValues("db.pools.enabled=true").run(context -> {
+            DataSource dataSource = context.getBean(DataSource.class);
+            assertInstanceOf(PartitionedDataSource.class, dataSource);
+
+            PartitionedDataSource partitioned = (PartitionedDataSource) dataSource;
+            assertEquals(8, permits(partitioned, DbPartition.TRANSFER));
+            assertEquals(6, permits(partitioned, DbPartition.READ));
+            assertEquals(4, permits(partitioned, DbPartition.AUTH));
+            assertEquals(10, permits(partitioned, DbPartition.DEFAULT));
+        });
+    }
+
+    @Test
+    public void bulkheadWithoutPools_WrapsSingleDataSource() {
+        runner.withPropertyValues("db.pools.enabled=false").run(context -> {
+            DataSource dataSource = context.getBean(DataSource.class);
+            assertInstanceOf(BulkheadDataSource.class, dataSource);
+            assertEquals(20, ((BulkheadDataSource) dataSource).getAvailablePermits());
+        });
+    }
+
+    @Test
+    public void bulkheadWithTimingProxy_ProxyWrapsBulkheadOfSingleDataSource() {
+        runner.withConfiguration(AutoConfigurations.of(JacksonAutoConfiguration.class))
+            .withUserConfiguration(RequestTimingConfig.class)
+            .withInitializer(DbBulkheadConfigTest::applicationConversions)
+            .withPropertyValues("db.pools.enabled=false")
+            .run(context -> {
+                DataSource dataSource = context.getBean(DataSource.class);
+                assertInstanceOf(ProxyDataSource.class, dataSource);
+                DataSource target = ((ProxyDataSource) dataSource).getDataSource();
+                assertInstanceOf(BulkheadDataSource.class, target);
+                assertEquals(20, ((BulkheadDataSource) target).getAvailablePermits());
+            });
+    }
+
+    @Test
+    public void bulkheadWithTimingProxyAndPools_NoGlobalBulkheadOverPartitions() {
+        runner.withConfiguration(AutoConfigurations.of(JacksonAutoConfiguration.class))
+            .withUserConfiguration(RequestTimingConfig.class)
+            .withInitializer(DbBulkheadConfigTest::applicationConversions)
+            .withPropertyValues("db.pools.enabled=true")
+            .run(context -> {
+                DataSource dataSource = context.getBean(DataSource.class);
+                assertInstanceOf(ProxyDataSource.class, dataSource);
+                DataSource target = ((ProxyDataSource) dataSource).getDataSource();
+                assertInstanceOf(PartitionedDataSource.class, target);
+                assertEquals(8, permits((PartitionedDataSource) target, DbPartition.TRANSFER));
+            });
+    }
+
+    @Test
+    public void postProcessor_PartitionedDataSourceBehindProxy_NotWrapped() throws Exception {
+        PartitionedDataSource partitioned = mock(PartitionedDataSource.class);
+        ProxyDataSource proxy = ProxyDataSourceBuilder.create(partitioned).build();
+        when(partitioned.isWrapperFor(PartitionedDataSource.class)).thenReturn(true);
+
+        Object processed = DbBulkheadConfig.dbBulkheadPostProcessor(20, 100)
+            .postProcessAfterInitialization(proxy, "dataSource");
+
+        assertSame(proxy, processed);
+    }
+
+    // Duration-параметры прокси разбираются так же, как в приложении
+    private static void applicationConversions(ConfigurableApplicationContext context) {
+        context.getBeanFactory().setConversionService(ApplicationConversionService.getSharedInstance());
+    }
+
+    private static int permits(PartitionedDataSource dataSource, DbPartition partition) {
+        DataSource target = dataSource.target(partition);
+        assertInstanceOf(BulkheadDataSource.class, target);
+        return ((BulkheadDataSource) target).getAvailablePermits();
+    }
+
+    @Configuration
+    @EnableConfigurationProperties(DataSourceProperties.class)
+    static class Infrastructure {
+        @Bean
+        public MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+
+        @Bean
+        @ConditionalOnProperty(name = "db.pools.enabled", havingValue = "false")
+        public DataSource singleDataSource(DataSourceProperties properties) {
+            return properties.initializeDataSourceBuilder().build();
+        }
+    }
+}
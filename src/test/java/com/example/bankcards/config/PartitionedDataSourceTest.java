@@ -0,0 +1,85 @@
+package com.example.bankcards.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Connection;
+import java.util.EnumMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class PartitionedDataSourceTest {
+
+    private final Map<DbPartition, HikariDataSource> pools = new EnumMap<>(DbPartition.class);
+
+    @AfterEach
+    public void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    @Test
+    public void getConnection_NoPartitionNoReadOnly_UsesDefaultPool() throws Exception {
+        PartitionedDataSource dataSource = dataSource();
+
+        touch(dataSource.getConnection());
+
+        verify(pools.get(DbPartition.DEFAULT)).getConnection();
+        verify(pools.get(DbPartition.READ), never()).getConnection();
+    }
+
+    @Test
+    public void getConnection_ReadOnlyTransaction_UsesReadPool() throws Exception {
+        PartitionedDataSource dataSource = dataSource();
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        touch(dataSource.getConnection());
+
+        verify(pools.get(DbPartition.READ)).getConnection();
+    }
+
+    @Test
+    public void getConnection_InsideDbPoolMethod_UsesAnnotatedPartitionAndRestoresPrevious() throws Throwable {
+        PartitionedDataSource dataSource = dataSource();
+        DbPoolAspect aspect = new DbPoolAspect();
+        ProceedingJoinPoint joinPoint = mock(ProceedingJoinPoint.class);
+        when(joinPoint.proceed()).thenAnswer(invocation -> {
+            touch(dataSource.getConnection());
+            return null;
+        });
+
+        aspect.route(joinPoint, dbPool(DbPartition.TRANSFER));
+
+        verify(pools.get(DbPartition.TRANSFER)).getConnection();
+        assertNull(DbPoolAspect.current());
+    }
+
+    private PartitionedDataSource dataSource() throws Exception {
+        for (DbPartition partition : DbPartition.values()) {
+            HikariDataSource pool = mock(HikariDataSource.class);
+            Connection connection = mock(Connection.class);
+            when(pool.getConnection()).thenReturn(connection);
+            pools.put(partition, pool);
+        }
+        PartitionedDataSource dataSource = new PartitionedDataSource(pools);
+        // Первое обращение читает autoCommit/isolation по умолчанию через отдельное соединение
+        touch(dataSource.getConnection());
+        clearInvocations(pools.values().toArray());
+        return dataSource;
+    }
+
+    /** The proxy connects lazily, so a statement is needed to reach the target pool. */
+    private static void touch(Connection connection) throws Exception {
+        connection.createStatement();
+    }
+
+    private static DbPool dbPool(DbPartition partition) {
+        DbPool dbPool = mock(DbPool.class);
+        when(dbPool.value()).thenReturn(partition);
+        return dbPool;
+    }
+}
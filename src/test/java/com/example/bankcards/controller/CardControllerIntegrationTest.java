@@ -6,6 +6,7 @@ import com.example.bankcards.entity.Card;
 import com.example.bankcards.entity.CardStatus;
 import com.example.bankcards.entity.User;
 import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.RoleRepository;
 import com.example.bankcards.repository.UserRepository;
 import com.example.bankcards.util.CardUtil;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -18,12 +19,16 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.Set;
 
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.when;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -40,6 +45,9 @@ public class CardControllerIntegrationTest {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private RoleRepository roleRepository;
+
     @MockBean
     private CardUtil cardUtil;
 
@@ -149,4 +157,26 @@ public class CardControllerIntegrationTest {
                 .contentType(MediaType.APPLICATION_JSON))
             .andExpect(status().isOk());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void streamCards_BlockCard_PushesCardEventAfterCommit() throws Exception {
+        user.setRoles(Set.of(roleRepository.findByName("USER").orElseThrow()));
+        userRepository.save(user);
+
+        MvcResult stream = mockMvc.perform(get("/api/cards/stream").with(user(user)))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        mockMvc.perform(post("/api/cards/" + card.getId() + "/block").with(user(user)))
+            .andExpect(status().isOk());
+
+        // События отправляются потоком рассылки, ждём их появления в ответе
+        long deadline = System.currentTimeMillis() + 5000;
+        String body = stream.getResponse().getContentAsString();
+        while (!body.contains("BLOCKED") && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            body = stream.getResponse().getContentAsString();
+        }
+        assertTrue(body.contains("event:card"), body);
+        assertTrue(body.contains("\"id\":" + card.getId()) && body.contains("\"status\":\"BLOCKED\""), body);
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.bankcards.controller;
 
+import com.example.bankcards.dto.SplitTransferDto;
 import com.example.bankcards.dto.TransferDto;
 import com.example.bankcards.entity.Card;
 import com.example.bankcards.entity.CardStatus;
@@ -24,6 +25,7 @@ import java.time.LocalDate;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
@@ -142,4 +144,29 @@ public class TransferControllerIntegrationTest {
                 .content(objectMapper.writeValueAsString(transferDto)))
             .andExpect(status().isBadRequest());
     }
-}
\ No newline at end of file
+
+    @Test
+    @WithMockUser(username = "testUser", roles = {"USER"})
+    public void splitTransfer_Automatic_ReturnsDebitedCards() throws Exception {
+        Card secondCard = new Card();
+        secondCard.setNumber("1111222233334444");
+        secondCard.setOwner(user);
+        secondCard.setExpirationDate(LocalDate.now().plusYears(2));
+        secondCard.setStatus(CardStatus.ACTIVE);
+        secondCard.setBalance(BigDecimal.valueOf(300));
+        cardRepository.save(secondCard);
+
+        SplitTransferDto splitDto = new SplitTransferDto();
+        splitDto.setToCardId(toCard.getId());
+        splitDto.setAmount(BigDecimal.valueOf(1200));
+
+        mockMvc.perform(post("/api/transfers/split")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(splitDto)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.legs.length()").value(2))
+            .andExpect(jsonPath("$.legs[0].fromCardId").value(fromCard.getId()))
+            .andExpect(jsonPath("$.legs[0].amount").value(1000))
+            .andExpect(jsonPath("$.legs[1].amount").value(200));
+    }
+}
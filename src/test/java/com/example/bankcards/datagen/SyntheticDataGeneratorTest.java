@@ -0,0 +1,75 @@
+package com.example.bankcards.datagen;
+
+import com.example.bankcards.config.DataGeneratorProperties;
+import com.example.bankcards.entity.CardStatus;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SyntheticDataGeneratorTest {
+
+    private final DataGeneratorProperties properties = new DataGeneratorProperties();
+    private final SyntheticDataGenerator generator = new SyntheticDataGenerator(null, null, null, properties, null);
+    private final LocalDate today = LocalDate.of(2025, 6, 15);
+
+    @Test
+    public void cardNumber_HasSixteenDigitsAndValidLuhnChecksum() {
+        SplittableRandom random = new SplittableRandom(1);
+        for (int i = 0; i < 1000; i++) {
+            String number = SyntheticDataGenerator.cardNumber(random);
+
+            assertEquals(16, number.length());
+            assertEquals('4', number.charAt(0));
+            assertEquals(0, luhnSum(number) % 10, number);
+        }
+    }
+
+    @Test
+    public void status_PastExpirationDate_IsExpired() {
+        assertEquals(CardStatus.EXPIRED, generator.status(new SplittableRandom(1), today.minusDays(1), today));
+    }
+
+    @Test
+    public void status_FutureExpirationDate_IsActiveOrBlocked() {
+        properties.setBlockedRatio(0.5);
+        SplittableRandom random = new SplittableRandom(1);
+        int blocked = 0;
+        for (int i = 0; i < 1000; i++) {
+            CardStatus status = generator.status(random, today.plusYears(1), today);
+            assertNotEquals(CardStatus.EXPIRED, status);
+            if (status == CardStatus.BLOCKED) {
+                blocked++;
+            }
+        }
+        assertTrue(blocked > 400 && blocked < 600);
+    }
+
+    @Test
+    public void expirationDate_IsLastDayOfMonthWithinConfiguredRange() {
+        SplittableRandom random = new SplittableRandom(1);
+        for (int i = 0; i < 1000; i++) {
+            LocalDate date = generator.expirationDate(random, today);
+
+            assertEquals(date.lengthOfMonth(), date.getDayOfMonth());
+            assertTrue(date.isAfter(today.minusMonths(properties.getExpirationMonthsBack() + 1)));
+            assertTrue(date.isBefore(today.plusMonths(properties.getExpirationMonthsAhead() + 1)));
+        }
+    }
+
+    private static int luhnSum(String number) {
+        int sum = 0;
+        for (int i = 0; i < number.length(); i++) {
+            int d = number.charAt(number.length() - 1 - i) - '0';
+            if (i % 2 == 1) {
+                d = d * 2 > 9 ? d * 2 - 9 : d * 2;
+            }
+            sum += d;
+        }
+        return sum;
+    }
+}
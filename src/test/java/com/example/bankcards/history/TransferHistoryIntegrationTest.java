@@ -0,0 +1,213 @@
+package com.example.bankcards.history;
+
+import com.example.bankcards.config.TransferHistoryProperties;
+import com.example.bankcards.dto.TransferHistoryDto;
+import com.example.bankcards.dto.TransferHistoryPageDto;
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.Role;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.exception.ResourceNotFoundException;
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.RoleRepository;
+import com.example.bankcards.repository.UserRepository;
+import com.example.bankcards.service.TransferHistoryService;
+import com.example.bankcards.service.TransferService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@WithMockUser(username = "historyUser", roles = {"USER"})
+public class TransferHistoryIntegrationTest {
+
+    @Autowired
+    private TransferHistoryService transferHistoryService;
+
+    @Autowired
+    private TransferPartitions transferPartitions;
+
+    @Autowired
+    private TransferHistoryProperties properties;
+
+    @Autowired
+    private TransferService transferService;
+
+    @Autowired
+    private CardRepository cardRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User user;
+    private Card firstCard;
+    private Card secondCard;
+
+    @BeforeEach
+    public void setUp() {
+        clean();
+        jdbcTemplate.update("DELETE FROM scheduler_leases WHERE job_name = 'transfer-partitions'");
+
+        Role role = roleRepository.findByName("USER").orElseThrow();
+        user = new User();
+        user.setUsername("historyUser");
+        user.setPassword("encodedPassword");
+        user.setEmail("history@example.com");
+        user.setRoles(Set.of(role));
+        userRepository.save(user);
+        firstCard = cardRepository.save(newCard(user, BigDecimal.valueOf(1000)));
+        secondCard = cardRepository.save(newCard(user, BigDecimal.valueOf(1000)));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        clean();
+    }
+
+    @Test
+    public void userHistory_PagesNewestFirstWithoutGapsOrDuplicates() {
+        for (int i = 1; i <= 5; i++) {
+            transfer(firstCard, secondCard, i);
+        }
+
+        List<TransferHistoryDto> all = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            TransferHistoryPageDto page = transferHistoryService.getMyTransfers(null, null, null, cursor, 2);
+            all.addAll(page.getItems());
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(3, pages);
+        assertEquals(5, all.size());
+        assertEquals(5, new HashSet<>(all.stream().map(TransferHistoryDto::getId).toList()).size());
+        // Самый новый перевод - последний
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, BigDecimal.valueOf(5 - i).compareTo(all.get(i).getAmount()));
+        }
+    }
+
+    @Test
+    public void cardHistory_IncludesBothDirections_AndOnlyOwnCards() {
+        transfer(firstCard, secondCard, 10);
+        transfer(secondCard, firstCard, 20);
+        User other = new User();
+        other.setUsername("otherHistoryUser");
+        other.setPassword("encodedPassword");
+        other.setEmail("other-history@example.com");
+        userRepository.save(other);
+        Card otherCard = cardRepository.save(newCard(other, BigDecimal.TEN));
+
+        List<TransferHistoryDto> items = transferHistoryService.getMyTransfers(firstCard.getId(), null, null, null, null)
+            .getItems();
+
+        assertEquals(2, items.size());
+        assertEquals(secondCard.getId(), items.get(0).getFromCardId());
+        assertEquals(firstCard.getId(), items.get(1).getFromCardId());
+        assertThrows(ResourceNotFoundException.class,
+            () -> transferHistoryService.getMyTransfers(otherCard.getId(), null, null, null, null));
+    }
+
+    @Test
+    @WithMockUser(username = "support", roles = {"ADMIN"})
+    public void supportHistory_FiltersByDateRange() {
+        OffsetDateTime now = OffsetDateTime.now();
+        insertTransfer(now.minusDays(20));
+        insertTransfer(now.minusDays(3));
+        insertTransfer(now.minusDays(40));
+
+        assertEquals(2, transferHistoryService.getTransfers(firstCard.getId(), null, null, null, null, null)
+            .getItems().size());
+        assertEquals(1, transferHistoryService.getTransfers(null, user.getId(), now.minusDays(5), null, null, null)
+            .getItems().size());
+        assertEquals(1, transferHistoryService.getTransfers(null, user.getId(), now.minusDays(30), now.minusDays(10), null, null)
+            .getItems().size());
+        assertThrows(IllegalArgumentException.class,
+            () -> transferHistoryService.getTransfers(firstCard.getId(), user.getId(), null, null, null, null));
+    }
+
+    @Test
+    public void rangeQuery_ScansOnlyPartitionsOfTheRange() {
+        LocalDate month = LocalDate.now(ZoneOffset.UTC).withDayOfMonth(1);
+        jdbcTemplate.queryForObject("SELECT create_transfers_partition(?)", Boolean.class, month.minusMonths(1));
+
+        String plan = String.join("\n", jdbcTemplate.queryForList("EXPLAIN SELECT id FROM transfers WHERE owner_id = 1 "
+            + "AND created_at >= '" + month + " 00:00:00+00' ORDER BY created_at DESC, id DESC LIMIT 20", String.class));
+
+        assertTrue(plan.contains(partition(month)), plan);
+        assertFalse(plan.contains(partition(month.minusMonths(1))), plan);
+    }
+
+    @Test
+    public void maintain_CreatesPartitionsAheadAndDropsExpiredOnes() {
+        LocalDate month = LocalDate.now(ZoneOffset.UTC).withDayOfMonth(1);
+        jdbcTemplate.queryForObject("SELECT create_transfers_partition(?)", Boolean.class, month.minusMonths(13));
+        int retention = properties.getRetentionMonths();
+        properties.setRetentionMonths(12);
+        try {
+            transferPartitions.maintain();
+        } finally {
+            properties.setRetentionMonths(retention);
+        }
+
+        List<String> partitions = transferPartitions.partitions();
+        assertFalse(partitions.contains(partition(month.minusMonths(13))));
+        for (int i = 0; i <= properties.getPartitionsAhead(); i++) {
+            assertTrue(partitions.contains(partition(month.plusMonths(i))), partitions.toString());
+        }
+        assertEquals(0, transferPartitions.maintain());
+    }
+
+    private void transfer(Card from, Card to, long amount) {
+        transferService.transferOnBehalf(user.getId(), from.getId(), to.getId(), card -> BigDecimal.valueOf(amount));
+    }
+
+    private void insertTransfer(OffsetDateTime createdAt) {
+        jdbcTemplate.queryForObject("SELECT create_transfers_partition(?)", Boolean.class,
+            createdAt.atZoneSameInstant(ZoneOffset.UTC).toLocalDate());
+        jdbcTemplate.update("INSERT INTO transfers (owner_id, from_card_id, to_card_id, amount, created_at) "
+            + "VALUES (?, ?, ?, 1, ?)", user.getId(), firstCard.getId(), secondCard.getId(), createdAt);
+    }
+
+    private static String partition(LocalDate month) {
+        return "transfers_p" + month.format(DateTimeFormatter.ofPattern("yyyyMM"));
+    }
+
+    private Card newCard(User owner, BigDecimal balance) {
+        Card card = new Card();
+        card.setNumber("1234567890123456");
+        card.setOwner(owner);
+        card.setExpirationDate(LocalDate.now().plusYears(2));
+        card.setBalance(balance);
+        return card;
+    }
+
+    private void clean() {
+        jdbcTemplate.update("DELETE FROM transfers");
+        cardRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.bankcards.holds;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HierarchicalTimingWheelTest {
+
+    private static final long START = 1_700_000_000_000L;
+
+    @Test
+    public void entriesOnEveryLevel_ExpireAtTheirTick() {
+        // Тик 10 мс, 4 слота, 3 уровня: горизонт 64 тика
+        HierarchicalTimingWheel wheel = new HierarchicalTimingWheel(10, 4, 3, START);
+        long[] delays = {10, 30, 40, 170, 330, 630};
+        for (int i = 0; i < delays.length; i++) {
+            assertFalse(wheel.schedule(i, START + delays[i]));
+        }
+
+        for (int i = 0; i < delays.length; i++) {
+            assertEquals(List.of(), wheel.advance(START + delays[i] - 10), "early at " + delays[i]);
+            assertEquals(List.of((long) i), wheel.advance(START + delays[i]), "at " + delays[i]);
+        }
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void deadlineBetweenTicks_RoundedUp() {
+        HierarchicalTimingWheel wheel = new HierarchicalTimingWheel(100, 8, 2, START);
+        wheel.schedule(1, START + 150);
+
+        assertEquals(List.of(), wheel.advance(START + 199));
+        assertEquals(List.of(1L), wheel.advance(START + 200));
+    }
+
+    @Test
+    public void deadlineBeyondHorizon_ReplacedUntilDue() {
+        HierarchicalTimingWheel wheel = new HierarchicalTimingWheel(10, 4, 2, START);
+        // Горизонт 16 тиков, срок - через 100
+        wheel.schedule(1, START + 1000);
+
+        List<Long> due = new ArrayList<>();
+        for (long now = START; now < START + 1000; now += 10) {
+            due.addAll(wheel.advance(now));
+        }
+        assertEquals(List.of(), due);
+        assertEquals(List.of(1L), wheel.advance(START + 1000));
+    }
+
+    @Test
+    public void cancelledAndRescheduled_FireOnlyAtNewDeadline() {
+        HierarchicalTimingWheel wheel = new HierarchicalTimingWheel(10, 4, 3, START);
+        wheel.schedule(1, START + 50);
+        wheel.schedule(2, START + 50);
+        wheel.schedule(1, START + 300);
+
+        assertTrue(wheel.cancel(2));
+        assertFalse(wheel.cancel(3));
+        assertEquals(List.of(), wheel.advance(START + 290));
+        assertEquals(List.of(1L), wheel.advance(START + 300));
+    }
+
+    @Test
+    public void pastDeadline_DueImmediately() {
+        HierarchicalTimingWheel wheel = new HierarchicalTimingWheel(10, 4, 3, START);
+        wheel.advance(START + 100);
+
+        assertTrue(wheel.schedule(1, START + 100));
+        assertTrue(wheel.schedule(2, START + 50));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void largeJump_ExpiresEverythingInTickOrder() {
+        HierarchicalTimingWheel wheel = new HierarchicalTimingWheel(10, 4, 3, START);
+        for (long id = 100; id > 0; id--) {
+            wheel.schedule(id, START + id * 10);
+        }
+
+        List<Long> due = wheel.advance(START + 1000);
+
+        assertEquals(100, due.size());
+        for (int i = 0; i < due.size(); i++) {
+            assertEquals(i + 1, due.get(i));
+        }
+    }
+}
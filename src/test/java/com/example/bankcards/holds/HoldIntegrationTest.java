@@ -0,0 +1,227 @@
+package com.example.bankcards.holds;
+
+import com.example.bankcards.dto.HoldCaptureDto;
+import com.example.bankcards.dto.HoldCreationDto;
+import com.example.bankcards.dto.HoldDto;
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.Hold;
+import com.example.bankcards.entity.HoldStatus;
+import com.example.bankcards.entity.Role;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.exception.InsufficientFundsException;
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.HoldRepository;
+import com.example.bankcards.repository.RoleRepository;
+import com.example.bankcards.repository.UserRepository;
+import com.example.bankcards.service.CardStatsService;
+import com.example.bankcards.service.HoldService;
+import com.example.bankcards.service.TransferService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@WithMockUser(username = "holdsUser", roles = {"USER"})
+public class HoldIntegrationTest {
+
+    @Autowired
+    private HoldService holdService;
+
+    @Autowired
+    private HoldExpiryScheduler expiryScheduler;
+
+    @Autowired
+    private TransferService transferService;
+
+    @Autowired
+    private CardStatsService cardStatsService;
+
+    @Autowired
+    private HoldRepository holdRepository;
+
+    @Autowired
+    private CardRepository cardRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User user;
+    private Card card;
+    private Card otherCard;
+
+    @BeforeEach
+    public void setUp() {
+        clean();
+        jdbcTemplate.update("DELETE FROM scheduler_leases WHERE job_name = 'hold-expiry-sweep'");
+
+        Role role = roleRepository.findByName("USER").orElseThrow();
+        user = new User();
+        user.setUsername("holdsUser");
+        user.setPassword("encodedPassword");
+        user.setEmail("holds@example.com");
+        user.setRoles(Set.of(role));
+        userRepository.save(user);
+        card = cardRepository.save(newCard(BigDecimal.valueOf(1000)));
+        otherCard = cardRepository.save(newCard(BigDecimal.ZERO));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        clean();
+    }
+
+    @Test
+    public void placedHold_ReducesAvailableButNotLedgerBalance() {
+        HoldDto hold = holdService.placeHold(creation(300, null));
+
+        assertEquals(HoldStatus.HELD.name(), hold.getStatus());
+        Card held = cardRepository.findById(card.getId()).orElseThrow();
+        assertEquals(0, new BigDecimal("1000").compareTo(held.getBalance()));
+        assertEquals(0, new BigDecimal("700").compareTo(held.getAvailableBalance()));
+        // Удержанное нельзя ни удержать повторно, ни перевести
+        assertThrows(InsufficientFundsException.class, () -> holdService.placeHold(creation(800, null)));
+        assertThrows(InsufficientFundsException.class, () -> transferService.transferOnBehalf(user.getId(), card.getId(),
+            otherCard.getId(), c -> BigDecimal.valueOf(800)));
+        assertTrue(expiryScheduler.getScheduledCount() >= 1);
+    }
+
+    @Test
+    public void partialCapture_DebitsCapturedAmountAndReleasesRest() {
+        HoldDto hold = holdService.placeHold(creation(300, null));
+        HoldCaptureDto capture = new HoldCaptureDto();
+        capture.setAmount(BigDecimal.valueOf(200));
+
+        HoldDto captured = holdService.captureHold(hold.getId(), capture);
+
+        assertEquals(HoldStatus.CAPTURED.name(), captured.getStatus());
+        assertEquals(0, new BigDecimal("200").compareTo(captured.getCapturedAmount()));
+        Card charged = cardRepository.findById(card.getId()).orElseThrow();
+        assertEquals(0, new BigDecimal("800").compareTo(charged.getBalance()));
+        assertEquals(0, BigDecimal.ZERO.compareTo(charged.getHeld()));
+        assertThrows(IllegalStateException.class, () -> holdService.voidHold(hold.getId()));
+    }
+
+    @Test
+    @WithMockUser(username = "holdsUser", roles = {"USER", "ADMIN"})
+    public void capture_UpdatesBalanceStatistics() {
+        BigDecimal activeBefore = cardStatsService.getSummary().getBalanceByStatus().get("ACTIVE");
+        HoldDto hold = holdService.placeHold(creation(300, null));
+
+        holdService.captureHold(hold.getId(), null);
+
+        // Списание без зачисления: агрегаты уменьшаются на пойманную сумму
+        assertEquals(0, activeBefore.subtract(BigDecimal.valueOf(300))
+            .compareTo(cardStatsService.getSummary().getBalanceByStatus().get("ACTIVE")));
+        assertEquals(0, new BigDecimal("700").compareTo(cardStatsService.getOwnerStats(user.getId()).getTotalBalance()));
+    }
+
+    @Test
+    public void placeHold_WithoutCard_ThrowsIllegalArgument() {
+        HoldCreationDto creation = creation(300, null);
+        creation.setCardId(null);
+
+        assertThrows(IllegalArgumentException.class, () -> holdService.placeHold(creation));
+    }
+
+    @Test
+    public void voidedHold_ReleasesWholeAmount() {
+        HoldDto hold = holdService.placeHold(creation(300, null));
+
+        assertEquals(HoldStatus.VOIDED.name(), holdService.voidHold(hold.getId()).getStatus());
+
+        Card released = cardRepository.findById(card.getId()).orElseThrow();
+        assertEquals(0, new BigDecimal("1000").compareTo(released.getAvailableBalance()));
+        assertThrows(IllegalStateException.class, () -> holdService.captureHold(hold.getId(), null));
+    }
+
+    @Test
+    public void holdExpiresByWheelAtItsDeadline() throws InterruptedException {
+        OffsetDateTime expiresAt = OffsetDateTime.now().plusNanos(300_000_000);
+        HoldDto hold = holdService.placeHold(creation(300, expiresAt));
+
+        Hold expired = awaitStatus(hold.getId(), HoldStatus.EXPIRED);
+
+        assertFalse(expired.getClosedAt().isBefore(expired.getExpiresAt()));
+        assertEquals(0, new BigDecimal("1000").compareTo(
+            cardRepository.findById(card.getId()).orElseThrow().getAvailableBalance()));
+    }
+
+    @Test
+    public void rebuild_LoadsHoldsPlacedByOtherNodes() throws InterruptedException {
+        Long holdId = insertHold(OffsetDateTime.now().plusNanos(300_000_000));
+
+        assertTrue(expiryScheduler.rebuild() >= 1);
+
+        awaitStatus(holdId, HoldStatus.EXPIRED);
+        assertEquals(0, BigDecimal.ZERO.compareTo(cardRepository.findById(card.getId()).orElseThrow().getHeld()));
+    }
+
+    @Test
+    public void sweep_ExpiresOverdueHoldsMissingFromWheel() {
+        Long holdId = insertHold(OffsetDateTime.now().minusMinutes(1));
+
+        assertEquals(1, expiryScheduler.sweep());
+
+        assertEquals(HoldStatus.EXPIRED, holdRepository.findById(holdId).orElseThrow().getStatus());
+        assertEquals(0, expiryScheduler.sweep());
+    }
+
+    private Hold awaitStatus(Long holdId, HoldStatus status) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        Hold hold = holdRepository.findById(holdId).orElseThrow();
+        while (hold.getStatus() != status && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+            hold = holdRepository.findById(holdId).orElseThrow();
+        }
+        assertEquals(status, hold.getStatus());
+        return hold;
+    }
+
+    // Холд, поставленный другим узлом: в колесе этого узла его нет
+    private Long insertHold(OffsetDateTime expiresAt) {
+        jdbcTemplate.update("UPDATE cards SET held = held + 300 WHERE id = ?", card.getId());
+        return jdbcTemplate.queryForObject("INSERT INTO holds (card_id, amount, status, expires_at) "
+            + "VALUES (?, 300, 'HELD', ?) RETURNING id", Long.class, card.getId(), expiresAt);
+    }
+
+    private HoldCreationDto creation(long amount, OffsetDateTime expiresAt) {
+        HoldCreationDto creation = new HoldCreationDto();
+        creation.setCardId(card.getId());
+        creation.setAmount(BigDecimal.valueOf(amount));
+        creation.setReference("order-42");
+        creation.setExpiresAt(expiresAt);
+        return creation;
+    }
+
+    private Card newCard(BigDecimal balance) {
+        Card card = new Card();
+        card.setNumber("1234567890123456");
+        card.setOwner(user);
+        card.setExpirationDate(LocalDate.now().plusYears(2));
+        card.setBalance(balance);
+        return card;
+    }
+
+    private void clean() {
+        jdbcTemplate.update("DELETE FROM holds");
+        cardRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+}
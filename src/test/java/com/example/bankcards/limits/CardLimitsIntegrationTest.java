@@ -0,0 +1,200 @@
+package com.example.bankcards.limits;
+
+import com.example.bankcards.config.CardLimitProperties;
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.Role;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.exception.LimitExceededException;
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.RoleRepository;
+import com.example.bankcards.repository.UserRepository;
+import com.example.bankcards.service.TransferService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+public class CardLimitsIntegrationTest {
+
+    @Autowired
+    private CardLimits cardLimits;
+
+    @Autowired
+    private CardLimitProperties properties;
+
+    @Autowired
+    private TransferService transferService;
+
+    @Autowired
+    private CardRepository cardRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private User user;
+    private Card fromCard;
+    private Card toCard;
+
+    @BeforeEach
+    public void setUp() {
+        cardRepository.deleteAll();
+        userRepository.deleteAll();
+
+        Role role = roleRepository.findByName("USER").orElseThrow();
+        user = new User();
+        user.setUsername("limitsUser");
+        user.setPassword("encodedPassword");
+        user.setEmail("limits@example.com");
+        user.setRoles(Set.of(role));
+        userRepository.save(user);
+
+        fromCard = newCard(BigDecimal.valueOf(1000));
+        fromCard.setDailyLimit(BigDecimal.valueOf(150));
+        fromCard = cardRepository.save(fromCard);
+        toCard = cardRepository.save(newCard(BigDecimal.ZERO));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        cardRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    public void transferOverDailyLimit_Rejected() {
+        transfer(100);
+
+        LimitExceededException e = assertThrows(LimitExceededException.class, () -> transfer(100));
+
+        assertTrue(e.getMessage().startsWith("Daily limit exceeded"));
+        assertEquals(0, new BigDecimal("900").compareTo(balance(fromCard)));
+        transfer(50);
+        assertEquals(0, new BigDecimal("850").compareTo(balance(fromCard)));
+    }
+
+    @Test
+    public void rolledBackTransfer_ReleasesReservedAmount() {
+        transactionTemplate.executeWithoutResult(status -> {
+            transfer(100);
+            status.setRollbackOnly();
+        });
+
+        transfer(150);
+
+        assertEquals(0, new BigDecimal("850").compareTo(balance(fromCard)));
+    }
+
+    @Test
+    public void flushedUsage_SurvivesRestart() {
+        transfer(100);
+        cardLimits.flush();
+
+        assertEquals(0, new BigDecimal("100").compareTo(storedUsage(CardLimits.DAY, LocalDate.now(properties.getZone()))));
+        assertEquals(0, new BigDecimal("100").compareTo(
+            storedUsage(CardLimits.MONTH, LocalDate.now(properties.getZone()).withDayOfMonth(1))));
+
+        // Новый экземпляр - как после перезапуска узла: счётчики загружаются из таблицы
+        CardLimits restarted = new CardLimits(jdbcTemplate, properties, new SimpleMeterRegistry());
+        Card card = cardRepository.findById(fromCard.getId()).orElseThrow();
+        assertThrows(LimitExceededException.class, () -> restarted.reserve(card, BigDecimal.valueOf(100)));
+        restarted.reserve(card, BigDecimal.valueOf(50));
+    }
+
+    @Test
+    public void flush_AddsDeltaToUsageOfOtherNodes() {
+        transfer(20);
+        // Расход, записанный другим узлом
+        jdbcTemplate.update("INSERT INTO card_limits_usage (card_id, period, period_start, amount) VALUES (?, ?, ?, 100)",
+            fromCard.getId(), CardLimits.DAY, LocalDate.now(properties.getZone()));
+
+        cardLimits.flush();
+
+        assertEquals(0, new BigDecimal("120").compareTo(storedUsage(CardLimits.DAY, LocalDate.now(properties.getZone()))));
+        // 120 из 150 уже потрачено с учётом другого узла
+        assertThrows(LimitExceededException.class, () -> transfer(40));
+        transfer(30);
+    }
+
+    @Test
+    public void flush_RefreshesCountersSpentOnOtherNode() {
+        CardLimits nodeA = new CardLimits(jdbcTemplate, properties, new SimpleMeterRegistry());
+        CardLimits nodeB = new CardLimits(jdbcTemplate, properties, new SimpleMeterRegistry());
+        reserve(nodeB, 10);
+        nodeB.flush();
+
+        reserve(nodeA, 100);
+        nodeA.flush();
+        // Узел B сам карту не тратил, но перечитывает итог таблицы
+        nodeB.flush();
+
+        assertThrows(LimitExceededException.class, () -> reserve(nodeB, 50));
+        reserve(nodeB, 40);
+    }
+
+    @Test
+    public void nearLimit_ChecksUsageOfOtherNodesInTransaction() {
+        CardLimits nodeA = new CardLimits(jdbcTemplate, properties, new SimpleMeterRegistry());
+        CardLimits nodeB = new CardLimits(jdbcTemplate, properties, new SimpleMeterRegistry());
+        reserve(nodeA, 100);
+        nodeA.flush();
+
+        // Остаток 20 из 150 меньше порога: сумма сразу пишется в таблицу
+        reserve(nodeB, 30);
+        assertEquals(0, new BigDecimal("130").compareTo(storedUsage(CardLimits.DAY, LocalDate.now(properties.getZone()))));
+
+        // Узел A ещё не знает о расходе B, но у лимита проверяет таблицу
+        assertThrows(LimitExceededException.class, () -> reserve(nodeA, 30));
+        reserve(nodeA, 20);
+        nodeA.flush();
+        nodeB.flush();
+        assertEquals(0, new BigDecimal("150").compareTo(storedUsage(CardLimits.DAY, LocalDate.now(properties.getZone()))));
+        assertThrows(LimitExceededException.class, () -> reserve(nodeB, 1));
+    }
+
+    private void reserve(CardLimits node, long amount) {
+        transactionTemplate.executeWithoutResult(status -> node.reserve(
+            cardRepository.findById(fromCard.getId()).orElseThrow(), BigDecimal.valueOf(amount)));
+    }
+
+    private void transfer(long amount) {
+        transferService.transferOnBehalf(user.getId(), fromCard.getId(), toCard.getId(), card -> BigDecimal.valueOf(amount));
+    }
+
+    private BigDecimal storedUsage(String period, LocalDate start) {
+        return jdbcTemplate.queryForObject("SELECT amount FROM card_limits_usage WHERE card_id = ? AND period = ? "
+            + "AND period_start = ?", BigDecimal.class, fromCard.getId(), period, start);
+    }
+
+    private BigDecimal balance(Card card) {
+        return cardRepository.findById(card.getId()).orElseThrow().getBalance();
+    }
+
+    private Card newCard(BigDecimal balance) {
+        Card card = new Card();
+        card.setNumber("1234567890123456");
+        card.setOwner(user);
+        card.setExpirationDate(LocalDate.now().plusYears(2));
+        card.setBalance(balance);
+        return card;
+    }
+}
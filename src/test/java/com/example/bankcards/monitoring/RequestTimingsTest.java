@@ -0,0 +1,35 @@
+package com.example.bankcards.monitoring;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RequestTimingsTest {
+
+    @AfterEach
+    public void tearDown() {
+        RequestTimings.clear();
+    }
+
+    @Test
+    public void record_OutsideRequest_IsNoOp() {
+        RequestTimings.record(TimingCategory.DB, 1_000_000);
+
+        assertNull(RequestTimings.current());
+    }
+
+    @Test
+    public void toServerTimingHeader_ListsOnlyRecordedCategories() {
+        RequestTimings timings = RequestTimings.start();
+        RequestTimings.record(TimingCategory.DB, 1_500_000);
+        RequestTimings.record(TimingCategory.DB, 500_000);
+        RequestTimings.record(TimingCategory.CRYPTO, 250_000);
+
+        String header = timings.toServerTimingHeader();
+
+        assertTrue(header.startsWith("db;dur=2.00;desc=\"2\", crypto;dur=0.25;desc=\"1\", total;dur="), header);
+        assertFalse(header.contains("jwt"));
+        assertEquals(2, timings.getCount(TimingCategory.DB));
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.bankcards.monitoring;
+
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+import io.micrometer.tracing.otel.bridge.OtelCurrentTraceContext;
+import io.micrometer.tracing.otel.bridge.OtelTracer;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import io.opentelemetry.sdk.trace.samplers.Sampler;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.Signature;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class TimingSpansTest {
+
+    private final List<SpanData> exported = new ArrayList<>();
+    private SdkTracerProvider tracerProvider;
+
+    @AfterEach
+    public void tearDown() {
+        RequestTimings.clear();
+        if (tracerProvider != null) {
+            tracerProvider.close();
+        }
+    }
+
+    @Test
+    public void aspect_SampledTrace_OpensChildSpanPerCall() throws Throwable {
+        Tracer tracer = tracer(Sampler.alwaysOn());
+        RequestTimingAspect aspect = new RequestTimingAspect(provider(tracer));
+
+        Span parent = tracer.nextSpan().name("http").start();
+        try (Tracer.SpanInScope ignored = tracer.withSpan(parent)) {
+            RequestTimings.start();
+            assertEquals("token", aspect.timeJwt(joinPoint("generateToken")));
+        } finally {
+            parent.end();
+        }
+
+        SpanData child = exported.get(0);
+        assertEquals("jwt generateToken", child.getName());
+        assertEquals(parent.context().spanId(), child.getParentSpanId());
+        assertEquals("jwt", child.getAttributes().get(AttributeKey.stringKey(TimingSpans.CATEGORY_TAG)));
+        assertEquals(1, RequestTimings.current().getCount(TimingCategory.JWT));
+    }
+
+    @Test
+    public void aspect_UnsampledTrace_OnlyRecordsTiming() throws Throwable {
+        Tracer tracer = tracer(Sampler.alwaysOff());
+        RequestTimingAspect aspect = new RequestTimingAspect(provider(tracer));
+
+        Span parent = tracer.nextSpan().name("http").start();
+        try (Tracer.SpanInScope ignored = tracer.withSpan(parent)) {
+            RequestTimings.start();
+            aspect.timeCrypto(joinPoint("mask"));
+        } finally {
+            parent.end();
+        }
+
+        assertTrue(exported.isEmpty());
+        assertEquals(1, RequestTimings.current().getCount(TimingCategory.CRYPTO));
+    }
+
+    @Test
+    public void start_WithoutTracer_ReturnsNull() {
+        assertNull(TimingSpans.start(provider(null), TimingCategory.DB, "prepared"));
+    }
+
+    private Tracer tracer(Sampler sampler) {
+        tracerProvider = SdkTracerProvider.builder()
+            .setSampler(sampler)
+            .addSpanProcessor(SimpleSpanProcessor.create(new SpanExporter() {
+                @Override
+                public CompletableResultCode export(Collection<SpanData> spans) {
+                    exported.addAll(spans);
+                    return CompletableResultCode.ofSuccess();
+                }
+
+                @Override
+                public CompletableResultCode flush() {
+                    return CompletableResultCode.ofSuccess();
+                }
+
+                @Override
+                public CompletableResultCode shutdown() {
+                    return CompletableResultCode.ofSuccess();
+                }
+            }))
+            .build();
+        return new OtelTracer(tracerProvider.get("test"), new OtelCurrentTraceContext(), event -> { });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ObjectProvider<Tracer> provider(Tracer tracer) {
+        ObjectProvider<Tracer> provider = mock(ObjectProvider.class);
+        when(provider.getIfAvailable()).thenReturn(tracer);
+        return provider;
+    }
+
+    private static ProceedingJoinPoint joinPoint(String method) throws Throwable {
+        Signature signature = mock(Signature.class);
+        when(signature.getName()).thenReturn(method);
+        ProceedingJoinPoint joinPoint = mock(ProceedingJoinPoint.class);
+        when(joinPoint.getSignature()).thenReturn(signature);
+        when(joinPoint.proceed()).thenReturn("token");
+        return joinPoint;
+    }
+}
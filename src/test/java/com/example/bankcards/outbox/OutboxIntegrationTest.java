@@ -0,0 +1,247 @@
+package com.example.bankcards.outbox;
+
+import com.example.bankcards.config.OutboxProperties;
+import com.example.bankcards.dto.CardCreationDto;
+import com.example.bankcards.dto.TransferDto;
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.Role;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.RoleRepository;
+import com.example.bankcards.repository.UserRepository;
+import com.example.bankcards.service.CardExpirationService;
+import com.example.bankcards.service.CardService;
+import com.example.bankcards.service.TransferService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs against the in-memory sink with the background relay disabled (see test {@code config/application.yml});
+ * the test drives its own relay instance batch by batch.
+ */
+@SpringBootTest
+public class OutboxIntegrationTest {
+
+    @Autowired
+    private TransferService transferService;
+
+    @Autowired
+    private CardService cardService;
+
+    @Autowired
+    private CardExpirationService cardExpirationService;
+
+    @Autowired
+    private CardRepository cardRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private InMemoryOutboxSink sink;
+
+    @Autowired
+    private OutboxProperties properties;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private OutboxRelay relay;
+    private User user;
+    private Card fromCard;
+    private Card toCard;
+
+    @BeforeEach
+    public void setUp() {
+        cardRepository.deleteAll();
+        userRepository.deleteAll();
+        jdbcTemplate.update("DELETE FROM outbox_events");
+        sink.clear();
+
+        Role role = roleRepository.findByName("USER").orElseThrow();
+        user = new User();
+        user.setUsername("outboxUser");
+        user.setPassword("encodedPassword");
+        user.setEmail("outbox@example.com");
+        user.setRoles(Set.of(role));
+        userRepository.save(user);
+        fromCard = cardRepository.save(newCard(user, BigDecimal.valueOf(1000)));
+        toCard = cardRepository.save(newCard(user, BigDecimal.ZERO));
+
+        relay = new OutboxRelay(jdbcTemplate, transactionManager, sink, properties, new SimpleMeterRegistry());
+        relay.ensurePartitions();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        cardRepository.deleteAll();
+        userRepository.deleteAll();
+        jdbcTemplate.update("DELETE FROM outbox_events");
+    }
+
+    @Test
+    @WithMockUser(username = "outboxUser", roles = {"USER"})
+    public void committedChanges_AreRelayedInOrderPerCardAndRemoved() throws Exception {
+        transferService.transfer(transfer(100));
+        transferService.transfer(transfer(200));
+        cardService.blockCard(fromCard.getId());
+
+        assertEquals(7, outboxSize());
+        drain();
+
+        assertEquals(0, outboxSize());
+        List<OutboxMessage> fromCardEvents = sink.getMessages().stream()
+            .filter(m -> m.aggregateType().equals("CARD") && m.aggregateId() == fromCard.getId())
+            .toList();
+        assertEquals(3, fromCardEvents.size());
+        assertEquals(0, new BigDecimal("900").compareTo(payload(fromCardEvents.get(0)).get("balance").decimalValue()));
+        assertEquals(0, new BigDecimal("700").compareTo(payload(fromCardEvents.get(1)).get("balance").decimalValue()));
+        assertEquals("BLOCKED", payload(fromCardEvents.get(2)).get("status").asText());
+        assertEquals(2, sink.getMessages().stream().filter(m -> m.eventType().equals("TRANSFER_COMPLETED")).count());
+    }
+
+    @Test
+    @WithMockUser(username = "outboxUser", roles = {"USER"})
+    public void rolledBackTransfer_WritesNoEvents() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+
+        assertThrows(IllegalStateException.class, () -> transactionTemplate.executeWithoutResult(status -> {
+            transferService.transfer(transfer(100));
+            throw new IllegalStateException("rollback");
+        }));
+
+        assertEquals(0, outboxSize());
+    }
+
+    @Test
+    @WithMockUser(username = "outboxUser", roles = {"USER"})
+    public void sinkFailure_KeepsBatchForRetry() {
+        transferService.transfer(transfer(100));
+        OutboxRelay failing = new OutboxRelay(jdbcTemplate, transactionManager, messages -> {
+            throw new IOException("broker unavailable");
+        }, properties, new SimpleMeterRegistry());
+
+        assertThrows(IllegalStateException.class, failing::relayBatch);
+        assertEquals(3, outboxSize());
+
+        drain();
+        assertEquals(0, outboxSize());
+        assertEquals(3, sink.getMessages().size());
+    }
+
+    @Test
+    @WithMockUser(username = "outboxAdmin", roles = {"ADMIN"})
+    public void bulkCreatedCards_EachWriteCardChanged() throws Exception {
+        List<CardCreationDto> creationDtos = List.of(creation(100), creation(200), creation(300));
+
+        assertEquals(3, cardService.createCards(creationDtos));
+
+        List<OutboxMessage> created = relayedCardEvents("CARD_CHANGED");
+        assertEquals(3, created.size());
+        for (OutboxMessage message : created) {
+            assertTrue(cardRepository.existsById(message.aggregateId()));
+            assertEquals(user.getId(), payload(message).get("ownerId").asLong());
+        }
+    }
+
+    @Test
+    @WithMockUser(username = "outboxAdmin", roles = {"ADMIN"})
+    public void deletedCard_WritesCardDeleted() throws Exception {
+        cardService.deleteCard(toCard.getId());
+
+        List<OutboxMessage> deleted = relayedCardEvents("CARD_DELETED");
+        assertEquals(1, deleted.size());
+        assertEquals(toCard.getId(), deleted.get(0).aggregateId());
+        assertEquals(user.getId(), payload(deleted.get(0)).get("ownerId").asLong());
+    }
+
+    @Test
+    public void batchExpiredCards_EachWriteCardChangedWithExpiredStatus() throws Exception {
+        jdbcTemplate.update("DELETE FROM scheduler_leases WHERE job_name = 'card-expiration'");
+        jdbcTemplate.update("UPDATE cards SET expiration_date = CURRENT_DATE - 1");
+
+        assertEquals(2, cardExpirationService.expireCards());
+
+        List<OutboxMessage> expired = relayedCardEvents("CARD_CHANGED");
+        assertEquals(Set.of(fromCard.getId(), toCard.getId()),
+            Set.copyOf(expired.stream().map(OutboxMessage::aggregateId).toList()));
+        for (OutboxMessage message : expired) {
+            assertEquals("EXPIRED", payload(message).get("status").asText());
+        }
+    }
+
+    private List<OutboxMessage> relayedCardEvents(String eventType) {
+        drain();
+        return sink.getMessages().stream()
+            .filter(m -> m.aggregateType().equals("CARD") && m.eventType().equals(eventType))
+            .toList();
+    }
+
+    private CardCreationDto creation(long balance) {
+        CardCreationDto creationDto = new CardCreationDto();
+        creationDto.setNumber("4000123412341234");
+        creationDto.setOwnerId(user.getId());
+        creationDto.setExpirationDate(LocalDate.now().plusYears(3));
+        creationDto.setBalance(BigDecimal.valueOf(balance));
+        return creationDto;
+    }
+
+    private void drain() {
+        while (relay.relayBatch() > 0) {
+            // пока есть непустые партиции
+        }
+    }
+
+    private JsonNode payload(OutboxMessage message) throws JsonProcessingException {
+        return objectMapper.readTree(message.payload());
+    }
+
+    private int outboxSize() {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM outbox_events", Integer.class);
+    }
+
+    private TransferDto transfer(long amount) {
+        TransferDto dto = new TransferDto();
+        dto.setFromCardId(fromCard.getId());
+        dto.setToCardId(toCard.getId());
+        dto.setAmount(BigDecimal.valueOf(amount));
+        return dto;
+    }
+
+    private Card newCard(User owner, BigDecimal balance) {
+        Card card = new Card();
+        card.setNumber("1234567890123456");
+        card.setOwner(owner);
+        card.setExpirationDate(LocalDate.now().plusYears(2));
+        card.setBalance(balance);
+        return card;
+    }
+}
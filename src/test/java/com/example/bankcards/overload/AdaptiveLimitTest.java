@@ -0,0 +1,90 @@
+package com.example.bankcards.overload;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AdaptiveLimitTest {
+
+    private static final long MS = 1_000_000;
+
+    @Test
+    public void tryAcquire_AtLimit_Rejects() {
+        AdaptiveLimit limit = new AdaptiveLimit(2, 1, 10, 1.5, 0.2, 0.9);
+
+        assertTrue(limit.tryAcquire());
+        assertTrue(limit.tryAcquire());
+        assertFalse(limit.tryAcquire());
+
+        limit.release(10 * MS, false);
+        assertTrue(limit.tryAcquire());
+    }
+
+    @Test
+    public void release_StableLatencyUnderLoad_GrowsLimit() {
+        AdaptiveLimit limit = new AdaptiveLimit(10, 1, 100, 1.5, 0.2, 0.9);
+
+        for (int i = 0; i < 50; i++) {
+            fill(limit);
+            releaseAll(limit, 10 * MS, false);
+        }
+
+        assertTrue(limit.getLimit() > 10, "limit " + limit.getLimit());
+    }
+
+    @Test
+    public void release_LatencyRises_ShrinksLimit() {
+        AdaptiveLimit limit = new AdaptiveLimit(50, 1, 100, 1.5, 0.2, 0.9);
+        for (int i = 0; i < 20; i++) {
+            fill(limit);
+            releaseAll(limit, 10 * MS, false);
+        }
+        int before = limit.getLimit();
+
+        fill(limit);
+        for (int i = 0; i < 5; i++) {
+            limit.release(200 * MS, false);
+        }
+
+        assertTrue(limit.getLimit() < before, before + " -> " + limit.getLimit());
+    }
+
+    @Test
+    public void release_Congested_BacksOffMultiplicativelyDownToMinimum() {
+        AdaptiveLimit limit = new AdaptiveLimit(20, 3, 100, 1.5, 0.2, 0.5);
+
+        limit.tryAcquire();
+        limit.release(MS, true);
+        assertEquals(10, limit.getLimit());
+
+        for (int i = 0; i < 10; i++) {
+            limit.tryAcquire();
+            limit.release(MS, true);
+        }
+        assertEquals(3, limit.getLimit());
+    }
+
+    @Test
+    public void release_IdleTraffic_DoesNotGrowLimit() {
+        AdaptiveLimit limit = new AdaptiveLimit(20, 1, 100, 1.5, 0.2, 0.9);
+
+        for (int i = 0; i < 100; i++) {
+            limit.tryAcquire();
+            limit.release(10 * MS, false);
+        }
+
+        assertEquals(20, limit.getLimit());
+    }
+
+    private static void fill(AdaptiveLimit limit) {
+        while (limit.tryAcquire()) {
+            // заполняем до лимита
+        }
+    }
+
+    private static void releaseAll(AdaptiveLimit limit, long rttNanos, boolean congested) {
+        while (limit.getInFlight() > 0) {
+            limit.release(rttNanos, congested);
+        }
+    }
+}
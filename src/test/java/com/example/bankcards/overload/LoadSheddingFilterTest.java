@@ -0,0 +1,110 @@
+package com.example.bankcards.overload;
+
+import com.example.bankcards.config.DbPartition;
+import com.example.bankcards.config.LoadSheddingProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LoadSheddingFilterTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final LoadSheddingProperties properties = new LoadSheddingProperties();
+
+    @Test
+    public void classify_MapsPathsToEndpointClasses() {
+        assertEquals(EndpointClass.TRANSFER, EndpointClass.of(new MockHttpServletRequest("POST", "/api/transfers")));
+        assertEquals(EndpointClass.AUTH, EndpointClass.of(new MockHttpServletRequest("POST", "/api/auth/login")));
+        assertEquals(EndpointClass.LISTING, EndpointClass.of(new MockHttpServletRequest("GET", "/api/cards")));
+        assertEquals(EndpointClass.OTHER, EndpointClass.of(new MockHttpServletRequest("POST", "/api/cards")));
+        assertEquals(EndpointClass.DOCS, EndpointClass.of(new MockHttpServletRequest("GET", "/swagger-ui/index.html")));
+    }
+
+    @Test
+    public void doFilter_PoolHasWaiters_ShedsListingButNotTransfers() throws Exception {
+        properties.limitFor(EndpointClass.LISTING).setShedWhenPending(2);
+        properties.limitFor(EndpointClass.LISTING).setRetryAfter(Duration.ofMillis(1500));
+        LoadSheddingFilter filter = filter();
+        pending.set(3);
+
+        MockHttpServletResponse listing = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/cards"), listing, new MockFilterChain());
+        MockHttpServletResponse transfer = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("POST", "/api/transfers"), transfer, new MockFilterChain());
+
+        assertEquals(503, listing.getStatus());
+        assertEquals("2", listing.getHeader("Retry-After"));
+        assertEquals(200, transfer.getStatus());
+        assertEquals(1.0, meterRegistry.get("bank.load_shedding.rejected").tag("class", "listing").tag("reason", "pool").counter().count());
+    }
+
+    @Test
+    public void doFilter_ReadPoolHasWaiters_DoesNotShedTransfers() throws Exception {
+        properties.limitFor(EndpointClass.LISTING).setShedWhenPending(2);
+        properties.limitFor(EndpointClass.TRANSFER).setShedWhenPending(2);
+        AtomicInteger readPending = new AtomicInteger(5);
+        AtomicInteger transferPending = new AtomicInteger();
+        Gauge.builder("hikaricp.connections.pending", readPending, AtomicInteger::get)
+            .tag("pool", DbPartition.READ.poolName()).register(meterRegistry);
+        Gauge.builder("hikaricp.connections.pending", transferPending, AtomicInteger::get)
+            .tag("pool", DbPartition.TRANSFER.poolName()).register(meterRegistry);
+        LoadSheddingFilter filter = filter();
+
+        MockHttpServletResponse listing = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/cards"), listing, new MockFilterChain());
+        MockHttpServletResponse transfer = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("POST", "/api/transfers"), transfer, new MockFilterChain());
+
+        assertEquals(503, listing.getStatus());
+        assertEquals(200, transfer.getStatus());
+        assertEquals(0, filter.pendingConnections(EndpointClass.TRANSFER));
+        // Документация уступает любому пулу с очередью
+        assertEquals(5, filter.pendingConnections(EndpointClass.DOCS));
+    }
+
+    @Test
+    public void doFilter_ConcurrencyLimitReached_Rejects() throws Exception {
+        properties.limitFor(EndpointClass.TRANSFER).setInitialLimit(1);
+        properties.limitFor(EndpointClass.TRANSFER).setMinLimit(1);
+        LoadSheddingFilter filter = filter();
+        MockHttpServletResponse nested = new MockHttpServletResponse();
+        FilterChain chain = (request, response) ->
+            filter.doFilter(new MockHttpServletRequest("POST", "/api/transfers"), nested, new MockFilterChain());
+
+        MockHttpServletResponse outer = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("POST", "/api/transfers"), outer, chain);
+
+        assertEquals(200, outer.getStatus());
+        assertEquals(503, nested.getStatus());
+        assertEquals("1", nested.getHeader("Retry-After"));
+    }
+
+    @Test
+    public void doFilter_Actuator_NeverShed() throws Exception {
+        properties.limitFor(EndpointClass.OTHER).setShedWhenPending(1);
+        LoadSheddingFilter filter = filter();
+        pending.set(10);
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/actuator/health"), response, new MockFilterChain());
+
+        assertEquals(200, response.getStatus());
+    }
+
+    private LoadSheddingFilter filter() {
+        properties.setPendingSampleInterval(Duration.ZERO);
+        Gauge.builder("hikaricp.connections.pending", pending, AtomicInteger::get).tag("pool", "test").register(meterRegistry);
+        return new LoadSheddingFilter(properties, meterRegistry);
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.bankcards.scheduling;
+
+import com.example.bankcards.dto.JobRunDto;
+import com.example.bankcards.service.CardExpirationService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+public class ClusterJobIntegrationTest {
+
+    @Autowired
+    private CardExpirationService cardExpirationService;
+
+    @Autowired
+    private JobLeases leases;
+
+    @Autowired
+    private JobRunHistory history;
+
+    @Autowired
+    private ClusterJobAspect aspect;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    public void setUp() {
+        clean();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        clean();
+    }
+
+    @Test
+    public void leader_RunsJobAndRecordsHistory() {
+        cardExpirationService.expireCards();
+
+        assertTrue(leases.isHeld("card-expiration"));
+        assertEquals(leases.getNodeId(), history.leases().get(0).getOwner());
+        List<JobRunDto> runs = history.recent("card-expiration", 10);
+        assertEquals(1, runs.size());
+        assertEquals("SUCCEEDED", runs.get(0).getStatus());
+        assertEquals(0L, runs.get(0).getRowCount());
+        assertNotNull(runs.get(0).getDurationMs());
+    }
+
+    @Test
+    public void anotherNodeHoldsLease_SkipsTick() {
+        lease("card-expiration", "other-node", "now() + interval '1 hour'");
+
+        assertEquals(0, cardExpirationService.expireCards());
+
+        assertFalse(leases.isHeld("card-expiration"));
+        assertTrue(history.recent("card-expiration", 10).isEmpty());
+    }
+
+    @Test
+    public void expiredLeaseOfAnotherNode_IsTakenOver() {
+        lease("card-expiration", "dead-node", "now() - interval '1 second'");
+
+        cardExpirationService.expireCards();
+
+        assertEquals(leases.getNodeId(), history.leases().get(0).getOwner());
+        assertEquals(1, history.recent("card-expiration", 10).size());
+    }
+
+    @Test
+    public void leaseTakenOver_IsDroppedOnRenewal() {
+        cardExpirationService.expireCards();
+        jdbcTemplate.update("UPDATE scheduler_leases SET owner = 'other-node' WHERE job_name = 'card-expiration'");
+
+        leases.renewAll();
+
+        assertFalse(leases.isHeld("card-expiration"));
+    }
+
+    @Test
+    public void failingJob_RecordsFailureAndRethrows() {
+        AspectJProxyFactory factory = new AspectJProxyFactory(new FailingJob());
+        factory.setProxyTargetClass(true);
+        factory.addAspect(aspect);
+        FailingJob job = factory.getProxy();
+
+        assertThrows(IllegalStateException.class, job::run);
+
+        JobRunDto run = history.recent("failing-job", 1).get(0);
+        assertEquals("FAILED", run.getStatus());
+        assertEquals("IllegalStateException: boom", run.getError());
+        assertNull(run.getRowCount());
+    }
+
+    private void lease(String job, String owner, String leaseUntil) {
+        jdbcTemplate.update("INSERT INTO scheduler_leases (job_name, owner, acquired_at, lease_until) "
+            + "VALUES (?, ?, now(), " + leaseUntil + ")", job, owner);
+    }
+
+    private void clean() {
+        jdbcTemplate.update("DELETE FROM scheduler_leases");
+        jdbcTemplate.update("DELETE FROM scheduler_job_runs");
+        leases.renewAll();
+    }
+
+    public static class FailingJob {
+        @ClusterJob("failing-job")
+        public int run() {
+            throw new IllegalStateException("boom");
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.bankcards.screening;
+
+import com.example.bankcards.dto.SplitTransferDto;
+import com.example.bankcards.dto.SplitTransferResultDto;
+import com.example.bankcards.dto.TransferDto;
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.Role;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.exception.LimitExceededException;
+import com.example.bankcards.exception.TransferRejectedException;
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.RoleRepository;
+import com.example.bankcards.repository.UserRepository;
+import com.example.bankcards.service.TransferService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Отдельный контекст: в остальных тестах скрининг выключен
+@SpringBootTest(properties = "transfers.screening.enabled=true")
+@WithMockUser(username = "screeningUser", roles = {"USER"})
+public class TransferScreeningIntegrationTest {
+
+    @Autowired
+    private TransferService transferService;
+
+    @Autowired
+    private CardRepository cardRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    private User user;
+
+    @BeforeEach
+    public void setUp() {
+        cardRepository.deleteAll();
+        userRepository.deleteAll();
+
+        Role role = roleRepository.findByName("USER").orElseThrow();
+        user = new User();
+        user.setUsername("screeningUser");
+        user.setPassword("encodedPassword");
+        user.setEmail("screening@example.com");
+        user.setRoles(Set.of(role));
+        userRepository.save(user);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        cardRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    public void transferRolledBackAfterScreening_DoesNotCountAsDrained() {
+        Card limited = newCard(BigDecimal.valueOf(5000));
+        limited.setDailyLimit(BigDecimal.valueOf(3600));
+        Card fromCard = cardRepository.save(limited);
+        Card toCard = cardRepository.save(newCard(BigDecimal.ZERO));
+
+        // Скрининг пропускает 80% баланса, но перевод упирается в дневной лимит и откатывается
+        assertThrows(LimitExceededException.class, () -> transfer(fromCard, toCard, 4000));
+
+        // Если бы откаченные 4000 остались в окне, 7500 из 9000 превысили бы 80%
+        transfer(fromCard, toCard, 3500);
+        assertEquals(0, BigDecimal.valueOf(1500).compareTo(balance(fromCard)));
+    }
+
+    @Test
+    public void splitTransfer_ScreenedAsOneTransferFromAllSources() {
+        for (int i = 0; i < 7; i++) {
+            cardRepository.save(newCard(BigDecimal.valueOf(1000)));
+        }
+        Card toCard = cardRepository.save(newCard(BigDecimal.ZERO));
+
+        // Шесть частей, пять карт отдают всё: по отдельности это шесть попыток и пять опустошений,
+        // вместе - одна попытка на 5500 из 7000 доступных
+        SplitTransferResultDto result = transferService.splitTransfer(split(toCard, 5500));
+
+        assertEquals(6, result.getLegs().size());
+        assertEquals(0, BigDecimal.valueOf(5500).compareTo(balance(toCard)));
+        // Средства остались на двух картах, с одной из них уже списано 500: вместе 500 + 1300 из 2000
+        assertThrows(TransferRejectedException.class, () -> transferService.splitTransfer(split(toCard, 1300)));
+        assertEquals(0, BigDecimal.valueOf(5500).compareTo(balance(toCard)));
+    }
+
+    private static SplitTransferDto split(Card toCard, long amount) {
+        SplitTransferDto splitDto = new SplitTransferDto();
+        splitDto.setToCardId(toCard.getId());
+        splitDto.setAmount(BigDecimal.valueOf(amount));
+        splitDto.setStrategy("largest_first");
+        return splitDto;
+    }
+
+    private void transfer(Card fromCard, Card toCard, long amount) {
+        TransferDto transferDto = new TransferDto();
+        transferDto.setFromCardId(fromCard.getId());
+        transferDto.setToCardId(toCard.getId());
+        transferDto.setAmount(BigDecimal.valueOf(amount));
+        transferService.transfer(transferDto);
+    }
+
+    private BigDecimal balance(Card card) {
+        return cardRepository.findById(card.getId()).orElseThrow().getBalance();
+    }
+
+    private Card newCard(BigDecimal balance) {
+        Card card = new Card();
+        card.setNumber("1234567890123456");
+        card.setOwner(user);
+        card.setExpirationDate(LocalDate.now().plusYears(2));
+        card.setBalance(balance);
+        return card;
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.bankcards.screening;
+
+import com.example.bankcards.config.ScreeningProperties;
+import com.example.bankcards.exception.TransferDelayedException;
+import com.example.bankcards.exception.TransferRejectedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TransferScreeningTest {
+
+    private static final long START = 1_700_000_000_000L;
+
+    private ScreeningProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    public void setUp() {
+        properties = new ScreeningProperties();
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    public void velocity_DelaysThenRejectsFrequentTransfers() {
+        TransferScreening screening = screening(new VelocityRule(properties));
+
+        for (int i = 0; i < 5; i++) {
+            screening.screen(attempt(1L, 2L, 10, 1000, START + i * 1000));
+        }
+        TransferDelayedException delayed = assertThrows(TransferDelayedException.class,
+            () -> screening.screen(attempt(1L, 2L, 10, 1000, START + 10_000)));
+        // Самая старая попытка выходит из минутного окна через 50 секунд
+        assertEquals(Duration.ofSeconds(50), delayed.getRetryAfter());
+        for (int i = 0; i < 4; i++) {
+            long at = START + 11_000 + i;
+            assertThrows(TransferDelayedException.class, () -> screening.screen(attempt(1L, 2L, 10, 1000, at)));
+        }
+        assertThrows(TransferRejectedException.class, () -> screening.screen(attempt(1L, 2L, 10, 1000, START + 20_000)));
+
+        // Через минуту после последней попытки окно пустое
+        screening.screen(attempt(1L, 2L, 10, 1000, START + 81_000));
+        assertEquals(1, meterRegistry.get("bank.screening.decisions").tag("rule", "velocity").tag("decision", "reject")
+            .counter().count());
+    }
+
+    @Test
+    public void drain_RejectsTransfersTakingMostOfBalanceWithinWindow() {
+        TransferScreening screening = screening(new DrainRule(properties));
+
+        screening.screen(attempt(1L, 2L, 5000, 10_000, START));
+        assertThrows(TransferRejectedException.class, () -> screening.screen(attempt(1L, 2L, 3500, 5000, START + 1000)));
+        screening.screen(attempt(1L, 2L, 2500, 5000, START + 2000));
+
+        // Небольшие суммы не проверяются, даже если это почти весь баланс
+        screening.screen(attempt(3L, 2L, 450, 500, START));
+        // После окна считается только новый перевод
+        screening.screen(attempt(1L, 2L, 2000, 2500, START + Duration.ofMinutes(11).toMillis()));
+    }
+
+    @Test
+    public void pingPong_DelaysTransfersBackAndForth() {
+        TransferScreening screening = screening(new PingPongRule(properties));
+
+        screening.screen(attempt(1L, 2L, 10, 1000, START));
+        screening.screen(attempt(2L, 1L, 10, 1000, START + 1000));
+        screening.screen(attempt(1L, 2L, 10, 1000, START + 2000));
+        screening.screen(attempt(2L, 1L, 10, 1000, START + 3000));
+        // В одну сторону подряд - не разворот
+        screening.screen(attempt(2L, 1L, 10, 1000, START + 4000));
+
+        TransferDelayedException delayed = assertThrows(TransferDelayedException.class,
+            () -> screening.screen(attempt(1L, 2L, 10, 1000, START + 5000)));
+        assertEquals(Duration.ofMinutes(10).minusSeconds(5), delayed.getRetryAfter());
+        // Другая пара карт не затронута
+        screening.screen(attempt(1L, 3L, 10, 1000, START + 5000));
+    }
+
+    @Test
+    public void mostSevereDecisionWins_AndEveryRuleIsTimed() {
+        properties.getVelocity().setDelayAbove(0);
+        TransferScreening screening = screening(new VelocityRule(properties), new DrainRule(properties),
+            new PingPongRule(properties));
+
+        assertThrows(TransferRejectedException.class, () -> screening.screen(attempt(1L, 2L, 5000, 5000, START)));
+
+        for (String rule : List.of("velocity", "drain", "ping_pong")) {
+            assertEquals(1, meterRegistry.get("bank.screening.rule").tag("rule", rule).timer().count());
+        }
+        assertEquals(1, meterRegistry.get("bank.screening.decisions").tag("rule", "drain").tag("decision", "reject")
+            .counter().count());
+    }
+
+    @Test
+    public void disabledRule_IsSkipped() {
+        properties.getDrain().setEnabled(false);
+        TransferScreening screening = screening(new DrainRule(properties));
+
+        screening.screen(attempt(1L, 2L, 5000, 5000, START));
+
+        assertNull(meterRegistry.find("bank.screening.rule").timer());
+    }
+
+    @Test
+    public void slidingWindows_StayWithinMaxKeys() {
+        SlidingWindows<Long> windows = new SlidingWindows<>(4, 60_000, 100);
+
+        for (long key = 0; key < 1000; key++) {
+            windows.add(key, START + key, 1);
+        }
+        for (int i = 0; i < 10; i++) {
+            windows.add(0L, START + 2000 + i, 1);
+        }
+
+        assertTrue(windows.size() <= 100);
+        long[] events = {0};
+        windows.forEach(0L, START + 3000, (at, value) -> events[0]++);
+        // Буфер ключа хранит только последние 4 события
+        assertEquals(4, events[0]);
+    }
+
+    private TransferScreening screening(ScreeningRule... rules) {
+        return new TransferScreening(List.of(rules), properties, meterRegistry);
+    }
+
+    private static TransferAttempt attempt(Long fromCardId, Long toCardId, long amount, long balance, long at) {
+        return new TransferAttempt(1L, fromCardId, toCardId, BigDecimal.valueOf(amount), BigDecimal.valueOf(balance), at);
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.bankcards.security;
+
+import com.example.bankcards.entity.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JwtServiceTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private JwtService jwtService;
+    private User user;
+
+    @BeforeEach
+    public void setUp() {
+        jwtService = new JwtService(meterRegistry);
+        ReflectionTestUtils.setField(jwtService, "secretKey", "yourverylongandsecurejwtsecretkeyatleast256bitslonghere");
+        ReflectionTestUtils.setField(jwtService, "jwtExpiration", 3_600_000L);
+        user = new User();
+        user.setUsername("jwtUser");
+    }
+
+    @Test
+    public void generateToken_WithoutExtraClaims_RecordsGenerateToken() {
+        jwtService.generateToken(user);
+
+        assertEquals(1, count("generateToken"));
+    }
+
+    @Test
+    public void isTokenValid_RecordsValidationAndNestedUsernameExtraction() {
+        String token = jwtService.generateToken(user);
+
+        assertTrue(jwtService.isTokenValid(token, user));
+
+        assertEquals(1, count("isTokenValid"));
+        assertEquals(1, count("extractUsername"));
+    }
+
+    private long count(String operation) {
+        return meterRegistry.get("bank.jwt").tag("operation", operation).timer().count();
+    }
+}
@@ -1,5 +1,7 @@
 package com.example.bankcards.service;
 
+import com.example.bankcards.cache.LocalCacheManager;
+import com.example.bankcards.config.LocalCacheProperties;
 import com.example.bankcards.dto.UserLoginDto;
 import com.example.bankcards.dto.UserRegistrationDto;
 import com.example.bankcards.entity.Role;
@@ -7,11 +9,13 @@ import com.example.bankcards.entity.User;
 import com.example.bankcards.repository.RoleRepository;
 import com.example.bankcards.repository.UserRepository;
 import com.example.bankcards.security.JwtService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -43,6 +47,9 @@ public class AuthServiceTest {
     @Mock
     private AuthenticationManager authenticationManager;
 
+    @Spy
+    private LocalCacheManager cacheManager = new LocalCacheManager(new LocalCacheProperties(), new SimpleMeterRegistry());
+
     @InjectMocks
     private AuthService authService;
 
@@ -0,0 +1,126 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.dto.BulkImportResultDto;
+import com.example.bankcards.dto.CardCreationDto;
+import com.example.bankcards.exception.BulkImportException;
+import com.example.bankcards.exception.ResourceNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class BulkImportServiceTest {
+
+    @Mock
+    private UserService userService;
+
+    @Mock
+    private CardService cardService;
+
+    @InjectMocks
+    private BulkImportService bulkImportService;
+
+    @BeforeEach
+    public void setUp() {
+        ReflectionTestUtils.setField(bulkImportService, "chunkSize", 2);
+    }
+
+    @Test
+    public void importCards_SplitsIntoChunks() {
+        List<CardCreationDto> dtos = IntStream.range(0, 5).mapToObj(i -> new CardCreationDto()).toList();
+        when(cardService.createCards(anyList())).thenAnswer(invocation -> ((List<?>) invocation.getArgument(0)).size());
+
+        BulkImportResultDto result = bulkImportService.importCards(dtos);
+
+        assertEquals(5, result.getImported());
+        verify(cardService, times(3)).createCards(anyList());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void importCardsCsv_ParsesRowsAndSkipsHeader() {
+        List<CardCreationDto> imported = new ArrayList<>();
+        when(cardService.createCards(anyList())).thenAnswer(invocation -> {
+            List<CardCreationDto> chunk = invocation.getArgument(0);
+            imported.addAll(chunk);
+            return chunk.size();
+        });
+        String csv = """
+            number,ownerId,expirationDate,balance
+            1234567890123456,1,2030-01-31,100.00
+            6543210987654321,2,2031-12-31,0
+            """;
+
+        BulkImportResultDto result = bulkImportService.importCardsCsv(new BufferedReader(new StringReader(csv)));
+
+        assertEquals(2, result.getImported());
+        assertEquals("1234567890123456", imported.get(0).getNumber());
+        assertEquals(2L, imported.get(1).getOwnerId());
+        assertEquals(LocalDate.of(2031, 12, 31), imported.get(1).getExpirationDate());
+        assertEquals(new BigDecimal("100.00"), imported.get(0).getBalance());
+    }
+
+    @Test
+    public void importUsersCsv_MalformedRow_ThrowsException() {
+        String csv = """
+            username,password,email,roles
+            broken,row
+            """;
+
+        assertThrows(IllegalArgumentException.class,
+            () -> bulkImportService.importUsersCsv(new BufferedReader(new StringReader(csv))));
+        verifyNoInteractions(userService);
+    }
+
+    @Test
+    public void importCards_ChunkFails_ReportsCommittedRowsAndResumeIndex() {
+        List<CardCreationDto> dtos = IntStream.range(0, 5).mapToObj(i -> new CardCreationDto()).toList();
+        when(cardService.createCards(anyList()))
+            .thenReturn(2)
+            .thenThrow(new ResourceNotFoundException("User not found"));
+
+        BulkImportException e = assertThrows(BulkImportException.class, () -> bulkImportService.importCards(dtos));
+
+        assertEquals(2, e.getCommitted());
+        assertEquals(2, e.getResumeFrom());
+        assertTrue(e.getMessage().contains("User not found"));
+        verify(cardService, times(2)).createCards(anyList());
+    }
+
+    @Test
+    public void importCardsCsv_MalformedRowAfterCommittedChunk_ResumesFromFirstUncommittedLine() {
+        when(cardService.createCards(anyList())).thenAnswer(invocation -> ((List<?>) invocation.getArgument(0)).size());
+        String csv = """
+            number,ownerId,expirationDate,balance
+            1234567890123456,1,2030-01-31,100.00
+            6543210987654321,2,2031-12-31,0
+
+            1111222233334444,1,2030-01-31,5
+            2222333344445555,not-a-number,2030-01-31,5
+            """;
+
+        BulkImportException e = assertThrows(BulkImportException.class,
+            () -> bulkImportService.importCardsCsv(new BufferedReader(new StringReader(csv))));
+
+        assertEquals("Invalid CSV row at line 6", e.getMessage());
+        assertEquals(2, e.getCommitted());
+        assertEquals(5, e.getResumeFrom());
+        verify(cardService, times(1)).createCards(anyList());
+    }
+}
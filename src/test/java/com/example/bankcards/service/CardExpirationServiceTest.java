@@ -0,0 +1,85 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.stream.CardChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class CardExpirationServiceTest {
+
+    @Mock
+    private CardRepository cardRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private CardExpirationService cardExpirationService;
+
+    @BeforeEach
+    public void setUp() {
+        cardExpirationService = new CardExpirationService(cardRepository, eventPublisher, transactionManager);
+        ReflectionTestUtils.setField(cardExpirationService, "batchSize", 100);
+    }
+
+    @Test
+    public void expireCards_RunsChunksUntilPartialBatch_ReturnsTotal() {
+        when(cardRepository.expireOverdueCards(100)).thenReturn(ids(1, 100), ids(101, 200), ids(201, 242));
+        when(cardRepository.findAllById(anyIterable())).thenAnswer(invocation -> {
+            Iterable<Long> requested = invocation.getArgument(0);
+            List<Card> cards = new ArrayList<>();
+            requested.forEach(id -> cards.add(card(id)));
+            return cards;
+        });
+
+        int expired = cardExpirationService.expireCards();
+
+        assertEquals(242, expired);
+        verify(cardRepository, times(3)).expireOverdueCards(100);
+        verify(eventPublisher, times(242)).publishEvent(any(CardChangedEvent.class));
+        verify(transactionManager, times(3)).commit(any());
+    }
+
+    @Test
+    public void expireCards_NothingToExpire_ReturnsZero() {
+        when(cardRepository.expireOverdueCards(100)).thenReturn(List.of());
+
+        int expired = cardExpirationService.expireCards();
+
+        assertEquals(0, expired);
+        verify(cardRepository, times(1)).expireOverdueCards(100);
+        verifyNoInteractions(eventPublisher);
+    }
+
+    private static List<Long> ids(long from, long to) {
+        return LongStream.rangeClosed(from, to).boxed().toList();
+    }
+
+    private static Card card(Long id) {
+        User owner = new User();
+        owner.setId(1L);
+        Card card = new Card();
+        card.setId(id);
+        card.setOwner(owner);
+        return card;
+    }
+}
@@ -9,6 +9,7 @@ import com.example.bankcards.entity.User;
 import com.example.bankcards.exception.ResourceNotFoundException;
 import com.example.bankcards.repository.CardRepository;
 import com.example.bankcards.repository.UserRepository;
+import com.example.bankcards.stream.CardChangedEvent;
 import com.example.bankcards.util.CardUtil;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -16,6 +17,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
@@ -30,9 +32,12 @@ import java.time.LocalDate;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -47,6 +52,9 @@ public class CardServiceTest {
     @Mock
     private CardUtil cardUtil;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @Mock
     private SecurityContext securityContext;
 
@@ -155,13 +163,15 @@ public class CardServiceTest {
         when(securityContext.getAuthentication()).thenReturn(authentication);
         when(authentication.getName()).thenReturn("testUser");
         when(userRepository.findByUsername("testUser")).thenReturn(Optional.of(user));
-        when(cardRepository.findById(1L)).thenReturn(Optional.of(card));
+        when(cardRepository.findAndLockByIdIn(List.of(1L))).thenReturn(List.of(card));
         when(cardRepository.save(any(Card.class))).thenReturn(card);
 
         cardService.blockCard(1L);
 
         assertEquals(CardStatus.BLOCKED, card.getStatus());
         verify(cardRepository).save(card);
+        verify(eventPublisher).publishEvent(argThat((CardChangedEvent event) -> event.cardId().equals(1L)
+            && event.status() == CardStatus.BLOCKED));
     }
     @Test
     public void createCard_Success_ReturnsCardDto() {
@@ -192,6 +202,41 @@ public class CardServiceTest {
         verify(cardRepository).save(any(Card.class));
     }
 
+    @Test
+    public void createCards_Success_EncryptsAndSavesAll() {
+        CardCreationDto first = new CardCreationDto();
+        first.setNumber("1111222233334444");
+        first.setOwnerId(1L);
+        first.setExpirationDate(LocalDate.now().plusYears(3));
+        CardCreationDto second = new CardCreationDto();
+        second.setNumber("5555666677778888");
+        second.setOwnerId(1L);
+        second.setExpirationDate(LocalDate.now().plusYears(3));
+
+        when(userRepository.findExistingIds(Set.of(1L))).thenReturn(Set.of(1L));
+        when(userRepository.getReferenceById(1L)).thenReturn(user);
+        when(cardUtil.encrypt(anyString())).thenAnswer(invocation -> "enc-" + invocation.getArgument(0));
+
+        int created = cardService.createCards(List.of(first, second));
+
+        assertEquals(2, created);
+        verify(cardRepository).saveAll(argThat((List<Card> cards) -> cards.size() == 2
+            && cards.get(0).getNumber().equals("enc-1111222233334444")
+            && cards.get(1).getNumber().equals("enc-5555666677778888")));
+    }
+
+    @Test
+    public void createCards_UnknownOwner_ThrowsException() {
+        CardCreationDto dto = new CardCreationDto();
+        dto.setNumber("1111222233334444");
+        dto.setOwnerId(2L);
+
+        when(userRepository.findExistingIds(Set.of(2L))).thenReturn(Set.of());
+
+        assertThrows(ResourceNotFoundException.class, () -> cardService.createCards(List.of(dto)));
+        verify(cardRepository, never()).saveAll(any());
+    }
+
     @Test
     public void getCardById_CardNotFound_ThrowsException() {
         when(cardRepository.findById(1L)).thenReturn(Optional.empty());
@@ -206,7 +251,7 @@ public class CardServiceTest {
         updateDto.setExpirationDate(LocalDate.now().plusYears(2));
         updateDto.setStatus("BLOCKED");
 
-        when(cardRepository.findById(1L)).thenReturn(Optional.of(card));
+        when(cardRepository.findAndLockByIdIn(List.of(1L))).thenReturn(List.of(card));
         when(cardRepository.save(any(Card.class))).thenReturn(card);
         when(cardUtil.mask("encryptedNumber")).thenReturn("**** **** **** 3456");
 
@@ -229,12 +274,21 @@ public class CardServiceTest {
     @Test
     public void activateCard_Success() {
         card.setStatus(CardStatus.BLOCKED);
-        when(cardRepository.findById(1L)).thenReturn(Optional.of(card));
+        when(cardRepository.findAndLockByIdIn(List.of(1L))).thenReturn(List.of(card));
         when(cardRepository.save(any(Card.class))).thenReturn(card);
 
         cardService.activateCard(1L);
 
         assertEquals(CardStatus.ACTIVE, card.getStatus());
         verify(cardRepository).save(card);
+        verify(cardRepository, never()).findById(any());
+    }
+
+    @Test
+    public void activateCard_CardNotFound_ThrowsException() {
+        when(cardRepository.findAndLockByIdIn(List.of(1L))).thenReturn(List.of());
+
+        assertThrows(ResourceNotFoundException.class, () -> cardService.activateCard(1L));
+        verify(cardRepository, never()).save(any(Card.class));
     }
 }
\ No newline at end of file
@@ -0,0 +1,87 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.dto.CardOwnerStatsDto;
+import com.example.bankcards.dto.CardStatsDto;
+import com.example.bankcards.entity.CardExpiryStats;
+import com.example.bankcards.entity.CardOwnerStats;
+import com.example.bankcards.entity.CardStatus;
+import com.example.bankcards.entity.CardStatusStats;
+import com.example.bankcards.repository.CardExpiryStatsRepository;
+import com.example.bankcards.repository.CardOwnerStatsRepository;
+import com.example.bankcards.repository.CardStatusStatsRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class CardStatsServiceTest {
+
+    @Mock
+    private CardStatusStatsRepository cardStatusStatsRepository;
+
+    @Mock
+    private CardOwnerStatsRepository cardOwnerStatsRepository;
+
+    @Mock
+    private CardExpiryStatsRepository cardExpiryStatsRepository;
+
+    @InjectMocks
+    private CardStatsService cardStatsService;
+
+    @Test
+    public void getSummary_FillsMissingStatusesWithZeros() {
+        CardStatusStats active = new CardStatusStats();
+        ReflectionTestUtils.setField(active, "status", CardStatus.ACTIVE);
+        ReflectionTestUtils.setField(active, "cardCount", 5L);
+        ReflectionTestUtils.setField(active, "totalBalance", BigDecimal.valueOf(500));
+        CardExpiryStats expiry = new CardExpiryStats();
+        ReflectionTestUtils.setField(expiry, "cardCount", 2L);
+
+        when(cardStatusStatsRepository.findAll()).thenReturn(List.of(active));
+        when(cardExpiryStatsRepository.findById(LocalDate.now().withDayOfMonth(1))).thenReturn(Optional.of(expiry));
+
+        CardStatsDto result = cardStatsService.getSummary();
+
+        assertEquals(5L, result.getCountByStatus().get("ACTIVE"));
+        assertEquals(0L, result.getCountByStatus().get("BLOCKED"));
+        assertEquals(BigDecimal.valueOf(500), result.getBalanceByStatus().get("ACTIVE"));
+        assertEquals(BigDecimal.ZERO, result.getBalanceByStatus().get("EXPIRED"));
+        assertEquals(2L, result.getExpiringThisMonth());
+    }
+
+    @Test
+    public void getOwnerStats_NoCards_ReturnsZeros() {
+        when(cardOwnerStatsRepository.findById(7L)).thenReturn(Optional.empty());
+
+        CardOwnerStatsDto result = cardStatsService.getOwnerStats(7L);
+
+        assertEquals(7L, result.getOwnerId());
+        assertEquals(0L, result.getCardCount());
+        assertEquals(BigDecimal.ZERO, result.getTotalBalance());
+    }
+
+    @Test
+    public void getOwnerStats_ReturnsAggregates() {
+        CardOwnerStats stats = new CardOwnerStats();
+        ReflectionTestUtils.setField(stats, "ownerId", 1L);
+        ReflectionTestUtils.setField(stats, "cardCount", 3L);
+        ReflectionTestUtils.setField(stats, "totalBalance", BigDecimal.valueOf(1500));
+        when(cardOwnerStatsRepository.findById(1L)).thenReturn(Optional.of(stats));
+
+        CardOwnerStatsDto result = cardStatsService.getOwnerStats(1L);
+
+        assertEquals(3L, result.getCardCount());
+        assertEquals(BigDecimal.valueOf(1500), result.getTotalBalance());
+    }
+}
@@ -0,0 +1,207 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.dto.ScheduledTransferCreationDto;
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.Role;
+import com.example.bankcards.entity.ScheduledTransfer;
+import com.example.bankcards.entity.ScheduledTransferStatus;
+import com.example.bankcards.entity.TransferFrequency;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.RoleRepository;
+import com.example.bankcards.repository.ScheduledTransferRepository;
+import com.example.bankcards.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Drives {@link ScheduledTransferExecutor} directly; the background poll is disabled in tests
+ * and the job lease is cleared so that this context becomes the leader.
+ */
+@SpringBootTest
+public class ScheduledTransferIntegrationTest {
+
+    @Autowired
+    private ScheduledTransferExecutor executor;
+
+    @Autowired
+    private ScheduledTransferService scheduledTransferService;
+
+    @Autowired
+    private ScheduledTransferRepository scheduledTransferRepository;
+
+    @Autowired
+    private CardRepository cardRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User user;
+    private Card fromCard;
+    private Card toCard;
+
+    @BeforeEach
+    public void setUp() {
+        clean();
+        jdbcTemplate.update("DELETE FROM scheduler_leases WHERE job_name = 'scheduled-transfers'");
+
+        Role role = roleRepository.findByName("USER").orElseThrow();
+        user = new User();
+        user.setUsername("standingOrderUser");
+        user.setPassword("encodedPassword");
+        user.setEmail("standing@example.com");
+        user.setRoles(Set.of(role));
+        userRepository.save(user);
+        fromCard = cardRepository.save(newCard(BigDecimal.valueOf(1000)));
+        toCard = cardRepository.save(newCard(BigDecimal.ZERO));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        clean();
+    }
+
+    @Test
+    public void dueMonthlyPercentOrder_TransfersAndAdvances() {
+        OffsetDateTime startAt = OffsetDateTime.now().minusMinutes(1).truncatedTo(ChronoUnit.MICROS);
+        ScheduledTransfer order = scheduledTransferRepository.save(order(null, BigDecimal.TEN, TransferFrequency.MONTHLY, startAt));
+
+        assertEquals(1, executor.executeDue());
+
+        assertEquals(0, new BigDecimal("900").compareTo(balance(fromCard)));
+        assertEquals(0, new BigDecimal("100").compareTo(balance(toCard)));
+        ScheduledTransfer advanced = scheduledTransferRepository.findById(order.getId()).orElseThrow();
+        assertEquals(ScheduledTransferStatus.ACTIVE, advanced.getStatus());
+        assertEquals(1, advanced.getOccurrences());
+        assertTrue(startAt.plusMonths(1).isEqual(advanced.getNextRunAt()));
+        assertEquals(0, executor.executeDue());
+    }
+
+    @Test
+    public void failingOrder_RecordsReasonAndRetriesUntilMaxAttempts() {
+        ScheduledTransfer order = scheduledTransferRepository.save(
+            order(BigDecimal.valueOf(5000), null, TransferFrequency.ONCE, OffsetDateTime.now().minusMinutes(1)));
+
+        executor.executeDue();
+
+        ScheduledTransfer failed = scheduledTransferRepository.findById(order.getId()).orElseThrow();
+        assertEquals(ScheduledTransferStatus.ACTIVE, failed.getStatus());
+        assertEquals(1, failed.getAttempts());
+        assertTrue(failed.getLastError().startsWith("Insufficient funds"));
+        assertTrue(failed.getNextRunAt().isAfter(OffsetDateTime.now()));
+
+        // Последняя попытка
+        jdbcTemplate.update("UPDATE scheduled_transfers SET attempts = 2, next_run_at = now() - interval '1 second'");
+        executor.executeDue();
+
+        assertEquals(ScheduledTransferStatus.FAILED, scheduledTransferRepository.findById(order.getId()).orElseThrow().getStatus());
+        assertEquals(0, new BigDecimal("1000").compareTo(balance(fromCard)));
+    }
+
+    @Test
+    @WithMockUser(username = "standingOrderUser", roles = {"USER"})
+    public void createScheduledTransfer_InvalidRequest_ThrowsIllegalArgument() {
+        ScheduledTransferCreationDto withoutFrequency = creation(BigDecimal.TEN, null, null);
+        ScheduledTransferCreationDto negativeAmount = creation(BigDecimal.valueOf(-10), null, "ONCE");
+        ScheduledTransferCreationDto negativePercent = creation(null, BigDecimal.valueOf(-5), "MONTHLY");
+        ScheduledTransferCreationDto sameCard = creation(BigDecimal.TEN, null, "ONCE");
+        sameCard.setToCardId(fromCard.getId());
+
+        assertEquals("Frequency must be set", assertThrows(IllegalArgumentException.class,
+            () -> scheduledTransferService.createScheduledTransfer(withoutFrequency)).getMessage());
+        assertEquals("Amount must be positive", assertThrows(IllegalArgumentException.class,
+            () -> scheduledTransferService.createScheduledTransfer(negativeAmount)).getMessage());
+        assertEquals("Percent must be positive", assertThrows(IllegalArgumentException.class,
+            () -> scheduledTransferService.createScheduledTransfer(negativePercent)).getMessage());
+        assertEquals("Source and target cards must differ", assertThrows(IllegalArgumentException.class,
+            () -> scheduledTransferService.createScheduledTransfer(sameCard)).getMessage());
+        assertEquals(0, scheduledTransferRepository.count());
+    }
+
+    @Test
+    public void manyOrdersOnSharedCards_AllExecutedInOneRun() {
+        List<Card> sources = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            sources.add(cardRepository.save(newCard(BigDecimal.valueOf(1000))));
+        }
+        OffsetDateTime due = OffsetDateTime.now().minusMinutes(1);
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            rows.add(new Object[] {user.getId(), sources.get(i % sources.size()).getId(), toCard.getId(), due, due});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO scheduled_transfers (owner_id, from_card_id, to_card_id, amount, frequency, "
+            + "start_at, next_run_at, status) VALUES (?, ?, ?, 1, 'DAILY', ?, ?, 'ACTIVE')", rows);
+
+        assertEquals(2000, executor.executeDue());
+
+        assertEquals(0, new BigDecimal("2000").compareTo(balance(toCard)));
+        for (Card source : sources) {
+            assertEquals(0, new BigDecimal("900").compareTo(balance(source)));
+        }
+        assertEquals(0, jdbcTemplate.queryForObject(
+            "SELECT count(*) FROM scheduled_transfers WHERE next_run_at <= now() OR occurrences <> 1", Integer.class));
+    }
+
+    private BigDecimal balance(Card card) {
+        return cardRepository.findById(card.getId()).orElseThrow().getBalance();
+    }
+
+    private ScheduledTransfer order(BigDecimal amount, BigDecimal percent, TransferFrequency frequency, OffsetDateTime startAt) {
+        ScheduledTransfer order = new ScheduledTransfer();
+        order.setOwnerId(user.getId());
+        order.setFromCardId(fromCard.getId());
+        order.setToCardId(toCard.getId());
+        order.setAmount(amount);
+        order.setPercent(percent);
+        order.setFrequency(frequency);
+        order.setStartAt(startAt);
+        order.setNextRunAt(startAt);
+        return order;
+    }
+
+    private Card newCard(BigDecimal balance) {
+        Card card = new Card();
+        card.setNumber("1234567890123456");
+        card.setOwner(user);
+        card.setExpirationDate(LocalDate.now().plusYears(2));
+        card.setBalance(balance);
+        return card;
+    }
+
+    private ScheduledTransferCreationDto creation(BigDecimal amount, BigDecimal percent, String frequency) {
+        ScheduledTransferCreationDto creationDto = new ScheduledTransferCreationDto();
+        creationDto.setFromCardId(fromCard.getId());
+        creationDto.setToCardId(toCard.getId());
+        creationDto.setAmount(amount);
+        creationDto.setPercent(percent);
+        creationDto.setFrequency(frequency);
+        return creationDto;
+    }
+
+    private void clean() {
+        jdbcTemplate.update("DELETE FROM scheduled_transfers");
+        cardRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+}
@@ -0,0 +1,147 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.dto.TransferDto;
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.CardStatus;
+import com.example.bankcards.entity.Role;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.RoleRepository;
+import com.example.bankcards.repository.UserRepository;
+import com.example.bankcards.support.SqlStatementCounter;
+import com.example.bankcards.util.CardUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.security.test.context.support.WithMockUser;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Set;
+
+/**
+ * Guards against N+1 regressions: exact number of SQL statements per service call
+ */
+@SpringBootTest
+public class ServiceQueryCountIntegrationTest {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private CardService cardService;
+
+    @Autowired
+    private TransferService transferService;
+
+    @Autowired
+    private CardRepository cardRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @MockBean
+    private CardUtil cardUtil;
+
+    private Card fromCard;
+    private Card toCard;
+
+    @BeforeEach
+    public void setUp() {
+        cardRepository.deleteAll();
+        userRepository.deleteAll();
+
+        Role role = roleRepository.findByName("USER").orElseThrow();
+        User user = new User();
+        user.setUsername("testUser");
+        user.setPassword("encodedPassword");
+        user.setEmail("test@example.com");
+        user.setRoles(Set.of(role));
+        userRepository.save(user);
+
+        fromCard = cardRepository.save(newCard(user, BigDecimal.valueOf(1000)));
+        toCard = cardRepository.save(newCard(user, BigDecimal.ZERO));
+
+        SqlStatementCounter.install(dataSource);
+        SqlStatementCounter.reset();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        cardRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    @WithMockUser(username = "testUser", roles = {"USER"})
+    public void getCardById_ThreeSelects() {
+        cardService.getCardById(fromCard.getId());
+
+        // card, user, user roles
+        SqlStatementCounter.assertCounts(3, 0, 0, 0);
+    }
+
+    @Test
+    @WithMockUser(username = "testUser", roles = {"USER"})
+    public void getCards_FirstPartialPage_SkipsCountQuery() {
+        cardService.getCards(0, 10, null);
+
+        // user, user roles, cards page
+        SqlStatementCounter.assertCounts(3, 0, 0, 0);
+    }
+
+    @Test
+    @WithMockUser(username = "testUser", roles = {"USER"})
+    public void blockCard_OneUpdateOneOutboxInsert() {
+        cardService.blockCard(fromCard.getId());
+
+        SqlStatementCounter.assertCounts(3, 1, 1, 0);
+    }
+
+    @Test
+    @WithMockUser(username = "testUser", roles = {"USER"})
+    public void transfer_ThreeSelectsTwoUpdatesThreeOutboxInsertsOneHistoryInsert() {
+        transferService.transfer(transferDto());
+        SqlStatementCounter.reset();
+
+        transferService.transfer(transferDto());
+
+        // both cards in one SELECT ... FOR UPDATE, user, user roles; both balance updates in one JDBC batch;
+        // two card events and the transfer event in one outbox batch; the history row; limits are checked in memory
+        SqlStatementCounter.assertCounts(3, 4, 2, 0);
+    }
+
+    @Test
+    @WithMockUser(username = "testUser", roles = {"USER"})
+    public void transfer_FirstInPeriod_LoadsLimitUsageOnce() {
+        transferService.transfer(transferDto());
+
+        // daily and monthly usage of the source card in one SELECT
+        SqlStatementCounter.assertCounts(4, 4, 2, 0);
+    }
+
+    private TransferDto transferDto() {
+        TransferDto transferDto = new TransferDto();
+        transferDto.setFromCardId(fromCard.getId());
+        transferDto.setToCardId(toCard.getId());
+        transferDto.setAmount(BigDecimal.valueOf(100));
+        return transferDto;
+    }
+
+    private Card newCard(User owner, BigDecimal balance) {
+        Card card = new Card();
+        card.setNumber("1234567890123456");
+        card.setOwner(owner);
+        card.setExpirationDate(LocalDate.now().plusYears(3));
+        card.setStatus(CardStatus.ACTIVE);
+        card.setBalance(balance);
+        return card;
+    }
+}
@@ -0,0 +1,339 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.dto.SplitTransferDto;
+import com.example.bankcards.dto.SplitTransferResultDto;
+import com.example.bankcards.dto.TransferDto;
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.CardStatus;
+import com.example.bankcards.entity.Role;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.exception.InsufficientFundsException;
+import com.example.bankcards.exception.LimitExceededException;
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.RoleRepository;
+import com.example.bankcards.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Concurrent transfers over a few hot cards, interleaved with block/activate and with failures
+ * injected after the balance UPDATEs have been flushed. Afterwards checks that money is conserved,
+ * no balance is negative, every committed transfer is reflected exactly once and no balance changed
+ * while the card was not ACTIVE. The achieved throughput is logged.
+ * Size with {@code -Dstress.operations=20000 -Dstress.threads=32}.
+ */
+@SpringBootTest
+public class TransferConcurrencyStressTest {
+
+    private static final Logger log = LoggerFactory.getLogger(TransferConcurrencyStressTest.class);
+
+    private static final int CARDS = 4;
+    private static final int OPERATIONS = Integer.getInteger("stress.operations", 2000);
+    private static final int THREADS = Integer.getInteger("stress.threads", 16);
+    private static final long INITIAL_CENTS = 100_000;
+
+    @Autowired
+    private TransferService transferService;
+
+    @Autowired
+    private CardService cardService;
+
+    @Autowired
+    private CardRepository cardRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final List<Long> cardIds = new ArrayList<>();
+    private final Queue<RuntimeException> errors = new ConcurrentLinkedQueue<>();
+
+    @BeforeEach
+    public void setUp() {
+        cardRepository.deleteAll();
+        userRepository.deleteAll();
+
+        Role role = roleRepository.findByName("USER").orElseThrow();
+        User user = new User();
+        user.setUsername("stressUser");
+        user.setPassword("encodedPassword");
+        user.setEmail("stress@example.com");
+        user.setRoles(Set.of(role));
+        userRepository.save(user);
+
+        cardIds.clear();
+        errors.clear();
+        for (int i = 0; i < CARDS; i++) {
+            Card card = new Card();
+            card.setNumber("encrypted-" + i);
+            card.setOwner(user);
+            card.setExpirationDate(LocalDate.now().plusYears(2));
+            card.setBalance(BigDecimal.valueOf(INITIAL_CENTS, 2));
+            cardIds.add(cardRepository.save(card).getId());
+        }
+
+        // Фиксирует любое изменение баланса карты, которая на момент UPDATE не ACTIVE
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS stress_violations (card_id bigint, status varchar(50), old_balance numeric, new_balance numeric)");
+        jdbcTemplate.execute("TRUNCATE stress_violations");
+        jdbcTemplate.execute("""
+            CREATE OR REPLACE FUNCTION stress_guard() RETURNS trigger AS $$
+            BEGIN
+                IF OLD.status <> 'ACTIVE' AND NEW.balance <> OLD.balance THEN
+                    INSERT INTO stress_violations VALUES (OLD.id, OLD.status, OLD.balance, NEW.balance);
+                END IF;
+                RETURN NEW;
+            END;
+            $$ LANGUAGE plpgsql""");
+        jdbcTemplate.execute("DROP TRIGGER IF EXISTS trg_stress_guard ON cards");
+        jdbcTemplate.execute("CREATE TRIGGER trg_stress_guard BEFORE UPDATE ON cards FOR EACH ROW EXECUTE FUNCTION stress_guard()");
+    }
+
+    @AfterEach
+    public void tearDown() {
+        jdbcTemplate.execute("DROP TRIGGER IF EXISTS trg_stress_guard ON cards");
+        jdbcTemplate.execute("DROP FUNCTION IF EXISTS stress_guard()");
+        jdbcTemplate.execute("DROP TABLE IF EXISTS stress_violations");
+        cardRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    public void concurrentTransfersWithBlockingAndInjectedFailures_PreserveInvariants() throws Exception {
+        AtomicLongArray committedDelta = new AtomicLongArray(CARDS);
+        Map<String, LongAdder> outcomes = new ConcurrentHashMap<>();
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        long started = System.nanoTime();
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < OPERATIONS; i++) {
+                futures.add(executor.submit(() -> {
+                    String outcome = runRandomOperation(transactionTemplate, committedDelta);
+                    outcomes.computeIfAbsent(outcome, k -> new LongAdder()).increment();
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        double seconds = (System.nanoTime() - started) / 1e9;
+        long transfers = count(outcomes, "transfer");
+        log.info("Stress: {} operations in {} s ({} ops/s, {} committed transfers/s), outcomes {}",
+            OPERATIONS, String.format("%.1f", seconds), Math.round(OPERATIONS / seconds),
+            Math.round(transfers / seconds), outcomes);
+
+        assertEquals(0, count(outcomes, "error"), () -> "unexpected errors: " + outcomes + describeErrors());
+        assertTrue(transfers > 0, "no transfer committed: " + outcomes);
+
+        BigDecimal total = BigDecimal.ZERO;
+        for (int i = 0; i < CARDS; i++) {
+            Card card = cardRepository.findById(cardIds.get(i)).orElseThrow();
+            assertTrue(card.getBalance().signum() >= 0, "negative balance on card " + card.getId());
+            assertEquals(BigDecimal.valueOf(INITIAL_CENTS + committedDelta.get(i), 2), card.getBalance(),
+                "card " + card.getId() + " does not match committed transfers");
+            total = total.add(card.getBalance());
+        }
+        assertEquals(BigDecimal.valueOf(INITIAL_CENTS * CARDS, 2), total);
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT count(*) FROM stress_violations", Integer.class),
+            "balance changed on a non-ACTIVE card");
+    }
+
+    @Test
+    public void concurrentSplitAndSingleTransfers_OnOverlappingCards_DoNotDeadlock() throws Exception {
+        AtomicLongArray committedDelta = new AtomicLongArray(CARDS);
+        Map<String, LongAdder> outcomes = new ConcurrentHashMap<>();
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < OPERATIONS / 2; i++) {
+                futures.add(executor.submit(() -> {
+                    String outcome = runRandomSplitOrTransfer(committedDelta);
+                    outcomes.computeIfAbsent(outcome, k -> new LongAdder()).increment();
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        // Взаимоблокировка или таймаут блокировки попали бы в error
+        assertEquals(0, count(outcomes, "error"), () -> "unexpected errors: " + outcomes + describeErrors());
+        assertTrue(count(outcomes, "split") > 0, "no split transfer committed: " + outcomes);
+        BigDecimal total = BigDecimal.ZERO;
+        for (int i = 0; i < CARDS; i++) {
+            Card card = cardRepository.findById(cardIds.get(i)).orElseThrow();
+            assertEquals(BigDecimal.valueOf(INITIAL_CENTS + committedDelta.get(i), 2), card.getBalance(),
+                "card " + card.getId() + " does not match committed transfers");
+            total = total.add(card.getBalance());
+        }
+        assertEquals(BigDecimal.valueOf(INITIAL_CENTS * CARDS, 2), total);
+    }
+
+    // Источники перечисляются в случайном порядке: без блокировки по id такие разбиения взаимоблокировались бы
+    private String runRandomSplitOrTransfer(AtomicLongArray committedDelta) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int to = random.nextInt(CARDS);
+        long cents = random.nextLong(1, 80_000);
+        authenticate("stressUser", "ROLE_USER");
+        try {
+            if (random.nextBoolean()) {
+                int from = (to + 1 + random.nextInt(CARDS - 1)) % CARDS;
+                TransferDto dto = new TransferDto();
+                dto.setFromCardId(cardIds.get(from));
+                dto.setToCardId(cardIds.get(to));
+                dto.setAmount(BigDecimal.valueOf(cents, 2));
+                transferService.transfer(dto);
+                committedDelta.addAndGet(from, -cents);
+                committedDelta.addAndGet(to, cents);
+                return "transfer";
+            }
+            List<Long> sources = new ArrayList<>(cardIds);
+            sources.remove(to);
+            Collections.shuffle(sources, random);
+            SplitTransferDto dto = new SplitTransferDto();
+            dto.setToCardId(cardIds.get(to));
+            dto.setAmount(BigDecimal.valueOf(cents, 2));
+            dto.setFromCardIds(sources);
+            SplitTransferResultDto result = transferService.splitTransfer(dto);
+            for (SplitTransferResultDto.Leg leg : result.getLegs()) {
+                committedDelta.addAndGet(cardIds.indexOf(leg.getFromCardId()), -leg.getAmount().movePointRight(2).longValueExact());
+            }
+            committedDelta.addAndGet(to, cents);
+            return "split";
+        } catch (InsufficientFundsException e) {
+            return "insufficient_funds";
+        } catch (LimitExceededException e) {
+            return "limit_exceeded";
+        } catch (RuntimeException e) {
+            errors.add(e);
+            return "error";
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    private String runRandomOperation(TransactionTemplate transactionTemplate, AtomicLongArray committedDelta) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int roll = random.nextInt(100);
+        try {
+            if (roll < 5) {
+                authenticate("stressUser", "ROLE_USER");
+                cardService.blockCard(cardIds.get(random.nextInt(CARDS)));
+                return "block";
+            }
+            if (roll < 15) {
+                authenticate("stressAdmin", "ROLE_ADMIN");
+                cardService.activateCard(cardIds.get(random.nextInt(CARDS)));
+                return "activate";
+            }
+            int from = random.nextInt(CARDS);
+            int to = (from + 1 + random.nextInt(CARDS - 1)) % CARDS;
+            long cents = random.nextLong(1, 30_000);
+            TransferDto dto = new TransferDto();
+            dto.setFromCardId(cardIds.get(from));
+            dto.setToCardId(cardIds.get(to));
+            dto.setAmount(BigDecimal.valueOf(cents, 2));
+            authenticate("stressUser", "ROLE_USER");
+            if (roll < 25) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> {
+                        transferService.transfer(dto);
+                        entityManager.flush();
+                        throw new InjectedFailure();
+                    });
+                } catch (InjectedFailure e) {
+                    return "injected_rollback";
+                }
+            }
+            transferService.transfer(dto);
+            committedDelta.addAndGet(from, -cents);
+            committedDelta.addAndGet(to, cents);
+            return "transfer";
+        } catch (InsufficientFundsException e) {
+            return "insufficient_funds";
+        } catch (IllegalStateException e) {
+            return "inactive";
+        } catch (RuntimeException e) {
+            errors.add(e);
+            return "error";
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    /** First few unexpected exceptions with their origin, for the failure message. */
+    private String describeErrors() {
+        StringBuilder description = new StringBuilder();
+        errors.stream().limit(5).forEach(e -> {
+            description.append(System.lineSeparator()).append(e);
+            StackTraceElement[] trace = e.getStackTrace();
+            if (trace.length > 0) {
+                description.append(" at ").append(trace[0]);
+            }
+        });
+        return description.toString();
+    }
+
+    private static void authenticate(String username, String role) {
+        Authentication auth = new UsernamePasswordAuthenticationToken(username, null, AuthorityUtils.createAuthorityList(role));
+        SecurityContextHolder.getContext().setAuthentication(auth);
+    }
+
+    private static long count(Map<String, LongAdder> outcomes, String outcome) {
+        LongAdder adder = outcomes.get(outcome);
+        return adder == null ? 0 : adder.sum();
+    }
+
+    private static class InjectedFailure extends RuntimeException {
+    }
+}
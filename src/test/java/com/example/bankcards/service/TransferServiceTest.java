@@ -1,24 +1,39 @@
 package com.example.bankcards.service;
 
+import com.example.bankcards.dto.SplitTransferDto;
+import com.example.bankcards.dto.SplitTransferResultDto;
 import com.example.bankcards.dto.TransferDto;
 import com.example.bankcards.entity.Card;
 import com.example.bankcards.entity.CardStatus;
 import com.example.bankcards.entity.User;
 import com.example.bankcards.exception.InsufficientFundsException;
+import com.example.bankcards.exception.LimitExceededException;
+import com.example.bankcards.exception.TransferRejectedException;
+import com.example.bankcards.limits.CardLimits;
+import com.example.bankcards.outbox.TransferCompletedEvent;
 import com.example.bankcards.repository.CardRepository;
 import com.example.bankcards.repository.UserRepository;
+import com.example.bankcards.screening.TransferAttempt;
+import com.example.bankcards.screening.TransferScreening;
+import com.example.bankcards.stream.CardChangedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
 
 import java.math.BigDecimal;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -33,12 +48,24 @@ public class TransferServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private CardLimits cardLimits;
+
+    @Mock
+    private TransferScreening transferScreening;
+
     @Mock
     private SecurityContext securityContext;
 
     @Mock
     private Authentication authentication;
 
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     @InjectMocks
     private TransferService transferService;
 
@@ -65,9 +92,10 @@ public class TransferServiceTest {
         toCard.setBalance(BigDecimal.ZERO);
 
         SecurityContextHolder.setContext(securityContext);
-        when(securityContext.getAuthentication()).thenReturn(authentication);
-        when(authentication.getName()).thenReturn("testUser");
-        when(userRepository.findByUsername("testUser")).thenReturn(Optional.of(user));
+        // Не каждый тест доходит до текущего пользователя: перевод на ту же карту отклоняется раньше
+        lenient().when(securityContext.getAuthentication()).thenReturn(authentication);
+        lenient().when(authentication.getName()).thenReturn("testUser");
+        lenient().when(userRepository.findByUsername("testUser")).thenReturn(Optional.of(user));
     }
 
     @Test
@@ -77,8 +105,7 @@ public class TransferServiceTest {
         transferDto.setToCardId(2L);
         transferDto.setAmount(BigDecimal.valueOf(500));
 
-        when(cardRepository.findById(1L)).thenReturn(Optional.of(fromCard));
-        when(cardRepository.findById(2L)).thenReturn(Optional.of(toCard));
+        when(cardRepository.findAndLockByIdIn(List.of(1L, 2L))).thenReturn(List.of(fromCard, toCard));
         when(cardRepository.saveAll(Arrays.asList(fromCard, toCard))).thenReturn(Arrays.asList(fromCard, toCard));
 
         transferService.transfer(transferDto);
@@ -86,6 +113,9 @@ public class TransferServiceTest {
         assertEquals(BigDecimal.valueOf(500), fromCard.getBalance());
         assertEquals(BigDecimal.valueOf(500), toCard.getBalance());
         verify(cardRepository).saveAll(Arrays.asList(fromCard, toCard));
+        verify(eventPublisher, times(2)).publishEvent(any(CardChangedEvent.class));
+        verify(eventPublisher).publishEvent(new TransferCompletedEvent(1L, 2L, 1L, BigDecimal.valueOf(500)));
+        assertEquals(1, meterRegistry.get("bank.transfer").tag("outcome", "success").timer().count());
     }
 
     @Test
@@ -95,11 +125,12 @@ public class TransferServiceTest {
         transferDto.setToCardId(2L);
         transferDto.setAmount(BigDecimal.valueOf(2000));
 
-        when(cardRepository.findById(1L)).thenReturn(Optional.of(fromCard));
-        when(cardRepository.findById(2L)).thenReturn(Optional.of(toCard));
+        when(cardRepository.findAndLockByIdIn(List.of(1L, 2L))).thenReturn(List.of(fromCard, toCard));
 
         assertThrows(InsufficientFundsException.class, () -> transferService.transfer(transferDto));
         verify(cardRepository, never()).saveAll(any());
+        verifyNoInteractions(eventPublisher);
+        assertEquals(1, meterRegistry.get("bank.transfer").tag("outcome", "insufficient_funds").timer().count());
     }
 
     @Test
@@ -110,13 +141,24 @@ public class TransferServiceTest {
         transferDto.setToCardId(2L);
         transferDto.setAmount(BigDecimal.valueOf(500));
 
-        when(cardRepository.findById(1L)).thenReturn(Optional.of(fromCard));
-        when(cardRepository.findById(2L)).thenReturn(Optional.of(toCard));
+        when(cardRepository.findAndLockByIdIn(List.of(1L, 2L))).thenReturn(List.of(fromCard, toCard));
 
         assertThrows(IllegalStateException.class, () -> transferService.transfer(transferDto));
         verify(cardRepository, never()).saveAll(any());
     }
 
+    @Test
+    public void transfer_SameCard_ThrowsExceptionBeforeLocking() {
+        TransferDto transferDto = new TransferDto();
+        transferDto.setFromCardId(1L);
+        transferDto.setToCardId(1L);
+        transferDto.setAmount(BigDecimal.valueOf(500));
+
+        assertThrows(IllegalArgumentException.class, () -> transferService.transfer(transferDto));
+        verify(cardRepository, never()).findAndLockByIdIn(any());
+        verify(cardRepository, never()).saveAll(any());
+    }
+
     @Test
     public void transfer_NonOwnerCard_ThrowsException() {
         User otherUser = new User();
@@ -128,10 +170,122 @@ public class TransferServiceTest {
         transferDto.setToCardId(2L);
         transferDto.setAmount(BigDecimal.valueOf(500));
 
-        when(cardRepository.findById(1L)).thenReturn(Optional.of(fromCard));
-        when(cardRepository.findById(2L)).thenReturn(Optional.of(toCard));
+        when(cardRepository.findAndLockByIdIn(List.of(1L, 2L))).thenReturn(List.of(fromCard, toCard));
 
         assertThrows(IllegalArgumentException.class, () -> transferService.transfer(transferDto));
         verify(cardRepository, never()).saveAll(any());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void transfer_LimitExceeded_ThrowsException() {
+        TransferDto transferDto = new TransferDto();
+        transferDto.setFromCardId(1L);
+        transferDto.setToCardId(2L);
+        transferDto.setAmount(BigDecimal.valueOf(500));
+
+        when(cardRepository.findAndLockByIdIn(List.of(1L, 2L))).thenReturn(List.of(fromCard, toCard));
+        doThrow(new LimitExceededException("Daily limit exceeded for card with id: 1"))
+            .when(cardLimits).reserve(fromCard, BigDecimal.valueOf(500));
+
+        assertThrows(LimitExceededException.class, () -> transferService.transfer(transferDto));
+        assertEquals(BigDecimal.valueOf(1000), fromCard.getBalance());
+        verify(cardRepository, never()).saveAll(any());
+        verifyNoInteractions(eventPublisher);
+        assertEquals(1, meterRegistry.get("bank.transfer").tag("outcome", "limit_exceeded").timer().count());
+    }
+
+    @Test
+    public void transfer_RejectedByScreening_ThrowsExceptionBeforeReservingLimit() {
+        TransferDto transferDto = new TransferDto();
+        transferDto.setFromCardId(1L);
+        transferDto.setToCardId(2L);
+        transferDto.setAmount(BigDecimal.valueOf(900));
+
+        when(cardRepository.findAndLockByIdIn(List.of(1L, 2L))).thenReturn(List.of(fromCard, toCard));
+        doThrow(new TransferRejectedException("Transfer would drain more than 80% of the card balance within 10 minutes"))
+            .when(transferScreening).screen(argThat(attempt -> attempt.sources().equals(
+                List.of(new TransferAttempt.Source(1L, BigDecimal.valueOf(900), BigDecimal.valueOf(1000))))));
+
+        assertThrows(TransferRejectedException.class, () -> transferService.transfer(transferDto));
+        verifyNoInteractions(cardLimits);
+        verify(cardRepository, never()).saveAll(any());
+        assertEquals(1, meterRegistry.get("bank.transfer").tag("outcome", "rejected").timer().count());
+    }
+
+    @Test
+    public void splitTransfer_ListedSources_DrainedInGivenOrder() {
+        Card smallCard = card(3L, 300);
+        SplitTransferDto splitDto = split(500, List.of(3L, 1L), null);
+
+        when(cardRepository.findAndLockByIdIn(List.of(3L, 1L, 2L))).thenReturn(List.of(fromCard, toCard, smallCard));
+
+        SplitTransferResultDto result = transferService.splitTransfer(splitDto);
+
+        assertEquals(List.of(new SplitTransferResultDto.Leg(3L, BigDecimal.valueOf(300)),
+            new SplitTransferResultDto.Leg(1L, BigDecimal.valueOf(200))), result.getLegs());
+        assertEquals(BigDecimal.ZERO, smallCard.getBalance());
+        assertEquals(BigDecimal.valueOf(800), fromCard.getBalance());
+        assertEquals(BigDecimal.valueOf(500), toCard.getBalance());
+        // Разбиение проверяется одной попыткой со всеми картами-источниками
+        verify(transferScreening).screen(argThat(attempt -> attempt.amount().equals(BigDecimal.valueOf(500))
+            && attempt.sources().equals(List.of(
+                new TransferAttempt.Source(3L, BigDecimal.valueOf(300), BigDecimal.valueOf(300)),
+                new TransferAttempt.Source(1L, BigDecimal.valueOf(200), BigDecimal.valueOf(1000))))));
+        verify(cardLimits).reserve(smallCard, BigDecimal.valueOf(300));
+        verify(cardLimits).reserve(fromCard, BigDecimal.valueOf(200));
+        verify(eventPublisher).publishEvent(new TransferCompletedEvent(3L, 2L, 1L, BigDecimal.valueOf(300)));
+        verify(eventPublisher).publishEvent(new TransferCompletedEvent(1L, 2L, 1L, BigDecimal.valueOf(200)));
+        assertEquals(1, meterRegistry.get("bank.transfer.split").tag("outcome", "success").timer().count());
+    }
+
+    @Test
+    public void splitTransfer_Automatic_SmallestFirstSkipsInactiveCards() {
+        Card smallCard = card(3L, 300);
+        Card blockedCard = card(4L, 100);
+        blockedCard.setStatus(CardStatus.BLOCKED);
+        SplitTransferDto splitDto = split(400, null, "smallest_first");
+
+        when(cardRepository.findSplitSourcesSmallestFirst(1L, 2L, Limit.of(TransferService.MAX_SPLIT_SOURCES)))
+            .thenReturn(List.of(4L, 3L, 1L));
+        when(cardRepository.findAndLockByIdIn(List.of(4L, 3L, 1L, 2L)))
+            .thenReturn(List.of(fromCard, toCard, smallCard, blockedCard));
+
+        SplitTransferResultDto result = transferService.splitTransfer(splitDto);
+
+        assertEquals(List.of(new SplitTransferResultDto.Leg(3L, BigDecimal.valueOf(300)),
+            new SplitTransferResultDto.Leg(1L, BigDecimal.valueOf(100))), result.getLegs());
+        assertEquals(BigDecimal.valueOf(100), blockedCard.getBalance());
+    }
+
+    @Test
+    public void splitTransfer_NotEnoughOnAllSources_ThrowsException() {
+        Card smallCard = card(3L, 300);
+        SplitTransferDto splitDto = split(1500, List.of(1L, 3L), "largest_first");
+
+        when(cardRepository.findAndLockByIdIn(List.of(1L, 3L, 2L))).thenReturn(List.of(fromCard, toCard, smallCard));
+
+        assertThrows(InsufficientFundsException.class, () -> transferService.splitTransfer(splitDto));
+        assertEquals(BigDecimal.valueOf(1000), fromCard.getBalance());
+        verifyNoInteractions(cardLimits);
+        verify(cardRepository, never()).saveAll(any());
+        assertEquals(1, meterRegistry.get("bank.transfer.split").tag("outcome", "insufficient_funds").timer().count());
+    }
+
+    private Card card(Long id, long balance) {
+        Card card = new Card();
+        card.setId(id);
+        card.setOwner(user);
+        card.setStatus(CardStatus.ACTIVE);
+        card.setBalance(BigDecimal.valueOf(balance));
+        return card;
+    }
+
+    private static SplitTransferDto split(long amount, List<Long> fromCardIds, String strategy) {
+        SplitTransferDto splitDto = new SplitTransferDto();
+        splitDto.setToCardId(2L);
+        splitDto.setAmount(BigDecimal.valueOf(amount));
+        splitDto.setFromCardIds(fromCardIds);
+        splitDto.setStrategy(strategy);
+        return splitDto;
+    }
+}
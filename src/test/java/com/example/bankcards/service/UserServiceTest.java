@@ -1,17 +1,22 @@
 package com.example.bankcards.service;
 
+import com.example.bankcards.cache.LocalCacheManager;
+import com.example.bankcards.config.LocalCacheProperties;
 import com.example.bankcards.dto.UserCreationDto;
 import com.example.bankcards.dto.UserDto;
 import com.example.bankcards.entity.Role;
 import com.example.bankcards.entity.User;
 import com.example.bankcards.repository.RoleRepository;
 import com.example.bankcards.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
@@ -34,6 +39,9 @@ public class UserServiceTest {
     @Mock
     private PasswordEncoder passwordEncoder;
 
+    @Spy
+    private LocalCacheManager cacheManager = new LocalCacheManager(new LocalCacheProperties(), new SimpleMeterRegistry());
+
     @InjectMocks
     private UserService userService;
 
@@ -65,6 +73,17 @@ public class UserServiceTest {
         verify(userRepository).findByUsername("testUser");
     }
 
+    @Test
+    public void loadUserByUsername_SecondCall_ServedFromCache() {
+        when(userRepository.findByUsername("testUser")).thenReturn(Optional.of(user));
+
+        userService.loadUserByUsername("testUser");
+        User result = userService.loadUserByUsername("testUser");
+
+        assertSame(user, result);
+        verify(userRepository, times(1)).findByUsername("testUser");
+    }
+
     @Test
     public void loadUserByUsername_NotFound_ThrowsException() {
         when(userRepository.findByUsername("testUser")).thenReturn(Optional.empty());
@@ -74,15 +93,26 @@ public class UserServiceTest {
     }
 
     @Test
-    public void getAllUsers_Success_ReturnsUserDtos() {
-        when(userRepository.findAll()).thenReturn(List.of(user));
+    public void getUsers_Success_ReturnsUserDtos() {
+        when(userRepository.findIdsAfter(0L, Limit.of(50))).thenReturn(List.of(1L));
+        when(userRepository.findWithRolesByIdInOrderByIdAsc(List.of(1L))).thenReturn(List.of(user));
 
-        List<UserDto> result = userService.getAllUsers();
+        List<UserDto> result = userService.getUsers(0L, 50);
 
         assertEquals(1, result.size());
         assertEquals("testUser", result.get(0).getUsername());
         assertEquals(Set.of("USER"), result.get(0).getRoles());
-        verify(userRepository).findAll();
+        verify(userRepository, never()).findAll();
+    }
+
+    @Test
+    public void getUsers_LastPage_SkipsRolesQuery() {
+        when(userRepository.findIdsAfter(1L, Limit.of(UserService.MAX_PAGE_SIZE))).thenReturn(List.of());
+
+        List<UserDto> result = userService.getUsers(1L, 1_000_000);
+
+        assertTrue(result.isEmpty());
+        verify(userRepository, never()).findWithRolesByIdInOrderByIdAsc(any());
     }
 
     @Test
@@ -0,0 +1,81 @@
+package com.example.bankcards.support;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.QueryType;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.listener.QueryUtils;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Test helper counting SQL statements executed by the current thread, by statement type.
+ * Every entry of a JDBC batch counts as a separate statement.
+ *
+ * <pre>
+ * SqlStatementCounter.install(dataSource);
+ * SqlStatementCounter.reset();
+ * cardService.getCardById(id);
+ * SqlStatementCounter.assertCounts(3, 0, 0, 0);
+ * </pre>
+ */
+public final class SqlStatementCounter implements QueryExecutionListener {
+
+    private static final SqlStatementCounter INSTANCE = new SqlStatementCounter();
+    private static final ThreadLocal<Map<QueryType, Integer>> COUNTS =
+        ThreadLocal.withInitial(() -> new EnumMap<>(QueryType.class));
+
+    private SqlStatementCounter() {
+    }
+    /**
+     * Registers the counter on the datasource-proxy wrapped inside the given DataSource (idempotent)
+     *
+     * @param dataSource application DataSource bean
+     */
+    public static void install(DataSource dataSource) {
+        DataSource current = dataSource;
+        while (current instanceof DelegatingDataSource delegating) {
+            current = delegating.getTargetDataSource();
+        }
+        if (!(current instanceof ProxyDataSource proxy)) {
+            throw new IllegalStateException("DataSource is not wrapped by datasource-proxy: " + dataSource);
+        }
+        if (!proxy.getProxyConfig().getQueryListener().getListeners().contains(INSTANCE)) {
+            proxy.getProxyConfig().getQueryListener().addListener(INSTANCE);
+        }
+    }
+
+    public static void reset() {
+        COUNTS.get().clear();
+    }
+
+    public static int count(QueryType type) {
+        return COUNTS.get().getOrDefault(type, 0);
+    }
+
+    public static void assertCounts(int selects, int inserts, int updates, int deletes) {
+        assertEquals(selects, count(QueryType.SELECT), "SELECT count");
+        assertEquals(inserts, count(QueryType.INSERT), "INSERT count");
+        assertEquals(updates, count(QueryType.UPDATE), "UPDATE count");
+        assertEquals(deletes, count(QueryType.DELETE), "DELETE count");
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        int perQuery = execInfo.isBatch() && queryInfoList.size() == 1 ? execInfo.getBatchSize() : 1;
+        for (QueryInfo queryInfo : queryInfoList) {
+            COUNTS.get().merge(QueryUtils.getQueryType(queryInfo.getQuery()), perQuery, Integer::sum);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.bankcards.util;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CardUtilTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private CardUtil cardUtil;
+
+    @BeforeEach
+    public void setUp() {
+        cardUtil = new CardUtil(meterRegistry);
+        ReflectionTestUtils.setField(cardUtil, "secretKey", "YourSecretKey123");
+    }
+
+    @Test
+    public void mask_RecordsMaskAndNestedDecrypt() {
+        String encrypted = cardUtil.encrypt("1234567890123456");
+
+        assertEquals("**** **** **** 3456", cardUtil.mask(encrypted));
+
+        assertEquals(1, count("encrypt"));
+        assertEquals(1, count("mask"));
+        assertEquals(1, count("decrypt"));
+    }
+
+    private long count(String operation) {
+        return meterRegistry.get("bank.card.crypto").tag("operation", operation).timer().count();
+    }
+}